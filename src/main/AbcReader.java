@@ -0,0 +1,773 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The {@code AbcReader} class reads tunes written in ABC notation into {@link main.sound.BellNote BellNotes}, a
+ * line at a time.
+ *
+ * <p>The header fields {@code L:} (unit note length), {@code M:} (meter) and {@code K:} (key) are used, in the
+ * header and in the tune, as lines or inline as {@code [K:G]}. A header without {@code L:} takes the unit note
+ * length from the meter, as the standard says. Notes take their accidentals from the key, and an
+ * accidental written on a note lasts until the end of the bar. Ties, broken rhythm ({@code >} and {@code <}),
+ * tuplets, chords, where the highest note is played, and repeat bar lines are understood; see
+ * {@link MelodyBuilder}. Anything else that can't be played is left out and counted in a warning instead of stopping
+ * the import:</p>
+ * <ul>
+ *     <li>Tunes after the first, and voices after the first.</li>
+ *     <li>Chord notes under the highest one, grace notes and decorations.</li>
+ *     <li>First and second endings, which are played straight through.</li>
+ *     <li>Notes shorter than an eighth note that round away, and symbols that aren't understood.</li>
+ * </ul>
+ *
+ * <p>Upper case {@code C} is middle C, MIDI key 60, and lower case {@code c} is the octave above it.</p>
+ */
+public class AbcReader {
+    /** Extension of the files read as ABC. */
+    public static final String EXTENSION = ".abc";
+
+    /** Semitones above C of each note letter from A to G. */
+    private static final int[] STEP_SEMITONES = {9, 11, 0, 2, 4, 5, 7};
+
+    /** Note letters in the order sharps are added to a key signature. */
+    private static final String SHARP_ORDER = "FCGDAEB";
+
+    /** Note letters in the order flats are added to a key signature. */
+    private static final String FLAT_ORDER = "BEADGCF";
+
+    /** Sharps in the major key of each note letter from A to G. */
+    private static final int[] MAJOR_SHARPS = {3, 5, 0, 2, 4, -1, 1};
+
+    /** Modes, by their first three letters, and the sharps they have compared to the major key of their tonic. */
+    private static final String[] MODES = {"maj", "ion", "mix", "dor", "aeo", "min", "phr", "loc", "lyd"};
+
+    /** Sharps of each entry of {@link #MODES} compared to the major key. */
+    private static final int[] MODE_SHARPS = {0, 0, -1, -2, -3, -3, -4, -5, 1};
+
+    /** MIDI key of middle C, written {@code C}. */
+    private static final int MIDDLE_C = 60;
+
+    /**
+     * Constructs a new AbcReader object. Currently empty constructor
+     */
+    public AbcReader() {
+        //empty
+    }
+
+    /**
+     * Returns whether the given file name is an ABC file, by its extension.
+     *
+     * @param fileName The file name.
+     * @return {@code true} if the file is read as ABC.
+     */
+    public static boolean isAbc(String fileName) {
+        return fileName.toLowerCase().endsWith(EXTENSION);
+    }
+
+    /**
+     * Reads the first tune of the given ABC file, shifting every note by the given number of semitones.
+     *
+     * @param file      The file to read.
+     * @param transpose Number of semitones to shift every note by.
+     * @param mode      Whether to stop at the first problem or report every problem.
+     * @return The {@link ParseResult} holding the notes, any problems found, and warnings about what was left out.
+     */
+    public ParseResult read(Path file, int transpose, ParseMode mode) {
+        final ParseResult result = new ParseResult(file.getFileName().toString());
+        final Tune tune = new Tune(new MelodyBuilder(result, transpose), mode, result);
+
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null && !tune.stopped) {
+                result.countLine();
+                tune.readLine(line, result.getLines());
+            }
+        } catch (NoSuchFileException e) {
+            result.addDiagnostic(0, 0, "File not found at " + file);
+        } catch (IOException e) {
+            result.addDiagnostic(0, 0, "Unable to read file: " + e.getMessage());
+        }
+        tune.finish();
+
+        if (result.getNotes().isEmpty() && result.getDiagnostics().isEmpty()) {
+            result.addDiagnostic(0, 0, "No notes found in file");
+        }
+        return result;
+    }
+
+    /**
+     * The state of the tune being read.
+     */
+    private static class Tune {
+        /** Builds the notes of the melody. */
+        private final MelodyBuilder melody;
+
+        /** Whether to stop at the first problem. */
+        private final ParseMode mode;
+
+        /** Result the notes and warnings are added to. */
+        private final ParseResult result;
+
+        /** Whether the header is being read, it ends at the {@code K:} field. */
+        private boolean header = true;
+
+        /** Whether the first tune has ended, or a problem was found and the import should stop. */
+        private boolean stopped = false;
+
+        /** Length of the unit note, in whole notes. */
+        private double unit = 1.0 / 8;
+
+        /** Whether the unit note length was given with {@code L:}, rather than taken from the meter. */
+        private boolean unitGiven = false;
+
+        /** Length of a bar, in whole notes, used by multi-bar rests. */
+        private double bar = 1.0;
+
+        /** Semitones the key signature raises each note letter from A to G by. */
+        private final int[] key = new int[7];
+
+        /** Semitones written accidentals raise each MIDI key by until the end of the bar, or
+         * {@link Integer#MIN_VALUE} when there isn't one. */
+        private final int[] barAccidentals = new int[128];
+
+        /** Voice being read, the first one named. */
+        private String voice = null;
+
+        /** Whether lines of another voice are being skipped. */
+        private boolean otherVoice = false;
+
+        /** Time, in whole notes, the next note starts at. */
+        private double position = 0;
+
+        /** Whether a note is waiting to be added, in case a tie or broken rhythm changes it. */
+        private boolean pending = false;
+
+        /** MIDI key of the waiting note. */
+        private int pendingKey;
+
+        /** Time, in whole notes, the waiting note starts at. */
+        private double pendingFrom;
+
+        /** Time, in whole notes, the waiting note ends at. */
+        private double pendingTo;
+
+        /** Line of the waiting note. */
+        private int pendingLine;
+
+        /** Column of the waiting note. */
+        private int pendingColumn;
+
+        /** Whether the waiting note is tied to the next one. */
+        private boolean tied = false;
+
+        /** Length of the last note or rest, in whole notes, changed by broken rhythm. */
+        private double lastLength = 0;
+
+        /** Factor the next note's length is multiplied by, after broken rhythm. */
+        private double nextFactor = 1;
+
+        /** Factor the lengths of notes in a tuplet are multiplied by. */
+        private double tupletFactor = 1;
+
+        /** Number of notes left in the tuplet. */
+        private int tupletLeft = 0;
+
+        /** Whether the {@code X:} field starting the first tune has been read. */
+        private boolean numbered = false;
+
+        /** Whether there are tunes after the first, which are left out. */
+        private boolean otherTunes = false;
+
+        /** Number of lines of other voices, left out. */
+        private int otherVoiceLines = 0;
+
+        /** Number of chord notes under a higher one, left out. */
+        private int underneath = 0;
+
+        /** Number of grace notes, left out. */
+        private int graces = 0;
+
+        /** Number of decorations, left out. */
+        private int decorations = 0;
+
+        /** Number of first and second endings played straight through. */
+        private int endings = 0;
+
+        /** Number of symbols that aren't understood, left out. */
+        private int unknown = 0;
+
+        /** Line of the first symbol that isn't understood. */
+        private int unknownLine = 0;
+
+        /** Column of the first symbol that isn't understood. */
+        private int unknownColumn = 0;
+
+        /** The line being read. */
+        private String text;
+
+        /** Index of the next character of the line. */
+        private int at;
+
+        /** Number of the line being read. */
+        private int lineNum;
+
+        /**
+         * Constructs a new {@code Tune}.
+         *
+         * @param melody Builds the notes of the melody.
+         * @param mode   Whether to stop at the first problem.
+         * @param result Result the notes and warnings are added to.
+         */
+        private Tune(MelodyBuilder melody, ParseMode mode, ParseResult result) {
+            this.melody = melody;
+            this.mode = mode;
+            this.result = result;
+            Arrays.fill(barAccidentals, Integer.MIN_VALUE);
+        }
+
+        /**
+         * Reads one line of the file.
+         *
+         * @param line    The line.
+         * @param lineNum Number of the line.
+         */
+        private void readLine(String line, int lineNum) {
+            final int comment = line.indexOf('%');
+            this.text = comment >= 0 ? line.substring(0, comment) : line;
+            this.lineNum = lineNum;
+            this.at = 0;
+
+            // Fields are a letter and a colon at the start of the line
+            if (text.length() >= 2 && text.charAt(1) == ':' && Character.isLetter(text.charAt(0))) {
+                readField(text.charAt(0), text.substring(2).strip());
+                return;
+            }
+            if (header || otherVoice) {
+                otherVoiceLines += otherVoice && !text.isBlank() ? 1 : 0;
+                return;
+            }
+            readMusic();
+        }
+
+        /**
+         * Reads a field, such as {@code K:G}.
+         *
+         * @param name  Letter of the field.
+         * @param value Value of the field.
+         */
+        private void readField(char name, String value) {
+            switch (name) {
+                case 'X':
+                    if (numbered || !header) {
+                        // A second tune starts, only the first is read
+                        otherTunes = true;
+                        stopped = true;
+                    }
+                    numbered = true;
+                    break;
+                case 'L':
+                    readUnit(value);
+                    break;
+                case 'M':
+                    readMeter(value);
+                    break;
+                case 'K':
+                    readKey(value);
+                    header = false;
+                    break;
+                case 'V':
+                    final String id = value.split("\\s+", 2)[0];
+                    if (voice == null) {
+                        voice = id;
+                    }
+                    otherVoice = !voice.equals(id);
+                    break;
+                default:
+                    // Titles, composers, lyrics, tempo and the rest don't change the notes
+                    break;
+            }
+        }
+
+        /**
+         * Reads the music of a line of the tune.
+         */
+        private void readMusic() {
+            while (at < text.length() && !stopped) {
+                final int column = at + 1;
+                final char c = text.charAt(at);
+
+                if (c == '^' || c == '_' || c == '=' || isNoteLetter(c)) {
+                    readNote(column);
+                } else if (c == 'z' || c == 'x') {
+                    at++;
+                    addRest(readLength() * unit);
+                } else if (c == 'Z' || c == 'X') {
+                    at++;
+                    final int bars = readNumber(1);
+                    addRest(bars * bar);
+                } else if (c == '|' || c == ':') {
+                    readBar(column);
+                } else if (c == '[') {
+                    readBracket(column);
+                } else if (c == '-') {
+                    tied = pending;
+                    at++;
+                } else if (c == '>' || c == '<') {
+                    readBrokenRhythm();
+                } else if (c == '(') {
+                    at++;
+                    if (at < text.length() && Character.isDigit(text.charAt(at))) {
+                        final int notes = readNumber(3);
+                        tupletLeft = notes;
+                        // (3 is three notes in the time of two, (2 and (4 are in the time of three
+                        final int into = notes == 2 || notes == 4 || notes == 8 ? 3 : 2;
+                        tupletFactor = (double) into / notes;
+                    }
+                } else if (c == '{') {
+                    // Grace notes
+                    final int end = text.indexOf('}', at);
+                    at = end < 0 ? text.length() : end + 1;
+                    graces++;
+                } else if (c == '!' || c == '+') {
+                    // Long decorations, such as !trill!
+                    final int end = text.indexOf(c, at + 1);
+                    at = end < 0 ? text.length() : end + 1;
+                    decorations++;
+                } else if (c == '"') {
+                    // Chord symbols and annotations
+                    final int end = text.indexOf('"', at + 1);
+                    at = end < 0 ? text.length() : end + 1;
+                } else if (".~HLMOPSTuv".indexOf(c) >= 0) {
+                    decorations++;
+                    at++;
+                } else if (Character.isWhitespace(c) || c == ')' || c == '`' || c == '\\' || c == 'y') {
+                    at++;
+                } else {
+                    if (unknown++ == 0) {
+                        unknownLine = lineNum;
+                        unknownColumn = column;
+                    }
+                    at++;
+                }
+            }
+        }
+
+        /**
+         * Reads a note, with its accidental, octave and length.
+         *
+         * @param column Column the note starts at.
+         */
+        private void readNote(int column) {
+            final int key = readPitch();
+            if (key < 0) {
+                return;
+            }
+            addNote(key, readLength() * unit, column);
+        }
+
+        /**
+         * Reads the pitch of a note: its accidental, letter and octave marks.
+         *
+         * @return The MIDI key, or -1 if there is no note letter.
+         */
+        private int readPitch() {
+            int accidental = Integer.MIN_VALUE;
+            while (at < text.length() && "^_=".indexOf(text.charAt(at)) >= 0) {
+                final char c = text.charAt(at++);
+                accidental = (accidental == Integer.MIN_VALUE ? 0 : accidental) + (c == '^' ? 1 : c == '_' ? -1 : 0);
+            }
+            if (at >= text.length() || !isNoteLetter(text.charAt(at))) {
+                if (unknown++ == 0) {
+                    unknownLine = lineNum;
+                    unknownColumn = at + 1;
+                }
+                return -1;
+            }
+
+            final char letter = text.charAt(at++);
+            final int step = Character.toUpperCase(letter) - 'A';
+            int natural = MIDDLE_C + STEP_SEMITONES[step] + (Character.isLowerCase(letter) ? 12 : 0);
+            while (at < text.length() && (text.charAt(at) == '\'' || text.charAt(at) == ',')) {
+                natural += text.charAt(at++) == '\'' ? 12 : -12;
+            }
+            natural = Math.max(0, Math.min(127, natural));
+
+            // A written accidental lasts until the end of the bar, otherwise the key signature applies
+            if (accidental != Integer.MIN_VALUE) {
+                barAccidentals[natural] = accidental;
+                return natural + accidental;
+            }
+            if (barAccidentals[natural] != Integer.MIN_VALUE) {
+                return natural + barAccidentals[natural];
+            }
+            return natural + key[step];
+        }
+
+        /**
+         * Reads the length written after a note or rest, such as {@code 2}, {@code /}, {@code 3/2} or {@code //}.
+         *
+         * @return The length in unit notes.
+         */
+        private double readLength() {
+            double length = readNumber(1);
+            while (at < text.length() && text.charAt(at) == '/') {
+                at++;
+                if (at < text.length() && Character.isDigit(text.charAt(at))) {
+                    length /= readNumber(2);
+                } else {
+                    length /= 2;
+                }
+            }
+            return length;
+        }
+
+        /**
+         * Reads a whole number, if there is one.
+         *
+         * @param fallback Value to use if there isn't one.
+         * @return The number.
+         */
+        private int readNumber(int fallback) {
+            final int start = at;
+            while (at < text.length() && Character.isDigit(text.charAt(at)) && at - start < 6) {
+                at++;
+            }
+            return at > start ? Integer.parseInt(text.substring(start, at)) : fallback;
+        }
+
+        /**
+         * Reads a bar line, which may start or end a repeat or start an ending.
+         *
+         * @param column Column the bar line starts at.
+         */
+        private void readBar(int column) {
+            int closing = 0;
+            while (at < text.length() && text.charAt(at) == ':') {
+                closing++;
+                at++;
+            }
+            boolean line = false;
+            while (at < text.length() && (text.charAt(at) == '|' || text.charAt(at) == ']')) {
+                line = true;
+                at++;
+            }
+            int opening = 0;
+            while (at < text.length() && text.charAt(at) == ':') {
+                opening++;
+                at++;
+            }
+            if (!line && closing > 1 && opening == 0) {
+                // :: is a closing and an opening repeat with the bar line left out
+                opening = 1;
+                closing--;
+            }
+            if (at < text.length() && Character.isDigit(text.charAt(at))) {
+                readNumber(1);
+                endings++;
+            }
+            Arrays.fill(barAccidentals, Integer.MIN_VALUE);
+
+            if (closing > 0) {
+                flush();
+                if (!melody.repeat(eighthOf(position), closing, lineNum, column) && mode == ParseMode.FAIL_FAST) {
+                    stopped = true;
+                }
+            }
+            if (opening > 0) {
+                flush();
+                melody.repeatFrom(eighthOf(position));
+            }
+        }
+
+        /**
+         * Reads something starting with {@code [}: a chord, an inline field, a bar line or an ending.
+         *
+         * @param column Column the bracket is at.
+         */
+        private void readBracket(int column) {
+            final int close = text.indexOf(']', at);
+            if (at + 2 < text.length() && Character.isLetter(text.charAt(at + 1)) && text.charAt(at + 2) == ':' &&
+                    close > 0) {
+                readField(text.charAt(at + 1), text.substring(at + 3, close).strip());
+                at = close + 1;
+                return;
+            }
+            if (at + 1 < text.length() && text.charAt(at + 1) == '|') {
+                at++;
+                readBar(column);
+                return;
+            }
+            if (at + 1 < text.length() && Character.isDigit(text.charAt(at + 1))) {
+                at++;
+                readNumber(1);
+                endings++;
+                return;
+            }
+
+            // A chord: the highest note is played, for the length of the first note
+            at++;
+            int top = -1;
+            double length = 0;
+            int notes = 0;
+            while (at < text.length() && text.charAt(at) != ']') {
+                final char c = text.charAt(at);
+                if (c == '^' || c == '_' || c == '=' || isNoteLetter(c)) {
+                    final int key = readPitch();
+                    final double noteLength = readLength();
+                    if (key >= 0) {
+                        top = Math.max(top, key);
+                        length = notes++ == 0 ? noteLength : length;
+                    }
+                } else {
+                    at++;
+                }
+            }
+            at = Math.min(at + 1, text.length());
+            length *= readLength();
+            if (notes > 0) {
+                underneath += notes - 1;
+                addNote(top, length * unit, column);
+            }
+        }
+
+        /**
+         * Reads broken rhythm: {@code >} dots the note before and halves the next, {@code <} does the opposite.
+         */
+        private void readBrokenRhythm() {
+            final char c = text.charAt(at);
+            int count = 0;
+            while (at < text.length() && text.charAt(at) == c) {
+                count++;
+                at++;
+            }
+            final double shorter = Math.pow(0.5, count);
+            final double change = c == '>' ? lastLength * (1 - shorter) : -lastLength * (1 - shorter);
+            if (pending) {
+                pendingTo += change;
+            }
+            position += change;
+            nextFactor = c == '>' ? shorter : 2 - shorter;
+        }
+
+        /**
+         * Adds a note to the tune, or carries the waiting note on if it's tied to this one.
+         *
+         * @param noteKey MIDI key of the note.
+         * @param length  Length of the note in whole notes.
+         * @param column  Column the note starts at.
+         */
+        private void addNote(int noteKey, double length, int column) {
+            length = scale(length);
+            if (tied && pending && noteKey == pendingKey) {
+                pendingTo += length;
+                position += length;
+                tied = false;
+                return;
+            }
+
+            flush();
+            pending = true;
+            pendingKey = noteKey;
+            pendingFrom = position;
+            pendingTo = position + length;
+            pendingLine = lineNum;
+            pendingColumn = column;
+            position += length;
+        }
+
+        /**
+         * Adds a rest to the tune.
+         *
+         * @param length Length of the rest in whole notes.
+         */
+        private void addRest(double length) {
+            flush();
+            position += scale(length);
+        }
+
+        /**
+         * Applies broken rhythm and tuplets to the length of a note or rest, and remembers it for broken rhythm.
+         *
+         * @param length Length as written, in whole notes.
+         * @return Length to play, in whole notes.
+         */
+        private double scale(double length) {
+            length *= nextFactor;
+            nextFactor = 1;
+            if (tupletLeft > 0) {
+                length *= tupletFactor;
+                tupletLeft--;
+            }
+            lastLength = length;
+            return length;
+        }
+
+        /**
+         * Adds the waiting note to the melody.
+         */
+        private void flush() {
+            tied = false;
+            if (!pending) {
+                return;
+            }
+            pending = false;
+            if (!melody.note(pendingKey, eighthOf(pendingFrom), eighthOf(pendingTo), pendingLine, pendingColumn) &&
+                    mode == ParseMode.FAIL_FAST) {
+                stopped = true;
+            }
+        }
+
+        /**
+         * Reads the unit note length, such as {@code 1/8}.
+         *
+         * @param value The value of the field.
+         */
+        private void readUnit(String value) {
+            final double length = fraction(value);
+            if (length > 0) {
+                unit = length;
+                unitGiven = true;
+            } else {
+                result.addDiagnostic(lineNum, 3, "Invalid unit note length '" + value + "'");
+                stopped = mode == ParseMode.FAIL_FAST;
+            }
+        }
+
+        /**
+         * Reads the meter, such as {@code 3/4}, {@code C} or {@code C|}. When the header has no {@code L:} field,
+         * the meter sets the unit note length too, a sixteenth note for meters below 3/4 and an eighth note
+         * otherwise.
+         *
+         * @param value The value of the field.
+         */
+        private void readMeter(String value) {
+            if (value.equals("C") || value.equals("C|") || value.equalsIgnoreCase("none")) {
+                bar = 1.0;
+                return;
+            }
+            final double length = fraction(value);
+            if (length > 0) {
+                bar = length;
+                if (header && !unitGiven) {
+                    unit = length < 0.75 ? 1.0 / 16 : 1.0 / 8;
+                }
+            } else {
+                result.addDiagnostic(lineNum, 3, "Invalid meter '" + value + "'");
+                stopped = mode == ParseMode.FAIL_FAST;
+            }
+        }
+
+        /**
+         * Reads the key, such as {@code G}, {@code Bbm} or {@code F#mix}, and works out its key signature.
+         *
+         * @param value The value of the field.
+         */
+        private void readKey(String value) {
+            Arrays.fill(key, 0);
+            if (value.isEmpty() || value.toLowerCase().startsWith("none")) {
+                return;
+            }
+            final char tonic = Character.toUpperCase(value.charAt(0));
+            if (tonic < 'A' || tonic > 'G') {
+                result.addWarning(lineNum, 3, "Unknown key '" + value + "', playing it in C");
+                return;
+            }
+
+            int i = 1;
+            int sharps = MAJOR_SHARPS[tonic - 'A'];
+            if (i < value.length() && (value.charAt(i) == '#' || value.charAt(i) == 'b')) {
+                sharps += value.charAt(i) == '#' ? 7 : -7;
+                i++;
+            }
+            final String rest = value.substring(i).strip().toLowerCase();
+            final String modeName = rest.startsWith("m") && (rest.length() == 1 || !Character.isLetter(rest.charAt(1)))
+                    ? "min" : rest.length() >= 3 ? rest.substring(0, 3) : "maj";
+            final int mode = Arrays.asList(MODES).indexOf(modeName);
+            sharps += mode >= 0 ? MODE_SHARPS[mode] : 0;
+
+            for (int s = 0; s < Math.min(7, Math.abs(sharps)); s++) {
+                final char letter = (sharps > 0 ? SHARP_ORDER : FLAT_ORDER).charAt(s);
+                key[letter - 'A'] = sharps > 0 ? 1 : -1;
+            }
+        }
+
+        /**
+         * Adds the last note and the warnings once the file has been read.
+         */
+        private void finish() {
+            flush();
+            if (otherTunes) {
+                result.addWarning(0, 0, "Left out the tunes after the first");
+            }
+            warn(otherVoiceLines, "lines of voices after the first");
+            warn(underneath, "notes played under a higher note");
+            warn(graces, "groups of grace notes");
+            warn(decorations, "decorations");
+            warn(melody.getTooShort(), "notes shorter than an eighth note");
+            if (endings > 0) {
+                result.addWarning(0, 0, "Played " + endings + " first and second endings straight through");
+            }
+            if (unknown > 0) {
+                result.addWarning(unknownLine, unknownColumn, "Left out " + unknown + " symbols that aren't understood");
+            }
+        }
+
+        /**
+         * Adds a warning about things that were left out, if there were any.
+         *
+         * @param count Number of things left out.
+         * @param what  What was left out.
+         */
+        private void warn(int count, String what) {
+            if (count > 0) {
+                result.addWarning(0, 0, "Left out " + count + " " + what);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the character is a note letter, upper or lower case A to G.
+     *
+     * @param c The character.
+     * @return {@code true} if it's a note letter.
+     */
+    private static boolean isNoteLetter(char c) {
+        return (c >= 'A' && c <= 'G') || (c >= 'a' && c <= 'g');
+    }
+
+    /**
+     * Parses a fraction such as {@code 1/8}.
+     *
+     * @param value The text to parse.
+     * @return The fraction, or 0 if the text isn't one.
+     */
+    private static double fraction(String value) {
+        final String[] parts = value.split("\\s+", 2)[0].split("/");
+        try {
+            if (parts.length == 1) {
+                return Double.parseDouble(parts[0]);
+            }
+            if (parts.length == 2) {
+                return Double.parseDouble(parts[0]) / Double.parseDouble(parts[1]);
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the eighth note nearest to the given time.
+     *
+     * @param whole Time in whole notes.
+     * @return Number of eighth notes from the start of the song.
+     */
+    private static long eighthOf(double whole) {
+        return Math.round(whole * 8);
+    }
+}
@@ -0,0 +1,315 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.LineSink;
+import main.sound.Note;
+import main.sound.NoteLength;
+import main.sound.NoteRenderer;
+import main.sound.OutputFormat;
+import main.sound.RingBufferSink;
+import main.sound.SampleSink;
+import main.sound.StreamSink;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * The {@code ChoirNode} class plays some of the bells of a song in a process of its own, usually on another host
+ * with its own speakers, for a {@link DistributedChoir} it connects to over TCP.
+ *
+ * <p>The conductor and the node talk in lines of text:</p>
+ * <ul>
+ *     <li>{@code HELLO}: Sent by the node once it's connected.</li>
+ *     <li>{@code SYNC t0}, answered with {@code TIME t0 t1 t2}: One exchange of the clock synchronization, see
+ *     {@link ClockSync}. The node answers with the times, on its own clock, it received the request and answered.</li>
+ *     <li>{@code BELLS bell...}: The bells the node rings.</li>
+ *     <li>{@code START nanos rate}: The time, on the node's clock, the song starts at, and the sample rate the
+ *     conductor counts samples at.</li>
+ *     <li>{@code NOTE sample semitone length}: Ring a note this many samples, at the conductor's rate, after the start
+ *     of the song.</li>
+ *     <li>{@code END}, answered with {@code DONE notes late}: The song is over, once the node has played out.</li>
+ * </ul>
+ *
+ * <p>The node starts writing at the agreed start time and counts samples from there. Before each note it writes
+ * silence up to the sample the note starts at, so its notes fall on the same timeline as every other node's, and
+ * the choir stays together as long as the sound cards' clocks agree. Drift between sound cards over a long song
+ * isn't corrected. A note written more than {@link #LATE_TOLERANCE_MS} after the time it should have sounded is
+ * counted as late.</p>
+ */
+public class ChoirNode {
+    /** Port the conductor waits for nodes on, unless another is given. */
+    public static final int DEFAULT_PORT = 5151;
+
+    /** Message sent by the node once it's connected. */
+    static final String HELLO = "HELLO";
+
+    /** Message asking for the node's clock. */
+    static final String SYNC = "SYNC";
+
+    /** Message answering a {@link #SYNC} with the node's clock. */
+    static final String TIME = "TIME";
+
+    /** Message giving the bells the node rings. */
+    static final String BELLS = "BELLS";
+
+    /** Message giving the time the song starts at. */
+    static final String START = "START";
+
+    /** Message giving a note to play. */
+    static final String NOTE = "NOTE";
+
+    /** Message ending the song. */
+    static final String END = "END";
+
+    /** Message answering an {@link #END} once the node has played out. */
+    static final String DONE = "DONE";
+
+    /** Number of times to try connecting, in case the node is started before the conductor. */
+    private static final int CONNECT_ATTEMPTS = 20;
+
+    /** Time, in milliseconds, to wait between attempts to connect. */
+    private static final int CONNECT_RETRY_MS = 500;
+
+    /** Time, in milliseconds, a note can be written after it should have sounded without counting as late. */
+    private static final int LATE_TOLERANCE_MS = 10;
+
+    /** Silence written before notes. */
+    private static final byte[] SILENCE = new byte[4096];
+
+    /** Connection to the conductor. */
+    private final Socket socket;
+
+    /** Where the node's bells are played. */
+    private final SampleSink sink;
+
+    /** Buffer each note is rendered into. */
+    private final byte[] buffer = new byte[NoteRenderer.MAX_NOTE_BYTES];
+
+    /** Time, from {@link System#nanoTime()}, the song starts at. */
+    private long startNanos;
+
+    /** Sample rate the conductor counts the samples notes start at in. */
+    private int songRate;
+
+    /** Number of samples written since the start of the song. */
+    private long written = 0;
+
+    /** Number of notes played. */
+    private int notesPlayed = 0;
+
+    /** Number of notes written after the time they should have sounded. */
+    private int late = 0;
+
+    /**
+     * Constructs a new {@code ChoirNode}.
+     *
+     * @param socket Connection to the conductor.
+     * @param sink   Where the node's bells are played, opened once the song starts.
+     */
+    public ChoirNode(Socket socket, SampleSink sink) {
+        this.socket = socket;
+        this.sink = sink;
+    }
+
+    /**
+     * The main method connects to a conductor playing with {@code --nodes} and plays the bells it's given. The first
+     * argument is the conductor's address, {@code HOST:PORT} or {@code HOST} for the {@link #DEFAULT_PORT}.
+     *
+     * <p>Options:</p>
+     * <ul>
+     *     <li>{@code --out=FILE}: Write the node's audio, raw 8 bit samples at the legacy rate, to a file instead
+     *     of playing it. Used to check the timeline of several nodes on one machine.</li>
+     * </ul>
+     *
+     * @param args The conductor's address and any options.
+     */
+    public static void main(String[] args) {
+        String address = null;
+        String outFile = null;
+        for (String arg : args) {
+            if (arg.startsWith("--out=")) {
+                outFile = arg.substring("--out=".length());
+            } else if (arg.startsWith("--")) {
+                System.err.println("ChoirNode.main Error: Unknown option " + arg);
+                System.exit(1);
+            } else {
+                address = arg;
+            }
+        }
+        if (address == null) {
+            System.err.println("ChoirNode.main Error: No conductor address provided, expected HOST:PORT.");
+            System.exit(1);
+        }
+
+        final int colon = address.lastIndexOf(':');
+        final String host = colon >= 0 ? address.substring(0, colon) : address;
+        final int port;
+        try {
+            port = colon >= 0 ? Integer.parseInt(address.substring(colon + 1)) : DEFAULT_PORT;
+        } catch (NumberFormatException e) {
+            System.err.println("ChoirNode.main Error: Invalid port given in " + address);
+            System.exit(1);
+            return;
+        }
+
+        // Files keep the legacy format, a device plays in the format it prefers
+        final AudioFormat af = outFile != null ? OutputFormat.legacy() : OutputFormat.negotiate();
+        OutputFormat.select(af);
+
+        try (Socket socket = connect(host, port)) {
+            final SampleSink sink = outFile != null
+                    ? new StreamSink(new BufferedOutputStream(Files.newOutputStream(Paths.get(outFile))))
+                    : new RingBufferSink(new LineSink(af));
+            final ChoirNode node = new ChoirNode(socket, sink);
+            try {
+                node.run();
+            } finally {
+                sink.close();
+            }
+            System.out.println("Played " + node.getNotesPlayed() + " notes, " + node.getLate() + " late");
+        } catch (IOException | LineUnavailableException e) {
+            System.err.println("ChoirNode.main Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Connects to the conductor, trying again for a while if it isn't listening yet.
+     *
+     * @param host Host of the conductor.
+     * @param port Port of the conductor.
+     * @return The connection.
+     * @throws IOException If the conductor can't be reached.
+     */
+    private static Socket connect(String host, int port) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                final Socket socket = new Socket(host, port);
+                socket.setTcpNoDelay(true);
+                return socket;
+            } catch (ConnectException e) {
+                if (attempt == CONNECT_ATTEMPTS) {
+                    throw new IOException("Unable to reach the conductor at " + host + ":" + port, e);
+                }
+                try {
+                    Thread.sleep(CONNECT_RETRY_MS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Greets the conductor and follows its messages until the song is over.
+     *
+     * @throws IOException              If the connection fails or a message isn't understood.
+     * @throws LineUnavailableException If the sink can't be opened.
+     */
+    public void run() throws IOException, LineUnavailableException {
+        final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.US_ASCII));
+        final PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+        out.println(HELLO);
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            final long received = System.nanoTime();
+            final String[] message = line.split(" ");
+            try {
+                switch (message[0]) {
+                    case SYNC:
+                        out.println(TIME + " " + message[1] + " " + received + " " + System.nanoTime());
+                        break;
+                    case BELLS:
+                        System.out.println("Ringing " + line.substring(BELLS.length()).trim());
+                        break;
+                    case START:
+                        startNanos = Long.parseLong(message[1]);
+                        songRate = Integer.parseInt(message[2]);
+                        sink.open();
+                        break;
+                    case NOTE:
+                        play(Long.parseLong(message[1]),
+                                BellNote.ofSemitone(Integer.parseInt(message[2]), NoteLength.valueOf(message[3])));
+                        break;
+                    case END:
+                        sink.drain();
+                        out.println(DONE + " " + notesPlayed + " " + late);
+                        return;
+                    default:
+                        throw new IOException("Unknown message from the conductor: " + line);
+                }
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Invalid message from the conductor: " + line, e);
+            }
+        }
+        throw new IOException("The conductor hung up before the song was over");
+    }
+
+    /**
+     * Writes silence up to the sample the note starts at, then the note. The first write waits for the start of
+     * the song.
+     *
+     * @param sample Sample the note starts at, counted from the start of the song at the conductor's rate.
+     * @param note   The note.
+     */
+    private void play(long sample, BellNote note) {
+        if (written == 0) {
+            long wait;
+            while ((wait = startNanos - System.nanoTime()) > 0) {
+                try {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+
+        // Each note is placed from the start of the song, so a node at another rate is never off by more than a sample
+        final long at = sample * Note.SAMPLE_RATE / songRate;
+        final int sampleBytes = Note.ENCODING.getBytes();
+        while (written < at) {
+            final int samples = (int) Math.min(SILENCE.length / sampleBytes, at - written);
+            sink.write(SILENCE, 0, samples * sampleBytes);
+            written += samples;
+        }
+
+        final long dueNanos = at * 1_000_000_000L / Note.SAMPLE_RATE;
+        if (System.nanoTime() - startNanos > dueNanos + LATE_TOLERANCE_MS * 1_000_000L) {
+            late++;
+        }
+
+        // The rest after the note is left out, the silence before the next note takes its place
+        NoteRenderer.render(note, buffer, 0);
+        sink.write(buffer, 0, NoteRenderer.toneBytes(note.getLength()));
+        written += NoteRenderer.toneSamples(note.getLength());
+        notesPlayed++;
+    }
+
+    /**
+     * Returns the number of notes played.
+     *
+     * @return The number of notes.
+     */
+    public int getNotesPlayed() {
+        return notesPlayed;
+    }
+
+    /**
+     * Returns the number of notes written after the time they should have sounded.
+     *
+     * @return The number of late notes.
+     */
+    public int getLate() {
+        return late;
+    }
+}
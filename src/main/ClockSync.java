@@ -0,0 +1,89 @@
+package main;
+
+/**
+ * The {@code ClockSync} class estimates how far the clock of a {@link ChoirNode} is from the conductor's clock,
+ * the way NTP does, so notes can be given to the node at times it understands.
+ *
+ * <p>Each exchange is four timestamps: the conductor sends a request at {@code t0} on its clock, the node receives
+ * it at {@code t1} and answers at {@code t2} on its clock, and the conductor receives the answer at {@code t3}.
+ * The round trip is the time spent on the network, {@code (t3 - t0) - (t2 - t1)}, and the offset of the node's
+ * clock is {@code ((t1 - t0) + (t2 - t3)) / 2}, which is exact when the trip there takes as long as the trip back.
+ * The error of an estimate is at most half its round trip, so of several exchanges the one with the shortest round
+ * trip is kept.</p>
+ */
+public class ClockSync {
+    /** Offset of the remote clock from the local one, in nanoseconds, of the best exchange so far. */
+    private long offsetNanos = 0;
+
+    /** Round trip, in nanoseconds, of the best exchange so far, or {@link Long#MAX_VALUE} before any. */
+    private long roundTripNanos = Long.MAX_VALUE;
+
+    /** Number of exchanges added. */
+    private int samples = 0;
+
+    /**
+     * Constructs a new {@code ClockSync} with no exchanges.
+     */
+    public ClockSync() {
+        //empty
+    }
+
+    /**
+     * Adds an exchange, keeping its estimate if its round trip is the shortest so far.
+     *
+     * @param t0 Time the request was sent, on the local clock.
+     * @param t1 Time the request was received, on the remote clock.
+     * @param t2 Time the answer was sent, on the remote clock.
+     * @param t3 Time the answer was received, on the local clock.
+     */
+    public void add(long t0, long t1, long t2, long t3) {
+        samples++;
+        final long roundTrip = Math.max(0, (t3 - t0) - (t2 - t1));
+        if (roundTrip < roundTripNanos) {
+            roundTripNanos = roundTrip;
+            offsetNanos = ((t1 - t0) + (t2 - t3)) / 2;
+        }
+    }
+
+    /**
+     * Returns the time on the remote clock matching the given time on the local clock.
+     *
+     * @param localNanos Time on the local clock, in nanoseconds.
+     * @return Time on the remote clock, in nanoseconds.
+     * @throws IllegalStateException If no exchange has been added.
+     */
+    public long toRemote(long localNanos) {
+        if (samples == 0) {
+            throw new IllegalStateException("The clock hasn't been synchronized yet");
+        }
+        return localNanos + offsetNanos;
+    }
+
+    /**
+     * Returns the offset of the remote clock from the local one, in nanoseconds.
+     *
+     * @return The offset, positive if the remote clock is ahead.
+     */
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    /**
+     * Returns the round trip of the exchange the offset comes from, in nanoseconds. The offset is off by at most
+     * half of it.
+     *
+     * @return The round trip, or {@link Long#MAX_VALUE} before any exchange.
+     */
+    public long getRoundTripNanos() {
+        return roundTripNanos;
+    }
+
+    /**
+     * Returns the number of exchanges added.
+     *
+     * @return The number of exchanges.
+     */
+    public int getSamples() {
+        return samples;
+    }
+}
@@ -1,14 +1,42 @@
 package main;
 
 import main.sound.BellNote;
+import main.sound.ChannelLayout;
+import main.sound.Clock;
+import main.sound.LatencyProfile;
+import main.sound.LineSink;
+import main.sound.LosslessCodec;
+import main.sound.MixerSource;
 import main.sound.Note;
-import main.sound.NoteLength;
+import main.sound.NoteRenderer;
+import main.sound.OutputFormat;
+import main.sound.RenderCache;
+import main.sound.RingBufferSink;
+import main.sound.SampleSink;
+import main.sound.SharedMixer;
+import main.sound.SongMetadata;
+import main.sound.SongRenderer;
+import main.sound.TimingIndex;
+import main.sound.VirtualClock;
+import main.sound.VirtualSink;
 
 import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.SourceDataLine;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@code Conductor} class is responsible for coordinating the playback of a song
@@ -16,9 +44,13 @@ import java.util.*;
  * to a corresponding {@link main.Member} and ensures proper synchronization to maintain
  * the song's timing.
  *
- * <p>The conductor uses a {@link SourceDataLine} for audio output and uses a dedicated
+ * <p>The conductor writes audio to a {@link SampleSink}, which is usually a {@link LineSink} behind a
+ * {@link RingBufferSink}, so members only copy their notes into the ring and a single writer thread does the
+ * blocking writes to the device. The conductor uses a dedicated
  * thread to control the playback sequence. It also handles the initialization of members,
  * playback of notes, and cleanup of resources once the song is complete.</p>
+ *
+ * <p>Several conductors can play at once by each writing to a {@link MixerSource} of one {@link SharedMixer}.</p>
  */
 public class Conductor implements Runnable {
     /**
@@ -27,14 +59,32 @@ public class Conductor implements Runnable {
      */
     private final int SONG_ALLOTTED_TIME_BUFFER_MULTIPLIER = 2;
 
-    /** Map that keeps track of what {@link main.Member} plays what {@link main.sound.BellNote}. */
-    private final Map<Note, Member> members = new HashMap<>();
+    /**
+     * Map that keeps track of what {@link main.Member} rings what bell, keyed by {@link BellNote#getBell()}. A member
+     * can ring several bells, so the same member can be mapped to more than one bell.
+     */
+    private final Map<String, Member> members;
+
+    /** List of every {@link main.Member} in the choir, each member appears once. */
+    private final List<Member> choir;
 
-    /** List of {@link main.sound.Note notes} in the song that should be played. */
+    /** List of {@link main.sound.Note notes} in the song that should be played, empty when playing live. */
     private final List<BellNote> song;
 
-    /** The {@code SourceDataLine} to write audio bytes to. */
-    private SourceDataLine line;
+    /** Where notes come from when playing live, or {@code null} when playing a song. */
+    private final LiveInput live;
+
+    /** Max number of members in the choir, or 0 for one member per bell. */
+    private final int maxMembers;
+
+    /** The {@link SampleSink} to write audio bytes to. */
+    private final SampleSink sink;
+
+    /** Where the conductor and its members read the time from. */
+    private final Clock clock;
+
+    /** What's known about the song before it plays, {@code null} when playing live. */
+    private final SongMetadata metadata;
 
     /** The thread that will control the tempo of the song. */
     private final Thread thread;
@@ -42,78 +92,693 @@ public class Conductor implements Runnable {
     /** Keep track of how many members are in the choir. */
     private int numMembers = 0;
 
+    /** Number of notes members are given ahead of the note being played, within {@link Member#MAX_QUEUED_NOTES}. */
+    private static final int FEED_AHEAD_NOTES = 64;
+
+    /** Number of ring slots used when playing live, kept small since everything in the ring adds to the latency. */
+    private static final int LIVE_RING_SLOTS = 2;
+
+    /** Where each note of the song starts, used to jump around in it, {@code null} when playing live. */
+    private final TimingIndex index;
+
+    /** Index of the note being played. */
+    private volatile int position = 0;
+
+    /** Index of the note to jump to before the next note, or -1 to carry on. */
+    private final AtomicInteger seekTo = new AtomicInteger(-1);
+
+    /** Lock guarding {@link #paused}, waited on while paused. */
+    private final Object pauseLock = new Object();
+
+    /** Whether the song is paused. */
+    private boolean paused = false;
+
+    /** Bytes allocated by the conductor and its members while playing the song, or -1 if unknown. */
+    private volatile long allocatedBytes = -1;
+
     /**
-     * Constructs a new Conductor object.
+     * Constructs a new Conductor object that plays through its own {@link LineSink}, written by the writer thread of a
+     * {@link RingBufferSink}, with one
+     * {@link main.Member} for each note in the song. When the format has more than one channel, the members are
+     * spread around the speakers, see {@link #placeMembers(ChannelLayout, ChannelLayout.Placement)}.
      *
      * @param af   The {@link AudioFormat} to use.
      * @param song The list of {@link main.sound.BellNote BellNotes} to play.
      */
     public Conductor(AudioFormat af, List<BellNote> song) {
+        this(new RingBufferSink(new LineSink(af)), song);
+        placeMembers(ChannelLayout.of(af.getChannels()), ChannelLayout.Placement.MEMBERS);
+    }
+
+    /**
+     * Constructs a new Conductor object that plays through the given {@link SampleSink}, with one
+     * {@link main.Member} for each note in the song.
+     *
+     * @param sink The {@link SampleSink} to write audio bytes to.
+     * @param song The list of {@link main.sound.BellNote BellNotes} to play.
+     */
+    public Conductor(SampleSink sink, List<BellNote> song) {
+        this(sink, song, 0);
+    }
+
+    /**
+     * Constructs a new Conductor object that plays through the given {@link SampleSink}. If {@code maxMembers}
+     * is greater than 0, the song's notes are shared between at most that many {@link main.Member Members}
+     * using a {@link RingerAssigner}, otherwise each note gets its own member.
+     *
+     * @param sink       The {@link SampleSink} to write audio bytes to.
+     * @param song       The list of {@link main.sound.BellNote BellNotes} to play.
+     * @param maxMembers Max number of members in the choir, or 0 for one member per note.
+     */
+    public Conductor(SampleSink sink, List<BellNote> song, int maxMembers) {
+        this(sink, song, maxMembers, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructs a new Conductor object that plays through the given {@link SampleSink} and reads the time from the
+     * given {@link Clock}, used with a {@link main.sound.VirtualSink} and its {@link main.sound.VirtualClock} to play
+     * a song in much less time than it lasts. See {@link #Conductor(SampleSink, List, int)}.
+     *
+     * @param sink       The {@link SampleSink} to write audio bytes to.
+     * @param song       The list of {@link main.sound.BellNote BellNotes} to play.
+     * @param maxMembers Max number of members in the choir, or 0 for one member per note.
+     * @param clock      Where the conductor and its members read the time from.
+     */
+    public Conductor(SampleSink sink, List<BellNote> song, int maxMembers, Clock clock) {
         this.thread = new Thread(this, "Conductor");
         this.song = song;
+        this.live = null;
+        this.sink = sink;
+        this.maxMembers = maxMembers;
+        this.clock = clock;
 
-        setLine(af);
+        // Size the choir for the song up front, members get buffers just big enough for its longest note
+        this.metadata = SongMetadata.of(song);
+        final int memberCount = maxMembers > 0 ? Math.min(maxMembers, metadata.getMemberCount())
+                : metadata.getMemberCount();
+        this.members = new HashMap<>(2 * metadata.getMemberCount());
+        this.choir = new ArrayList<>(memberCount);
 
+        this.index = new TimingIndex(song);
+
+        if (maxMembers > 0) {
+            assignRingers(maxMembers);
+        }
+
+        // Every member is known up front, notes are given to them as the song plays
         for (BellNote b : this.song) {
-            addMember(b);
+            memberFor(b);
         }
     }
 
     /**
-     * The main method reads the given command line argument (If there is one), and attempts to read
-     * the file with the name given and convert it into a list of {@link main.sound.BellNote BellNots}
-     * to play. If successful, it will create a new {@link Conductor} object and use it to play the song.
+     * Constructs a new Conductor object that plays notes from a {@link LiveInput} as they arrive. Members are added
+     * as new bells show up. If {@code maxMembers} is greater than 0, once the choir has that many members each new
+     * bell is given to the member with the fewest bells.
+     *
+     * @param sink       The {@link SampleSink} to write audio bytes to.
+     * @param live       Where the notes come from.
+     * @param maxMembers Max number of members in the choir, or 0 for one member per bell.
+     */
+    public Conductor(SampleSink sink, LiveInput live, int maxMembers) {
+        this.thread = new Thread(this, "Conductor");
+        this.song = new ArrayList<>();
+        this.live = live;
+        this.sink = sink;
+        this.maxMembers = maxMembers;
+        this.clock = Clock.SYSTEM;
+        this.metadata = null;
+        this.members = new HashMap<>();
+        this.choir = new ArrayList<>();
+        this.index = null;
+    }
+
+    /**
+     * The main method reads the given command line arguments (If there are any), and attempts to read
+     * each file with the name given and convert it into a list of {@link main.sound.BellNote BellNots}
+     * to play. If successful, it will create a new {@link Conductor} object for each song and use them to play
+     * the songs. When more than one song is given, the songs are played at the same time through a
+     * {@link SharedMixer}.
      *
-     * @param args Arguments passed, should only be one, the name of the file to read.
+     * <p>A gain can be given for a song by adding it to the end of the file name after an {@code @}, such as
+     * {@code MaryLamb.txt@0.5}. By default, each song's gain is one over the number of songs.</p>
+     *
+     * <p>Options start with {@code --} and can be given anywhere in the arguments:</p>
+     * <ul>
+     *     <li>{@code --ringers=N}: Share each song's bells between at most N members.</li>
+     *     <li>{@code --latency=PROFILE}: How much audio to keep queued in the line, one of {@code default},
+     *     {@code low}, {@code high} or {@code adaptive}. See {@link LatencyProfile}.</li>
+     *     <li>{@code --channels=N}: Play through N channels instead of in mono, 2 for stereo or more for a ring of
+     *     speakers around the room. See {@link ChannelLayout}.</li>
+     *     <li>{@code --placement=BY}: How members are placed among the channels, one of {@code members},
+     *     {@code bells} or {@code channels}. See {@link ChannelLayout.Placement}.</li>
+     *     <li>{@code --transpose=N}: Shift every note of every song by N semitones.</li>
+     *     <li>{@code --live=SOURCE}: Play notes as they arrive instead of reading a song, from {@code stdin},
+     *     {@code pipe:PATH} or {@code socket:PORT}. See {@link LiveInput#open(String, int)}.</li>
+     *     <li>{@code --live-budget=MS}: Latency, in milliseconds, live notes should be played within.</li>
+     *     <li>{@code --fail-fast}: Stop reading a song at its first problem instead of reporting every problem.</li>
+     *     <li>{@code --export=FILE}: Write the song as a Standard MIDI File instead of playing it, see
+     *     {@link MidiWriter}.</li>
+     *     <li>{@code --info}: Print each song's {@link SongMetadata} instead of playing it, taken from the
+     *     {@link RenderCache} when {@code --render-cache} is given.</li>
+     *     <li>{@code --simulate}: Play each song in virtual time against a {@link VirtualSink} instead of a device,
+     *     which takes a fraction of the song's length, and print how long it lasted and whether it ran dry.</li>
+     *     <li>{@code --nodes=N}: Play the song with N {@link ChoirNode ChoirNodes} in other processes or on other
+     *     hosts instead of members sharing this program's line, see {@link DistributedChoir}.</li>
+     *     <li>{@code --node-address=HOST:PORT}: Address nodes connect to, the loopback address and
+     *     {@link ChoirNode#DEFAULT_PORT} unless given. Use {@code 0.0.0.0} to take nodes from other hosts.</li>
+     * </ul>
+     *
+     * @param args Arguments passed, the names of the files to read and any options.
      */
     public static void main(String[] args) {
-        // Validate at least one argument was passed and the first one is not empty/null
-        if (args.length == 0 || Objects.equals(args[0], "")) {
-            System.err.println("Conductor.main Error: No file provided to read song from.");
+        int ringers = 0;
+        LatencyProfile latency = LatencyProfile.DEFAULT;
+        int channels = 1;
+        ChannelLayout.Placement placement = ChannelLayout.Placement.MEMBERS;
+        int transpose = 0;
+        String liveSource = null;
+        int liveBudget = 50;
+        ParseMode parseMode = ParseMode.COLLECT_ALL;
+        String renderFile = null;
+        String renderCache = null;
+        String exportFile = null;
+        int startMeasure = 1;
+        boolean controls = false;
+        boolean simulate = false;
+        boolean info = false;
+        int nodes = 0;
+        String nodeAddress = "127.0.0.1:" + ChoirNode.DEFAULT_PORT;
+
+        // Split the options from the songs
+        final List<String> songArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                songArgs.add(arg);
+                continue;
+            }
+
+            final String[] option = arg.substring(2).split("=", 2);
+            final String value = option.length == 2 ? option[1] : "";
+            try {
+                switch (option[0]) {
+                    case "ringers":
+                        ringers = Integer.parseInt(value);
+                        break;
+                    case "latency":
+                        latency = LatencyProfile.valueOf(value.toUpperCase());
+                        break;
+                    case "channels":
+                        channels = Integer.parseInt(value);
+                        break;
+                    case "placement":
+                        placement = ChannelLayout.Placement.valueOf(value.toUpperCase());
+                        break;
+                    case "transpose":
+                        transpose = Integer.parseInt(value);
+                        break;
+                    case "live":
+                        liveSource = value;
+                        break;
+                    case "live-budget":
+                        liveBudget = Integer.parseInt(value);
+                        break;
+                    case "fail-fast":
+                        parseMode = ParseMode.FAIL_FAST;
+                        break;
+                    case "render":
+                        renderFile = value;
+                        break;
+                    case "render-cache":
+                        renderCache = value;
+                        break;
+                    case "export":
+                        exportFile = value;
+                        break;
+                    case "start-measure":
+                        startMeasure = Integer.parseInt(value);
+                        break;
+                    case "controls":
+                        controls = true;
+                        break;
+                    case "simulate":
+                        simulate = true;
+                        break;
+                    case "info":
+                        info = true;
+                        break;
+                    case "nodes":
+                        nodes = Integer.parseInt(value);
+                        break;
+                    case "node-address":
+                        nodeAddress = value;
+                        break;
+                    default:
+                        System.err.println("Conductor.main Error: Unknown option " + arg);
+                        System.exit(1);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Conductor.main Error: Invalid value given for option " + arg);
+                System.exit(1);
+            }
+        }
+
+        ChannelLayout layout = null;
+        try {
+            layout = ChannelLayout.of(channels);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Conductor.main Error: " + e.getMessage());
             System.exit(1);
         }
 
-        // Validate only one argument was passed
-        if (args.length > 1) {
-            System.err.println("Conductor.main Error: More than one argument provided to program, only 1 argument is accepted (The name of the file to read from).");
+        // Pick the format the device plays natively, before any notes are generated, so they're generated at its
+        // rate. Rendered songs don't go to a device and keep the legacy format, nor do songs played by nodes, which
+        // each pick their own
+        final boolean offline = renderFile != null || exportFile != null || nodes > 0 || simulate || info;
+        if (channels > 1 && (offline || liveSource != null)) {
+            System.err.println("Conductor.main Error: --channels only applies to songs played through this " +
+                    "program's line, not with --live, --render, --export, --simulate, --nodes or --info.");
+            System.exit(1);
+        }
+        final AudioFormat af = offline ? OutputFormat.legacy() : OutputFormat.negotiate(channels);
+        OutputFormat.select(af);
+        if (!offline) {
+            System.out.println("Output format: " + af);
+        }
+
+        if (liveSource != null) {
+            if (startMeasure != 1 || controls) {
+                System.err.println("Conductor.main Error: --start-measure and --controls can't be used with --live.");
+                System.exit(1);
+            }
+            playLive(af, liveSource, liveBudget, ringers);
+            return;
+        }
+
+        // Validate at least one song was passed and the first one is not empty/null
+        if (songArgs.isEmpty() || Objects.equals(songArgs.get(0), "")) {
+            System.err.println("Conductor.main Error: No file provided to read song from.");
             System.exit(1);
         }
 
         final SongReader sr = new SongReader();
 
-        final List<BellNote> song = sr.readFile(args[0]);
+        final List<String> names = new ArrayList<>();
+        final List<List<BellNote>> songs = new ArrayList<>();
+        final float[] gains = new float[songArgs.size()];
+        for (int i = 0; i < songArgs.size(); i++) {
+            String fileName = songArgs.get(i);
+            gains[i] = 1.0f / songArgs.size();
 
-        // Validate song data
-        if (song.isEmpty() || !sr.validateNotes(song)) {
-            System.err.println("Conductor.main Error: No notes or at least one invalid note found in file: " + args[0]);
+            // Split off the gain, if one was given
+            final int gainIndex = fileName.lastIndexOf('@');
+            if (gainIndex > 0) {
+                try {
+                    gains[i] = Float.parseFloat(fileName.substring(gainIndex + 1));
+                } catch (NumberFormatException e) {
+                    System.err.println("Conductor.main Error: Invalid gain given for " + fileName);
+                    System.exit(1);
+                }
+                fileName = fileName.substring(0, gainIndex);
+            }
+
+            // Read and validate song data in one pass
+            final ParseResult result = sr.readSong(fileName, transpose, parseMode);
+            if (!result.isValid()) {
+                System.err.println(result.format());
+                System.err.println("Conductor.main Error: No notes or at least one invalid note found in file: " + fileName);
+                System.exit(1);
+            }
+
+            if (!result.getWarnings().isEmpty()) {
+                System.err.println(result.format());
+            }
+            System.out.println("Successfully loaded " + fileName);
+            names.add(fileName);
+            songs.add(result.getNotes());
+        }
+
+        if (info) {
+            for (int i = 0; i < songs.size(); i++) {
+                printSongInfo(names.get(i), songs.get(i), renderCache);
+            }
+            return;
+        }
+
+        if (exportFile != null) {
+            if (songs.size() != 1) {
+                System.err.println("Conductor.main Error: Only one song can be exported at a time.");
+                System.exit(1);
+            }
+            exportSong(songs.get(0), exportFile);
+            if (renderFile == null) {
+                return;
+            }
+        }
+
+        if (renderFile != null) {
+            if (songs.size() != 1) {
+                System.err.println("Conductor.main Error: Only one song can be rendered at a time.");
+                System.exit(1);
+            }
+            renderSong(songs.get(0), renderFile, renderCache);
+            return;
+        }
+
+        if (simulate) {
+            for (int i = 0; i < songs.size(); i++) {
+                simulateSong(names.get(i), songs.get(i), ringers);
+            }
+            return;
+        }
+
+        if (nodes > 0) {
+            if (songs.size() != 1 || startMeasure != 1 || controls) {
+                System.err.println("Conductor.main Error: --nodes plays a single song from the start, without --controls.");
+                System.exit(1);
+            }
+            playDistributed(songs.get(0), nodes, nodeAddress);
+            return;
+        }
+
+        if (songs.size() == 1) {
+            final LineSink line = new LineSink(af, latency);
+            final Conductor conductor = new Conductor(new RingBufferSink(line), songs.get(0), ringers);
+            conductor.placeMembers(layout, placement);
+            prepareRehearsal(List.of(conductor), startMeasure, controls);
+
+            // Play the song
+            conductor.playSong();
+
+            // Stop the conductor thread (will stop all members as well once song is over)
+            conductor.stop();
+            printLatency(line, latency);
+            return;
+        }
+
+        // Play every song at once, each conductor writes to its own source of the mixer
+        final LineSink line = new LineSink(af, latency);
+        final SharedMixer mixer = new SharedMixer(line, channels);
+        openWithRetry(mixer::start);
+
+        final List<Conductor> conductors = new ArrayList<>();
+        for (int i = 0; i < songs.size(); i++) {
+            final Conductor conductor = new Conductor(mixer.addSource(names.get(i), gains[i]), songs.get(i), ringers);
+            conductor.placeMembers(layout, placement);
+            conductors.add(conductor);
+        }
+        prepareRehearsal(conductors, startMeasure, controls);
+        for (Conductor conductor : conductors) {
+            conductor.playSong();
+        }
+        for (Conductor conductor : conductors) {
+            conductor.stop();
+        }
+
+        mixer.stop();
+        printLatency(line, latency);
+    }
+
+    /**
+     * Prints how often the line ran dry and how much audio it ended up keeping queued, if it was played with
+     * {@link LatencyProfile#ADAPTIVE}, since the amount queued changes as it plays.
+     *
+     * @param line    The line the songs were played through.
+     * @param latency The latency profile the line was played with.
+     */
+    private static void printLatency(LineSink line, LatencyProfile latency) {
+        if (latency == LatencyProfile.ADAPTIVE) {
+            System.out.println("Ran dry " + line.getUnderruns() + " times, ended with " + line.getTargetMs() +
+                    "ms of audio queued.");
+        }
+    }
+
+    /**
+     * Moves each conductor to the measure to start at, and if asked, starts reading rehearsal commands from
+     * standard input, one per line, applied to every conductor:
+     * <ul>
+     *     <li>{@code p}: Pause.</li>
+     *     <li>{@code r}: Resume.</li>
+     *     <li>{@code m N}: Jump to measure N.</li>
+     *     <li>{@code t S}: Jump to S seconds into the song.</li>
+     *     <li>{@code w}: Print where each song is.</li>
+     * </ul>
+     *
+     * @param conductors   The conductors, not yet playing.
+     * @param startMeasure The measure to start at, counted from 1.
+     * @param controls     Whether to read rehearsal commands.
+     */
+    private static void prepareRehearsal(List<Conductor> conductors, int startMeasure, boolean controls) {
+        try {
+            if (startMeasure != 1) {
+                for (Conductor conductor : conductors) {
+                    conductor.seekToMeasure(startMeasure);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Conductor.main Error: Unable to start at measure " + startMeasure + ": " + e.getMessage());
             System.exit(1);
         }
 
-        System.out.println("Successfully loaded " + args[0]);
+        if (!controls) {
+            return;
+        }
 
-        // Create the audio format
-        final AudioFormat af =
-                new AudioFormat(Note.SAMPLE_RATE, 8, 1, true, false);
+        final Thread reader = new Thread(() -> {
+            final Scanner in = new Scanner(System.in);
+            while (in.hasNextLine()) {
+                final String[] command = in.nextLine().trim().split("\\s+");
+                if (!List.of("p", "r", "m", "t", "w").contains(command[0])) {
+                    System.err.println("Unknown command " + command[0] + ", expected p, r, m N, t S or w");
+                    continue;
+                }
+                try {
+                    for (Conductor conductor : conductors) {
+                        switch (command[0]) {
+                            case "p":
+                                conductor.pause();
+                                break;
+                            case "r":
+                                conductor.resume();
+                                break;
+                            case "m":
+                                conductor.seekToMeasure(Integer.parseInt(command[1]));
+                                break;
+                            case "t":
+                                conductor.seekToMs(Math.round(Double.parseDouble(command[1]) * 1000));
+                                break;
+                            case "w":
+                                final int position = conductor.getPosition();
+                                System.out.println("Measure " + conductor.getTimingIndex().measureOf(position) +
+                                        ", note " + (position + 1) + " of " + conductor.getTimingIndex().size() +
+                                        (conductor.isPaused() ? " (paused)" : ""));
+                                break;
+                        }
+                    }
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    System.err.println("Invalid command: " + e.getMessage());
+                }
+            }
+        }, "Rehearsal controls");
+        reader.setDaemon(true);
+        reader.start();
+    }
 
-        final Conductor conductor = new Conductor(af, song);
+    /**
+     * Prints a song's {@link SongMetadata}, instead of playing it. If a cache directory is given, the metadata is
+     * taken from the {@link RenderCache}, and stored in it when it isn't there yet.
+     *
+     * @param name     Name of the song.
+     * @param song     The notes of the song.
+     * @param cacheDir The render cache directory, or {@code null} to always analyse the song.
+     */
+    private static void printSongInfo(String name, List<BellNote> song, String cacheDir) {
+        try {
+            final SongMetadata metadata = cacheDir != null ? new RenderCache(Paths.get(cacheDir)).metadata(song)
+                    : SongMetadata.of(song);
+            System.out.println(name + ": " + metadata);
+        } catch (IOException e) {
+            System.err.println("Conductor.main Error: Unable to store metadata of " + name + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
 
-        // Play the song
+    /**
+     * Writes a song to a Standard MIDI File with a {@link MidiWriter}, instead of playing it.
+     *
+     * @param song     The notes of the song.
+     * @param fileName The file to write.
+     */
+    private static void exportSong(List<BellNote> song, String fileName) {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(fileName)))) {
+            new MidiWriter().write(song, out);
+            System.out.println("Exported " + song.size() + " notes to " + fileName);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Conductor.main Error: Unable to export song to " + fileName + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Renders a song to a file with a {@link SongRenderer}, instead of playing it. Files ending in
+     * {@link LosslessCodec#EXTENSION} are compressed with the {@link LosslessCodec}, anything else is written as a
+     * WAV file. If a cache directory is given, the song is taken from the {@link RenderCache} when it's already
+     * been rendered, and stored in it when it hasn't, and its length comes from the metadata stored with it.
+     *
+     * @param song     The notes of the song.
+     * @param fileName The file to write.
+     * @param cacheDir The render cache directory, or {@code null} to always render.
+     */
+    private static void renderSong(List<BellNote> song, String fileName, String cacheDir) {
+        final Path target = Paths.get(fileName);
+        final boolean compressed = fileName.endsWith(LosslessCodec.EXTENSION);
+        final long start = System.nanoTime();
+        try {
+            final long length;
+            if (cacheDir != null) {
+                final RenderCache cache = new RenderCache(Paths.get(cacheDir));
+                if (compressed) {
+                    // The cache already holds compressed songs, so just copy it out
+                    final Path cached = cache.contains(song) ? cache.path(song) : cache.store(song);
+                    Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                length = cache.metadata(song).getLengthSamples();
+                if (!compressed) {
+                    try (InputStream samples = cache.open(song);
+                         OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                        SongRenderer.writeWav(samples, length, out);
+                    }
+                }
+            } else {
+                final SongRenderer renderer = new SongRenderer(song);
+                length = renderer.getLength();
+                if (compressed) {
+                    try (OutputStream out = new LosslessCodec.Encoder(new BufferedOutputStream(Files.newOutputStream(target)))) {
+                        renderer.renderTo(out);
+                    }
+                } else {
+                    renderer.renderWav(target);
+                }
+            }
+            System.out.println("Rendered " + length / Note.SAMPLE_RATE + " seconds of audio to " +
+                    fileName + " (" + Files.size(target) / 1024 + "KB) in " +
+                    (System.nanoTime() - start) / 1_000_000 + "ms");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Conductor.main Error: Unable to render song to " + fileName + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a song through a {@link VirtualSink} in virtual time, with every member thread, and prints how long the
+     * song lasted against how long it took to play.
+     *
+     * @param name       Name of the song.
+     * @param song       The notes of the song.
+     * @param maxMembers Max number of members in the choir, or 0 for one member per bell.
+     */
+    private static void simulateSong(String name, List<BellNote> song, int maxMembers) {
+        final VirtualClock clock = new VirtualClock();
+        final VirtualSink sink = new VirtualSink(clock, LatencyProfile.DEFAULT.getBufferMs());
+        final long start = System.nanoTime();
+        final Conductor conductor = new Conductor(sink, song, maxMembers, clock);
         conductor.playSong();
+        conductor.stop();
+        System.out.println("Simulated " + name + ": " + sink.getOnsets().size() + " notes lasting " +
+                clock.millis() / 1000.0 + "s, played in " + (System.nanoTime() - start) / 1_000_000 + "ms, " +
+                sink.getUnderruns() + " underruns");
+    }
+
+    /**
+     * Plays a song with {@link ChoirNode ChoirNodes} in other processes, waiting for them to connect to the given
+     * address first.
+     *
+     * @param song    The notes of the song.
+     * @param count   Number of nodes to wait for.
+     * @param address Address to wait for nodes on, {@code HOST:PORT}.
+     */
+    private static void playDistributed(List<BellNote> song, int count, String address) {
+        final int colon = address.lastIndexOf(':');
+        try (ServerSocket server = new ServerSocket()) {
+            server.bind(new InetSocketAddress(InetAddress.getByName(address.substring(0, colon)),
+                    Integer.parseInt(address.substring(colon + 1))), count);
+            System.out.println("Waiting for " + count + " nodes on " + server.getLocalSocketAddress() + "...");
 
-        // Stop the conductor thread (will stop all members as well once song is over)
+            final DistributedChoir choir = new DistributedChoir(server);
+            try {
+                choir.accept(count);
+                System.out.println("Playing song...");
+                choir.play(song);
+            } finally {
+                choir.close();
+            }
+            System.out.println("Song over, " + choir.getLate() + " notes played late");
+        } catch (IOException | IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            System.err.println("Conductor.main Error: Unable to play with nodes on " + address + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays notes from a {@link LiveInput} until the input ends, through a {@link LatencyProfile#LOW low latency}
+     * line.
+     *
+     * @param af         The {@link AudioFormat} to use.
+     * @param source     Description of where the notes come from.
+     * @param budgetMs   Latency, in milliseconds, notes should be played within.
+     * @param maxMembers Max number of members in the choir, or 0 for one member per bell.
+     */
+    private static void playLive(AudioFormat af, String source, int budgetMs, int maxMembers) {
+        final LiveInput live;
+        try {
+            live = LiveInput.open(source, budgetMs);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Conductor.main Error: Unable to open live input " + source + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        live.start();
+        final SampleSink sink = new RingBufferSink(new LineSink(af, LatencyProfile.LOW), LIVE_RING_SLOTS,
+                RingBufferSink.DEFAULT_SLOT_BYTES);
+        final Conductor conductor = new Conductor(sink, live, maxMembers);
+        conductor.playSong();
         conductor.stop();
     }
 
     /**
-     * Opens and starts the {@code SourceDataLine}, if it's unavailable, it waits three seconds and tries again. If
+     * Opens the {@link SampleSink}, if it's unavailable, it waits three seconds and tries again. If
      * it's still unavailable, the programs is aborted with status of 1. If it's available, the conductor thread is started
      * and the song is played.
      */
     public void playSong() {
+        openWithRetry(sink::open);
+
+        thread.start();
+    }
+
+    /**
+     * Something that opens an audio output, such as {@link SampleSink#open()}.
+     */
+    private interface Opener {
+        /**
+         * Opens the output.
+         *
+         * @throws LineUnavailableException If the output is unavailable.
+         */
+        void open() throws LineUnavailableException;
+    }
+
+    /**
+     * Opens an audio output, if it's unavailable, it waits three seconds and tries again. If
+     * it's still unavailable, the programs is aborted with status of 1.
+     *
+     * @param opener Opens the output.
+     */
+    private static void openWithRetry(Opener opener) {
         // Open and start the line, if unavailable, wait 3 seconds then try again
         try {
-            line.open();
-            line.start();
+            opener.open();
             // If line is not available, wait 3 seconds and try again
         } catch (LineUnavailableException e) {
             System.err.println("Line was unavailable when trying to open/start it, waiting 3 seconds and trying again...");
@@ -126,23 +791,19 @@ public class Conductor implements Runnable {
 
             // If line is still unavailable after 3 seconds, terminate program
             try {
-                line.open();
-                line.start();
+                opener.open();
             } catch (LineUnavailableException lue) {
-                System.err.println("playSong: Line still unavailable when trying to open/start it after waiting 3 seconds, aborting");
+                System.err.println("openWithRetry: Line still unavailable when trying to open/start it after waiting 3 seconds, aborting");
                 System.exit(1);
             }
-
         }
-
-        thread.start();
     }
 
     /**
-     * Starts the threads of all {@link main.Member Members} in the {@link #members} hashmap.
+     * Starts the threads of all {@link main.Member Members} in the {@link #choir}.
      */
     private void startMembers() {
-        for (Member member : members.values()) {
+        for (Member member : choir) {
             member.start();
         }
     }
@@ -154,50 +815,290 @@ public class Conductor implements Runnable {
     public void run() {
         startMembers();
 
-        /*
-         * Get the amount of time I think the song is expected to take to play, which
-         * is the sum of all the note lengths time in milliseconds
-         */
-        int songTime = 0;
-        for (BellNote b : song) {
-            songTime += b.getLength().getTimeMs();
+        System.out.println(live != null ? "Playing live..." : "Playing song...");
+
+        if (live != null) {
+            playLive();
+        } else {
+            playNotes();
         }
-        // Start time is when the song starts playing (about)
-        final long startTime = System.currentTimeMillis();
 
-        // Total time I'm giving the program to play the song
-        final int allottedTime = songTime * SONG_ALLOTTED_TIME_BUFFER_MULTIPLIER;
+        System.out.println("Song over");
+    }
+
+    /**
+     * Plays the song from the {@link TimingIndex}, starting at note 0 unless a jump was asked for. Members are
+     * given notes a little ahead of their turn, so a jump only has to clear their queues and refill them from the
+     * new position. Between notes the conductor waits while {@link #pause() paused}.
+     */
+    private void playNotes() {
+        // Index of the next note to play, and of the next note to give to its member
+        int next = 0;
+        int fed = 0;
+
+        // Nothing below should allocate, count what does so it can be checked
+        final long[] threadIds = playingThreadIds();
+        final long allocatedBefore = allocatedBytes(threadIds);
+
+        /*
+         * Get the amount of time I think the rest of the song is expected to take to play, and give the program
+         * that times the buffer multiplier to play it. Jumps start the count again from the new position
+         */
+        long startTime = clock.millis();
+        long allottedTime = metadata.getDurationMs() * SONG_ALLOTTED_TIME_BUFFER_MULTIPLIER;
 
-        System.out.println("Playing song...");
+        while (true) {
+            final int target = seekTo.getAndSet(-1);
+            if (target >= 0) {
+                for (int m = 0; m < choir.size(); m++) {
+                    choir.get(m).clear();
+                }
+                next = target;
+                fed = target;
+                startTime = clock.millis();
+                allottedTime = remainingMs(target) * SONG_ALLOTTED_TIME_BUFFER_MULTIPLIER;
+            }
+            position = next;
+            if (next >= song.size()) {
+                break;
+            }
 
-        // Loop through all the notes in the song and have the member that plays the given note play it.
-        for (BellNote b : song) {
-            final Note noteToPlay = b.getNote();
-            Member member = members.get(noteToPlay);
+            // Time spent paused doesn't count against the allotted time
+            startTime += awaitResume();
+            if (seekTo.get() >= 0) {
+                continue;
+            }
 
-            // If no member exists in the hashMap, add it then assign it to member so it plays the note
-            if (member == null) {
-                addMember(b);
-                member = members.get(noteToPlay);
+            // Keep every member's queue filled a little ahead of the song
+            for (; fed < song.size() && fed < next + FEED_AHEAD_NOTES; fed++) {
+                final BellNote b = song.get(fed);
+                members.get(b.getBell()).addNote(b);
             }
 
             // If the elapsed time is greater than the allotted time, something could have gone wrong, so the program
             // automatically ends
-            float elapsedTime = System.currentTimeMillis() - startTime;
+            float elapsedTime = clock.millis() - startTime;
             if (elapsedTime > allottedTime) {
                 System.err.println("Conductor.run(): SONG EXCEEDED ALLOTTED TIME, ending program.");
                 System.exit(1);
             }
 
-            member.giveTurn();
+            // Have the member that plays the note play it
+            final BellNote b = song.get(next);
+            members.get(b.getBell()).giveTurn(b);
+            next++;
         }
 
-        System.out.println("Song over");
+        final long allocatedAfter = allocatedBytes(threadIds);
+        allocatedBytes = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+    }
+
+    /**
+     * Returns the IDs of the threads that play the song: the conductor's own thread and every member's.
+     *
+     * @return The thread IDs.
+     */
+    private long[] playingThreadIds() {
+        final long[] ids = new long[choir.size() + 1];
+        ids[0] = Thread.currentThread().getId();
+        for (int m = 0; m < choir.size(); m++) {
+            ids[m + 1] = choir.get(m).getThreadId();
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the total number of bytes the given threads have allocated since they started.
+     *
+     * @param threadIds IDs of the threads.
+     * @return The number of bytes, or -1 if the JVM doesn't count allocations or a thread has ended.
+     */
+    private static long allocatedBytes(long[] threadIds) {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threadIds)) {
+            if (bytes < 0) {
+                return -1;
+            }
+            total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * Plays notes from the {@link #live} input as they arrive, giving each to its member just before its turn,
+     * adding members as new bells show up.
+     */
+    private void playLive() {
+        for (BellNote b : live) {
+            awaitResume();
+
+            final int choirSize = choir.size();
+            addMember(b);
+            final Member member = members.get(b.getBell());
+            if (choir.size() > choirSize) {
+                member.start();
+            }
+
+            member.giveTurn(b);
+
+            final long queuedNanos = member.getLastQueuedFrames() * 1_000_000_000L / Note.SAMPLE_RATE;
+            live.notePlayed(member.getLastWriteNanos(), queuedNanos);
+        }
+
+        System.out.println(live.latencySummary());
+    }
+
+    /**
+     * Returns the time, in milliseconds, the song takes to play from the given note to its end.
+     *
+     * @param from Index of the note.
+     * @return The remaining time.
+     */
+    private long remainingMs(int from) {
+        return index.msOf(index.size()) - index.msOf(from);
+    }
+
+    /**
+     * Waits while the conductor is {@link #pause() paused}.
+     *
+     * @return The time spent waiting, in milliseconds.
+     */
+    private long awaitResume() {
+        synchronized (pauseLock) {
+            if (!paused) {
+                return 0;
+            }
+            final long start = clock.millis();
+            while (paused && seekTo.get() < 0) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException ignored) {
+                }
+            }
+            return clock.millis() - start;
+        }
+    }
+
+    /**
+     * Pauses the song once the note playing now is done. Notes already queued in the sink still play out.
+     */
+    public void pause() {
+        synchronized (pauseLock) {
+            paused = true;
+        }
+    }
+
+    /**
+     * Resumes a {@link #pause() paused} song from where it stopped.
+     */
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns whether the song is {@link #pause() paused}.
+     *
+     * @return {@code true} if paused.
+     */
+    public boolean isPaused() {
+        synchronized (pauseLock) {
+            return paused;
+        }
+    }
+
+    /**
+     * Jumps to the given note once the note playing now is done. Can be called before {@link #playSong()} to
+     * start part way through. A paused song stays paused, at the new position.
+     *
+     * @param note Index of the note to play next.
+     * @throws IllegalStateException    If playing live, which has no song to jump around in.
+     * @throws IllegalArgumentException If the song has no such note.
+     */
+    public void seekToNote(int note) {
+        if (live != null) {
+            throw new IllegalStateException("Can't jump around in live input");
+        }
+        if (note < 0 || note > song.size()) {
+            throw new IllegalArgumentException("Note " + note + " is outside the song's " + song.size() + " notes");
+        }
+        synchronized (pauseLock) {
+            seekTo.set(note);
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * Jumps to the start of the given measure, see {@link #seekToNote(int)}.
+     *
+     * @param measure The measure, counted from 1.
+     * @throws IllegalArgumentException If the song has no such measure.
+     */
+    public void seekToMeasure(int measure) {
+        seekToNote(index.noteAtMeasure(measure));
+    }
+
+    /**
+     * Jumps to the note playing at the given time, see {@link #seekToNote(int)}.
+     *
+     * @param ms Time from the start of the song in milliseconds.
+     */
+    public void seekToMs(long ms) {
+        seekToNote(index.noteAtMs(Math.max(0, ms)));
+    }
+
+    /**
+     * Returns the index of the note being played, or the number of notes once the song is over.
+     *
+     * @return The position in the song.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the number of bytes the conductor and its members allocated while playing the song, from its first
+     * note to its last, including any jumps. Playing should allocate nothing, since garbage collection pauses are
+     * heard as stutters, so anything counted here is a regression. Read it after {@link #stop()}.
+     *
+     * @return The number of bytes, or -1 if the song isn't over, was played live, or the JVM doesn't count
+     * allocations.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns what's known about the song before it plays, {@code null} when playing live.
+     *
+     * @return The song's metadata.
+     */
+    public SongMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Returns the {@link TimingIndex} of the song, {@code null} when playing live.
+     *
+     * @return The timing index.
+     */
+    public TimingIndex getTimingIndex() {
+        return index;
     }
 
     /**
      * Waits for the {@link #thread} to finish its task (Playing the song) before stopping all
-     * {@link main.Member Members} in the {@link #members} hashmap and draining/closing the {@code SourceDataLine}.
+     * {@link main.Member Members} in the {@link #choir} and draining/closing the {@link SampleSink}.
      */
     public void stop() {
         try {
@@ -206,67 +1107,129 @@ public class Conductor implements Runnable {
             System.err.println("Thread was interrupted while waiting for conductor thread to finish.");
         }
         stopMembers();
-        line.drain();
-        line.close();
+        sink.drain();
+        sink.close();
     }
 
     /**
-     * Adds a {@link main.Member} to the {@link #members} hashmap.
+     * Shares the song's notes between at most {@code maxMembers} {@link main.Member Members} using a
+     * {@link RingerAssigner}, and adds the members to the {@link #members} hashmap.
      *
-     * @param b {@link main.sound.BellNote} the member will play.
+     * @param maxMembers Max number of members in the choir.
      */
-    private void addMember(BellNote b) {
-        // If the note is invalid, terminate the program
-        if (b.getNote() == Note.INVALID || b.getLength() == NoteLength.INVALID) {
-            System.err.println("addMember: Invalid note: " + b.getNote() + " found in song, terminating program.");
-            System.exit(1);
+    private void assignRingers(int maxMembers) {
+        final RingerAssigner assigner = new RingerAssigner(maxMembers, RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        final Map<String, Integer> memberOf = assigner.assign(song);
+
+        final Member[] assigned = new Member[maxMembers];
+        for (Map.Entry<String, Integer> entry : memberOf.entrySet()) {
+            final int m = entry.getValue();
+            if (assigned[m] == null) {
+                assigned[m] = new Member(1 + numMembers++, sink, clock, noteBytes());
+                choir.add(assigned[m]);
+            }
+            members.put(entry.getKey(), assigned[m]);
         }
 
-        // If the note is not in the members map, add it
-        if (!members.containsKey(b.getNote())) {
-            final Queue<NoteLength> noteLengthQueue = new ArrayDeque<>();
-            noteLengthQueue.add(b.getLength());
-            members.put(b.getNote(), new Member(1 + numMembers++, b.getNote(), line, noteLengthQueue));
-        } else {
-            // If the note is already in the members map, add the length to the member's queue
-            members.get(b.getNote()).addLength(b.getLength());
+        if (assigner.getConflicts() > 0) {
+            System.err.println("Conductor: " + maxMembers + " members can't change bells in time for " +
+                    assigner.getConflicts() + " pairs of notes, some bells will be changed early.");
         }
     }
 
     /**
-     * Calls {@link Member#stop()} on all {@link main.Member Members} in the {@link #members} hashmap.
+     * Adds the given {@link main.sound.BellNote} to the queue of the {@link main.Member} that plays it. If no
+     * member plays the note yet, a new member is added to the {@link #members} hashmap. Notes are expected to
+     * already be validated by the {@link SongReader}.
+     *
+     * @param b {@link main.sound.BellNote} the member will play.
      */
-    private void stopMembers() {
-        for (Member member : members.values()) {
-            member.stop();
-        }
+    private void addMember(BellNote b) {
+        memberFor(b).addNote(b);
     }
 
     /**
-     * Sets the {@link SourceDataLine}, using the provided {@link AudioFormat}.
-     * IF the line is unavailable, it waits three seconds and tries again. If
-     * it's still unavailable, the programs is aborted with status of 1.
+     * Returns the {@link main.Member} that rings the given note's bell. If the note's bell is not in the members
+     * map, it's given to a new member, or the least busy member if the choir is full.
      *
-     * @param af The {@link AudioFormat} to use.
+     * @param b {@link main.sound.BellNote} to find the member of.
+     * @return The member that plays the note.
      */
-    private void setLine(AudioFormat af) {
-        try {
-            this.line = AudioSystem.getSourceDataLine(af);
-            // If line is not available, wait 3 seconds and try again
-        } catch (LineUnavailableException e) {
-            System.err.println("Line was unavailable, waiting 3 seconds and trying again...");
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException ignored) {
+    private Member memberFor(BellNote b) {
+        if (!members.containsKey(b.getBell())) {
+            if (maxMembers > 0 && choir.size() >= maxMembers) {
+                Member leastBusy = choir.get(0);
+                for (Member member : choir) {
+                    if (member.getBellCount() < leastBusy.getBellCount()) {
+                        leastBusy = member;
+                    }
+                }
+                members.put(b.getBell(), leastBusy);
+            } else {
+                final Member member = new Member(1 + numMembers++, sink, clock, noteBytes());
+                members.put(b.getBell(), member);
+                choir.add(member);
             }
+        }
 
-            // If line is still unavailable after 3 seconds, terminate program
-            try {
-                this.line = AudioSystem.getSourceDataLine(af);
-            } catch (LineUnavailableException lue) {
-                System.err.println("setLine: Line still unavailable after waiting 3 seconds, aborting");
-                System.exit(1);
+        final Member member = members.get(b.getBell());
+        member.addBell(b.getBell());
+        return member;
+    }
+
+    /**
+     * Places the members among the channels of the given layout, so each is heard from its own spot in the room.
+     * Must be called before the song is played. Nothing changes with a mono layout.
+     * <ul>
+     *     <li>{@link ChannelLayout.Placement#MEMBERS}: Members are spread evenly, in the order they were made.</li>
+     *     <li>{@link ChannelLayout.Placement#BELLS}: Bells are spread evenly from lowest to highest, so a member
+     *     with several bells is heard from a different spot for each.</li>
+     *     <li>{@link ChannelLayout.Placement#CHANNELS}: Each member plays through one channel only.</li>
+     * </ul>
+     *
+     * @param layout    The channels the sink plays through.
+     * @param placement What members are placed by.
+     * @throws IllegalStateException If playing live, or the song is already playing.
+     */
+    public void placeMembers(ChannelLayout layout, ChannelLayout.Placement placement) {
+        if (live != null || thread.getState() != Thread.State.NEW) {
+            throw new IllegalStateException("Members can only be placed before a song starts playing");
+        }
+        if (layout.getChannels() == 1) {
+            return;
+        }
+
+        for (int m = 0; m < choir.size(); m++) {
+            final Member member = choir.get(m);
+            member.setPanner(placement == ChannelLayout.Placement.CHANNELS ? layout.onChannel(m)
+                    : layout.spread(m, choir.size()));
+        }
+
+        // Members whose bells are placed still have a panner of their own for rests
+        if (placement == ChannelLayout.Placement.BELLS) {
+            final List<String> bells = metadata.getBells();
+            for (int i = 0; i < bells.size(); i++) {
+                members.get(bells.get(i)).setBellPanner(bells.get(i), layout.spread(i, bells.size()));
             }
         }
     }
+
+    /**
+     * Returns the size of the note buffers new members get: the song's longest note, or any note when playing
+     * live.
+     *
+     * @return The number of bytes.
+     */
+    private int noteBytes() {
+        return metadata != null ? metadata.getMaxNoteBytes() : NoteRenderer.MAX_NOTE_BYTES;
+    }
+
+    /**
+     * Calls {@link Member#stop()} on all {@link main.Member Members} in the {@link #choir}.
+     */
+    private void stopMembers() {
+        for (Member member : choir) {
+            member.stop();
+        }
+    }
 }
@@ -0,0 +1,269 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.TimingIndex;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code DistributedChoir} class plays a song with {@link ChoirNode ChoirNodes} in other processes, each
+ * driving its own speakers, instead of {@link Member} threads sharing one line. Nodes connect over TCP, which can
+ * be the loopback address for several processes on one machine.
+ *
+ * <p>Playing a song takes four steps:</p>
+ * <ol>
+ *     <li>Wait for every node to connect.</li>
+ *     <li>Synchronize with each node's clock, keeping the best of {@link #SYNC_ROUNDS} exchanges, see
+ *     {@link ClockSync}.</li>
+ *     <li>Share the bells between the nodes with a {@link RingerAssigner}, the same way bells are shared between
+ *     members.</li>
+ *     <li>Agree on a start time {@link #LEAD_MS} from now, give it to each node on its own clock, and stream each
+ *     node its notes with the time, from the {@link TimingIndex}, they start at. Rests aren't sent, a node is
+ *     silent between its notes.</li>
+ * </ol>
+ *
+ * <p>Notes are sent in the order of the song, so a node that's slow to take its notes only holds back the notes
+ * after them. Once every note is sent, each node is told the song is over and reports how many of its notes were
+ * late.</p>
+ */
+public class DistributedChoir {
+    /** Number of clock exchanges with each node. */
+    public static final int SYNC_ROUNDS = 8;
+
+    /** Time, in milliseconds, between agreeing on the start time and the start of the song. */
+    public static final int LEAD_MS = 500;
+
+    /** Time, in milliseconds, to wait for a node to answer while getting ready. */
+    private static final int ANSWER_TIMEOUT_MS = 5000;
+
+    /**
+     * A connected node.
+     */
+    private static class Node {
+        /** Connection to the node. */
+        private final Socket socket;
+
+        /** Reads the node's messages. */
+        private final BufferedReader in;
+
+        /** Writes messages to the node. */
+        private final PrintWriter out;
+
+        /** The node's clock. */
+        private final ClockSync clock = new ClockSync();
+
+        /** Bells the node rings. */
+        private final Set<String> bells = new LinkedHashSet<>();
+
+        /**
+         * Constructs a new {@code Node}.
+         *
+         * @param socket Connection to the node.
+         * @throws IOException If the connection's streams can't be opened.
+         */
+        private Node(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            this.out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Sends a message and flushes it.
+         *
+         * @param message The message.
+         * @throws IOException If the node has hung up.
+         */
+        private void send(String message) throws IOException {
+            out.println(message);
+            out.flush();
+            if (out.checkError()) {
+                throw new IOException("Node at " + socket.getRemoteSocketAddress() + " hung up");
+            }
+        }
+
+        /**
+         * Reads the node's next message, which must be of the given kind.
+         *
+         * @param kind The kind of message expected.
+         * @return The parts of the message.
+         * @throws IOException If the node hung up or sent something else.
+         */
+        private String[] expect(String kind) throws IOException {
+            final String line = in.readLine();
+            if (line == null) {
+                throw new IOException("Node at " + socket.getRemoteSocketAddress() + " hung up");
+            }
+            final String[] message = line.split(" ");
+            if (!message[0].equals(kind)) {
+                throw new IOException("Expected " + kind + " from node at " + socket.getRemoteSocketAddress() +
+                        ", got " + line);
+            }
+            return message;
+        }
+    }
+
+    /** Where nodes connect. */
+    private final ServerSocket server;
+
+    /** The connected nodes. */
+    private final List<Node> nodes = new ArrayList<>();
+
+    /** Number of late notes reported by the nodes after the last song. */
+    private int late = 0;
+
+    /**
+     * Constructs a new {@code DistributedChoir} that takes nodes from the given server socket.
+     *
+     * @param server Where nodes connect.
+     */
+    public DistributedChoir(ServerSocket server) {
+        this.server = server;
+    }
+
+    /**
+     * Waits for the given number of nodes to connect and greet the conductor.
+     *
+     * @param count Number of nodes.
+     * @throws IOException If a node fails to connect.
+     */
+    public void accept(int count) throws IOException {
+        while (nodes.size() < count) {
+            final Socket socket = server.accept();
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(ANSWER_TIMEOUT_MS);
+            final Node node = new Node(socket);
+            try {
+                node.expect(ChoirNode.HELLO);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            nodes.add(node);
+            System.out.println("Node " + nodes.size() + " of " + count + " connected from " +
+                    socket.getRemoteSocketAddress());
+        }
+    }
+
+    /**
+     * Synchronizes with every node's clock, shares the bells between the nodes, and plays the song, returning once
+     * every node has played out.
+     *
+     * @param song The notes of the song.
+     * @throws IOException If a node hangs up or sends something unexpected.
+     */
+    public void play(List<BellNote> song) throws IOException {
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("No nodes have connected");
+        }
+        for (Node node : nodes) {
+            synchronize(node);
+        }
+
+        final RingerAssigner assigner = new RingerAssigner(nodes.size(), RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        final Map<String, Integer> nodeOf = assigner.assign(song);
+        for (BellNote b : song) {
+            if (b.getNote() != Note.REST) {
+                nodes.get(nodeOf.get(b.getBell())).bells.add(b.getBell());
+            }
+        }
+
+        final long startNanos = System.nanoTime() + LEAD_MS * 1_000_000L;
+        for (int n = 0; n < nodes.size(); n++) {
+            final Node node = nodes.get(n);
+            System.out.println("Node " + (n + 1) + ": clock offset " + node.clock.getOffsetNanos() / 1000 +
+                    "us, round trip " + node.clock.getRoundTripNanos() / 1000 + "us, rings " + node.bells);
+            node.send(ChoirNode.BELLS + " " + String.join(" ", node.bells));
+            node.send(ChoirNode.START + " " + node.clock.toRemote(startNanos) + " " + Note.SAMPLE_RATE);
+        }
+
+        // Stream the notes in the order of the song, sending each one straight away so no node waits on another
+        final TimingIndex index = new TimingIndex(song);
+        for (int i = 0; i < song.size(); i++) {
+            final BellNote b = song.get(i);
+            if (b.getNote() != Note.REST) {
+                nodes.get(nodeOf.get(b.getBell())).send(ChoirNode.NOTE + " " + index.sampleOf(i) + " " +
+                        b.getSemitone() + " " + b.getLength());
+            }
+        }
+
+        late = 0;
+        for (Node node : nodes) {
+            node.send(ChoirNode.END);
+        }
+        for (Node node : nodes) {
+            // Playing out can take as long as the audio the node has queued
+            node.socket.setSoTimeout(0);
+            late += Integer.parseInt(node.expect(ChoirNode.DONE)[2]);
+        }
+    }
+
+    /**
+     * Exchanges {@link #SYNC_ROUNDS} clock readings with a node.
+     *
+     * @param node The node.
+     * @throws IOException If the node doesn't answer.
+     */
+    private void synchronize(Node node) throws IOException {
+        try {
+            for (int round = 0; round < SYNC_ROUNDS; round++) {
+                final long t0 = System.nanoTime();
+                node.send(ChoirNode.SYNC + " " + t0);
+                final String[] time = node.expect(ChoirNode.TIME);
+                final long t3 = System.nanoTime();
+                if (Long.parseLong(time[1]) != t0) {
+                    throw new IOException("Node answered the wrong clock exchange");
+                }
+                node.clock.add(t0, Long.parseLong(time[2]), Long.parseLong(time[3]), t3);
+            }
+        } catch (SocketTimeoutException e) {
+            throw new IOException("Node at " + node.socket.getRemoteSocketAddress() + " didn't answer in time", e);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Node at " + node.socket.getRemoteSocketAddress() + " sent an invalid time", e);
+        }
+    }
+
+    /**
+     * Returns the clock of the given node, once the song has started.
+     *
+     * @param node Index of the node, in the order they connected.
+     * @return The node's clock.
+     */
+    public ClockSync getClock(int node) {
+        return nodes.get(node).clock;
+    }
+
+    /**
+     * Returns the number of notes the nodes played late in the last song.
+     *
+     * @return The number of late notes.
+     */
+    public int getLate() {
+        return late;
+    }
+
+    /**
+     * Hangs up on every node.
+     */
+    public void close() {
+        for (Node node : nodes) {
+            try {
+                node.socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+        nodes.clear();
+    }
+}
@@ -0,0 +1,159 @@
+package main;
+
+import main.sound.Note;
+import main.sound.Panner;
+import main.sound.SampleEncoding;
+import main.sound.SampleKernels;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code KernelBenchmark} class times the scalar and vector {@link SampleKernels} against each other, on
+ * the same work the choir gives them: creating a measure long tone table, and mixing and clipping a measure of
+ * samples. The vector kernels are only timed when the {@code jdk.incubator.vector} module was added, such as
+ * with {@code ant bench}.
+ *
+ * <p>Each set of kernels is timed on 8 bit samples, what offline renders use, and on the 16 bit little-endian
+ * samples most devices play, followed by a stereo {@link Panner} on both, so the two paths can be compared.</p>
+ */
+public class KernelBenchmark {
+    /** Number of untimed rounds, giving the JIT compiler time to compile the kernels. */
+    private static final int WARMUP_ROUNDS = 200;
+
+    /** Number of timed rounds. */
+    private static final int ROUNDS = 500;
+
+    /** Number of samples each round works on, one measure. */
+    private static final int SAMPLES = Note.MEASURE_LENGTH_SEC * Note.SAMPLE_RATE;
+
+    /** Stops the JIT compiler from throwing away kernel results that are never read. */
+    private static long sink = 0;
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private KernelBenchmark() {
+        //empty
+    }
+
+    /**
+     * Times each kernel and returns the average nanoseconds per sample for sine, mix and clip, in that order.
+     *
+     * @param kernels The kernels to time.
+     * @param wide    Whether to time the 16 bit little-endian kernels rather than the 8 bit ones.
+     * @return The nanoseconds per sample of each kernel.
+     */
+    private static double[] time(SampleKernels kernels, boolean wide) {
+        final int size = wide ? 2 : 1;
+        final byte[] table = new byte[SAMPLES * size];
+        final int[] acc = new int[SAMPLES];
+        final byte[] out = new byte[SAMPLES * size];
+        final double step = 2.0d * Math.PI * 440.0d / Note.SAMPLE_RATE;
+        final double[] nanos = new double[3];
+
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            final boolean timed = round >= WARMUP_ROUNDS;
+
+            long start = System.nanoTime();
+            if (wide) {
+                kernels.sine16(table, 0, SAMPLES, step + round * 1e-6, 127.0d * 256, false);
+            } else {
+                kernels.sine(table, 0, SAMPLES, step + round * 1e-6, 127.0d);
+            }
+            if (timed) {
+                nanos[0] += System.nanoTime() - start;
+            }
+
+            start = System.nanoTime();
+            if (wide) {
+                kernels.mix16(table, 0, SAMPLES, 0.5f, acc, 0, false);
+                kernels.mix16(table, 0, SAMPLES, 0.75f, acc, 0, false);
+            } else {
+                kernels.mix(table, 0, SAMPLES, 0.5f, acc, 0);
+                kernels.mix(table, 0, SAMPLES, 0.75f, acc, 0);
+            }
+            if (timed) {
+                nanos[1] += (System.nanoTime() - start) / 2.0d;
+            }
+
+            start = System.nanoTime();
+            if (wide) {
+                kernels.clip16(acc, out, SAMPLES, false);
+            } else {
+                kernels.clip(acc, out, SAMPLES);
+            }
+            if (timed) {
+                nanos[2] += System.nanoTime() - start;
+            }
+            sink += out[round % out.length];
+        }
+
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] /= (double) ROUNDS * SAMPLES;
+        }
+        return nanos;
+    }
+
+    /**
+     * Times a stereo {@link Panner} interleaving a measure of mono samples, with the left channel at full volume
+     * and the right at half.
+     *
+     * @param encoding How the samples are stored.
+     * @return The nanoseconds per mono sample.
+     */
+    private static double timePan(SampleEncoding encoding) {
+        final Panner panner = new Panner(encoding, 1.0f, 0.5f);
+        final byte[] mono = new byte[SAMPLES * encoding.getBytes()];
+        encoding.sine(mono, 0, SAMPLES, 2.0d * Math.PI * 440.0d / Note.SAMPLE_RATE, 127.0d);
+        final byte[] frames = new byte[mono.length * 2];
+        double nanos = 0;
+
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            final long start = System.nanoTime();
+            panner.interleave(mono, 0, mono.length, frames, 0);
+            if (round >= WARMUP_ROUNDS) {
+                nanos += System.nanoTime() - start;
+            }
+            sink += frames[round % frames.length];
+        }
+        return nanos / ((double) ROUNDS * SAMPLES);
+    }
+
+    /**
+     * Runs the benchmark and prints the nanoseconds per sample of each kernel, and the speedup of the vector
+     * kernels over the scalar ones.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        final List<SampleKernels> all = new ArrayList<>();
+        all.add(SampleKernels.scalar());
+        final SampleKernels vector = SampleKernels.vector();
+        if (vector != null) {
+            all.add(vector);
+        } else {
+            System.out.println("Vector kernels unavailable, run with --add-modules=jdk.incubator.vector to time them");
+        }
+
+        System.out.printf("%-28s %12s %12s %12s%n", "kernels", "sine ns/smp", "mix ns/smp", "clip ns/smp");
+        for (boolean wide : new boolean[]{false, true}) {
+            double[] scalar = null;
+            for (SampleKernels kernels : all) {
+                final double[] nanos = time(kernels, wide);
+                System.out.printf("%-28s %12.3f %12.3f %12.3f%n", kernels.name() + (wide ? ", 16 bit" : ", 8 bit"),
+                        nanos[0], nanos[1], nanos[2]);
+                if (scalar == null) {
+                    scalar = nanos;
+                } else {
+                    System.out.printf("%-28s %11.1fx %11.1fx %11.1fx%n", "speedup",
+                            scalar[0] / nanos[0], scalar[1] / nanos[1], scalar[2] / nanos[2]);
+                }
+            }
+        }
+
+        System.out.printf("%-28s %12.3f%n", "stereo pan, 8 bit ns/smp", timePan(SampleEncoding.SIGNED_8));
+        System.out.printf("%-28s %12.3f%n", "stereo pan, 16 bit ns/smp", timePan(SampleEncoding.SIGNED_16_LE));
+        System.out.println("Selected: " + SampleKernels.get().name() + " (checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,285 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.Clock;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The {@code LiveInput} class lets the choir play notes as they arrive, instead of reading a whole song file first.
+ * Notes are written one per line, in the same {@code NOTE LENGTH} form as song files, to standard input, a named
+ * pipe, or a socket on the loopback address.
+ *
+ * <p>A reader thread parses each line as it arrives, with a {@link SongReader.LineReader} so lines are read the
+ * same way as song files, and puts the note in a small bounded queue, which the
+ * {@link main.Conductor} takes notes from by iterating over the input. When notes arrive faster than they can be
+ * played, the queue fills up and the reader stops reading, so the pipe or socket fills up and the sender is
+ * slowed down too.</p>
+ *
+ * <p>The time each note is received is kept, and once a member starts playing it the conductor reports it with
+ * {@link #notePlayed(long, long)}. The latency of a note is the time from receiving it until its first sample
+ * is played, counting the audio already queued ahead of it in the output. The input keeps track of the latency of
+ * every note and how many go over the latency budget.</p>
+ */
+public class LiveInput implements Iterable<BellNote> {
+    /** Number of notes that can be waiting to be played before the reader stops reading. */
+    public static final int QUEUE_CAPACITY = 16;
+
+    /** Name invalid lines are reported under, in place of a file name. */
+    public static final String SOURCE_NAME = "live";
+
+    /**
+     * A note along with the time it was received.
+     */
+    private static class Received {
+        /** The received note, or {@code null} once the input has ended. */
+        private final BellNote note;
+
+        /** Time, from the input's {@link Clock}, the note was received. */
+        private final long nanos;
+
+        /**
+         * Constructs a new {@code Received}.
+         *
+         * @param note  The received note, or {@code null} once the input has ended.
+         * @param nanos Time, from the input's {@link Clock}, the note was received.
+         */
+        private Received(BellNote note, long nanos) {
+            this.note = note;
+            this.nanos = nanos;
+        }
+    }
+
+    /** Notes that have been received but not played yet. */
+    private final BlockingQueue<Received> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /** Where the notes come from. */
+    private final InputStream in;
+
+    /** The thread that reads and parses the notes. */
+    private final Thread thread;
+
+    /** Max latency, in milliseconds, a note should have. */
+    private final int budgetMs;
+
+    /** Parses each line. */
+    private final SongReader.LineReader parser = new SongReader.LineReader(SOURCE_NAME);
+
+    /** Where the time each note is received is read from. */
+    private final Clock clock;
+
+    /** Time the note most recently taken from the queue was received. */
+    private long lastReceivedNanos;
+
+    /** Number of notes played. */
+    private int notesPlayed = 0;
+
+    /** Sum of the latency of every played note, in nanoseconds. */
+    private long totalLatencyNanos = 0;
+
+    /** Highest latency of any played note, in nanoseconds. */
+    private long maxLatencyNanos = 0;
+
+    /** Number of notes that went over the latency budget. */
+    private int overBudget = 0;
+
+    /**
+     * Constructs a new {@code LiveInput} that reads notes from the given stream.
+     *
+     * @param in       Where the notes come from.
+     * @param budgetMs Max latency, in milliseconds, a note should have.
+     */
+    public LiveInput(InputStream in, int budgetMs) {
+        this(in, budgetMs, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructs a new {@code LiveInput} that reads notes from the given stream, reading the time each note is
+     * received from the given {@link Clock}.
+     *
+     * @param in       Where the notes come from.
+     * @param budgetMs Max latency, in milliseconds, a note should have.
+     * @param clock    Where the time each note is received is read from.
+     */
+    public LiveInput(InputStream in, int budgetMs, Clock clock) {
+        this.in = in;
+        this.budgetMs = budgetMs;
+        this.clock = clock;
+        this.thread = new Thread(this::readNotes, "Live input");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Opens a live input from its description, which is one of:
+     * <ul>
+     *     <li>{@code stdin}: Read notes from standard input.</li>
+     *     <li>{@code pipe:PATH}: Read notes from the named pipe (or file) at PATH.</li>
+     *     <li>{@code socket:PORT}: Wait for one connection on the given port of the loopback address, and read
+     *     notes from it.</li>
+     * </ul>
+     *
+     * @param source   Description of where the notes come from.
+     * @param budgetMs Max latency, in milliseconds, a note should have.
+     * @return The new {@code LiveInput}.
+     * @throws IOException              If the pipe or socket can't be opened.
+     * @throws IllegalArgumentException If the description isn't valid.
+     */
+    public static LiveInput open(String source, int budgetMs) throws IOException {
+        if (source.equals("stdin")) {
+            return new LiveInput(System.in, budgetMs);
+        }
+        if (source.startsWith("pipe:")) {
+            return new LiveInput(new FileInputStream(source.substring("pipe:".length())), budgetMs);
+        }
+        if (source.startsWith("socket:")) {
+            final int port = Integer.parseInt(source.substring("socket:".length()));
+            try (final ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+                System.out.println("Waiting for notes on " + server.getLocalSocketAddress() + "...");
+                final Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                return new LiveInput(socket.getInputStream(), budgetMs);
+            }
+        }
+        throw new IllegalArgumentException("Unknown live input: " + source);
+    }
+
+    /**
+     * Starts the thread that reads notes.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Reads lines until the input ends, putting each valid note in the {@link #queue}. Invalid lines are reported
+     * in the form {@code live:line:column: reason} and skipped, so one bad line doesn't stop the performance.
+     */
+    private void readNotes() {
+        try (final BufferedReader br = new BufferedReader(new InputStreamReader(in))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                final long received = clock.nanoTime();
+                final ParseResult result = parser.read(line);
+                for (ParseResult.Diagnostic diagnostic : result.getDiagnostics()) {
+                    System.err.println(SOURCE_NAME + ":" + diagnostic);
+                }
+
+                // Blocks while the queue is full, which stops reading until the choir catches up
+                for (BellNote note : result.getWrittenNotes()) {
+                    queue.put(new Received(note, received));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("LiveInput: Unable to read notes: " + e.getMessage());
+        } catch (InterruptedException e) {
+            System.err.println("LiveInput: Interrupted while waiting to queue a note.");
+        }
+
+        // Let the conductor know no more notes are coming
+        try {
+            queue.put(new Received(null, clock.nanoTime()));
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    /**
+     * Returns an iterator over the notes as they arrive. {@link Iterator#hasNext()} blocks until the next note is
+     * received or the input ends. Only one iterator should be used.
+     *
+     * @return An iterator over the live notes.
+     */
+    @Override
+    public Iterator<BellNote> iterator() {
+        return new Iterator<>() {
+            /** The next note, taken from the queue but not returned yet. */
+            private Received next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    try {
+                        next = queue.take();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+                return next.note != null;
+            }
+
+            @Override
+            public BellNote next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                lastReceivedNanos = next.nanos;
+                final BellNote note = next.note;
+                next = null;
+                return note;
+            }
+        };
+    }
+
+    /**
+     * Records the latency of the note most recently returned by the iterator, once it has started playing.
+     *
+     * @param writeNanos  Time, from the input's {@link Clock}, the note started being written.
+     * @param queuedNanos Length of the audio that was queued in the output ahead of the note, in nanoseconds.
+     */
+    public void notePlayed(long writeNanos, long queuedNanos) {
+        final long latency = writeNanos - lastReceivedNanos + queuedNanos;
+        notesPlayed++;
+        totalLatencyNanos += latency;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        if (latency > budgetMs * 1_000_000L) {
+            overBudget++;
+        }
+    }
+
+    /**
+     * Returns the number of notes played so far.
+     *
+     * @return The number of notes played.
+     */
+    public int getNotesPlayed() {
+        return notesPlayed;
+    }
+
+    /**
+     * Returns the highest latency of any played note, in milliseconds.
+     *
+     * @return The max latency in milliseconds.
+     */
+    public double getMaxLatencyMs() {
+        return maxLatencyNanos / 1_000_000.0d;
+    }
+
+    /**
+     * Returns the number of notes that went over the latency budget.
+     *
+     * @return The number of late notes.
+     */
+    public int getOverBudget() {
+        return overBudget;
+    }
+
+    /**
+     * Returns a summary of the latency of the notes played so far.
+     *
+     * @return The latency summary.
+     */
+    public String latencySummary() {
+        final double meanMs = notesPlayed == 0 ? 0 : totalLatencyNanos / 1_000_000.0d / notesPlayed;
+        return String.format("Live input: %d notes, mean latency %.1fms, max %.1fms, %d over the %dms budget",
+                notesPlayed, meanMs, getMaxLatencyMs(), overBudget, budgetMs);
+    }
+}
@@ -0,0 +1,148 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+import main.sound.ToneCache;
+
+/**
+ * The {@code MelodyBuilder} class turns notes placed in time, as imported formats describe them, into the
+ * {@link main.sound.BellNote BellNotes} of a {@link ParseResult}. It's shared by the {@link MidiReader}, the
+ * {@link MusicXmlReader} and the {@link AbcReader}.
+ *
+ * <p>Times are counted in eighth notes from the start of the song, already rounded by the reader. Each note is
+ * played with the longest {@link NoteLength} that fits in its time, and the gap up to the next note is filled with
+ * rests, longest first. Rests before the first note are left out. Notes that round to no time at all are left out
+ * and counted, so the reader can warn about them.</p>
+ *
+ * <p>Repeats are kept as segments of the result, the same way the {@link SongReader}'s {@code REPEAT} directive
+ * keeps them, so a repeated part isn't copied.</p>
+ */
+class MelodyBuilder {
+    /** Number of eighth notes in each {@link NoteLength}, longest first. */
+    private static final int[] LENGTH_EIGHTHS = {8, 4, 2, 1};
+
+    /** The {@link NoteLength} for each entry of {@link #LENGTH_EIGHTHS}. */
+    private static final NoteLength[] LENGTHS = {NoteLength.WHOLE, NoteLength.HALF, NoteLength.QUARTER,
+            NoteLength.EIGHTH};
+
+    /** Result the notes are added to. */
+    private final ParseResult result;
+
+    /** Number of semitones to shift every note by. */
+    private final int transpose;
+
+    /** Eighth note the last added note or rest ends at. */
+    private long end = 0;
+
+    /** Whether a note has been added. */
+    private boolean started = false;
+
+    /** Segment a repeat goes back to. */
+    private int repeatStart = 0;
+
+    /** Number of notes left out because they round to no time. */
+    private int tooShort = 0;
+
+    /**
+     * Constructs a new {@code MelodyBuilder}.
+     *
+     * @param result    Result the notes are added to.
+     * @param transpose Number of semitones to shift every note by.
+     */
+    MelodyBuilder(ParseResult result, int transpose) {
+        this.result = result;
+        this.transpose = transpose;
+    }
+
+    /**
+     * Adds a note, after rests for any gap since the last one.
+     *
+     * @param key    MIDI key of the note, 69 is A4.
+     * @param from   Eighth note the note starts at.
+     * @param to     Eighth note the note ends at.
+     * @param line   Line the note is on, for problems, or 0.
+     * @param column Column the note is at, for problems, or 0.
+     * @return {@code false} if the note is outside the range bells can play, in which case a diagnostic is added.
+     */
+    boolean note(int key, long from, long to, int line, int column) {
+        if (to <= from) {
+            tooShort++;
+            return true;
+        }
+
+        final int semitone = key - MidiReader.A4_KEY + 1 + transpose;
+        if (!ToneCache.isPlayable(semitone)) {
+            result.addDiagnostic(line, column, "Note " + Note.nameOf(key - MidiReader.A4_KEY + 1) + " shifted by " +
+                    transpose + " semitones is outside the range bells can play");
+            return false;
+        }
+
+        restTo(from);
+        int i = 0;
+        while (LENGTH_EIGHTHS[i] > to - from) {
+            i++;
+        }
+        result.addNote(BellNote.ofSemitone(semitone, LENGTHS[i]));
+        end = from + LENGTH_EIGHTHS[i];
+        started = true;
+        return true;
+    }
+
+    /**
+     * Adds rests up to the given time, if a note has been added yet.
+     *
+     * @param eighth Eighth note to rest until.
+     */
+    void restTo(long eighth) {
+        if (!started) {
+            return;
+        }
+        long left = eighth - end;
+        for (int i = 0; i < LENGTH_EIGHTHS.length; i++) {
+            while (left >= LENGTH_EIGHTHS[i]) {
+                result.addNote(new BellNote(Note.REST, LENGTHS[i]));
+                left -= LENGTH_EIGHTHS[i];
+            }
+        }
+        end = Math.max(end, eighth);
+    }
+
+    /**
+     * Marks the start of a repeated part.
+     *
+     * @param eighth Eighth note the part starts at.
+     */
+    void repeatFrom(long eighth) {
+        restTo(eighth);
+        repeatStart = result.mark();
+    }
+
+    /**
+     * Plays everything since the last {@link #repeatFrom(long) start of a repeat}, or the last repeat, again.
+     *
+     * @param eighth Eighth note the repeated part ends at.
+     * @param times  Number of times to play it again.
+     * @param line   Line of the repeat, for problems, or 0.
+     * @param column Column of the repeat, for problems, or 0.
+     * @return {@code false} if the song would get too long, in which case a diagnostic is added.
+     */
+    boolean repeat(long eighth, int times, int line, int column) {
+        restTo(eighth);
+        final boolean ok = times < 1 || result.replay(repeatStart, result.mark(), times);
+        if (!ok) {
+            result.addDiagnostic(line, column, "Song is too long to repeat " + times + " more times");
+        }
+        repeatStart = result.mark();
+        return ok;
+    }
+
+    /**
+     * Returns the number of notes left out because they round to no time.
+     *
+     * @return The number of notes.
+     */
+    int getTooShort() {
+        return tooShort;
+    }
+}
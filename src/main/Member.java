@@ -1,19 +1,34 @@
 package main;
 
+import main.sound.BellNote;
+import main.sound.Clock;
 import main.sound.Note;
-import main.sound.NoteLength;
+import main.sound.NoteBufferPool;
+import main.sound.NoteBufferPool.NoteBuffer;
+import main.sound.NoteQueue;
+import main.sound.NoteRenderer;
+import main.sound.Panner;
+import main.sound.SampleSink;
 
-import javax.sound.sampled.SourceDataLine;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 
 /**
- * The {@code Member} class represents a musical member that plays a {@link main.sound.BellNote}
- * in a synchronized multithreaded environment. Each member runs on its own thread and waits for its turn to play.
- * The class ensures synchronization between multiple members using the {@link #giveTurn()} method.
+ * The {@code Member} class represents a musical member that plays one or more bells, each ringing a single
+ * pitch, in a synchronized multithreaded environment. Each member runs on its own thread and waits
+ * for its turn to play. The class ensures synchronization between multiple members using the
+ * {@link #giveTurn(BellNote)} method.
  */
 public class Member implements Runnable {
-    /** The {@link main.sound.BellNote} that this member will play. */
-    private final Note note;
+    /** Number of the member, used in the thread's name. */
+    private final int threadNum;
+
+    /** Names of the bells this member rings, see {@link BellNote#getBell()}. */
+    private final Set<String> bells = new LinkedHashSet<>();
 
     /** The thread associated with this member, which executes the {@link #run()} method. */
     private final Thread t;
@@ -21,59 +36,152 @@ public class Member implements Runnable {
     /** A flag indicating whether the thread should keep running. It is volatile to ensure visibility across threads. */
     private volatile boolean running;
 
-    /** The {@link SourceDataLine} used to output audio for this member's note. */
-    private final SourceDataLine line;
+    /** The {@link SampleSink} used to output audio for this member's notes. */
+    private final SampleSink sink;
 
     /** A flag indicating whether it is this member's turn to play. */
     private boolean myTurn = false;
 
-    /** Keeps track of what {@link main.sound.NoteLength} to play. Will play them in the order of the queue. */
-    private final Queue<NoteLength> noteLengths;
+    /** The note the conductor asked for on the current turn. */
+    private BellNote turnNote;
+
+    /**
+     * Keeps track of what {@link main.sound.BellNote BellNotes} to play. Will play them in the order of the queue.
+     * Notes can be added while the member is playing, such as when notes arrive live. The queue's slots are
+     * allocated up front, so feeding the member notes doesn't allocate while the song plays.
+     */
+    private final NoteQueue notes = new NoteQueue(MAX_QUEUED_NOTES);
+
+    /** Where the member reads the time from. */
+    private final Clock clock;
+
+    /** Time, from the {@link #clock}, the member last started writing a note. */
+    private long lastWriteNanos = 0;
+
+    /** Number of frames queued in the sink when the member last started writing a note. */
+    private int lastQueuedFrames = 0;
+
+    /** Most notes that can be {@link #addNote(BellNote) added} to the member and not yet played. */
+    public static final int MAX_QUEUED_NOTES = 128;
+
+    /** Number of notes the member renders ahead of time, while waiting for its turn. */
+    public static final int LOOKAHEAD_NOTES = 2;
+
+    /** Buffers the member renders its upcoming notes into. */
+    private final NoteBufferPool pool;
+
+    /** Notes that are rendered and ready to be written, in the order they will be played. */
+    private final Queue<NoteBuffer> ready = new ArrayDeque<>(LOOKAHEAD_NOTES);
+
+    /** Places the member's notes among the sink's channels, or {@code null} to write them as they are, in mono. */
+    private Panner panner;
+
+    /** Panners that place the notes of particular bells, used instead of the member's {@link #panner}. */
+    private final Map<String, Panner> bellPanners = new HashMap<>();
+
+    /** Array notes are interleaved into before they're written, made once so playing doesn't allocate. */
+    private byte[] frames;
+
+    /**
+     * Constructs a new {@code Member} object. Notes are given to the member with {@link #addNote(BellNote)}.
+     *
+     * @param threadNum Number of member.
+     * @param sink      The {@link SampleSink} to write the audio bytes to.
+     */
+    public Member(int threadNum, SampleSink sink) {
+        this(threadNum, sink, Clock.SYSTEM);
+    }
 
     /**
-     * Constructs a new {@code Member} object.
+     * Constructs a new {@code Member} object that reads the time from the given {@link Clock}.
      *
-     * @param threadNum      Number of member.
-     * @param note           {@link main.sound.Note} the member will play.
-     * @param sourceDataLine The {@link SourceDataLine} to write the audio bytes to.
-     * @param noteLengths    The {@code Queue} of {@link main.sound.NoteLength NoteLengths}, helps to keep track of
-     *                       how long to play the note each time.
+     * @param threadNum Number of member.
+     * @param sink      The {@link SampleSink} to write the audio bytes to.
+     * @param clock     Where the member reads the time from.
      */
-    public Member(int threadNum, Note note, SourceDataLine sourceDataLine, Queue<NoteLength> noteLengths) {
-        this.note = note;
+    public Member(int threadNum, SampleSink sink, Clock clock) {
+        this(threadNum, sink, clock, NoteRenderer.MAX_NOTE_BYTES);
+    }
 
-        this.t = new Thread(this, "Member " + threadNum + " plays: " + note.toString());
+    /**
+     * Constructs a new {@code Member} object whose note buffers are the given size, such as the
+     * {@link main.sound.SongMetadata#getMaxNoteBytes() longest note} of the song it plays.
+     *
+     * @param threadNum Number of member.
+     * @param sink      The {@link SampleSink} to write the audio bytes to.
+     * @param clock     Where the member reads the time from.
+     * @param noteBytes Size of each note buffer, the most bytes one of the member's notes can take up.
+     */
+    public Member(int threadNum, SampleSink sink, Clock clock, int noteBytes) {
+        this.threadNum = threadNum;
 
-        this.line = sourceDataLine;
+        this.t = new Thread(this, "Member " + threadNum);
 
-        this.noteLengths = noteLengths;
+        this.sink = sink;
+        this.clock = clock;
+        this.pool = new NoteBufferPool(LOOKAHEAD_NOTES, noteBytes);
     }
 
     /**
      * Sets {@link #running} to {@code true} and starts the {@link #t thread}.
      */
     public void start() {
-        t.start();
         running = true;
+        t.start();
     }
 
     /**
-     * Plays the members {@link main.sound.BellNote} using the given {@link SourceDataLine}. The method
-     * takes the head of the {@link #noteLengths} queue and plays the {@code Members} note for that amount of time.
+     * Plays the given {@link main.sound.BellNote} using the given {@link SampleSink}, ringing the bell of the note
+     * for the note's length. The note is normally already rendered by {@link #prepareNotes()}, so it only has to
+     * be written. Rendered notes that don't match it were queued before the conductor {@link #clear() jumped} to
+     * another point of the song, and are thrown away.
+     *
+     * @param expected The note the conductor asked for.
      */
-    public void playNote() {
-        if (noteLengths.isEmpty()) {
-            System.out.println(t.getName() + " No more notes left for me to play.");
-            return;
+    public void playNote(BellNote expected) {
+        // Throw away notes rendered for a point of the song the conductor jumped away from
+        while (!ready.isEmpty() && !ready.peek().getNote().equals(expected)) {
+            pool.release(ready.poll());
+        }
+
+        // Nothing was prepared ahead of time, so render the note now
+        if (ready.isEmpty()) {
+            prepareNotes();
+        }
+
+        NoteBuffer buffer = ready.poll();
+        if (buffer == null || !buffer.getNote().equals(expected)) {
+            if (buffer == null) {
+                buffer = pool.acquire();
+            }
+            buffer.render(expected);
         }
 
-        final NoteLength noteLength = noteLengths.poll();
         // Uncomment this line to see what threads play what note and when
-//        System.out.println(t.getName() + " Length: " + noteLength);
-        final int ms = Math.min(noteLength.getTimeMs(), Note.MEASURE_LENGTH_SEC * 1000);
-        final int length = Note.SAMPLE_RATE * ms / 1000;
-        line.write(note.sample(), 0, length);
-        line.write(Note.REST.sample(), 0, 50);
+//        System.out.println(t.getName() + " Note: " + buffer.getNote());
+        final Panner p = bellPanners.isEmpty() ? panner : bellPanners.getOrDefault(buffer.getNote().getBell(), panner);
+        lastWriteNanos = clock.nanoTime();
+        if (p == null) {
+            lastQueuedFrames = sink.getQueuedBytes() / Note.ENCODING.getBytes();
+            sink.write(buffer.getData(), 0, buffer.getLength());
+        } else {
+            // The sink counts bytes, the conductor counts frames
+            lastQueuedFrames = sink.getQueuedBytes() / p.getFrameBytes();
+            p.write(sink, buffer.getData(), 0, buffer.getLength(), frames);
+        }
+        pool.release(buffer);
+    }
+
+    /**
+     * Renders notes from the {@link #notes queue} into free buffers of the {@link #pool} until
+     * {@link #LOOKAHEAD_NOTES} notes are ready to be written, or there are no notes left.
+     */
+    private void prepareNotes() {
+        while (ready.size() < LOOKAHEAD_NOTES && !notes.isEmpty()) {
+            final NoteBuffer buffer = pool.acquire();
+            buffer.render(notes.poll());
+            ready.add(buffer);
+        }
     }
 
 
@@ -84,15 +192,17 @@ public class Member implements Runnable {
      * <p>The method uses synchronization to ensure proper coordination between threads.
      * It waits until the turn is completed before returning.</p>
      *
+     * @param note The note to play, the next one {@link #addNote(BellNote) added} unless the conductor jumped.
      * @throws IllegalStateException if an attempt is made to give a turn to a member
      *                               who hasn't completed their current turn.
      */
-    public void giveTurn() {
+    public void giveTurn(BellNote note) {
         synchronized (this) {
             if (myTurn) {
                 throw new IllegalStateException("Attempt to give a turn to a member who's hasn't completed the current turn");
             }
             myTurn = true;
+            turnNote = note;
             notify();
             while (myTurn) {
                 try {
@@ -106,13 +216,18 @@ public class Member implements Runnable {
     /**
      * While {@link #running}, the thread will wait until it is its turn to play its note.
      * Once the thread has played its note, it will notify another thread waiting on the thread.
+     * Between turns, the thread renders its next notes so they are ready to be written as soon as its turn comes.
      *
-     * <p>The method uses synchronization to ensure proper coordination between threads.</p>
+     * <p>The method uses synchronization to ensure proper coordination between threads. Notes are rendered and
+     * written without holding the lock, so the conductor is never kept waiting while a note is prepared.</p>
      */
     @Override
     public void run() {
-        synchronized (this) {
-            while (running) {
+        while (running) {
+            prepareNotes();
+
+            final BellNote note;
+            synchronized (this) {
                 while (!myTurn && running) {
                     try {
                         wait();
@@ -121,7 +236,12 @@ public class Member implements Runnable {
                 if(!running){
                     continue;
                 }
-                playNote();
+                note = turnNote;
+            }
+
+            playNote(note);
+
+            synchronized (this) {
                 myTurn = false;
                 notify();
             }
@@ -129,12 +249,116 @@ public class Member implements Runnable {
     }
 
     /**
-     * Adds the given {@link main.sound.NoteLength} to the {@link #noteLengths queue} of {@code NoteLengths} to play.
+     * Adds the given {@link main.sound.BellNote} to the {@link #notes queue} of notes to play. If the member
+     * doesn't have the note's bell yet, it's picked up and added to the thread's name.
+     *
+     * @param bellNote {@link main.sound.BellNote} to add.
+     * @throws IllegalStateException If {@link #MAX_QUEUED_NOTES} notes are already waiting to be played.
+     */
+    public void addNote(BellNote bellNote) {
+        notes.add(bellNote);
+        addBell(bellNote.getBell());
+    }
+
+    /**
+     * Gives the member a bell to ring. If the member doesn't have the bell yet, it's added to the thread's name.
+     *
+     * @param bell Name of the bell, see {@link BellNote#getBell()}.
+     */
+    public void addBell(String bell) {
+        if (bells.add(bell)) {
+            t.setName("Member " + threadNum + " plays: " + bells);
+        }
+    }
+
+    /**
+     * Places the member's notes among the channels of its sink. Must be called before the member is
+     * {@link #start() started}.
+     *
+     * @param panner Places the notes, or {@code null} to write them in mono.
+     */
+    public void setPanner(Panner panner) {
+        this.panner = panner;
+        growFrames(panner);
+    }
+
+    /**
+     * Places the notes of one of the member's bells among the channels of its sink, instead of where the member's
+     * {@link #setPanner(Panner) panner} places them. Must be called before the member is {@link #start() started}.
+     *
+     * @param bell   Name of the bell, see {@link BellNote#getBell()}.
+     * @param panner Places the bell's notes.
+     */
+    public void setBellPanner(String bell, Panner panner) {
+        bellPanners.put(bell, panner);
+        growFrames(panner);
+    }
+
+    /**
+     * Makes sure the {@link #frames} array is big enough for the given panner.
+     *
+     * @param panner The panner, or {@code null}.
+     */
+    private void growFrames(Panner panner) {
+        if (panner != null && (frames == null || frames.length < Panner.CHUNK_FRAMES * panner.getFrameBytes())) {
+            frames = panner.scratch();
+        }
+    }
+
+    /**
+     * Forgets every note {@link #addNote(BellNote) added} but not yet played, for when the conductor jumps to
+     * another point of the song. Notes already rendered are thrown away when the member's next turn comes.
+     */
+    public void clear() {
+        notes.clear();
+    }
+
+    /**
+     * Returns the time, from the member's {@link Clock}, the member last started writing a note. Read it after
+     * {@link #giveTurn(BellNote)} returns to get the time of the note just played.
+     *
+     * @return The time of the last write in nanoseconds.
+     */
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    /**
+     * Returns the number of frames that were queued in the sink, ahead of the member's note, when it last started
+     * writing a note. When the member isn't {@link #setPanner(Panner) panned}, a frame is a single sample.
+     *
+     * @return The number of queued frames.
+     */
+    public int getLastQueuedFrames() {
+        return lastQueuedFrames;
+    }
+
+    /**
+     * Returns the number of notes rendered ahead of time and ready to be written. The count is only settled while
+     * the member is waiting for its turn, since the member renders its next notes between turns.
+     *
+     * @return The number of ready notes.
+     */
+    public synchronized int getReadyNotes() {
+        return ready.size();
+    }
+
+    /**
+     * Returns the ID of the member's thread, used to measure what the thread allocates.
+     *
+     * @return The thread's ID.
+     */
+    long getThreadId() {
+        return t.getId();
+    }
+
+    /**
+     * Returns the number of bells this member rings.
      *
-     * @param noteLength {@link main.sound.NoteLength} to add.
+     * @return The number of bells.
      */
-    public void addLength(NoteLength noteLength) {
-        noteLengths.add(noteLength);
+    public int getBellCount() {
+        return bells.size();
     }
 
     /**
@@ -0,0 +1,482 @@
+package main;
+
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code MidiReader} class reads Standard MIDI Files into {@link main.sound.BellNote BellNotes}, without
+ * loading the file into memory first.
+ *
+ * <p>The file is read in two passes. The first skips through the chunk headers to find where each track starts.
+ * The second opens a stream at the start of every track and decodes their events one at a time, always taking the
+ * next event from the track whose next event comes first, so the tracks are merged in time order while only holding
+ * one event per track.</p>
+ *
+ * <p>A choir plays one bell at a time, so at every moment the highest note sounding is the one played, which is
+ * usually the melody. Notes sounding under it are left out and counted in a warning, and so are the drums on
+ * channel 10. Each note starts and ends on the nearest eighth note, and is played by a {@link MelodyBuilder} with
+ * the longest {@link main.sound.NoteLength} that fits, followed by rests for the rest of its time. Notes shorter
+ * than an eighth that round away are counted in a warning too. Tempo changes are ignored, since the choir always plays a whole note in
+ * {@link main.sound.Note#MEASURE_LENGTH_SEC} seconds.</p>
+ *
+ * <p>MIDI key 69 is A4, the {@link main.sound.Note} with semitone 1.</p>
+ */
+public class MidiReader {
+    /** Extensions of the files read as MIDI. */
+    public static final String[] EXTENSIONS = {".mid", ".midi"};
+
+    /** MIDI key of A4, the note with semitone 1. */
+    public static final int A4_KEY = 69;
+
+    /** Channel drums are played on, counted from 0. */
+    private static final int DRUM_CHANNEL = 9;
+
+    /**
+     * Constructs a new MidiReader object. Currently empty constructor
+     */
+    public MidiReader() {
+        //empty
+    }
+
+    /**
+     * Returns whether the given file name is a MIDI file, by its extension.
+     *
+     * @param fileName The file name.
+     * @return {@code true} if the file is read as MIDI.
+     */
+    public static boolean isMidi(String fileName) {
+        final String lower = fileName.toLowerCase();
+        for (String extension : EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the given MIDI file, shifting every note by the given number of semitones.
+     *
+     * @param file      The file to read.
+     * @param transpose Number of semitones to shift every note by.
+     * @param mode      Whether to stop at the first problem or report every problem.
+     * @return The {@link ParseResult} holding the notes, any problems found, and warnings about notes left out.
+     */
+    public ParseResult read(Path file, int transpose, ParseMode mode) {
+        final ParseResult result = new ParseResult(file.getFileName().toString());
+
+        // Offset and length of each track's events
+        final List<long[]> trackChunks = new ArrayList<>();
+        final int division;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            // Header chunk: format, number of tracks and ticks per quarter note
+            if (in.readInt() != 0x4D546864) {
+                result.addDiagnostic(0, 0, "Not a MIDI file, it doesn't start with MThd");
+                return result;
+            }
+            final int headerLength = in.readInt();
+            in.readUnsignedShort();
+            final int tracks = in.readUnsignedShort();
+            division = in.readUnsignedShort();
+            skipFully(in, headerLength - 6);
+            if ((division & 0x8000) != 0 || division == 0) {
+                result.addDiagnostic(0, 0, "Time code based MIDI files aren't supported, only ticks per quarter note");
+                return result;
+            }
+
+            // Find where each track starts, skipping over any other chunks
+            long offset = 8 + headerLength;
+            while (trackChunks.size() < tracks) {
+                final int type;
+                try {
+                    type = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                final long length = in.readInt() & 0xFFFFFFFFL;
+                if (type == 0x4D54726B) {
+                    trackChunks.add(new long[]{offset + 8, length});
+                }
+                skipFully(in, length);
+                offset += 8 + length;
+            }
+            if (trackChunks.size() < tracks) {
+                result.addDiagnostic(0, 0, "File says it has " + tracks + " tracks but only " +
+                        trackChunks.size() + " were found");
+                if (mode == ParseMode.FAIL_FAST) {
+                    return result;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            result.addDiagnostic(0, 0, "File not found at " + file);
+            return result;
+        } catch (IOException e) {
+            result.addDiagnostic(0, 0, "Unable to read file: " + e.getMessage());
+            return result;
+        }
+
+        final Track[] tracks = new Track[trackChunks.size()];
+        try {
+            for (int t = 0; t < tracks.length; t++) {
+                tracks[t] = new Track(file, trackChunks.get(t)[0], trackChunks.get(t)[1]);
+                tracks[t].advance();
+            }
+            new Melody(division, transpose, mode, result).play(tracks);
+        } catch (IOException e) {
+            result.addDiagnostic(0, 0, "Unable to read file: " + e.getMessage());
+        } finally {
+            for (Track track : tracks) {
+                if (track != null) {
+                    track.close();
+                }
+            }
+        }
+
+        if (result.getNotes().isEmpty() && result.getDiagnostics().isEmpty()) {
+            result.addDiagnostic(0, 0, "No notes found in file");
+        }
+        return result;
+    }
+
+    /**
+     * Skips the given number of bytes of a stream.
+     *
+     * @param in    The stream.
+     * @param bytes Number of bytes to skip.
+     * @throws IOException If the stream ends first.
+     */
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            final long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("File ended in the middle of a chunk");
+                }
+                bytes--;
+            } else {
+                bytes -= skipped;
+            }
+        }
+    }
+
+    /**
+     * Decodes the note events of one track, one at a time, from its own stream.
+     */
+    private static class Track {
+        /** Stream positioned in the track's chunk. */
+        private final InputStream in;
+
+        /** Number of bytes of the track left to read. */
+        private long remaining;
+
+        /** Status byte of the last channel event, used by events that leave it out. */
+        private int runningStatus = 0;
+
+        /** Tick of the current event. */
+        private long tick = 0;
+
+        /** Whether the track has no events left. */
+        private boolean done = false;
+
+        /** Whether the current event starts a note, if not it ends one. */
+        private boolean noteOn;
+
+        /** Channel of the current event, counted from 0. */
+        private int channel;
+
+        /** Key of the current event. */
+        private int key;
+
+        /**
+         * Opens a stream at the start of a track.
+         *
+         * @param file   The MIDI file.
+         * @param start  Offset of the first byte of the track's events.
+         * @param length Number of bytes of events.
+         * @throws IOException If the file can't be read.
+         */
+        private Track(Path file, long start, long length) throws IOException {
+            this.in = new BufferedInputStream(Files.newInputStream(file));
+            this.remaining = length;
+            skipFully(in, start);
+        }
+
+        /**
+         * Moves on to the track's next note event, skipping every other event.
+         *
+         * @throws IOException If the file can't be read or the track is cut short.
+         */
+        private void advance() throws IOException {
+            while (remaining > 0) {
+                tick += readVariable();
+                int status = readByte();
+                if (status < 0x80) {
+                    // Running status, the byte read is the first data byte
+                    if (runningStatus == 0) {
+                        throw new IOException("Event without a status byte");
+                    }
+                    key = status;
+                    status = runningStatus;
+                } else if (status < 0xF0) {
+                    runningStatus = status;
+                    key = readData();
+                } else {
+                    // Meta and system exclusive events, none of which change the notes
+                    runningStatus = 0;
+                    if (status == 0xFF) {
+                        final int type = readByte();
+                        final long length = readVariable();
+                        skip(length);
+                        if (type == 0x2F) {
+                            break;
+                        }
+                    } else if (status == 0xF0 || status == 0xF7) {
+                        skip(readVariable());
+                    } else {
+                        throw new IOException("Unknown event status 0x" + Integer.toHexString(status));
+                    }
+                    continue;
+                }
+
+                // Channel events, key holds the first data byte
+                final int type = status & 0xF0;
+                if (type == 0xC0 || type == 0xD0) {
+                    continue;
+                }
+                final int velocity = readData();
+                if (type == 0x80 || type == 0x90) {
+                    noteOn = type == 0x90 && velocity > 0;
+                    channel = status & 0x0F;
+                    return;
+                }
+            }
+            done = true;
+        }
+
+        /**
+         * Reads a variable length number, seven bits to a byte with the top bit set on every byte but the last.
+         *
+         * @return The number.
+         * @throws IOException If the track is cut short.
+         */
+        private long readVariable() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 4; i++) {
+                final int b = readByte();
+                value = (value << 7) | (b & 0x7F);
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Variable length number is longer than 4 bytes");
+        }
+
+        /**
+         * Reads a data byte of a channel event, which never has its top bit set.
+         *
+         * @return The byte, from 0 to 127.
+         * @throws IOException If the track is cut short or the byte is out of range.
+         */
+        private int readData() throws IOException {
+            final int b = readByte();
+            if (b >= 0x80) {
+                throw new IOException("Data byte out of range: 0x" + Integer.toHexString(b));
+            }
+            return b;
+        }
+
+        /**
+         * Reads one byte of the track.
+         *
+         * @return The byte, from 0 to 255.
+         * @throws IOException If the track is cut short.
+         */
+        private int readByte() throws IOException {
+            if (remaining-- <= 0) {
+                throw new EOFException("Track ends in the middle of an event");
+            }
+            final int b = in.read();
+            if (b < 0) {
+                throw new EOFException("File ends in the middle of a track");
+            }
+            return b;
+        }
+
+        /**
+         * Skips bytes of the track.
+         *
+         * @param bytes Number of bytes to skip.
+         * @throws IOException If the track is cut short.
+         */
+        private void skip(long bytes) throws IOException {
+            if (bytes > remaining) {
+                throw new EOFException("Track ends in the middle of an event");
+            }
+            skipFully(in, bytes);
+            remaining -= bytes;
+        }
+
+        /**
+         * Closes the track's stream.
+         */
+        private void close() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Turns the merged note events of every track into the highest note sounding at each moment, and adds those
+     * notes to a {@link ParseResult}.
+     */
+    private static class Melody {
+        /** Ticks in a quarter note. */
+        private final int division;
+
+        /** Whether to stop at the first problem. */
+        private final ParseMode mode;
+
+        /** Result the warnings are added to. */
+        private final ParseResult result;
+
+        /** Builds the notes of the melody. */
+        private final MelodyBuilder melody;
+
+        /** Number of note ons of each key that haven't been ended yet. */
+        private final int[] sounding = new int[128];
+
+        /** Key being played, or -1 for a rest. */
+        private int playing = -1;
+
+        /** Tick the key being played started at. */
+        private long playingFrom = 0;
+
+        /** Number of notes left out because a higher note was sounding. */
+        private int underneath = 0;
+
+        /** Number of drum notes left out. */
+        private int drums = 0;
+
+        /**
+         * Constructs a new {@code Melody}.
+         *
+         * @param division  Ticks in a quarter note.
+         * @param transpose Number of semitones to shift every note by.
+         * @param mode      Whether to stop at the first problem.
+         * @param result    Result the notes are added to.
+         */
+        private Melody(int division, int transpose, ParseMode mode, ParseResult result) {
+            this.division = division;
+            this.mode = mode;
+            this.result = result;
+            this.melody = new MelodyBuilder(result, transpose);
+        }
+
+        /**
+         * Reads every event of the tracks in time order, then adds the warnings.
+         *
+         * @param tracks The tracks, each at its first note event.
+         * @throws IOException If a track can't be read.
+         */
+        private void play(Track[] tracks) throws IOException {
+            long tick = 0;
+            final boolean[] struck = new boolean[128];
+            while (true) {
+                // Take every event at the earliest tick any track is at
+                long next = Long.MAX_VALUE;
+                for (Track track : tracks) {
+                    if (!track.done) {
+                        next = Math.min(next, track.tick);
+                    }
+                }
+                if (next == Long.MAX_VALUE) {
+                    break;
+                }
+                tick = next;
+
+                for (Track track : tracks) {
+                    while (!track.done && track.tick == tick) {
+                        if (track.channel == DRUM_CHANNEL) {
+                            drums += track.noteOn ? 1 : 0;
+                        } else if (track.noteOn) {
+                            sounding[track.key]++;
+                            struck[track.key] = true;
+                        } else if (sounding[track.key] > 0) {
+                            sounding[track.key]--;
+                        }
+                        track.advance();
+                    }
+                }
+
+                // The highest key sounding is played, it starts again if it was struck at this tick
+                int top = -1;
+                for (int key = 127; key >= 0; key--) {
+                    if (sounding[key] > 0) {
+                        top = key;
+                        break;
+                    }
+                }
+                final boolean restruck = top >= 0 && struck[top];
+                for (int key = 0; key < 128; key++) {
+                    if (struck[key]) {
+                        if (key != top) {
+                            underneath++;
+                        }
+                        struck[key] = false;
+                    }
+                }
+                if (top != playing || restruck) {
+                    if (!change(top, tick) && mode == ParseMode.FAIL_FAST) {
+                        return;
+                    }
+                }
+            }
+            change(-1, tick);
+
+            if (underneath > 0) {
+                result.addWarning(0, 0, "Left out " + underneath + " notes played under a higher note");
+            }
+            if (melody.getTooShort() > 0) {
+                result.addWarning(0, 0, "Left out " + melody.getTooShort() + " notes shorter than an eighth note");
+            }
+            if (drums > 0) {
+                result.addWarning(0, 0, "Left out " + drums + " drum notes on channel 10");
+            }
+        }
+
+        /**
+         * Ends the key being played at the given tick and starts playing another one.
+         *
+         * @param key  The key to play, or -1 for a rest.
+         * @param tick The tick it starts at.
+         * @return {@code false} if the note that ended couldn't be played.
+         */
+        private boolean change(int key, long tick) {
+            final boolean ok = playing < 0 || melody.note(playing, eighthOf(playingFrom), eighthOf(tick), 0, 0);
+            playing = key;
+            playingFrom = tick;
+            return ok;
+        }
+
+        /**
+         * Returns the eighth note nearest to the given tick.
+         *
+         * @param tick The tick.
+         * @return Number of eighth notes from the start of the song.
+         */
+        private long eighthOf(long tick) {
+            return (tick * 2 + division / 2) / division;
+        }
+    }
+}
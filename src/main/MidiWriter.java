@@ -0,0 +1,172 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.Note;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The {@code MidiWriter} class writes a song as a Standard MIDI File, so it can be opened by other music programs.
+ *
+ * <p>The file has a single track on channel 1, played with the tubular bells instrument. The tempo is set so a whole
+ * note lasts {@link Note#MEASURE_LENGTH_SEC} seconds, the same as when the choir plays it, and every note is held
+ * for its full length. Rests are the time between notes.</p>
+ *
+ * <p>The song is streamed out twice: once to work out the length of the track, which goes in front of it, and once
+ * to write it, so nothing but the song itself is held in memory.</p>
+ */
+public class MidiWriter {
+    /** Ticks in a quarter note. */
+    public static final int DIVISION = 480;
+
+    /** General MIDI program of the tubular bells, counted from 0. */
+    private static final int TUBULAR_BELLS = 14;
+
+    /** Velocity notes are struck with. */
+    private static final int VELOCITY = 100;
+
+    /** Bytes of the events written before the first note: tempo and program change. */
+    private static final int PRELUDE_BYTES = 7 + 3;
+
+    /** Bytes of the end of track event. */
+    private static final int END_BYTES = 4;
+
+    /**
+     * Constructs a new MidiWriter object. Currently empty constructor
+     */
+    public MidiWriter() {
+        //empty
+    }
+
+    /**
+     * Writes the song as a Standard MIDI File. The stream isn't closed.
+     *
+     * @param song The notes of the song.
+     * @param out  The stream to write to.
+     * @throws IOException              If the stream can't be written to.
+     * @throws IllegalArgumentException If a note is outside the range of MIDI keys.
+     */
+    public void write(List<BellNote> song, OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+
+        // Header: format 0, one track, ticks per quarter note
+        data.writeInt(0x4D546864);
+        data.writeInt(6);
+        data.writeShort(0);
+        data.writeShort(1);
+        data.writeShort(DIVISION);
+
+        data.writeInt(0x4D54726B);
+        data.writeInt((int) trackLength(song));
+
+        // Tempo, in microseconds per quarter note, then the instrument
+        final int tempo = Note.MEASURE_LENGTH_SEC * 1_000_000 / 4;
+        data.write(new byte[]{0, (byte) 0xFF, 0x51, 3, (byte) (tempo >> 16), (byte) (tempo >> 8), (byte) tempo});
+        data.write(new byte[]{0, (byte) 0xC0, TUBULAR_BELLS});
+
+        long delta = 0;
+        for (BellNote note : song) {
+            final long ticks = ticksOf(note);
+            if (note.getNote() == Note.REST) {
+                delta += ticks;
+                continue;
+            }
+            final int key = keyOf(note);
+            writeVariable(data, delta);
+            data.write(new byte[]{(byte) 0x90, (byte) key, VELOCITY});
+            writeVariable(data, ticks);
+            data.write(new byte[]{(byte) 0x80, (byte) key, 0});
+            delta = 0;
+        }
+
+        writeVariable(data, delta);
+        data.write(new byte[]{(byte) 0xFF, 0x2F, 0});
+        data.flush();
+    }
+
+    /**
+     * Returns the MIDI key of a note.
+     *
+     * @param note The note.
+     * @return The key, from 0 to 127.
+     * @throws IllegalArgumentException If the note is outside the range of MIDI keys.
+     */
+    public static int keyOf(BellNote note) {
+        final int key = note.getSemitone() - 1 + MidiReader.A4_KEY;
+        if (key < 0 || key > 127) {
+            throw new IllegalArgumentException("Note " + note.getBell() + " is outside the range of MIDI keys");
+        }
+        return key;
+    }
+
+    /**
+     * Returns the length of a note in ticks.
+     *
+     * @param note The note.
+     * @return Number of ticks.
+     */
+    private static long ticksOf(BellNote note) {
+        return Math.round(note.getLength().getLength() * 4 * DIVISION);
+    }
+
+    /**
+     * Returns the number of bytes the song's track takes, without its chunk header.
+     *
+     * @param song The notes of the song.
+     * @return The number of bytes.
+     * @throws IllegalArgumentException If a note is outside the range of MIDI keys, or the track is too long.
+     */
+    private static long trackLength(List<BellNote> song) {
+        long length = PRELUDE_BYTES + END_BYTES;
+        long delta = 0;
+        for (BellNote note : song) {
+            final long ticks = ticksOf(note);
+            if (note.getNote() == Note.REST) {
+                delta += ticks;
+                continue;
+            }
+            keyOf(note);
+            length += variableLength(delta) + 3 + variableLength(ticks) + 3;
+            delta = 0;
+        }
+        length += variableLength(delta) - 1;
+        if (length > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Song is too long for a MIDI track");
+        }
+        return length;
+    }
+
+    /**
+     * Writes a variable length number, seven bits to a byte with the top bit set on every byte but the last.
+     *
+     * @param out   The stream to write to.
+     * @param value The number, at most 28 bits long.
+     * @throws IOException If the stream can't be written to.
+     */
+    private static void writeVariable(OutputStream out, long value) throws IOException {
+        if (value > 0x0FFFFFFF) {
+            throw new IllegalArgumentException("Time between notes is too long for a MIDI file");
+        }
+        for (int shift = 7 * (variableLength(value) - 1); shift > 0; shift -= 7) {
+            out.write((int) (0x80 | (value >> shift) & 0x7F));
+        }
+        out.write((int) (value & 0x7F));
+    }
+
+    /**
+     * Returns the number of bytes a variable length number takes.
+     *
+     * @param value The number.
+     * @return The number of bytes, from 1 to 4.
+     */
+    private static int variableLength(long value) {
+        int bytes = 1;
+        while ((value >>= 7) != 0) {
+            bytes++;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,611 @@
+package main;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * The {@code MusicXmlReader} class reads MusicXML scores into {@link main.sound.BellNote BellNotes} with a StAX pull
+ * parser, so the score is never held in memory and a full score takes as little memory as a single part.
+ *
+ * <p>A choir plays one bell at a time, so only the melody is read: the first part of the score, and in it the
+ * voice of its first note. At a chord, the highest note is played. Tied notes are joined into one. Repeat bar lines
+ * are kept as repeats, see {@link MelodyBuilder}. Everything else that can't be played is left out and counted in a
+ * warning instead of stopping the import:</p>
+ * <ul>
+ *     <li>Other parts, and other voices of the first part.</li>
+ *     <li>Chord notes under the highest one, grace and cue notes, and unpitched percussion.</li>
+ *     <li>First and second endings and jumps such as da capo and segno, which are played straight through.</li>
+ *     <li>Notes shorter than an eighth note that round away.</li>
+ * </ul>
+ *
+ * <p>Compressed {@code .mxl} files are read straight from the archive, taking the first score in it.</p>
+ */
+public class MusicXmlReader {
+    /** Extensions of the files read as MusicXML. */
+    public static final String[] EXTENSIONS = {".musicxml", ".xml", ".mxl"};
+
+    /** Extension of compressed MusicXML files. */
+    private static final String COMPRESSED_EXTENSION = ".mxl";
+
+    /** Semitones above C of each step from A to G. */
+    private static final int[] STEP_SEMITONES = {9, 11, 0, 2, 4, 5, 7};
+
+    /**
+     * Constructs a new MusicXmlReader object. Currently empty constructor
+     */
+    public MusicXmlReader() {
+        //empty
+    }
+
+    /**
+     * Returns whether the given file name is a MusicXML file, by its extension.
+     *
+     * @param fileName The file name.
+     * @return {@code true} if the file is read as MusicXML.
+     */
+    public static boolean isMusicXml(String fileName) {
+        final String lower = fileName.toLowerCase();
+        for (String extension : EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the given MusicXML file, shifting every note by the given number of semitones.
+     *
+     * @param file      The file to read.
+     * @param transpose Number of semitones to shift every note by.
+     * @param mode      Whether to stop at the first problem or report every problem.
+     * @return The {@link ParseResult} holding the notes, any problems found, and warnings about what was left out.
+     */
+    public ParseResult read(Path file, int transpose, ParseMode mode) {
+        final ParseResult result = new ParseResult(file.getFileName().toString());
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            InputStream score = in;
+            if (file.toString().toLowerCase().endsWith(COMPRESSED_EXTENSION)) {
+                score = findScore(new ZipInputStream(in));
+                if (score == null) {
+                    result.addDiagnostic(0, 0, "No score found in compressed MusicXML file");
+                    return result;
+                }
+            }
+            read(score, transpose, mode, result);
+        } catch (NoSuchFileException e) {
+            result.addDiagnostic(0, 0, "File not found at " + file);
+        } catch (IOException e) {
+            result.addDiagnostic(0, 0, "Unable to read file: " + e.getMessage());
+        }
+
+        if (result.getNotes().isEmpty() && result.getDiagnostics().isEmpty()) {
+            result.addDiagnostic(0, 0, "No notes found in file");
+        }
+        return result;
+    }
+
+    /**
+     * Reads a MusicXML score from a stream into the given result.
+     *
+     * @param in        The stream holding the score.
+     * @param transpose Number of semitones to shift every note by.
+     * @param mode      Whether to stop at the first problem or report every problem.
+     * @param result    The result to read into.
+     */
+    private void read(InputStream in, int transpose, ParseMode mode, ParseResult result) {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Scores name the MusicXML DTD, which must not be fetched or expanded
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        XMLStreamReader xml = null;
+        try {
+            xml = factory.createXMLStreamReader(in);
+            new Score(xml, new MelodyBuilder(result, transpose), mode, result).read();
+        } catch (XMLStreamException e) {
+            final Location location = e.getLocation();
+            result.addDiagnostic(location != null ? Math.max(0, location.getLineNumber()) : 0,
+                    location != null ? Math.max(0, location.getColumnNumber()) : 0,
+                    "Invalid XML: " + e.getMessage().replaceAll("^ParseError at \\[row,col\\]:\\[\\d+,\\d+\\]\\s*Message: ", ""));
+        } finally {
+            if (xml != null) {
+                try {
+                    xml.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves a compressed MusicXML archive to its score, the first XML file outside of {@code META-INF}.
+     *
+     * @param zip The archive.
+     * @return The archive positioned at the score, or {@code null} if there isn't one.
+     * @throws IOException If the archive can't be read.
+     */
+    private static InputStream findScore(ZipInputStream zip) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            final String name = entry.getName().toLowerCase();
+            if (!entry.isDirectory() && !name.startsWith("meta-inf/") &&
+                    (name.endsWith(".xml") || name.endsWith(".musicxml"))) {
+                return zip;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pulls the events of one score and turns its melody into notes.
+     */
+    private static class Score {
+        /** The parser. */
+        private final XMLStreamReader xml;
+
+        /** Builds the notes of the melody. */
+        private final MelodyBuilder melody;
+
+        /** Whether to stop at the first problem. */
+        private final ParseMode mode;
+
+        /** Result the warnings are added to. */
+        private final ParseResult result;
+
+        /** Divisions of a quarter note that durations are given in. */
+        private double divisions = 1;
+
+        /** Time, in whole notes, the next note of any voice starts at, moved back by a {@code backup}. */
+        private double position = 0;
+
+        /** Voice of the melody, known once the first note is read. */
+        private String voice = null;
+
+        /** Whether a note is waiting to be added, in case a chord note or a tie changes it. */
+        private boolean pending = false;
+
+        /** MIDI key of the waiting note. */
+        private int pendingKey;
+
+        /** Time, in whole notes, the waiting note starts at. */
+        private double pendingFrom;
+
+        /** Time, in whole notes, the waiting note ends at. */
+        private double pendingTo;
+
+        /** Line of the waiting note. */
+        private int pendingLine;
+
+        /** Column of the waiting note. */
+        private int pendingColumn;
+
+        /** Whether a problem was found and the import should stop. */
+        private boolean stopped = false;
+
+        /** Number of parts read or skipped so far. */
+        private int parts = 0;
+
+        /** Number of parts after the first, left out. */
+        private int otherParts = 0;
+
+        /** Number of notes in other voices, left out. */
+        private int otherVoices = 0;
+
+        /** Number of chord notes under a higher one, left out. */
+        private int underneath = 0;
+
+        /** Number of grace and cue notes, left out. */
+        private int ornaments = 0;
+
+        /** Number of unpitched percussion notes, left out. */
+        private int percussion = 0;
+
+        /** Number of first and second endings played straight through. */
+        private int endings = 0;
+
+        /** Number of jumps played straight through. */
+        private int jumps = 0;
+
+        /**
+         * Constructs a new {@code Score}.
+         *
+         * @param xml    The parser.
+         * @param melody Builds the notes of the melody.
+         * @param mode   Whether to stop at the first problem.
+         * @param result Result the warnings are added to.
+         */
+        private Score(XMLStreamReader xml, MelodyBuilder melody, ParseMode mode, ParseResult result) {
+            this.xml = xml;
+            this.melody = melody;
+            this.mode = mode;
+            this.result = result;
+        }
+
+        /**
+         * Reads the whole score, then adds the warnings.
+         *
+         * @throws XMLStreamException If the XML is invalid.
+         */
+        private void read() throws XMLStreamException {
+            boolean inPart = false;
+            while (xml.hasNext() && !stopped) {
+                final int event = xml.next();
+                if (event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals("part")) {
+                    inPart = false;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+
+                switch (xml.getLocalName()) {
+                    case "score-timewise":
+                        result.addDiagnostic(line(), column(), "Timewise scores aren't supported, only partwise");
+                        return;
+                    case "part":
+                        if (parts++ == 0) {
+                            inPart = true;
+                        } else {
+                            otherParts++;
+                            skipElement();
+                        }
+                        break;
+                    case "divisions":
+                        divisions = number(xml.getElementText(), divisions);
+                        break;
+                    case "note":
+                        if (inPart) {
+                            readNote();
+                        }
+                        break;
+                    case "forward":
+                    case "backup":
+                        if (inPart) {
+                            readMove(xml.getLocalName().equals("backup"));
+                        }
+                        break;
+                    case "repeat":
+                        if (inPart) {
+                            readRepeat();
+                        }
+                        break;
+                    case "ending":
+                        if (inPart && "start".equals(xml.getAttributeValue(null, "type"))) {
+                            endings++;
+                        }
+                        break;
+                    case "sound":
+                        if (inPart && isJump()) {
+                            jumps++;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            flush();
+
+            warn(otherParts, "parts after the first");
+            warn(otherVoices, "notes in other voices than the melody's");
+            warn(underneath, "notes played under a higher note");
+            warn(ornaments, "grace and cue notes");
+            warn(percussion, "unpitched percussion notes");
+            warn(melody.getTooShort(), "notes shorter than an eighth note");
+            if (endings > 0) {
+                result.addWarning(0, 0, "Played " + endings + " first and second endings straight through");
+            }
+            if (jumps > 0) {
+                result.addWarning(0, 0, "Played " + jumps + " jumps, such as da capo, straight through");
+            }
+        }
+
+        /**
+         * Reads a {@code note} element and adds it to the melody.
+         *
+         * @throws XMLStreamException If the XML is invalid.
+         */
+        private void readNote() throws XMLStreamException {
+            final int line = line();
+            final int column = column();
+            boolean rest = false;
+            boolean chord = false;
+            boolean ornament = false;
+            boolean unpitched = false;
+            boolean tiedFromBefore = false;
+            String step = null;
+            double alter = 0;
+            int octave = 4;
+            double duration = 0;
+            String noteVoice = null;
+
+            int depth = 1;
+            while (depth > 0) {
+                final int event = xml.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                depth++;
+                switch (xml.getLocalName()) {
+                    case "rest":
+                        rest = true;
+                        break;
+                    case "chord":
+                        chord = true;
+                        break;
+                    case "grace":
+                    case "cue":
+                        ornament = true;
+                        break;
+                    case "unpitched":
+                        unpitched = true;
+                        break;
+                    case "step":
+                        step = xml.getElementText().strip();
+                        depth--;
+                        break;
+                    case "alter":
+                        alter = number(xml.getElementText(), 0);
+                        depth--;
+                        break;
+                    case "octave":
+                        octave = (int) number(xml.getElementText(), octave);
+                        depth--;
+                        break;
+                    case "duration":
+                        duration = number(xml.getElementText(), 0);
+                        depth--;
+                        break;
+                    case "voice":
+                        noteVoice = xml.getElementText().strip();
+                        depth--;
+                        break;
+                    case "tie":
+                        tiedFromBefore |= "stop".equals(xml.getAttributeValue(null, "type"));
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            if (ornament) {
+                ornaments++;
+                return;
+            }
+            if (voice == null) {
+                voice = noteVoice != null ? noteVoice : "1";
+            }
+            final double length = duration / divisions / 4;
+            if (noteVoice != null && !noteVoice.equals(voice)) {
+                // Other voices still move the time on, a backup brings it back to the melody
+                otherVoices++;
+                position += chord ? 0 : length;
+                return;
+            }
+
+            if (unpitched) {
+                percussion++;
+                rest = true;
+            }
+            if (!rest && step != null && keyOf(step, alter, octave) < 0) {
+                // Reported rather than guessed, the note's time is kept so the rest of the song stays in place
+                result.addDiagnostic(line, column, "Unknown step '" + step + "', expected A to G");
+                rest = true;
+            }
+            if (rest || step == null) {
+                if (!chord) {
+                    flush();
+                    position += length;
+                }
+                return;
+            }
+
+            final int key = keyOf(step, alter, octave);
+            if (chord) {
+                // The note starts with the one before it, keep whichever is higher
+                if (pending) {
+                    underneath++;
+                    if (key > pendingKey) {
+                        pendingKey = key;
+                        pendingLine = line;
+                        pendingColumn = column;
+                    }
+                }
+                return;
+            }
+
+            // A note tied to the one before it carries that note on instead of ringing again
+            if (tiedFromBefore && pending && key == pendingKey && Math.abs(pendingTo - position) < 1e-9) {
+                pendingTo += length;
+                position += length;
+                return;
+            }
+
+            flush();
+            pending = true;
+            pendingKey = key;
+            pendingFrom = position;
+            pendingTo = position + length;
+            pendingLine = line;
+            pendingColumn = column;
+            position += length;
+        }
+
+        /**
+         * Reads a {@code forward} element, which moves the time on without playing anything, or a {@code backup}
+         * element, which moves it back so another voice can be written.
+         *
+         * @param back Whether the element is a {@code backup}.
+         * @throws XMLStreamException If the XML is invalid.
+         */
+        private void readMove(boolean back) throws XMLStreamException {
+            double duration = 0;
+            int depth = 1;
+            while (depth > 0) {
+                final int event = xml.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (xml.getLocalName().equals("duration")) {
+                        duration = number(xml.getElementText(), 0);
+                    } else {
+                        depth++;
+                    }
+                }
+            }
+            position += (back ? -duration : duration) / divisions / 4;
+        }
+
+        /**
+         * Reads a {@code repeat} element of a bar line.
+         */
+        private void readRepeat() {
+            flush();
+            final long eighth = eighthOf(position);
+            if ("forward".equals(xml.getAttributeValue(null, "direction"))) {
+                melody.repeatFrom(eighth);
+                return;
+            }
+
+            // The times attribute counts every time the part is played, 2 if it isn't given
+            final String times = xml.getAttributeValue(null, "times");
+            final int played = times == null ? 2 : (int) number(times, 2);
+            if (!melody.repeat(eighth, played - 1, line(), column()) && mode == ParseMode.FAIL_FAST) {
+                stopped = true;
+            }
+        }
+
+        /**
+         * Returns whether the current {@code sound} element jumps to another place in the score.
+         *
+         * @return {@code true} if it's a jump.
+         */
+        private boolean isJump() {
+            for (String jump : new String[]{"dacapo", "dalsegno", "tocoda"}) {
+                if (xml.getAttributeValue(null, jump) != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds the waiting note to the melody.
+         */
+        private void flush() {
+            if (!pending) {
+                return;
+            }
+            pending = false;
+            if (!melody.note(pendingKey, eighthOf(pendingFrom), eighthOf(pendingTo), pendingLine, pendingColumn) &&
+                    mode == ParseMode.FAIL_FAST) {
+                stopped = true;
+            }
+        }
+
+        /**
+         * Skips the current element and everything in it.
+         *
+         * @throws XMLStreamException If the XML is invalid.
+         */
+        private void skipElement() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                final int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        }
+
+        /**
+         * Adds a warning about things that were left out, if there were any.
+         *
+         * @param count Number of things left out.
+         * @param what  What was left out.
+         */
+        private void warn(int count, String what) {
+            if (count > 0) {
+                result.addWarning(0, 0, "Left out " + count + " " + what);
+            }
+        }
+
+        /**
+         * Returns the line the parser is at.
+         *
+         * @return The line, starting at 1.
+         */
+        private int line() {
+            return Math.max(0, xml.getLocation().getLineNumber());
+        }
+
+        /**
+         * Returns the column the parser is at.
+         *
+         * @return The column, starting at 1.
+         */
+        private int column() {
+            return Math.max(0, xml.getLocation().getColumnNumber());
+        }
+    }
+
+    /**
+     * Returns the MIDI key of a pitch.
+     *
+     * @param step   The step, from A to G.
+     * @param alter  Semitones the step is raised by, negative for flats. Microtones are rounded.
+     * @param octave The octave, 4 is the octave starting at middle C.
+     * @return The MIDI key, or -1 if the step isn't a letter from A to G.
+     */
+    static int keyOf(String step, double alter, int octave) {
+        final int index = step.length() != 1 ? -1 : Character.toUpperCase(step.charAt(0)) - 'A';
+        if (index < 0 || index >= STEP_SEMITONES.length) {
+            return -1;
+        }
+        final int semitones = STEP_SEMITONES[index];
+        return (octave + 1) * 12 + semitones + (int) Math.round(alter);
+    }
+
+    /**
+     * Returns the eighth note nearest to the given time.
+     *
+     * @param whole Time in whole notes.
+     * @return Number of eighth notes from the start of the song.
+     */
+    private static long eighthOf(double whole) {
+        return Math.round(whole * 8);
+    }
+
+    /**
+     * Parses a number, falling back to the given value if it isn't one.
+     *
+     * @param text     The text to parse.
+     * @param fallback Value to use if the text isn't a number.
+     * @return The number.
+     */
+    private static double number(String text, double fallback) {
+        try {
+            return Double.parseDouble(text.strip());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
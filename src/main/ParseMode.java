@@ -0,0 +1,11 @@
+package main;
+
+/**
+ * Decides what the {@link SongReader} does when it finds a problem in a song file.
+ */
+public enum ParseMode {
+    /** Stop reading at the first problem. */
+    FAIL_FAST,
+    /** Keep reading and report every problem in the file. */
+    COLLECT_ALL
+}
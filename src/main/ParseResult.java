@@ -0,0 +1,344 @@
+package main;
+
+import main.sound.Arrangement;
+import main.sound.BellNote;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code ParseResult} class holds what the {@link SongReader} found when reading a song file: the notes, and
+ * a {@link Diagnostic} for each problem, along with counts of what was read.
+ *
+ * <p>Notes are kept the way the file writes them: each written note once, and a list of segments saying which runs
+ * of them are played in what order. Repeats and sections add segments, not notes, and {@link #getNotes()} gives
+ * them back as an {@link Arrangement}.</p>
+ *
+ * <p>Diagnostics are printed one per line in the form {@code file:line:column: reason}, the same form compilers
+ * use, so other tools can read them.</p>
+ */
+public class ParseResult {
+    /**
+     * A single problem found in a song file.
+     */
+    public static class Diagnostic {
+        /** Line the problem is on, starting at 1, or 0 for problems with the whole file. */
+        private final int line;
+
+        /** Column the problem starts at, starting at 1, or 0 for problems with the whole line or file. */
+        private final int column;
+
+        /** Description of the problem. */
+        private final String reason;
+
+        /**
+         * Constructs a new {@code Diagnostic}.
+         *
+         * @param line   Line the problem is on, starting at 1, or 0 for problems with the whole file.
+         * @param column Column the problem starts at, starting at 1, or 0 for the whole line or file.
+         * @param reason Description of the problem.
+         */
+        public Diagnostic(int line, int column, String reason) {
+            this.line = line;
+            this.column = column;
+            this.reason = reason;
+        }
+
+        /**
+         * Returns the line the problem is on.
+         *
+         * @return The line, starting at 1, or 0 for problems with the whole file.
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * Returns the column the problem starts at.
+         *
+         * @return The column, starting at 1, or 0 for problems with the whole line or file.
+         */
+        public int getColumn() {
+            return column;
+        }
+
+        /**
+         * Returns the description of the problem.
+         *
+         * @return The reason.
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * Returns the diagnostic in the form {@code line:column: reason}.
+         *
+         * @return A string representation of the diagnostic.
+         */
+        @Override
+        public String toString() {
+            return line + ":" + column + ": " + reason;
+        }
+    }
+
+    /** Name of the file that was read. */
+    private final String fileName;
+
+    /** Most segments a song can be arranged into, so a file can't repeat itself out of memory. */
+    public static final int MAX_SEGMENTS = 1 << 20;
+
+    /** Valid notes found in the file, each once, in the order they're written. */
+    private final List<BellNote> written = new ArrayList<>();
+
+    /** Index of the first written note of each segment. */
+    private int[] segmentStarts = new int[16];
+
+    /** Number of written notes in each segment. */
+    private int[] segmentLengths = new int[16];
+
+    /** Number of segments. */
+    private int segments = 0;
+
+    /** Number of notes played, counting every repeat. */
+    private long played = 0;
+
+    /** Whether the next note written carries on the last segment. */
+    private boolean runOpen = false;
+
+    /** The notes in the order they're played, built when first asked for. */
+    private Arrangement notes;
+
+    /** Problems found in the file, in order. */
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+
+    /** Things changed to make the song playable, such as notes left out of a chord, in order. They don't make the
+     * song invalid. */
+    private final List<Diagnostic> warnings = new ArrayList<>();
+
+    /** Number of lines read. */
+    private int lines = 0;
+
+    /** Number of directives read, such as {@code TRANSPOSE}. */
+    private int directives = 0;
+
+    /**
+     * Constructs a new, empty {@code ParseResult}.
+     *
+     * @param fileName Name of the file being read.
+     */
+    public ParseResult(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Adds a valid note.
+     *
+     * @param note The note to add.
+     */
+    void addNote(BellNote note) {
+        written.add(note);
+        if (runOpen) {
+            segmentLengths[segments - 1]++;
+        } else {
+            addSegment(written.size() - 1, 1);
+            runOpen = true;
+        }
+        played++;
+        notes = null;
+    }
+
+    /**
+     * Ends the run of notes being written, so the notes after it start a new segment, and returns where the song
+     * is in its segments. Repeats and sections are marked by these positions.
+     *
+     * @return The number of segments so far.
+     */
+    int mark() {
+        runOpen = false;
+        return segments;
+    }
+
+    /**
+     * Plays the given segments again, after everything so far.
+     *
+     * @param from  First segment to play.
+     * @param to    Segment after the last one to play.
+     * @param times Number of times to play them.
+     * @return {@code false} if the song would get too long, in which case nothing is added.
+     */
+    boolean replay(int from, int to, int times) {
+        long notesAdded = 0;
+        for (int s = from; s < to; s++) {
+            notesAdded += segmentLengths[s];
+        }
+        if ((long) segments + (long) (to - from) * times > MAX_SEGMENTS ||
+                played + notesAdded * times > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        runOpen = false;
+        for (int t = 0; t < times; t++) {
+            for (int s = from; s < to; s++) {
+                addSegment(segmentStarts[s], segmentLengths[s]);
+            }
+        }
+        played += notesAdded * times;
+        notes = null;
+        return true;
+    }
+
+    /**
+     * Adds a segment at the end of the song.
+     *
+     * @param start  Index of the first written note of the segment.
+     * @param length Number of written notes in the segment.
+     */
+    private void addSegment(int start, int length) {
+        if (segments == segmentStarts.length) {
+            segmentStarts = Arrays.copyOf(segmentStarts, segments * 2);
+            segmentLengths = Arrays.copyOf(segmentLengths, segments * 2);
+        }
+        segmentStarts[segments] = start;
+        segmentLengths[segments] = length;
+        segments++;
+    }
+
+    /**
+     * Adds a problem.
+     *
+     * @param line   Line the problem is on, starting at 1, or 0 for problems with the whole file.
+     * @param column Column the problem starts at, starting at 1, or 0 for the whole line or file.
+     * @param reason Description of the problem.
+     */
+    void addDiagnostic(int line, int column, String reason) {
+        diagnostics.add(new Diagnostic(line, column, reason));
+    }
+
+    /**
+     * Adds a warning, something that was changed to make the song playable but doesn't make it invalid.
+     *
+     * @param line   Line the warning is about, starting at 1, or 0 for the whole file.
+     * @param column Column the warning is about, starting at 1, or 0 for the whole line or file.
+     * @param reason Description of what was changed.
+     */
+    void addWarning(int line, int column, String reason) {
+        warnings.add(new Diagnostic(line, column, reason));
+    }
+
+    /**
+     * Counts a line that was read.
+     */
+    void countLine() {
+        lines++;
+    }
+
+    /**
+     * Counts a directive that was read.
+     */
+    void countDirective() {
+        directives++;
+    }
+
+    /**
+     * Returns whether the file is a playable song, meaning it has at least one note and no problems.
+     *
+     * @return {@code true} if the song is valid.
+     */
+    public boolean isValid() {
+        return diagnostics.isEmpty() && played > 0;
+    }
+
+    /**
+     * Returns the valid notes found in the file, in the order they're played with every repeat. The notes aren't
+     * copied for repeats, the list looks them up through the song's segments. If the song isn't
+     * {@link #isValid() valid}, the list may be incomplete.
+     *
+     * @return The {@code List} of {@link main.sound.BellNote BellNotes}, as an {@link Arrangement}.
+     */
+    public List<BellNote> getNotes() {
+        if (notes == null) {
+            notes = new Arrangement(written, Arrays.copyOf(segmentStarts, segments),
+                    Arrays.copyOf(segmentLengths, segments));
+        }
+        return notes;
+    }
+
+    /**
+     * Returns the valid notes found in the file as they're written, each once.
+     *
+     * @return The {@code List} of written {@link main.sound.BellNote BellNotes}.
+     */
+    public List<BellNote> getWrittenNotes() {
+        return written;
+    }
+
+    /**
+     * Returns the problems found in the file.
+     *
+     * @return The {@code List} of {@link Diagnostic Diagnostics}.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Returns the warnings, things that were changed to make the song playable.
+     *
+     * @return The {@code List} of warning {@link Diagnostic Diagnostics}.
+     */
+    public List<Diagnostic> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * Returns the name of the file that was read.
+     *
+     * @return The file name.
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns the number of lines read.
+     *
+     * @return The number of lines.
+     */
+    public int getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns the number of directives read.
+     *
+     * @return The number of directives.
+     */
+    public int getDirectives() {
+        return directives;
+    }
+
+    /**
+     * Returns every diagnostic, one per line in the form {@code file:line:column: reason}, then every warning in the
+     * form {@code file:line:column: warning: reason}, followed by a summary line with the counts.
+     *
+     * @return The formatted diagnostics.
+     */
+    public String format() {
+        final StringBuilder sb = new StringBuilder();
+        for (Diagnostic diagnostic : diagnostics) {
+            sb.append(fileName).append(':').append(diagnostic).append('\n');
+        }
+        for (Diagnostic warning : warnings) {
+            sb.append(fileName).append(':').append(warning.getLine()).append(':').append(warning.getColumn())
+                    .append(": warning: ").append(warning.getReason()).append('\n');
+        }
+        sb.append(fileName).append(": ").append(lines).append(" lines, ").append(played).append(" notes, ")
+                .append(directives).append(" directives, ").append(diagnostics.size()).append(" errors");
+        if (!warnings.isEmpty()) {
+            sb.append(", ").append(warnings.size()).append(" warnings");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.SongRenderer;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code RenderBenchmark} class times the {@link SongRenderer} rendering the same generated song on pools of
+ * more and more threads, from one up to the number of cores, to show how render time scales with the cores it's
+ * given. Each pool size prints the best time of several rounds and its speedup over a single thread.
+ */
+public class RenderBenchmark {
+    /** Number of notes in the song rendered. */
+    private static final int NOTES = 20000;
+
+    /** Number of untimed rounds for each pool, giving the JIT compiler time to compile the renderer. */
+    private static final int WARMUP_ROUNDS = 3;
+
+    /** Number of timed rounds for each pool, the best is kept. */
+    private static final int ROUNDS = 5;
+
+    /** Stops the JIT compiler from throwing away renders that are never read. */
+    private static long sink = 0;
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private RenderBenchmark() {
+        //empty
+    }
+
+    /**
+     * Renders the song on a pool of the given number of threads and returns the best time.
+     *
+     * @param song    The song to render.
+     * @param threads Number of threads in the pool.
+     * @return The best time of the timed rounds, in milliseconds.
+     */
+    private static double time(List<BellNote> song, int threads) {
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            final SongRenderer renderer = new SongRenderer(song, pool);
+            double best = Double.MAX_VALUE;
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                final long start = System.nanoTime();
+                final byte[] rendered = renderer.render();
+                final double ms = (System.nanoTime() - start) / 1_000_000.0d;
+                sink += rendered[round % rendered.length];
+                if (round >= WARMUP_ROUNDS) {
+                    best = Math.min(best, ms);
+                }
+            }
+            return best;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the benchmark and prints the render time and speedup of each pool size.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        final List<BellNote> song = new SongGenerator(42).generate(SongGenerator.Pattern.RANDOM, NOTES);
+        final int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Rendering " + NOTES + " notes (" + new SongRenderer(song).getLength() + " bytes) on up to " +
+                cores + " cores");
+
+        System.out.printf("%-10s %12s %10s%n", "threads", "render ms", "speedup");
+        double single = 0;
+        for (int threads = 1; threads <= cores; threads = threads < cores ? Math.min(cores, threads * 2) : cores + 1) {
+            final double ms = time(song, threads);
+            if (threads == 1) {
+                single = ms;
+            }
+            System.out.printf("%-10d %12.1f %9.1fx%n", threads, ms, single / ms);
+        }
+        System.out.println("Checksum " + sink);
+    }
+}
@@ -0,0 +1,232 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.SongMetadata;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code RingerAssigner} class decides which {@link main.Member} rings which bell when a song is played by a
+ * limited number of members, the way a real choir gives each ringer several bells. Bells are identified by
+ * {@link BellNote#getBell()}, so transposed notes and flats are rung by the bell of the pitch they sound at.
+ *
+ * <p>A bell keeps ringing for a short time after its note ends, so a member can't pick up a different bell until
+ * {@link #changeTimeMs} has passed. Two pitches <b>conflict</b> whenever a note of one starts less than that long
+ * after a note of the other ends. The assigner builds a graph of the conflicting pitches, weighted by how often
+ * they conflict, and colours it with members using a weighted DSatur pass: the pitch with the most differently
+ * coloured neighbours goes first, and each pitch goes to the member it conflicts with least. If the song needs
+ * more members than allowed, the remaining conflicts are kept as small as possible and counted in
+ * {@link #getConflicts()}.</p>
+ *
+ * <p>{@link main.sound.Note#REST Rests} don't ring, so they never conflict and go to whichever member has the
+ * fewest notes.</p>
+ */
+public class RingerAssigner {
+    /** Default time, in milliseconds, a member needs to let a bell ring out before ringing another. */
+    public static final int DEFAULT_CHANGE_TIME_MS = SongMetadata.RING_OUT_MS;
+
+    /** Max number of members the song can be assigned to. */
+    private final int maxMembers;
+
+    /** Time, in milliseconds, a member needs to let a bell ring out before ringing another. */
+    private final int changeTimeMs;
+
+    /** Number of conflicting note pairs left after the last call to {@link #assign(List)}. */
+    private int conflicts = 0;
+
+    /**
+     * Constructs a new {@code RingerAssigner}.
+     *
+     * @param maxMembers   Max number of members the song can be assigned to, must be at least 1.
+     * @param changeTimeMs Time, in milliseconds, a member needs to let a bell ring out before ringing another.
+     */
+    public RingerAssigner(int maxMembers, int changeTimeMs) {
+        if (maxMembers < 1) {
+            throw new IllegalArgumentException("A song needs at least one member to play it");
+        }
+        this.maxMembers = maxMembers;
+        this.changeTimeMs = changeTimeMs;
+    }
+
+    /**
+     * Assigns each bell in the given song to a member.
+     *
+     * @param song The list of {@link main.sound.BellNote BellNotes} to assign.
+     * @return A map from each {@link BellNote#getBell() bell} in the song to the index of the member that rings it.
+     * Member indexes start at 0 and are less than the max members.
+     */
+    public Map<String, Integer> assign(List<BellNote> song) {
+        // Give each bell in the song an index
+        final Map<String, Integer> bellIndex = new LinkedHashMap<>();
+        for (BellNote b : song) {
+            bellIndex.putIfAbsent(b.getBell(), bellIndex.size());
+        }
+        final Integer restIndex = bellIndex.get(Note.REST.name());
+
+        final int numNotes = bellIndex.size();
+        final int[][] weights = new int[numNotes][numNotes];
+        final int[] counts = new int[numNotes];
+        final int[] memberOf = new int[numNotes];
+        Arrays.fill(memberOf, -1);
+
+        buildConflictGraph(song, bellIndex, weights, counts);
+
+        final int[] memberLoad = new int[maxMembers];
+        final int[] cost = new int[maxMembers];
+
+        // Colour the ringing notes, most saturated first
+        while (true) {
+            final int next = nextToColour(weights, counts, memberOf, restIndex);
+            if (next == -1) {
+                break;
+            }
+
+            // Cost of putting the note on each member is how often it conflicts with that member's notes
+            Arrays.fill(cost, 0);
+            for (int other = 0; other < numNotes; other++) {
+                if (memberOf[other] != -1) {
+                    cost[memberOf[other]] += weights[next][other];
+                }
+            }
+
+            memberOf[next] = cheapestMember(cost, memberLoad);
+            memberLoad[memberOf[next]] += counts[next];
+        }
+
+        // Rests don't ring, give them to the least busy member
+        if (restIndex != null) {
+            Arrays.fill(cost, 0);
+            memberOf[restIndex] = cheapestMember(cost, memberLoad);
+        }
+
+        conflicts = 0;
+        for (int a = 0; a < numNotes; a++) {
+            for (int b = a + 1; b < numNotes; b++) {
+                if (memberOf[a] == memberOf[b]) {
+                    conflicts += weights[a][b];
+                }
+            }
+        }
+
+        final Map<String, Integer> assignment = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : bellIndex.entrySet()) {
+            assignment.put(entry.getKey(), memberOf[entry.getValue()]);
+        }
+        return assignment;
+    }
+
+    /**
+     * Returns the number of conflicting note pairs left after the last call to {@link #assign(List)}. It is
+     * 0 when every member always has time to change bells.
+     *
+     * @return The number of conflicting note pairs.
+     */
+    public int getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Counts how many times each bell is rung and how often each pair of bells conflict.
+     *
+     * @param song      The song to look at.
+     * @param bellIndex Index of each bell in the song.
+     * @param weights   Filled with the number of times each pair of bells conflict.
+     * @param counts    Filled with the number of times each bell is rung.
+     */
+    private void buildConflictGraph(List<BellNote> song, Map<String, Integer> bellIndex, int[][] weights, int[] counts) {
+        // Start and end time of each note
+        final int[] start = new int[song.size()];
+        final int[] end = new int[song.size()];
+        int time = 0;
+        for (int i = 0; i < song.size(); i++) {
+            start[i] = time;
+            time += song.get(i).getLength().getTimeMs();
+            end[i] = time;
+        }
+
+        for (int i = 0; i < song.size(); i++) {
+            final BellNote note = song.get(i);
+            final int bell = bellIndex.get(note.getBell());
+            counts[bell]++;
+            if (note.getNote() == Note.REST) {
+                continue;
+            }
+
+            // Look back at the notes still ringing when this one starts
+            for (int j = i - 1; j >= 0 && start[i] - end[j] < changeTimeMs; j--) {
+                final BellNote other = song.get(j);
+                final int otherBell = bellIndex.get(other.getBell());
+                if (other.getNote() != Note.REST && otherBell != bell) {
+                    weights[bell][otherBell]++;
+                    weights[otherBell][bell]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the next bell to colour, which is the uncoloured bell whose neighbours use the most
+     * different members, breaking ties with the total weight of its conflicts.
+     *
+     * @param weights   The conflict graph.
+     * @param counts    Number of times each bell is rung.
+     * @param memberOf  Members assigned so far.
+     * @param restIndex Index of the rest, which isn't coloured, or {@code null} if the song has no rests.
+     * @return The index of the next bell, or -1 if every bell is coloured.
+     */
+    private int nextToColour(int[][] weights, int[] counts, int[] memberOf, Integer restIndex) {
+        int best = -1;
+        int bestSaturation = -1;
+        int bestWeight = -1;
+        final boolean[] seen = new boolean[maxMembers];
+
+        for (int n = 0; n < counts.length; n++) {
+            if (memberOf[n] != -1 || (restIndex != null && n == restIndex)) {
+                continue;
+            }
+
+            Arrays.fill(seen, false);
+            int saturation = 0;
+            int weight = 0;
+            for (int other = 0; other < counts.length; other++) {
+                if (weights[n][other] == 0) {
+                    continue;
+                }
+                weight += weights[n][other];
+                if (memberOf[other] != -1 && !seen[memberOf[other]]) {
+                    seen[memberOf[other]] = true;
+                    saturation++;
+                }
+            }
+
+            if (saturation > bestSaturation || (saturation == bestSaturation && weight > bestWeight)) {
+                best = n;
+                bestSaturation = saturation;
+                bestWeight = weight;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Picks the member with the lowest cost, breaking ties with the member that plays the fewest notes.
+     *
+     * @param cost       Cost of giving the note to each member.
+     * @param memberLoad Number of notes each member plays so far.
+     * @return The index of the cheapest member.
+     */
+    private int cheapestMember(int[] cost, int[] memberLoad) {
+        int best = 0;
+        for (int m = 1; m < maxMembers; m++) {
+            if (cost[m] < cost[best] || (cost[m] == cost[best] && memberLoad[m] < memberLoad[best])) {
+                best = m;
+            }
+        }
+        return best;
+    }
+}
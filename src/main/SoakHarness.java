@@ -0,0 +1,267 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NullSink;
+import main.sound.VirtualClock;
+import main.sound.VirtualSink;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * The {@code SoakHarness} class plays generated songs through the full {@link Conductor} and {@link Member}
+ * pipeline over and over, into a {@link NullSink}, to find problems that only show up after a long time. Paced
+ * songs are played into a {@link VirtualSink} instead, which simulates a device in virtual time, so they're timed
+ * like a real device without taking as long as one. After each song it checks:
+ * <ul>
+ *     <li><b>Timing drift</b>: When paced, how far the song's length on the {@link VirtualClock} strays from the
+ *     length of the audio written, and whether the simulated device ran dry.</li>
+ *     <li><b>Thread count</b>: Whether member and conductor threads are left behind after the song ends.</li>
+ *     <li><b>Heap growth</b>: Whether the heap used after garbage collection keeps growing from song to song.</li>
+ *     <li><b>Allocations</b>: Whether the conductor and members allocate while playing, which leads to garbage
+ *     collection pauses heard as stutters, see {@link Conductor#getAllocatedBytes()}.</li>
+ *     <li><b>Hangs</b>: Whether a song takes far longer than it should, in which case every thread's stack is
+ *     printed and the harness exits.</li>
+ * </ul>
+ */
+public class SoakHarness {
+    /** Number of extra threads allowed to be alive after a song before it counts as a leak. */
+    private static final int THREAD_TOLERANCE = 2;
+
+    /** Bytes the heap can grow by, after garbage collection, before it counts as a leak. */
+    private static final long HEAP_TOLERANCE_BYTES = 64L * 1024 * 1024;
+
+    /** Bytes the conductor and members can allocate while playing a song, covering the measurement itself. */
+    private static final long ALLOCATION_TOLERANCE_BYTES = 64L * 1024;
+
+    /** Fraction of a paced song's length its time taken can stray by before it counts as drift. */
+    private static final double DRIFT_TOLERANCE = 0.05d;
+
+    /** Extra time, in milliseconds, a paced song can stray by, covering start up and draining. */
+    private static final long DRIFT_SLACK_MS = 250;
+
+    /** Length of audio, in milliseconds, the simulated device of a paced song holds. */
+    private static final int PACED_BUFFER_MS = 100;
+
+    /** Time, in milliseconds, a song can run past twice its length before it counts as a hang. */
+    private static final long HANG_SLACK_MS = 30_000;
+
+    /** Generates the songs to play. */
+    private final SongGenerator generator;
+
+    /** The kind of songs to play. */
+    private final SongGenerator.Pattern pattern;
+
+    /** Number of notes in each song. */
+    private final int notes;
+
+    /** Max number of members in the choir, or 0 for one member per bell. */
+    private final int ringers;
+
+    /** Whether songs are played against a simulated device, in virtual time. */
+    private final boolean paced;
+
+    /** Used to count threads. */
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /** Used to measure the heap. */
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    /** Time, from {@link System#currentTimeMillis()}, the current song must finish by, or 0 between songs. */
+    private volatile long hangDeadline = 0;
+
+    /**
+     * Constructs a new {@code SoakHarness}.
+     *
+     * @param pattern The kind of songs to play.
+     * @param notes   Number of notes in each song.
+     * @param ringers Max number of members in the choir, or 0 for one member per bell.
+     * @param paced   Whether songs are played against a simulated device, in virtual time.
+     * @param seed    Seed used to generate the songs.
+     */
+    public SoakHarness(SongGenerator.Pattern pattern, int notes, int ringers, boolean paced, long seed) {
+        this.generator = new SongGenerator(seed);
+        this.pattern = pattern;
+        this.notes = notes;
+        this.ringers = ringers;
+        this.paced = paced;
+    }
+
+    /**
+     * Plays songs until the given number of songs have been played or the given time has passed, whichever
+     * comes first, printing a line for each song.
+     *
+     * @param maxSongs   Max number of songs to play.
+     * @param durationMs Max time to play songs for, in milliseconds.
+     * @return {@code true} if no song drifted, leaked threads, grew the heap or allocated while playing.
+     */
+    public boolean run(int maxSongs, long durationMs) {
+        startHangWatchdog();
+
+        final int baselineThreads = settledThreadCount(Integer.MAX_VALUE);
+        long baselineHeap = -1;
+        boolean passed = true;
+
+        final long end = System.currentTimeMillis() + durationMs;
+        for (int song = 1; song <= maxSongs && System.currentTimeMillis() < end; song++) {
+            final List<BellNote> notesToPlay = generator.generate(pattern, notes);
+            // Paced songs keep no onsets, so the simulated device doesn't allocate or grow the heap
+            final VirtualClock clock = paced ? new VirtualClock() : null;
+            final VirtualSink virtual = paced ? new VirtualSink(clock, PACED_BUFFER_MS, false) : null;
+            final NullSink discard = paced ? null : new NullSink();
+            final Conductor conductor = paced ? new Conductor(virtual, notesToPlay, ringers, clock)
+                    : new Conductor(discard, notesToPlay, ringers);
+
+            final long songMs = conductor.getMetadata().getDurationMs();
+            hangDeadline = System.currentTimeMillis() + 2 * songMs + HANG_SLACK_MS;
+
+            final long start = paced ? clock.nanoTime() : System.nanoTime();
+            conductor.playSong();
+            conductor.stop();
+            final long elapsedMs = ((paced ? clock.nanoTime() : System.nanoTime()) - start) / 1_000_000;
+            hangDeadline = 0;
+
+            // Compare the song's length on the virtual clock to the length of the audio written
+            final long written = paced ? virtual.getWritten() : discard.getWritten();
+            final long audioMs = written * 1000 / Note.SAMPLE_RATE;
+            final long drift = elapsedMs - audioMs;
+            final int underruns = paced ? virtual.getUnderruns() : 0;
+            final boolean drifted = paced && (Math.abs(drift) > audioMs * DRIFT_TOLERANCE + DRIFT_SLACK_MS
+                    || underruns > 0);
+
+            // Members stop shortly after the conductor, give them a moment
+            final int threadCount = settledThreadCount(baselineThreads);
+            final boolean leakedThreads = threadCount > baselineThreads + THREAD_TOLERANCE;
+
+            // The first song warms everything up, measure heap growth from there
+            System.gc();
+            final long heap = memory.getHeapMemoryUsage().getUsed();
+            if (baselineHeap == -1) {
+                baselineHeap = heap;
+            }
+            final boolean grewHeap = heap - baselineHeap > HEAP_TOLERANCE_BYTES;
+
+            // Also only once warmed up, the first song loads and initializes classes as it goes
+            final long allocated = conductor.getAllocatedBytes();
+            final boolean allocatedWhilePlaying = song > 1 && allocated > ALLOCATION_TOLERANCE_BYTES;
+
+            System.out.printf("Song %d: %d notes in %dms (%dms of audio, drift %dms, %d underruns), %d threads, " +
+                            "%dMB heap, %dKB allocated%s%n",
+                    song, notesToPlay.size(), elapsedMs, audioMs, paced ? drift : 0, underruns, threadCount,
+                    heap / (1024 * 1024),
+                    allocated / 1024, drifted || leakedThreads || grewHeap || allocatedWhilePlaying ? " <-- FAILED" : "");
+
+            passed &= !drifted && !leakedThreads && !grewHeap && !allocatedWhilePlaying;
+        }
+
+        return passed;
+    }
+
+    /**
+     * Waits up to a second for the number of live threads to drop to the given count, then returns the count.
+     *
+     * @param target The thread count to wait for.
+     * @return The number of live threads.
+     */
+    private int settledThreadCount(int target) {
+        for (int i = 0; i < 100 && threads.getThreadCount() > target; i++) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        return threads.getThreadCount();
+    }
+
+    /**
+     * Starts a thread that watches for songs that run far past their length. If one does, every thread's stack is
+     * printed and the program exits with status 1.
+     */
+    private void startHangWatchdog() {
+        final Thread watchdog = new Thread(() -> {
+            while (true) {
+                final long deadline = hangDeadline;
+                if (deadline != 0 && System.currentTimeMillis() > deadline) {
+                    System.err.println("SoakHarness: Song is taking far longer than it should, it looks hung.");
+                    for (ThreadInfo info : threads.dumpAllThreads(true, true)) {
+                        System.err.print(info);
+                    }
+                    System.exit(1);
+                }
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }, "Soak watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    /**
+     * Runs the soak harness. Options are given as {@code --name=value}:
+     * <ul>
+     *     <li>{@code --minutes=M}: How long to run for, 60 by default.</li>
+     *     <li>{@code --notes=N}: Number of notes in each song, 10000 by default.</li>
+     *     <li>{@code --pattern=P}: The {@link SongGenerator.Pattern} of the songs, ADVERSARIAL by default.</li>
+     *     <li>{@code --ringers=N}: Max number of members, one per bell by default.</li>
+     *     <li>{@code --seed=S}: Seed used to generate the songs.</li>
+     *     <li>{@code --paced}: Play songs against a {@link VirtualSink}, a device simulated in virtual time, and
+     *     check they last as long as their audio without the device running dry.</li>
+     * </ul>
+     * The program exits with status 1 if any song failed a check.
+     *
+     * @param args The options.
+     */
+    public static void main(String[] args) {
+        long minutes = 60;
+        int notes = 10_000;
+        SongGenerator.Pattern pattern = SongGenerator.Pattern.ADVERSARIAL;
+        int ringers = 0;
+        long seed = System.currentTimeMillis();
+        boolean paced = false;
+
+        for (String arg : args) {
+            final String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            final String value = option.length == 2 ? option[1] : "";
+            try {
+                switch (option[0]) {
+                    case "minutes":
+                        minutes = Long.parseLong(value);
+                        break;
+                    case "notes":
+                        notes = Integer.parseInt(value);
+                        break;
+                    case "pattern":
+                        pattern = SongGenerator.Pattern.valueOf(value.toUpperCase());
+                        break;
+                    case "ringers":
+                        ringers = Integer.parseInt(value);
+                        break;
+                    case "seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "paced":
+                        paced = true;
+                        break;
+                    default:
+                        System.err.println("SoakHarness.main Error: Unknown option " + arg);
+                        System.exit(1);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("SoakHarness.main Error: Invalid value given for option " + arg);
+                System.exit(1);
+            }
+        }
+
+        System.out.println("Soaking with seed " + seed);
+        final SoakHarness harness = new SoakHarness(pattern, notes, ringers, paced, seed);
+        final boolean passed = harness.run(Integer.MAX_VALUE, minutes * 60 * 1000);
+        System.out.println(passed ? "Soak passed" : "Soak FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -0,0 +1,183 @@
+package main;
+
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The {@code SongGenerator} class creates songs for testing the choir, either as a list of
+ * {@link main.sound.BellNote BellNotes} or written to a song file. Songs are generated from a seed, so the same
+ * seed always gives the same song.
+ *
+ * <p>Only one {@code BellNote} object exists for each note and length, and generated songs reuse them, so a song of
+ * millions of notes only costs a reference per note. Writing a song to a file never holds the song in memory.</p>
+ */
+public class SongGenerator {
+    /**
+     * The kinds of songs the generator can create.
+     */
+    public enum Pattern {
+        /** Random notes and lengths. */
+        RANDOM,
+        /** Cycles through every note, flats included, and every length. */
+        EVERY_PITCH,
+        /** Random notes, all eighths, the fastest the choir has to play. */
+        EIGHTH_BURST,
+        /** Mostly whole rests, with the odd note in between. */
+        LONG_RESTS,
+        /** Switches between the other patterns and jumps between the highest and lowest notes. */
+        ADVERSARIAL
+    }
+
+    /** Every note a song can contain. */
+    private static final Note[] NOTES = validNotes();
+
+    /** Every length a note can be. */
+    private static final NoteLength[] LENGTHS = {NoteLength.WHOLE, NoteLength.HALF, NoteLength.QUARTER, NoteLength.EIGHTH};
+
+    /** The {@code BellNote} for every note and length, indexed by note then length. */
+    private static final BellNote[][] PALETTE = palette();
+
+    /** Random number generator, seeded so songs can be recreated. */
+    private final Random random;
+
+    /** Pattern {@link Pattern#ADVERSARIAL} songs are currently following. */
+    private Pattern current = Pattern.RANDOM;
+
+    /** Number of notes left before an adversarial song switches pattern. */
+    private int untilSwitch = 0;
+
+    /**
+     * Constructs a new {@code SongGenerator}.
+     *
+     * @param seed Seed for the random number generator.
+     */
+    public SongGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates a song with the given pattern.
+     *
+     * @param pattern The kind of song to generate.
+     * @param notes   Number of notes in the song.
+     * @return The {@code List} of {@link main.sound.BellNote BellNotes}.
+     */
+    public List<BellNote> generate(Pattern pattern, int notes) {
+        final List<BellNote> song = new ArrayList<>(notes);
+        for (int i = 0; i < notes; i++) {
+            song.add(next(pattern, i));
+        }
+        return song;
+    }
+
+    /**
+     * Writes a song with the given pattern, one note per line, in the form {@link SongReader} reads.
+     *
+     * @param pattern The kind of song to generate.
+     * @param notes   Number of notes in the song.
+     * @param out     Where to write the song.
+     * @throws IOException If the song can't be written.
+     */
+    public void write(Pattern pattern, long notes, Writer out) throws IOException {
+        for (long i = 0; i < notes; i++) {
+            final BellNote b = next(pattern, i);
+            out.write(b.getNote().name());
+            out.write(' ');
+            out.write(String.valueOf(Math.round(1 / b.getLength().getLength())));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Generates the next note of a song.
+     *
+     * @param pattern The kind of song being generated.
+     * @param i       Index of the note in the song.
+     * @return The next {@link main.sound.BellNote}.
+     */
+    private BellNote next(Pattern pattern, long i) {
+        switch (pattern) {
+            case EVERY_PITCH:
+                return PALETTE[(int) (i % NOTES.length)][(int) (i / NOTES.length % LENGTHS.length)];
+            case EIGHTH_BURST:
+                return PALETTE[random.nextInt(NOTES.length)][LENGTHS.length - 1];
+            case LONG_RESTS:
+                if (random.nextInt(8) == 0) {
+                    return PALETTE[random.nextInt(NOTES.length)][random.nextInt(LENGTHS.length)];
+                }
+                return PALETTE[0][0];
+            case ADVERSARIAL:
+                if (untilSwitch-- <= 0) {
+                    current = Pattern.values()[random.nextInt(Pattern.values().length)];
+                    untilSwitch = 1 + random.nextInt(64);
+                }
+                if (current == Pattern.ADVERSARIAL) {
+                    // Jump between the lowest and highest notes as fast as possible
+                    return PALETTE[i % 2 == 0 ? 1 : NOTES.length - 1][LENGTHS.length - 1];
+                }
+                return next(current, i);
+            case RANDOM:
+            default:
+                return PALETTE[random.nextInt(NOTES.length)][random.nextInt(LENGTHS.length)];
+        }
+    }
+
+    /**
+     * Returns every note except {@link Note#INVALID}, with {@link Note#REST} first.
+     *
+     * @return The valid notes.
+     */
+    private static Note[] validNotes() {
+        final List<Note> notes = new ArrayList<>();
+        for (Note note : Note.values()) {
+            if (note != Note.INVALID) {
+                notes.add(note);
+            }
+        }
+        return notes.toArray(new Note[0]);
+    }
+
+    /**
+     * Creates the {@code BellNote} for every note and length.
+     *
+     * @return The palette, indexed by note then length.
+     */
+    private static BellNote[][] palette() {
+        final BellNote[][] palette = new BellNote[NOTES.length][LENGTHS.length];
+        for (int n = 0; n < NOTES.length; n++) {
+            for (int l = 0; l < LENGTHS.length; l++) {
+                palette[n][l] = new BellNote(NOTES[n], LENGTHS[l]);
+            }
+        }
+        return palette;
+    }
+
+    /**
+     * Writes a generated song to a file.
+     *
+     * @param args The pattern, number of notes, seed and file to write, such as
+     *             {@code EIGHTH_BURST 1000000 42 data/Burst.txt}.
+     */
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.err.println("SongGenerator.main Error: Expected PATTERN NOTES SEED FILE");
+            System.exit(1);
+        }
+
+        try (final Writer out = new BufferedWriter(new FileWriter(args[3]))) {
+            new SongGenerator(Long.parseLong(args[2])).write(Pattern.valueOf(args[0]), Long.parseLong(args[1]), out);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("SongGenerator.main Error: Unable to generate song: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -3,18 +3,48 @@ package main;
 import main.sound.BellNote;
 import main.sound.Note;
 import main.sound.NoteLength;
+import main.sound.ToneCache;
 
 import java.io.BufferedReader;
+import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * The {@code SongReader} class handles reading and parsing text files into {@link main.sound.BellNote} objects. The class
- * consists of the following methods:
+ * The {@code SongReader} class handles reading and parsing text files into {@link main.sound.BellNote} objects.
+ *
+ * <p>Each line of a song file is a note and its length, such as {@code A4 4}. A line can also be a
+ * {@code TRANSPOSE n} directive, which shifts every note after it by {@code n} semitones (on top of any shift given
+ * for the whole song) until the next directive, so a section of a song can be played in a different key.</p>
+ *
+ * <p>Parts of a song that are played more than once only need to be written once:</p>
+ * <ul>
+ *     <li>{@code SECTION name} starts a section with the given name, which runs until {@code END} or the next
+ *     {@code SECTION}. The notes in it are played where they're written.</li>
+ *     <li>{@code PLAY name [times]} plays a section written earlier again, once or the given number of times.</li>
+ *     <li>{@code REPEAT [times]} plays everything since the start of the section, the last {@code END} or the last
+ *     {@code REPEAT} again, once or the given number of times, like a repeat sign.</li>
+ *     <li>{@code DC} (da capo) plays the song again from the start, up to the last {@code FINE} written before it,
+ *     or up to the {@code DC} if there isn't one. Repeats are played again too.</li>
+ * </ul>
+ * <p>Files ending in {@code .mid} or {@code .midi} are read as Standard MIDI Files by a {@link MidiReader}
+ * instead, files ending in {@code .musicxml}, {@code .xml} or {@code .mxl} as MusicXML scores by a
+ * {@link MusicXmlReader}, and files ending in {@code .abc} as ABC tunes by an {@link AbcReader}.</p>
+ *
+ * <p>Repeated notes aren't copied, the song is kept as segments of the written notes, see
+ * {@link main.sound.Arrangement}. Notes keep the key they're written in when they're played again.</p>
+ *
+ * <p>The class consists of the following methods:</p>
  * <ul>
  *     <li>{@link #readFile(String)}</li>
+ *     <li>{@link #readFile(String, int)}</li>
+ *     <li>{@link #readSong(String, int, ParseMode)}</li>
+ *     <li>{@link #isDirective(String)}</li>
  *     <li>{@link #parseNoteLength(String)}</li>
  *     <li>{@link #parseNote(String)}</li>
  *     <li>{@link #validateNotes(List)}</li>
@@ -24,6 +54,117 @@ public class SongReader {
     /** Directory all text files are stored in. */
     public final static String FILE_DIRECTORY = "data/";
 
+    /** Keyword of the directive that transposes the notes after it. */
+    public final static String TRANSPOSE_DIRECTIVE = "TRANSPOSE";
+
+    /** Keyword of the directive that starts a named section. */
+    public final static String SECTION_DIRECTIVE = "SECTION";
+
+    /** Keyword of the directive that ends a section. */
+    public final static String END_DIRECTIVE = "END";
+
+    /** Keyword of the directive that plays a section again. */
+    public final static String PLAY_DIRECTIVE = "PLAY";
+
+    /** Keyword of the directive that repeats the notes before it. */
+    public final static String REPEAT_DIRECTIVE = "REPEAT";
+
+    /** Keyword of the directive that plays the song again from the start. */
+    public final static String DA_CAPO_DIRECTIVE = "DC";
+
+    /** Keyword of the directive that marks where {@code DC} stops. */
+    public final static String FINE_DIRECTIVE = "FINE";
+
+    /**
+     * Where the sections and repeats of the song being read are, as positions in its segments, and the key the
+     * next note is in.
+     */
+    private static class Markers {
+        /** Number of semitones the last {@code TRANSPOSE} directive shifts the notes after it by. */
+        private int transpose = 0;
+
+        /** Segments each finished section covers, from the first to the one after the last. */
+        private final Map<String, int[]> sections = new HashMap<>();
+
+        /** Name of the section being written, or {@code null} if there isn't one. */
+        private String open = null;
+
+        /** Segment the section being written starts at. */
+        private int openStart = 0;
+
+        /** Segment a {@code REPEAT} goes back to. */
+        private int repeatStart = 0;
+
+        /** Segment a {@code DC} stops at, or -1 if no {@code FINE} has been written. */
+        private int fine = -1;
+
+        /**
+         * Finishes the section being written, if there is one.
+         *
+         * @param end Segment after the section's last one.
+         */
+        private void close(int end) {
+            if (open != null) {
+                sections.put(open, new int[]{openStart, end});
+                open = null;
+            }
+        }
+    }
+
+    /**
+     * Reads a song that arrives a line at a time, such as from a {@link LiveInput}, with the same line handling as
+     * {@link #readSong(String, int, ParseMode)}, so problems are reported by line and column the same way. Notes
+     * are played as soon as they arrive, so {@code TRANSPOSE} is the only directive that can be used.
+     */
+    public static class LineReader {
+        /** Reads each line. */
+        private final SongReader reader = new SongReader();
+
+        /** Name of where the lines come from, used when reporting problems. */
+        private final String name;
+
+        /** The key the next note is in. */
+        private final Markers markers = new Markers();
+
+        /** Number of lines read. */
+        private int lines = 0;
+
+        /**
+         * Constructs a new {@code LineReader}.
+         *
+         * @param name Name of where the lines come from, used when reporting problems.
+         */
+        public LineReader(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Reads the next line. Blank lines are counted, so later lines keep their numbers, but otherwise skipped.
+         *
+         * @param line The line.
+         * @return A {@link ParseResult} holding the line's note if it has one, and a diagnostic if it's invalid.
+         */
+        public ParseResult read(String line) {
+            lines++;
+            final ParseResult result = new ParseResult(name);
+            result.countLine();
+            if (line.isBlank()) {
+                return result;
+            }
+
+            final String stripped = line.strip();
+            final String keyword = stripped.split(" ")[0];
+            if (isDirective(keyword) && !keyword.equals(TRANSPOSE_DIRECTIVE)) {
+                result.addDiagnostic(lines, line.indexOf(stripped) + 1, "Only " + TRANSPOSE_DIRECTIVE +
+                        " can be used while playing live, found '" + keyword + "'");
+                return result;
+            }
+
+            reader.readLine(line, lines, 0, markers, result);
+            return result;
+        }
+    }
+
     /**
      * Constructs a new SongReader object. Currently empty constructor
      */
@@ -38,71 +179,300 @@ public class SongReader {
      * @param fileName The file to read.
      * @return A {@code List} of {@link main.sound.BellNote} objects, or an empty {@code List} if no valid
      * notes are found.
+     * @see #readFile(String, int)
+     */
+    public List<BellNote> readFile(String fileName) {
+        return readFile(fileName, 0);
+    }
+
+    /**
+     * Reads the given file and converts each line into a {@link main.sound.BellNote} object shifted by the
+     * given number of semitones, and returns a list of all valid BellNotes found in the file. A note that is
+     * shifted outside the range bells can be played in is invalid. Any problems found are printed to
+     * {@code System.err}.
+     *
+     * @param fileName  The file to read.
+     * @param transpose Number of semitones to shift every note in the song by.
+     * @return A {@code List} of {@link main.sound.BellNote} objects, or an empty {@code List} if no valid
+     * notes are found or any line is invalid.
+     * @see #readSong(String, int, ParseMode)
+     */
+    public List<BellNote> readFile(String fileName, int transpose) {
+        final ParseResult result = readSong(fileName, transpose, ParseMode.COLLECT_ALL);
+        if (!result.isValid()) {
+            System.err.println(result.format());
+            return new ArrayList<>();
+        }
+        return result.getNotes();
+    }
+
+    /**
+     * Reads, parses and validates the given file in a single pass. Each line is converted into a
+     * {@link main.sound.BellNote} object shifted by the given number of semitones, or read as a directive, and a
+     * {@link ParseResult.Diagnostic} is recorded for every line that is neither. The notes in the result are
+     * already validated, so they don't need to be checked again before playing. MIDI, MusicXML and ABC files are
+     * read by a {@link MidiReader}, {@link MusicXmlReader} or {@link AbcReader} instead.
+     *
+     * @param fileName  The file to read.
+     * @param transpose Number of semitones to shift every note in the song by.
+     * @param mode      Whether to stop at the first problem or report every problem.
+     * @return The {@link ParseResult} holding the notes and any problems found.
      * @see #parseNoteLength(String)
      * @see #parseNote(String)
+     * @see MidiReader#read(java.nio.file.Path, int, ParseMode)
+     * @see MusicXmlReader#read(java.nio.file.Path, int, ParseMode)
+     * @see AbcReader#read(java.nio.file.Path, int, ParseMode)
      */
-    public List<BellNote> readFile(String fileName) {
-        final List<BellNote> bellNotes = new ArrayList<>();
+    public ParseResult readSong(String fileName, int transpose, ParseMode mode) {
+        final ParseResult result = new ParseResult(fileName);
 
         if (fileName == null || fileName.isBlank()) {
-            System.err.println("File name is null or empty");
-            return bellNotes;
+            result.addDiagnostic(0, 0, "File name is null or empty");
+            return result;
         }
 
-        int lineCounter = 0;
+        if (MidiReader.isMidi(fileName)) {
+            return new MidiReader().read(Paths.get(FILE_DIRECTORY + fileName), transpose, mode);
+        }
+        if (MusicXmlReader.isMusicXml(fileName)) {
+            return new MusicXmlReader().read(Paths.get(FILE_DIRECTORY + fileName), transpose, mode);
+        }
+        if (AbcReader.isAbc(fileName)) {
+            return new AbcReader().read(Paths.get(FILE_DIRECTORY + fileName), transpose, mode);
+        }
+
+        final Markers markers = new Markers();
         final String filePath = FILE_DIRECTORY + fileName;
 
         try (final BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line = br.readLine();
+            String line;
 
             // Read each line in file
-            while (line != null) {
-                line = line.strip();
-                final String[] tokens = line.split(" ");
-
-                boolean valid = true;
-                BellNote bellNote = null;
-
-                // Need 2 tokens for note, a note and the length of it
-                if (tokens.length == 2) {
-                    // Strip both strings to ensure no whitespace is in them
-                    final Note note = parseNote(tokens[0].strip());
-
-                    final NoteLength noteLength = parseNoteLength(tokens[1].strip());
-
-                    // initialize note if valid note and note length
-                    if (note != Note.INVALID && noteLength != NoteLength.INVALID) {
-                        bellNote = new BellNote(note, noteLength);
-                    } else {
-                        valid = false;
-                    }
-                } else {
-                    valid = false;
+            while ((line = br.readLine()) != null) {
+                result.countLine();
+                final int errors = result.getDiagnostics().size();
+                readLine(line, result.getLines(), transpose, markers, result);
+
+                if (mode == ParseMode.FAIL_FAST && result.getDiagnostics().size() > errors) {
+                    return result;
                 }
+            }
+
+        } catch (FileNotFoundException e) {
+            result.addDiagnostic(0, 0, "File not found at " + filePath);
+        } catch (IOException e) {
+            result.addDiagnostic(0, 0, "Unable to read file: " + e.getMessage());
+        }
+
+        if (markers.open != null) {
+            // A section left open at the end of the file ends there
+            markers.close(result.mark());
+        }
+
+        if (result.getNotes().isEmpty() && result.getDiagnostics().isEmpty()) {
+            result.addDiagnostic(0, 0, "No notes found in file");
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads one line of a song, either a note and its length or a directive. A valid note is added to the result,
+     * a directive changes the markers or adds segments to the result, and a {@link ParseResult.Diagnostic} is
+     * recorded if the line is neither.
+     *
+     * @param line      The line.
+     * @param lineNum   Number of the line, starting at 1.
+     * @param transpose Number of semitones to shift every note in the song by.
+     * @param markers   Where the sections and repeats read so far are, and the key the line is in.
+     * @param result    The result being read into.
+     */
+    private void readLine(String line, int lineNum, int transpose, Markers markers, ParseResult result) {
+        final String stripped = line.strip();
+        final String[] tokens = stripped.split(" ");
+
+        // Columns of the two tokens, used when reporting problems
+        final int firstColumn = line.indexOf(stripped) + 1;
+        final int secondColumn = firstColumn + tokens[0].length() + 1;
+
+        if (isDirective(tokens[0]) && !tokens[0].equals(TRANSPOSE_DIRECTIVE)) {
+            // Section, repeat or da capo directive, changes the order notes are played in
+            readDirective(tokens, stripped, lineNum, firstColumn, secondColumn, markers, result);
+        } else if (tokens.length != 2) {
+            // Need 2 tokens for note, a note and the length of it
+            result.addDiagnostic(lineNum, firstColumn, "Expected a note and its length, found '" + stripped + "'");
+        } else if (tokens[0].equals(TRANSPOSE_DIRECTIVE)) {
+            // Transpose directive, shifts the notes after it
+            try {
+                markers.transpose = Integer.parseInt(tokens[1]);
+                result.countDirective();
+            } catch (NumberFormatException e) {
+                result.addDiagnostic(lineNum, secondColumn, "Invalid number of semitones '" + tokens[1] + "'");
+            }
+        } else {
+            final Note note = parseNote(tokens[0]);
+            final NoteLength noteLength = parseNoteLength(tokens[1]);
+
+            if (note == Note.INVALID) {
+                result.addDiagnostic(lineNum, firstColumn, "Unknown note '" + tokens[0] + "'");
+            }
+            if (noteLength == NoteLength.INVALID) {
+                result.addDiagnostic(lineNum, secondColumn, "Invalid note length '" + tokens[1] + "', expected 1, 2, 4 or 8");
+            }
 
-                // if valid bell note and data, add it to list
-                if (valid) {
-                    bellNotes.add(bellNote);
+            // Add the note if valid note and note length, and the shifted note can still be played
+            if (note != Note.INVALID && noteLength != NoteLength.INVALID) {
+                final BellNote bellNote = new BellNote(note, noteLength, transpose + markers.transpose);
+                if (note == Note.REST || ToneCache.isPlayable(bellNote.getSemitone())) {
+                    result.addNote(bellNote);
                 } else {
-                    System.err.println("Invalid line <"+(lineCounter+1)+ ">: '" + line + "' in file: " + fileName);
+                    result.addDiagnostic(lineNum, firstColumn, "Note '" + tokens[0] + "' shifted by " +
+                            bellNote.getTranspose() + " semitones is outside the range bells can play");
                 }
-
-                // Keep track of how many lines have been read, used for validation later
-                lineCounter++;
-                line = br.readLine();
             }
+        }
+    }
 
-        } catch (IOException e) {
-            System.err.println("File not found at " + filePath);
+    /**
+     * Returns whether the given word is the keyword of a directive.
+     *
+     * @param word The first word of a line.
+     * @return {@code true} if the word is a directive keyword.
+     */
+    public static boolean isDirective(String word) {
+        switch (word) {
+            case TRANSPOSE_DIRECTIVE:
+            case SECTION_DIRECTIVE:
+            case END_DIRECTIVE:
+            case PLAY_DIRECTIVE:
+            case REPEAT_DIRECTIVE:
+            case DA_CAPO_DIRECTIVE:
+            case FINE_DIRECTIVE:
+                return true;
+            default:
+                return false;
         }
+    }
 
-        // Ensure all lines contained valid notes, if not, return empty list
-        if (lineCounter != -1 && lineCounter != bellNotes.size()) {
-            System.err.println("Warning: Number of valid notes (" + bellNotes.size() + ") given doesn't match number of lines " + "(" + lineCounter + ") in file " + fileName);
-            return new ArrayList<>();
+    /**
+     * Reads a section, repeat or da capo directive, adding the segments it plays to the result.
+     *
+     * @param tokens       The words of the line.
+     * @param stripped     The line without leading and trailing spaces.
+     * @param lineNum      Number of the line.
+     * @param firstColumn  Column of the first word.
+     * @param secondColumn Column of the second word.
+     * @param markers      Where the sections and repeats read so far are.
+     * @param result       The result being read into.
+     */
+    private void readDirective(String[] tokens, String stripped, int lineNum, int firstColumn, int secondColumn,
+                               Markers markers, ParseResult result) {
+        final String keyword = tokens[0];
+        final int here = result.mark();
+
+        switch (keyword) {
+            case SECTION_DIRECTIVE:
+                if (tokens.length != 2) {
+                    result.addDiagnostic(lineNum, firstColumn, "Expected 'SECTION name', found '" + stripped + "'");
+                    return;
+                }
+                if (markers.sections.containsKey(tokens[1]) || tokens[1].equals(markers.open)) {
+                    result.addDiagnostic(lineNum, secondColumn, "Section '" + tokens[1] + "' is already written");
+                    return;
+                }
+                markers.close(here);
+                markers.open = tokens[1];
+                markers.openStart = here;
+                markers.repeatStart = here;
+                break;
+            case END_DIRECTIVE:
+                if (tokens.length != 1) {
+                    result.addDiagnostic(lineNum, firstColumn, "Expected 'END', found '" + stripped + "'");
+                    return;
+                }
+                if (markers.open == null) {
+                    result.addDiagnostic(lineNum, firstColumn, "END without a SECTION");
+                    return;
+                }
+                markers.close(here);
+                markers.repeatStart = here;
+                break;
+            case PLAY_DIRECTIVE: {
+                if (tokens.length != 2 && tokens.length != 3) {
+                    result.addDiagnostic(lineNum, firstColumn, "Expected 'PLAY name [times]', found '" + stripped + "'");
+                    return;
+                }
+                final int[] section = markers.sections.get(tokens[1]);
+                if (section == null) {
+                    result.addDiagnostic(lineNum, secondColumn, "Unknown section '" + tokens[1] + "'");
+                    return;
+                }
+                final int times = tokens.length == 3 ? parseTimes(tokens[2]) : 1;
+                if (times < 1) {
+                    result.addDiagnostic(lineNum, secondColumn + tokens[1].length() + 1,
+                            "Invalid number of times '" + tokens[2] + "'");
+                    return;
+                }
+                if (!result.replay(section[0], section[1], times)) {
+                    result.addDiagnostic(lineNum, firstColumn, "Song is too long to play section '" + tokens[1] +
+                            "' " + times + " more times");
+                    return;
+                }
+                break;
+            }
+            case REPEAT_DIRECTIVE: {
+                if (tokens.length != 1 && tokens.length != 2) {
+                    result.addDiagnostic(lineNum, firstColumn, "Expected 'REPEAT [times]', found '" + stripped + "'");
+                    return;
+                }
+                final int times = tokens.length == 2 ? parseTimes(tokens[1]) : 1;
+                if (times < 1) {
+                    result.addDiagnostic(lineNum, secondColumn, "Invalid number of times '" + tokens[1] + "'");
+                    return;
+                }
+                if (!result.replay(markers.repeatStart, here, times)) {
+                    result.addDiagnostic(lineNum, firstColumn, "Song is too long to repeat " + times + " more times");
+                    return;
+                }
+                markers.repeatStart = result.mark();
+                break;
+            }
+            case FINE_DIRECTIVE:
+                if (tokens.length != 1) {
+                    result.addDiagnostic(lineNum, firstColumn, "Expected 'FINE', found '" + stripped + "'");
+                    return;
+                }
+                markers.fine = here;
+                break;
+            case DA_CAPO_DIRECTIVE:
+                if (tokens.length != 1) {
+                    result.addDiagnostic(lineNum, firstColumn, "Expected 'DC', found '" + stripped + "'");
+                    return;
+                }
+                if (!result.replay(0, markers.fine >= 0 ? markers.fine : here, 1)) {
+                    result.addDiagnostic(lineNum, firstColumn, "Song is too long to play again from the start");
+                    return;
+                }
+                break;
+            default:
+                return;
         }
+        result.countDirective();
+    }
 
-        return bellNotes;
+    /**
+     * Parses the number of times a directive plays its notes again.
+     *
+     * @param times String to parse.
+     * @return The number of times, or -1 if the string isn't a positive number.
+     */
+    private int parseTimes(String times) {
+        try {
+            final int parsed = Integer.parseInt(times);
+            return parsed > 0 ? parsed : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     /**
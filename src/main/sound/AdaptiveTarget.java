@@ -0,0 +1,106 @@
+package main.sound;
+
+/**
+ * The {@code AdaptiveTarget} class decides how much audio a {@link LineSink} in {@link LatencyProfile#ADAPTIVE}
+ * mode keeps queued in its line. It's told about the line after each chunk is written and only works on byte
+ * counts, so it doesn't need a line to be tested.
+ * <ul>
+ *     <li>When the line runs dry, the target is doubled, up to the size of the line's buffer.</li>
+ *     <li>After {@link #SHRINK_AFTER_CHUNKS} chunks without running dry, the target shrinks by a quarter, down to
+ *     the least amount allowed.</li>
+ *     <li>When a write blocks, the line is fuller than it can take, so the target drops to what's queued.</li>
+ * </ul>
+ */
+public class AdaptiveTarget {
+    /** Number of chunks written without running dry before the target is shrunk. */
+    public static final int SHRINK_AFTER_CHUNKS = 400;
+
+    /** Least number of bytes the target can be. */
+    private final int minBytes;
+
+    /** Most number of bytes the target can be, the size of the line's buffer. */
+    private final int maxBytes;
+
+    /** Number of bytes to keep queued in the line. */
+    private int targetBytes;
+
+    /** Number of chunks written since the line last ran dry or the target last changed. */
+    private int quietChunks = 0;
+
+    /** Number of times the line ran dry. */
+    private int underruns = 0;
+
+    /**
+     * Constructs a new {@code AdaptiveTarget}.
+     *
+     * @param minBytes   Least number of bytes the target can be.
+     * @param maxBytes   Most number of bytes the target can be, the size of the line's buffer.
+     * @param startBytes Number of bytes to keep queued at first, capped at {@code maxBytes}.
+     */
+    public AdaptiveTarget(int minBytes, int maxBytes, int startBytes) {
+        this.minBytes = minBytes;
+        this.maxBytes = maxBytes;
+        this.targetBytes = Math.min(maxBytes, startBytes);
+    }
+
+    /**
+     * Updates the target before a chunk is written, growing it if the line ran dry or shrinking it after a
+     * stretch without running dry.
+     *
+     * @param ranDry Whether the line is empty after something was written to it.
+     */
+    public void beforeChunk(boolean ranDry) {
+        if (ranDry) {
+            underruns++;
+            targetBytes = Math.min(maxBytes, targetBytes * 2);
+            quietChunks = 0;
+        } else if (++quietChunks >= SHRINK_AFTER_CHUNKS) {
+            targetBytes = Math.max(minBytes, targetBytes * 3 / 4);
+            quietChunks = 0;
+        }
+    }
+
+    /**
+     * Returns the number of bytes a chunk goes over the target by, the amount to wait for the line to play
+     * before writing it.
+     *
+     * @param queuedBytes Number of bytes queued in the line.
+     * @param chunkBytes  Number of bytes in the chunk.
+     * @return The number of bytes over the target, 0 or less if the chunk fits.
+     */
+    public int overBytes(int queuedBytes, int chunkBytes) {
+        return queuedBytes + chunkBytes - targetBytes;
+    }
+
+    /**
+     * Updates the target after a chunk is written. A write that blocked means the line is fuller than it can
+     * take, so the target drops to what's queued.
+     *
+     * @param blocked     Whether the write blocked for longer than a chunk's length.
+     * @param queuedBytes Number of bytes queued in the line after the write.
+     */
+    public void afterChunk(boolean blocked, int queuedBytes) {
+        if (blocked) {
+            targetBytes = Math.max(minBytes, queuedBytes);
+            quietChunks = 0;
+        }
+    }
+
+    /**
+     * Returns the number of bytes to keep queued in the line.
+     *
+     * @return The target in bytes.
+     */
+    public int getTargetBytes() {
+        return targetBytes;
+    }
+
+    /**
+     * Returns the number of times the line ran dry.
+     *
+     * @return The number of underruns.
+     */
+    public int getUnderruns() {
+        return underruns;
+    }
+}
@@ -0,0 +1,199 @@
+package main.sound;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * The {@code Arrangement} class is a song written with repeats, sections and da capo, kept the way it was written.
+ * Each note written in the file is stored once, and the order they're played in is a list of segments, each a run
+ * of written notes. A chorus played four times is four segments over the same notes, not four copies of them.
+ *
+ * <p>The arrangement is a read-only {@code List} of the notes in the order they're played, so the conductor, the
+ * renderer and the timing index use it like any other song. Notes are looked up through the segments when they're
+ * asked for, which is a binary search over the segments, and iterating walks the segments in order.</p>
+ */
+public class Arrangement extends AbstractList<BellNote> implements RandomAccess {
+    /** Every note as written, each once. */
+    private final List<BellNote> written;
+
+    /** Index of the first written note of each segment. */
+    private final int[] starts;
+
+    /** Position in the played song each segment starts at, with the song's length at the end. */
+    private final int[] offsets;
+
+    /**
+     * Constructs a new {@code Arrangement}. Empty segments are left out.
+     *
+     * @param written Every note as written.
+     * @param starts  Index of the first written note of each segment.
+     * @param lengths Number of notes in each segment.
+     * @throws IllegalArgumentException If a segment is outside the written notes, or the song is too long.
+     */
+    public Arrangement(List<BellNote> written, int[] starts, int[] lengths) {
+        if (starts.length != lengths.length) {
+            throw new IllegalArgumentException("Segments need a start and a length each");
+        }
+        this.written = written;
+
+        int count = 0;
+        for (int length : lengths) {
+            if (length > 0) {
+                count++;
+            }
+        }
+        this.starts = new int[count];
+        this.offsets = new int[count + 1];
+
+        long total = 0;
+        int s = 0;
+        for (int i = 0; i < starts.length; i++) {
+            if (lengths[i] <= 0) {
+                continue;
+            }
+            if (starts[i] < 0 || starts[i] + lengths[i] > written.size()) {
+                throw new IllegalArgumentException("Segment " + i + " is outside the " + written.size() +
+                        " written notes");
+            }
+            this.starts[s] = starts[i];
+            this.offsets[s] = (int) total;
+            total += lengths[i];
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Song is longer than " + Integer.MAX_VALUE + " notes");
+            }
+            s++;
+        }
+        this.offsets[count] = (int) total;
+    }
+
+    /**
+     * Returns the given song as an arrangement. A song that already is one is returned as it is, any other is
+     * played straight through as a single segment.
+     *
+     * @param song The notes of the song.
+     * @return The arrangement.
+     */
+    public static Arrangement of(List<BellNote> song) {
+        if (song instanceof Arrangement) {
+            return (Arrangement) song;
+        }
+        return new Arrangement(song, new int[]{0}, new int[]{song.size()});
+    }
+
+    /**
+     * Returns the note at the given position in the played song.
+     *
+     * @param index Position in the played song.
+     * @return The note.
+     * @throws IndexOutOfBoundsException If the position is outside the song.
+     */
+    @Override
+    public BellNote get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside the song's " + size() + " notes");
+        }
+        final int segment = segmentOf(index);
+        return written.get(starts[segment] + index - offsets[segment]);
+    }
+
+    /**
+     * Returns the number of notes played, counting every repeat.
+     *
+     * @return The number of notes.
+     */
+    @Override
+    public int size() {
+        return offsets[starts.length];
+    }
+
+    /**
+     * Returns an iterator that walks the segments in order, so each step takes constant time.
+     *
+     * @return The iterator.
+     */
+    @Override
+    public Iterator<BellNote> iterator() {
+        return new Iterator<>() {
+            /** Segment being walked. */
+            private int segment = 0;
+
+            /** Index of the next written note. */
+            private int next = starts.length > 0 ? starts[0] : 0;
+
+            /** Number of notes left in the segment being walked. */
+            private int left = starts.length > 0 ? offsets[1] : 0;
+
+            @Override
+            public boolean hasNext() {
+                return left > 0;
+            }
+
+            @Override
+            public BellNote next() {
+                if (left == 0) {
+                    throw new NoSuchElementException();
+                }
+                final BellNote note = written.get(next++);
+                if (--left == 0 && ++segment < starts.length) {
+                    next = starts[segment];
+                    left = offsets[segment + 1] - offsets[segment];
+                }
+                return note;
+            }
+        };
+    }
+
+    /**
+     * Returns every note as written, each once, in the order they're written.
+     *
+     * @return The written notes.
+     */
+    public List<BellNote> getWritten() {
+        return written;
+    }
+
+    /**
+     * Returns the number of segments.
+     *
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        return starts.length;
+    }
+
+    /**
+     * Returns the index of the first written note of the given segment.
+     *
+     * @param segment The segment.
+     * @return Index into the {@link #getWritten() written notes}.
+     */
+    public int getSegmentStart(int segment) {
+        return starts[segment];
+    }
+
+    /**
+     * Returns the position in the played song the given segment starts at.
+     *
+     * @param segment The segment, or the number of segments for the end of the song.
+     * @return Position in the played song.
+     */
+    public int getSegmentOffset(int segment) {
+        return offsets[segment];
+    }
+
+    /**
+     * Returns the segment the given position in the played song is in.
+     *
+     * @param index Position in the played song.
+     * @return The segment.
+     */
+    public int segmentOf(int index) {
+        // Segments are never empty, so the last one starting at or before the index holds it
+        final int found = Arrays.binarySearch(offsets, 0, starts.length, index);
+        return found >= 0 ? found : -found - 2;
+    }
+}
@@ -5,6 +5,10 @@ import java.util.Objects;
 /**
  * Represents a musical note to be played by a bell, consisting of a pitch ({@link Note})
  * and a duration ({@link NoteLength}).
+ *
+ * <p>A bell note can be transposed by a number of semitones, which lets it be played at pitches outside the
+ * {@link Note} enum. The bell that plays the note is identified by its {@link #getBell() bell name}, so a flat and
+ * its equal sharp, or two notes transposed to the same pitch, are rung by the same bell.</p>
  */
 public class BellNote {
     /** The musical note to be played. */
@@ -13,6 +17,12 @@ public class BellNote {
     /** The duration of the note. */
     private final NoteLength length;
 
+    /** Number of semitones the note is shifted by, 0 if it's played as written. */
+    private final int transpose;
+
+    /** Name of the bell that plays the note, such as "A4S", or "REST" for rests. */
+    private final String bell;
+
     /**
      * Constructs a {@code BellNote} with the specified pitch and duration.
      *
@@ -20,8 +30,40 @@ public class BellNote {
      * @param length The duration of the note.
      */
     public BellNote(Note note, NoteLength length) {
+        this(note, length, 0);
+    }
+
+    /**
+     * Constructs a {@code BellNote} with the specified pitch and duration, shifted by the given number of
+     * semitones. Rests and invalid notes are never shifted.
+     *
+     * @param note      The musical note to be played.
+     * @param length    The duration of the note.
+     * @param transpose Number of semitones to shift the note by, negative values shift it down.
+     */
+    public BellNote(Note note, NoteLength length, int transpose) {
         this.note = note;
         this.length = length;
+        this.transpose = note.getSemitone() > 0 ? transpose : 0;
+        this.bell = note.getSemitone() > 0 ? Note.nameOf(note.getSemitone() + this.transpose) : note.name();
+    }
+
+    /**
+     * Creates a {@code BellNote} for any semitone, using the {@link Note} constant with that semitone if there is
+     * one, or else the constant in the same position of the octave, transposed by whole octaves.
+     *
+     * @param semitone The semitone value relative to A4 (where A4=1).
+     * @param length   The duration of the note.
+     * @return The new {@code BellNote}.
+     */
+    public static BellNote ofSemitone(int semitone, NoteLength length) {
+        final Note exact = Note.fromSemitone(semitone);
+        if (exact != Note.INVALID) {
+            return new BellNote(exact, length);
+        }
+
+        final Note base = Note.fromSemitone(1 + Math.floorMod(semitone - 1, 12));
+        return new BellNote(base, length, semitone - base.getSemitone());
     }
 
     /**
@@ -42,22 +84,71 @@ public class BellNote {
         return length;
     }
 
+    /**
+     * Returns the number of semitones this {@code BellNote} is shifted by.
+     *
+     * @return The number of semitones, 0 if the note is played as written.
+     */
+    public int getTranspose() {
+        return transpose;
+    }
+
+    /**
+     * Returns the semitone the note is played at, relative to A4 (where A4=1), including any transposition.
+     *
+     * @return The semitone of the note, 0 for rests and invalid notes.
+     */
+    public int getSemitone() {
+        return note.getSemitone() > 0 ? note.getSemitone() + transpose : 0;
+    }
+
+    /**
+     * Returns the name of the bell that plays this note, such as "A4S", or the note's name for rests and invalid
+     * notes. Notes with the same pitch always have the same bell name.
+     *
+     * @return The name of the bell.
+     */
+    public String getBell() {
+        return bell;
+    }
+
+    /**
+     * Returns a copy of this {@code BellNote} shifted by the given number of semitones.
+     *
+     * @param semitones Number of semitones to shift by, negative values shift down.
+     * @return The transposed {@code BellNote}.
+     */
+    public BellNote transpose(int semitones) {
+        return new BellNote(note, length, transpose + semitones);
+    }
+
+    /**
+     * Returns the sample this note is played with, a single measure of its bell's sine wave.
+     *
+     * @return An array of bytes representing the single measure.
+     * @see ToneCache#sample(int)
+     */
+    public byte[] sample() {
+        return transpose == 0 ? note.sample() : ToneCache.sample(getSemitone());
+    }
+
     /**
      * Returns a string representation of this {@code BellNote}.
      *
-     * @return A string containing the note and its length.
+     * @return A string containing the note and its length, and the transposition if the note is shifted.
      */
     @Override
     public String toString() {
         String sb = "BellNote{" + "note=" + note +
                 ", length=" + length +
+                (transpose != 0 ? ", transpose=" + transpose : "") +
                 '}';
         return sb;
     }
 
     /**
      * Compares this {@code BellNote} to another object.
-     * Two {@code BellNote} objects are equal if they have the same note and length.
+     * Two {@code BellNote} objects are equal if they have the same note, length and transposition.
      *
      * @param o The object to compare with this {@code BellNote}.
      * @return {@code true} if the objects are equal, {@code false} otherwise.
@@ -67,17 +158,17 @@ public class BellNote {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BellNote bellNote = (BellNote) o;
-        return note == bellNote.note && length == bellNote.length;
+        return note == bellNote.note && length == bellNote.length && transpose == bellNote.transpose;
     }
 
     /**
      * Computes the hash code for this {@code BellNote}.
      *
-     * @return A hash code based on the note and length.
+     * @return A hash code based on the note, length and transposition.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(note, length);
+        return Objects.hash(note, length, transpose);
     }
 }
 
@@ -0,0 +1,117 @@
+package main.sound;
+
+/**
+ * The {@code ChannelLayout} class describes the speakers the choir plays through, and makes the {@link Panner
+ * Panners} that place members among them.
+ *
+ * <ul>
+ *     <li>One channel is mono, every member plays through the one speaker.</li>
+ *     <li>Two channels are stereo, a position of 0.0 is hard left and 1.0 is hard right.</li>
+ *     <li>Three or more channels are a ring of speakers around the room, channel {@code k} at position
+ *     {@code k / channels} of the way around. A position between two speakers plays through both of them, and
+ *     positions past the last speaker wrap around to the first.</li>
+ * </ul>
+ *
+ * <p>Positions are panned with constant power, so a member sounds equally loud wherever they're placed.</p>
+ */
+public final class ChannelLayout {
+    /** Most channels the choir can play through. */
+    public static final int MAX_CHANNELS = 8;
+
+    /** What members are placed by. */
+    public enum Placement {
+        /** Members are spread evenly around the speakers, in the order they were made. */
+        MEMBERS,
+        /** Bells are spread evenly around the speakers from lowest to highest, each member by its first bell. */
+        BELLS,
+        /** Each member plays through one speaker only, member {@code i} through channel {@code i % channels}. */
+        CHANNELS
+    }
+
+    /** Number of channels. */
+    private final int channels;
+
+    /**
+     * Constructs a new {@code ChannelLayout}.
+     *
+     * @param channels Number of channels.
+     */
+    private ChannelLayout(int channels) {
+        this.channels = channels;
+    }
+
+    /**
+     * Returns the layout with the given number of channels.
+     *
+     * @param channels Number of channels, from 1 to {@link #MAX_CHANNELS}.
+     * @return The layout.
+     * @throws IllegalArgumentException If the number of channels is out of range.
+     */
+    public static ChannelLayout of(int channels) {
+        if (channels < 1 || channels > MAX_CHANNELS) {
+            throw new IllegalArgumentException("Can only play through 1 to " + MAX_CHANNELS + " channels, not " +
+                    channels);
+        }
+        return new ChannelLayout(channels);
+    }
+
+    /**
+     * Returns the number of channels.
+     *
+     * @return The number of channels.
+     */
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * Returns a panner that places a member at the given position.
+     *
+     * @param position From 0.0 to 1.0, from left to right in stereo or once around a ring of speakers.
+     * @return The panner.
+     */
+    public Panner at(double position) {
+        final float[] gains = new float[channels];
+        if (channels == 1) {
+            gains[0] = 1.0f;
+        } else if (channels == 2) {
+            final double angle = Math.min(1.0, Math.max(0.0, position)) * Math.PI / 2;
+            gains[0] = (float) Math.cos(angle);
+            gains[1] = (float) Math.sin(angle);
+        } else {
+            final double around = (position - Math.floor(position)) * channels;
+            final int speaker = (int) around % channels;
+            final double angle = (around - Math.floor(around)) * Math.PI / 2;
+            gains[speaker] = (float) Math.cos(angle);
+            gains[(speaker + 1) % channels] += (float) Math.sin(angle);
+        }
+        return new Panner(gains);
+    }
+
+    /**
+     * Returns a panner that plays a member through one channel only.
+     *
+     * @param channel The channel, wrapped around if there aren't that many.
+     * @return The panner.
+     */
+    public Panner onChannel(int channel) {
+        final float[] gains = new float[channels];
+        gains[Math.floorMod(channel, channels)] = 1.0f;
+        return new Panner(gains);
+    }
+
+    /**
+     * Returns a panner that places one of several members evenly among the speakers. In stereo the first is hard
+     * left and the last hard right, around a ring they're spaced evenly all the way round.
+     *
+     * @param index Which member, from 0.
+     * @param count Number of members being placed.
+     * @return The panner.
+     */
+    public Panner spread(int index, int count) {
+        if (channels > 2) {
+            return at((double) index / count);
+        }
+        return at(count > 1 ? (double) index / (count - 1) : 0.5);
+    }
+}
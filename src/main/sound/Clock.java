@@ -0,0 +1,27 @@
+package main.sound;
+
+/**
+ * A {@code Clock} is where the choir reads the time from. Playback normally uses the {@link #SYSTEM} clock, and
+ * tests use a {@link VirtualClock}, which only moves when a {@link VirtualSink} says the device has played
+ * something, so a song can be played through in much less time than it lasts.
+ */
+public interface Clock {
+    /** The system's clock, {@link System#nanoTime()}. */
+    Clock SYSTEM = System::nanoTime;
+
+    /**
+     * Returns the current time. Only the difference between two times means anything.
+     *
+     * @return The time in nanoseconds.
+     */
+    long nanoTime();
+
+    /**
+     * Returns the current time in milliseconds, see {@link #nanoTime()}.
+     *
+     * @return The time in milliseconds.
+     */
+    default long millis() {
+        return nanoTime() / 1_000_000;
+    }
+}
@@ -0,0 +1,41 @@
+package main.sound;
+
+/**
+ * Controls how much audio a {@link LineSink} keeps queued in its {@link javax.sound.sampled.SourceDataLine}.
+ * A small buffer starts sounds sooner but can run dry on a busy machine, causing glitches, while a large buffer
+ * never runs dry but makes everything sound later.
+ */
+public enum LatencyProfile {
+    /** Uses the line's default buffer size. */
+    DEFAULT(0),
+    /** A small buffer, for playing interactively. */
+    LOW(20),
+    /** A large buffer, for playing whole songs without glitches. */
+    HIGH(500),
+    /**
+     * Starts with a small amount of queued audio and grows it whenever the line runs dry, shrinking it again
+     * after a while without problems. The line is opened with the {@link #HIGH} buffer size so there is room to grow.
+     */
+    ADAPTIVE(500);
+
+    /** Size of the line's buffer in milliseconds, or 0 for the line's default size. */
+    private final int bufferMs;
+
+    /**
+     * Constructs a {@code LatencyProfile} with the given buffer size.
+     *
+     * @param bufferMs Size of the line's buffer in milliseconds, or 0 for the line's default size.
+     */
+    LatencyProfile(int bufferMs) {
+        this.bufferMs = bufferMs;
+    }
+
+    /**
+     * Returns the size of the line's buffer in milliseconds.
+     *
+     * @return The buffer size in milliseconds, or 0 for the line's default size.
+     */
+    public int getBufferMs() {
+        return bufferMs;
+    }
+}
@@ -0,0 +1,261 @@
+package main.sound;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * A {@link SampleSink} that plays audio through a {@link SourceDataLine}.
+ *
+ * <p>The size of the line's buffer is chosen by a {@link LatencyProfile}. With {@link LatencyProfile#ADAPTIVE},
+ * the sink limits how much audio it keeps queued in the line instead, since an open line's buffer can't be resized.
+ * Writes are split into small chunks, and before each chunk the sink checks {@link SourceDataLine#available()}.
+ * If the line ran dry, the amount kept queued is doubled. If writes spend a long time blocked, the line is fuller
+ * than it can take and the amount is lowered, and after a stretch without running dry it is slowly shrunk back
+ * down to keep latency low, as decided by an {@link AdaptiveTarget}. A line that was left empty for longer than
+ * its whole buffer takes to play was stopped on purpose, such as by pausing the song, so it isn't counted as
+ * running dry.</p>
+ *
+ * <p>Samples are written as they are. They are generated in the {@link SampleEncoding} of the line's format, so
+ * the line never has to convert them.</p>
+ *
+ * <p>A line with several channels takes interleaved frames, one sample for each channel, such as those written by
+ * a {@link Panner}. The line only takes whole frames, so when a write ends part way through a frame, such as a slot
+ * of a {@link RingBufferSink} that isn't a multiple of the frame size, the rest of the frame is held back until the
+ * next write finishes it.</p>
+ */
+public class LineSink implements SampleSink {
+    /** Length of the chunks, in milliseconds, writes are split into in adaptive mode. */
+    private static final int ADAPTIVE_CHUNK_MS = 5;
+
+    /** Least amount of audio, in milliseconds, kept queued in adaptive mode. */
+    private static final int ADAPTIVE_MIN_MS = 10;
+
+    /** Amount of audio, in milliseconds, queued when adaptive mode starts. */
+    private static final int ADAPTIVE_START_MS = 40;
+
+    /** The {@code SourceDataLine} to write audio bytes to. */
+    private SourceDataLine line;
+
+    /** The format of the audio written to the line. */
+    private final AudioFormat format;
+
+    /** How much audio to keep queued in the line. */
+    private final LatencyProfile profile;
+
+    /** Size of the line's buffer in bytes, known once the line is open. */
+    private int bufferBytes;
+
+    /** Decides how many bytes adaptive mode keeps queued in the line, known once the line is open. */
+    private AdaptiveTarget target;
+
+    /** Number of bytes in one adaptive chunk. */
+    private int chunkBytes;
+
+    /** Whether anything has been written to the line yet, the line is always empty before the first write. */
+    private boolean written = false;
+
+    /** Time, from {@link System#nanoTime()}, the last adaptive chunk finished writing. */
+    private long lastChunkNanos;
+
+    /** Time, in nanoseconds, the line's whole buffer takes to play, known once the line is open. */
+    private long bufferNanos;
+
+    /** Bytes of a frame a write ended part way through, written once the next write finishes the frame. */
+    private final byte[] partial;
+
+    /** Number of bytes in {@link #partial}. */
+    private int partialLength = 0;
+
+    /**
+     * Constructs a new {@code LineSink} that uses the line's default buffer size.
+     *
+     * @param af The {@link AudioFormat} to use.
+     * @see #LineSink(AudioFormat, LatencyProfile)
+     */
+    public LineSink(AudioFormat af) {
+        this(af, LatencyProfile.DEFAULT);
+    }
+
+    /**
+     * Constructs a new {@code LineSink}, getting a {@link SourceDataLine} for the given {@link AudioFormat}.
+     * If the line is unavailable, it waits three seconds and tries again. If it's still unavailable, the
+     * program is aborted with status of 1.
+     *
+     * @param af      The {@link AudioFormat} to use.
+     * @param profile The {@link LatencyProfile} that decides the size of the line's buffer.
+     */
+    public LineSink(AudioFormat af, LatencyProfile profile) {
+        this.format = af;
+        this.profile = profile;
+        this.partial = new byte[af.getFrameSize()];
+        try {
+            this.line = AudioSystem.getSourceDataLine(af);
+            // If line is not available, wait 3 seconds and try again
+        } catch (LineUnavailableException e) {
+            System.err.println("Line was unavailable, waiting 3 seconds and trying again...");
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException ignored) {
+            }
+
+            // If line is still unavailable after 3 seconds, terminate program
+            try {
+                this.line = AudioSystem.getSourceDataLine(af);
+            } catch (LineUnavailableException lue) {
+                System.err.println("LineSink: Line still unavailable after waiting 3 seconds, aborting");
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Opens and starts the {@link SourceDataLine}, with the buffer size given by the {@link LatencyProfile}.
+     *
+     * @throws LineUnavailableException If the line can't be opened.
+     */
+    @Override
+    public void open() throws LineUnavailableException {
+        if (profile.getBufferMs() > 0) {
+            line.open(format, msToBytes(profile.getBufferMs()));
+        } else {
+            line.open();
+        }
+        line.start();
+
+        bufferBytes = line.getBufferSize();
+        bufferNanos = bytesToMs(bufferBytes) * 1_000_000L;
+        chunkBytes = msToBytes(ADAPTIVE_CHUNK_MS);
+        target = new AdaptiveTarget(msToBytes(ADAPTIVE_MIN_MS), bufferBytes, msToBytes(ADAPTIVE_START_MS));
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        final int frameSize = partial.length;
+        if (frameSize == 1) {
+            writeFrames(b, off, len);
+            return;
+        }
+
+        // Finish the frame the last write ended part way through
+        if (partialLength > 0) {
+            final int rest = Math.min(len, frameSize - partialLength);
+            System.arraycopy(b, off, partial, partialLength, rest);
+            partialLength += rest;
+            off += rest;
+            len -= rest;
+            if (partialLength < frameSize) {
+                return;
+            }
+            writeFrames(partial, 0, frameSize);
+            partialLength = 0;
+        }
+
+        final int whole = len - len % frameSize;
+        writeFrames(b, off, whole);
+        partialLength = len - whole;
+        System.arraycopy(b, off + whole, partial, 0, partialLength);
+    }
+
+    /**
+     * Writes whole frames of samples to the line.
+     *
+     * @param b   The samples.
+     * @param off Offset of the first frame.
+     * @param len Number of bytes, a multiple of the frame size.
+     */
+    private void writeFrames(byte[] b, int off, int len) {
+        if (profile != LatencyProfile.ADAPTIVE) {
+            line.write(b, off, len);
+            return;
+        }
+
+        while (len > 0) {
+            final int chunk = Math.min(len, chunkBytes);
+            // The line only ran dry if the writer came back before a full buffer could have played out
+            final boolean empty = written && line.available() >= bufferBytes;
+            target.beforeChunk(empty && System.nanoTime() - lastChunkNanos < bufferNanos);
+
+            // Wait until the chunk fits under the target
+            final int over = target.overBytes(bufferBytes - line.available(), chunk);
+            if (over > 0) {
+                try {
+                    Thread.sleep(Math.max(1, bytesToMs(over)));
+                } catch (InterruptedException ignored) {
+                }
+            }
+
+            // A write that blocks for longer than a chunk's length means the line is fuller than it can take
+            final long start = System.nanoTime();
+            line.write(b, off, chunk);
+            lastChunkNanos = System.nanoTime();
+            target.afterChunk((lastChunkNanos - start) / 1_000_000 > ADAPTIVE_CHUNK_MS,
+                    bufferBytes - line.available());
+
+            written = true;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public void drain() {
+        line.drain();
+    }
+
+    @Override
+    public void close() {
+        line.close();
+    }
+
+    /**
+     * Returns the number of bytes written to the line that haven't been played yet, the same bytes that were
+     * written, since the line takes samples as they are.
+     *
+     * @return The number of queued bytes.
+     */
+    @Override
+    public int getQueuedBytes() {
+        return bufferBytes - line.available();
+    }
+
+    /**
+     * Returns the number of times the line ran dry while writing in adaptive mode.
+     *
+     * @return The number of underruns.
+     */
+    public int getUnderruns() {
+        return target == null ? 0 : target.getUnderruns();
+    }
+
+    /**
+     * Returns the amount of audio, in milliseconds, adaptive mode is currently keeping queued in the line.
+     *
+     * @return The adaptive target in milliseconds.
+     */
+    public int getTargetMs() {
+        return target == null ? 0 : bytesToMs(target.getTargetBytes());
+    }
+
+    /**
+     * Converts a length of time to the number of bytes of audio it takes up, rounded down to whole frames.
+     *
+     * @param ms The length of time in milliseconds.
+     * @return The number of bytes.
+     */
+    private int msToBytes(int ms) {
+        final int frames = (int) (format.getFrameRate() * ms / 1000);
+        return frames * format.getFrameSize();
+    }
+
+    /**
+     * Converts a number of bytes of audio to the length of time it plays for.
+     *
+     * @param bytes The number of bytes.
+     * @return The length of time in milliseconds.
+     */
+    private int bytesToMs(int bytes) {
+        return (int) (bytes / format.getFrameSize() * 1000L / (long) format.getFrameRate());
+    }
+}
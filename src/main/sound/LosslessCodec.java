@@ -0,0 +1,585 @@
+package main.sound;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The {@code LosslessCodec} class compresses rendered songs without losing a single sample, in the style of FLAC.
+ * Samples are split into blocks. Each block is either one repeated value, such as the silence of a rest, or is
+ * predicted from the samples before it by a fixed polynomial predictor, with what's left over (the residual)
+ * stored using Rice coding. Smooth sine waves predict very well, so most residuals are tiny and take a few bits.
+ *
+ * <p>A compressed stream looks like this, with every number big-endian:</p>
+ * <pre>
+ * header: "BCL1" sampleRate:int
+ * block:  CONSTANT length:short value:byte
+ *       | PREDICTED+order length:short k:byte warmup:byte[order] payloadBytes:int payload:byte[payloadBytes]
+ * end:    END
+ * </pre>
+ *
+ * <p>Both directions are streams: an {@link Encoder} is an {@link OutputStream} compressing bytes written to it,
+ * and a {@link Decoder} is an {@link InputStream} giving back the original bytes, so neither needs the whole song
+ * in memory.</p>
+ */
+public final class LosslessCodec {
+    /** Bytes every compressed stream starts with. */
+    private static final byte[] MAGIC = {'B', 'C', 'L', '1'};
+
+    /** File extension of compressed songs. */
+    public static final String EXTENSION = ".bcl";
+
+    /** Most samples in a block. */
+    public static final int BLOCK_SAMPLES = 4096;
+
+    /** Highest order of the fixed predictors. */
+    private static final int MAX_ORDER = 3;
+
+    /** Largest Rice parameter tried, residuals of 8 bit samples never need more. */
+    private static final int MAX_RICE = 15;
+
+    /** Marks a block of one repeated sample. */
+    private static final int CONSTANT = 0;
+
+    /** Marks a predicted block, the predictor order is added to it. */
+    private static final int PREDICTED = 1;
+
+    /** Marks the end of the stream. */
+    private static final int END = 0xFF;
+
+    /**
+     * Private constructor, the class only has static methods and nested classes.
+     */
+    private LosslessCodec() {
+        //empty
+    }
+
+    /**
+     * Predicts sample {@code i} of {@code x} from the samples before it, using a fixed predictor.
+     *
+     * @param x     The samples.
+     * @param i     Index of the sample to predict, at least {@code order}.
+     * @param order Order of the predictor, 0 to {@link #MAX_ORDER}.
+     * @return The predicted sample.
+     */
+    private static int predict(int[] x, int i, int order) {
+        switch (order) {
+            case 1:
+                return x[i - 1];
+            case 2:
+                return 2 * x[i - 1] - x[i - 2];
+            case 3:
+                return 3 * x[i - 1] - 3 * x[i - 2] + x[i - 3];
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Maps a signed residual to an unsigned one, 0, -1, 1, -2, 2 ... becoming 0, 1, 2, 3, 4 ...
+     *
+     * @param r The residual.
+     * @return The unsigned residual.
+     */
+    private static int zigzag(int r) {
+        return (r << 1) ^ (r >> 31);
+    }
+
+    /**
+     * Undoes {@link #zigzag(int)}.
+     *
+     * @param u The unsigned residual.
+     * @return The residual.
+     */
+    private static int unzigzag(int u) {
+        return (u >>> 1) ^ -(u & 1);
+    }
+
+    /**
+     * An {@link OutputStream} that compresses the samples written to it. Samples are collected into blocks and
+     * each full block is compressed and written, the last partial block is written on {@link #close()}.
+     */
+    public static class Encoder extends FilterOutputStream {
+        /** Where the compressed stream is written. */
+        private final DataOutputStream data;
+
+        /** Samples of the current block. */
+        private final int[] block = new int[BLOCK_SAMPLES];
+
+        /** Residuals of the block, for the predictor being tried. */
+        private final int[] residuals = new int[BLOCK_SAMPLES];
+
+        /** Compressed residuals of the block. */
+        private final BitWriter bits = new BitWriter(BLOCK_SAMPLES * 4);
+
+        /** Number of samples in the current block. */
+        private int size = 0;
+
+        /** Whether the stream has been closed. */
+        private boolean closed = false;
+
+        /**
+         * Constructs a new {@code Encoder} and writes the stream header.
+         *
+         * @param out Where the compressed stream is written.
+         * @throws IOException If the header can't be written.
+         */
+        public Encoder(OutputStream out) throws IOException {
+            super(out);
+            this.data = new DataOutputStream(out);
+            data.write(MAGIC);
+            data.writeInt(Note.SAMPLE_RATE);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            block[size++] = (byte) b;
+            if (size == BLOCK_SAMPLES) {
+                writeBlock();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                final int n = Math.min(len, BLOCK_SAMPLES - size);
+                for (int i = 0; i < n; i++) {
+                    block[size + i] = b[off + i];
+                }
+                size += n;
+                off += n;
+                len -= n;
+                if (size == BLOCK_SAMPLES) {
+                    writeBlock();
+                }
+            }
+        }
+
+        /**
+         * Writes the last partial block and the end marker, then closes the underlying stream.
+         *
+         * @throws IOException If the stream can't be written.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (size > 0) {
+                writeBlock();
+            }
+            data.writeByte(END);
+            data.flush();
+            super.close();
+        }
+
+        /**
+         * Compresses the current block with whichever predictor and Rice parameter make it smallest, and writes it.
+         *
+         * @throws IOException If the block can't be written.
+         */
+        private void writeBlock() throws IOException {
+            boolean constant = true;
+            for (int i = 1; i < size && constant; i++) {
+                constant = block[i] == block[0];
+            }
+            if (constant) {
+                data.writeByte(CONSTANT);
+                data.writeShort(size);
+                data.writeByte(block[0]);
+                size = 0;
+                return;
+            }
+
+            // Pick the predictor leaving the smallest residuals. Each order's residual is the difference of the
+            // order below it, so all of them are summed in one pass
+            final long[] sums = new long[MAX_ORDER + 1];
+            for (int i = MAX_ORDER; i < size; i++) {
+                final int e0 = block[i];
+                final int e1 = e0 - block[i - 1];
+                final int e2 = e1 - (block[i - 1] - block[i - 2]);
+                final int e3 = e2 - (block[i - 1] - 2 * block[i - 2] + block[i - 3]);
+                sums[0] += Math.abs(e0);
+                sums[1] += Math.abs(e1);
+                sums[2] += Math.abs(e2);
+                sums[3] += Math.abs(e3);
+            }
+            int order = 0;
+            for (int o = 1; o <= MAX_ORDER && o < size; o++) {
+                if (sums[o] < sums[order]) {
+                    order = o;
+                }
+            }
+
+            long total = 0;
+            for (int i = order; i < size; i++) {
+                residuals[i] = zigzag(block[i] - predict(block, i, order));
+                total += residuals[i];
+            }
+
+            // Estimate the Rice parameter from the mean residual, then take the best of it and its neighbours
+            final long mean = total / (size - order);
+            final int estimate = mean > 0 ? 63 - Long.numberOfLeadingZeros(mean) : 0;
+            int k = estimate;
+            long fewest = Long.MAX_VALUE;
+            for (int p = Math.max(0, estimate - 1); p <= Math.min(MAX_RICE, estimate + 1); p++) {
+                long bitCount = (long) (size - order) * (1 + p);
+                for (int i = order; i < size; i++) {
+                    bitCount += residuals[i] >>> p;
+                }
+                if (bitCount < fewest) {
+                    fewest = bitCount;
+                    k = p;
+                }
+            }
+
+            bits.reset();
+            for (int i = order; i < size; i++) {
+                bits.writeRice(residuals[i], k);
+            }
+            bits.flush();
+
+            data.writeByte(PREDICTED + order);
+            data.writeShort(size);
+            data.writeByte(k);
+            for (int i = 0; i < order; i++) {
+                data.writeByte(block[i]);
+            }
+            data.writeInt(bits.length());
+            data.write(bits.buffer(), 0, bits.length());
+            size = 0;
+        }
+    }
+
+    /**
+     * An {@link InputStream} that decompresses a stream written by an {@link Encoder}, one block at a time.
+     */
+    public static class Decoder extends InputStream {
+        /** Where the compressed stream is read from. */
+        private final DataInputStream data;
+
+        /** Samples of the current block. */
+        private final byte[] block = new byte[BLOCK_SAMPLES];
+
+        /** Compressed residuals of the current block. */
+        private final BitReader bits = new BitReader();
+
+        /** Number of samples in the current block. */
+        private int size = 0;
+
+        /** Number of samples of the current block already read. */
+        private int pos = 0;
+
+        /** Whether the end marker has been read. */
+        private boolean ended = false;
+
+        /**
+         * Constructs a new {@code Decoder} and reads the stream header.
+         *
+         * @param in Where the compressed stream is read from.
+         * @throws IOException If the stream isn't a compressed song, or was made for a different sample rate.
+         */
+        public Decoder(InputStream in) throws IOException {
+            this.data = new DataInputStream(in);
+            final byte[] magic = new byte[MAGIC.length];
+            data.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a compressed song");
+            }
+            final int sampleRate = data.readInt();
+            if (sampleRate != Note.SAMPLE_RATE) {
+                throw new IOException("Song was compressed at " + sampleRate + "Hz, expected " + Note.SAMPLE_RATE + "Hz");
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos == size && !readBlock()) {
+                return -1;
+            }
+            return block[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (pos == size && !readBlock()) {
+                return -1;
+            }
+            final int n = Math.min(len, size - pos);
+            System.arraycopy(block, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            data.close();
+        }
+
+        /**
+         * Reads and decompresses the next block.
+         *
+         * @return {@code false} if the end of the stream was reached.
+         * @throws IOException If the stream can't be read or is corrupt.
+         */
+        private boolean readBlock() throws IOException {
+            if (ended) {
+                return false;
+            }
+            final int type;
+            try {
+                type = data.readUnsignedByte();
+            } catch (EOFException e) {
+                throw new IOException("Compressed song ends without an end marker", e);
+            }
+            if (type == END) {
+                ended = true;
+                return false;
+            }
+
+            size = data.readUnsignedShort();
+            pos = 0;
+            if (size > BLOCK_SAMPLES) {
+                throw new IOException("Corrupt block of " + size + " samples");
+            }
+
+            if (type == CONSTANT) {
+                Arrays.fill(block, 0, size, data.readByte());
+                return true;
+            }
+
+            final int order = type - PREDICTED;
+            if (order < 0 || order > MAX_ORDER) {
+                throw new IOException("Unknown block type " + type);
+            }
+            final int k = data.readUnsignedByte();
+            data.readFully(block, 0, order);
+            bits.fill(data, data.readInt());
+
+            // Undo the prediction, with a loop per order to keep the switch out of the hot loop
+            switch (order) {
+                case 0:
+                    for (int i = 0; i < size; i++) {
+                        block[i] = (byte) unzigzag(bits.readRice(k));
+                    }
+                    break;
+                case 1:
+                    for (int i = 1; i < size; i++) {
+                        block[i] = (byte) (block[i - 1] + unzigzag(bits.readRice(k)));
+                    }
+                    break;
+                case 2:
+                    for (int i = 2; i < size; i++) {
+                        block[i] = (byte) (2 * block[i - 1] - block[i - 2] + unzigzag(bits.readRice(k)));
+                    }
+                    break;
+                default:
+                    for (int i = 3; i < size; i++) {
+                        block[i] = (byte) (3 * block[i - 1] - 3 * block[i - 2] + block[i - 3] +
+                                unzigzag(bits.readRice(k)));
+                    }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Packs Rice coded values into bytes, most significant bit first.
+     */
+    private static class BitWriter {
+        /** The packed bytes. */
+        private byte[] buffer;
+
+        /** Number of whole bytes written. */
+        private int length = 0;
+
+        /** Bits not yet written to {@link #buffer}, in the low bits. */
+        private long pending = 0;
+
+        /** Number of bits in {@link #pending}. */
+        private int pendingBits = 0;
+
+        /**
+         * Constructs a new {@code BitWriter}.
+         *
+         * @param capacity Starting size of the buffer, in bytes.
+         */
+        BitWriter(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        /**
+         * Empties the writer, keeping its buffer.
+         */
+        void reset() {
+            length = 0;
+            pending = 0;
+            pendingBits = 0;
+        }
+
+        /**
+         * Writes a value as {@code u >>> k} one bits, a zero bit, then the low {@code k} bits of the value.
+         *
+         * @param u The value.
+         * @param k The Rice parameter.
+         */
+        void writeRice(int u, int k) {
+            int q = u >>> k;
+            final long low = u & ((1L << k) - 1);
+
+            // Most values fit in one write
+            if (q + 1 + k <= 32) {
+                writeBits(((((1L << q) - 1) << 1) << k) | low, q + 1 + k);
+                return;
+            }
+            while (q >= 32) {
+                writeBits(0xFFFFFFFFL, 32);
+                q -= 32;
+            }
+            writeBits(((1L << q) - 1) << 1, q + 1);
+            writeBits(low, k);
+        }
+
+        /**
+         * Writes the low {@code n} bits of a value.
+         *
+         * @param value The bits.
+         * @param n     Number of bits, at most 32.
+         */
+        private void writeBits(long value, int n) {
+            pending = (pending << n) | (value & ((1L << n) - 1));
+            pendingBits += n;
+            while (pendingBits >= 8) {
+                pendingBits -= 8;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                buffer[length++] = (byte) (pending >>> pendingBits);
+            }
+        }
+
+        /**
+         * Pads the last byte with zero bits.
+         */
+        void flush() {
+            if (pendingBits > 0) {
+                writeBits(0, 8 - pendingBits);
+            }
+        }
+
+        /**
+         * Returns the packed bytes, only the first {@link #length()} are used.
+         *
+         * @return The buffer.
+         */
+        byte[] buffer() {
+            return buffer;
+        }
+
+        /**
+         * Returns the number of packed bytes.
+         *
+         * @return The length.
+         */
+        int length() {
+            return length;
+        }
+    }
+
+    /**
+     * Unpacks values written by a {@link BitWriter}.
+     */
+    private static class BitReader {
+        /** The packed bytes. */
+        private byte[] buffer = new byte[BLOCK_SAMPLES];
+
+        /** Number of packed bytes in {@link #buffer}. */
+        private int length = 0;
+
+        /** Index of the next byte to read. */
+        private int pos = 0;
+
+        /** Bits read from {@link #buffer} but not used yet, in the low {@link #bits} bits. */
+        private long window = 0;
+
+        /** Number of unused bits in {@link #window}. */
+        private int bits = 0;
+
+        /**
+         * Reads the next packed bytes from a stream.
+         *
+         * @param in  The stream.
+         * @param len Number of packed bytes.
+         * @throws IOException If the bytes can't be read.
+         */
+        void fill(DataInputStream in, int len) throws IOException {
+            if (len < 0 || len > BLOCK_SAMPLES * 8) {
+                throw new IOException("Corrupt block payload of " + len + " bytes");
+            }
+            if (buffer.length < len) {
+                buffer = new byte[len];
+            }
+            in.readFully(buffer, 0, len);
+            length = len;
+            pos = 0;
+            window = 0;
+            bits = 0;
+        }
+
+        /**
+         * Tops up {@link #window} with whole bytes, as far as it has room.
+         */
+        private void refill() {
+            while (bits <= 56 && pos < length) {
+                window = (window << 8) | (buffer[pos++] & 0xFF);
+                bits += 8;
+            }
+        }
+
+        /**
+         * Reads a value written by {@link BitWriter#writeRice(int, int)}. The one bits are counted a window at a
+         * time rather than bit by bit.
+         *
+         * @param k The Rice parameter.
+         * @return The value.
+         * @throws IOException If the packed bytes run out.
+         */
+        int readRice(int k) throws IOException {
+            int q = 0;
+            while (true) {
+                refill();
+                if (bits == 0) {
+                    throw new IOException("Corrupt block, residuals run past the payload");
+                }
+                // Line the unused bits up at the top, the zeros shifted in below them end the count
+                final int ones = Long.numberOfLeadingZeros(~(window << (64 - bits)));
+                if (ones < bits) {
+                    q += ones;
+                    bits -= ones + 1;
+                    break;
+                }
+                q += bits;
+                bits = 0;
+            }
+
+            if (bits < k) {
+                refill();
+            }
+            if (bits < k) {
+                throw new IOException("Corrupt block, residuals run past the payload");
+            }
+            bits -= k;
+            final int low = (int) (window >>> bits) & ((1 << k) - 1);
+            return (q << k) | low;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package main.sound;
+
+/**
+ * A {@code MixerSource} is one input of a {@link SharedMixer}. It acts as the {@link SampleSink} for a single
+ * {@link main.Conductor} and holds the bytes written to it in a small bounded buffer until the mixer reads them.
+ * When the buffer is full, {@link #write(byte[], int, int)} blocks, the same way a {@code SourceDataLine} does.
+ */
+public class MixerSource implements SampleSink {
+    /** Name of the source, used when printing messages. */
+    private final String name;
+
+    /** The mixer this source belongs to. */
+    private final SharedMixer mixer;
+
+    /** Circular buffer holding bytes that haven't been mixed yet. */
+    private final byte[] buffer;
+
+    /** Index of the next byte to read from {@link #buffer}. */
+    private int readPos = 0;
+
+    /** Number of bytes in {@link #buffer} waiting to be mixed. */
+    private int size = 0;
+
+    /** Gain applied to this source when mixing, 1.0 leaves the samples unchanged. */
+    private volatile float gain;
+
+    /** Whether the source has been opened and not yet closed. */
+    private boolean active = false;
+
+    /** Whether the source has been closed, once closed and empty the mixer forgets about it. */
+    private boolean closed = false;
+
+    /**
+     * Constructs a new {@code MixerSource}. Sources are created with {@link SharedMixer#addSource(String, float)}.
+     *
+     * @param name     Name of the source.
+     * @param mixer    The mixer this source belongs to.
+     * @param gain     Gain applied to the source when mixing.
+     * @param capacity Number of bytes the source can hold before writes block.
+     */
+    MixerSource(String name, SharedMixer mixer, float gain, int capacity) {
+        this.name = name;
+        this.mixer = mixer;
+        this.gain = gain;
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Marks the source as active, from now on the mixer waits for it before mixing.
+     */
+    @Override
+    public void open() {
+        synchronized (this) {
+            active = true;
+        }
+        mixer.signal();
+    }
+
+    /**
+     * Copies the given bytes into the source's buffer, blocking while the buffer is full.
+     *
+     * @param b   The audio bytes to write.
+     * @param off The offset into {@code b} to start at.
+     * @param len The number of bytes to write.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            final int written;
+            synchronized (this) {
+                while (size == buffer.length && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+
+                final int writePos = (readPos + size) % buffer.length;
+                written = Math.min(len, Math.min(buffer.length - size, buffer.length - writePos));
+                System.arraycopy(b, off, buffer, writePos, written);
+                size += written;
+            }
+            off += written;
+            len -= written;
+            mixer.signal();
+        }
+    }
+
+    /**
+     * Blocks until the mixer has read every byte written to this source.
+     */
+    @Override
+    public void drain() {
+        synchronized (this) {
+            while (size > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the source. Bytes already written are still mixed, but the mixer no longer waits for more.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            active = false;
+            closed = true;
+            notifyAll();
+        }
+        mixer.signal();
+    }
+
+    /**
+     * Returns the number of bytes waiting to be mixed.
+     *
+     * @return The number of buffered bytes.
+     */
+    @Override
+    public int getQueuedBytes() {
+        return available();
+    }
+
+    /**
+     * Sets the gain applied to this source when mixing.
+     *
+     * @param gain The new gain, 1.0 leaves the samples unchanged.
+     */
+    public void setGain(float gain) {
+        this.gain = gain;
+    }
+
+    /**
+     * Returns the gain applied to this source when mixing.
+     *
+     * @return The gain of this source.
+     */
+    public float getGain() {
+        return gain;
+    }
+
+    /**
+     * Returns the name of this source.
+     *
+     * @return The name of the source.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of bytes waiting to be mixed.
+     *
+     * @return The number of buffered bytes.
+     */
+    synchronized int available() {
+        return size;
+    }
+
+    /**
+     * Returns whether the mixer should wait for this source to have bytes before mixing.
+     *
+     * @return {@code true} if the source is open and has not been closed.
+     */
+    synchronized boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Returns whether the source is closed and has no bytes left, meaning the mixer is done with it.
+     *
+     * @return {@code true} if the source is finished.
+     */
+    synchronized boolean isFinished() {
+        return closed && size == 0;
+    }
+
+    /**
+     * Adds up to {@code len} buffered bytes, scaled by the source's {@link #gain}, to the given accumulator and
+     * frees the space they used.
+     *
+     * @param acc Accumulator holding the running sum of each sample.
+     * @param len Max number of bytes to read, a whole number of samples.
+     * @return The number of bytes that were read.
+     */
+    int mixInto(int[] acc, int len) {
+        final float g = gain;
+        final SampleEncoding encoding = Note.ENCODING;
+        final int sampleBytes = encoding.getBytes();
+        final int read;
+        synchronized (this) {
+            read = Math.min(len, size);
+
+            // The buffered bytes can wrap around the end of the ring, mix each contiguous piece. Samples are
+            // written whole and the ring holds a whole number of them, so a sample never straddles the end.
+            final int first = Math.min(read, buffer.length - readPos);
+            encoding.mix(buffer, readPos, first / sampleBytes, g, acc, 0);
+            encoding.mix(buffer, 0, (read - first) / sampleBytes, g, acc, first / sampleBytes);
+            readPos = (readPos + read) % buffer.length;
+            size -= read;
+            notifyAll();
+        }
+        return read;
+    }
+}
@@ -51,21 +51,31 @@ public enum Note {
     /** Constant for any note not shown above (invalid). */
     INVALID(0);
 
-    /** The number of audio samples taken per second during audio playback (KHz) */
-    public static final int SAMPLE_RATE = 48 * 1024; // ~48KHz
+    /**
+     * The number of audio samples taken per second during audio playback, the rate of the
+     * {@link OutputFormat} selected for the device (Hz)
+     */
+    public static final int SAMPLE_RATE = OutputFormat.sampleRate();
+
+    /** How each sample is stored in bytes, the encoding of the {@link OutputFormat} selected for the device. */
+    public static final SampleEncoding ENCODING = OutputFormat.encoding();
 
     /** Fixed measurement length in seconds for notes */
     public static final int MEASURE_LENGTH_SEC = 1;
 
-    // Circumference of a circle divided by # of samples
-    /** The angular step size per sample, used for waveform generation. */
-    private static final double step_alpha = (2.0d * Math.PI) / SAMPLE_RATE;
+    /** Note constants indexed by semitone, sharps are used for semitones that also have a flat. */
+    private static final Note[] BY_SEMITONE = new Note[A5.semitone + 1];
 
-    /** The standard pitch frequency for musical note A4. */
-    private final double FREQUENCY_A_HZ = 440.0d;
+    static {
+        for (Note note : values()) {
+            if (note.harmonicEqual == note && note.semitone > 0) {
+                BY_SEMITONE[note.semitone] = note;
+            }
+        }
+    }
 
-    /** Max volume a note can be. */
-    private final double MAX_VOLUME = 127.0d;
+    /** Names of the notes in an octave, starting at A, used to name pitches outside the enum. */
+    private static final String[] OCTAVE_NAMES = {"A", "AS", "B", "C", "CS", "D", "DS", "E", "F", "FS", "G", "GS"};
 
     /** Reference to harmonic equal note */
     private final Note harmonicEqual;
@@ -74,32 +84,19 @@ public enum Note {
     private final int semitone;
 
     /** A byte array representing a single measure of a sine wave sample. */
-    private final byte[] sinSample = new byte[MEASURE_LENGTH_SEC * SAMPLE_RATE];
+    private final byte[] sinSample;
 
     /**
      * Private constructor for the Note enum that creates the sine wave sample for each note.
-     * This constructor calculates the frequency of the note relative to A4 (440 Hz) using the
-     * twelve-tone equal temperament formula. It then generates a sin waveform for the
-     * frequency and stores it in the {@code sinSample} array.
+     * The sample is created by {@link ToneCache#generate(int)}, which calculates the frequency of the note
+     * relative to A4 (440 Hz) using the twelve-tone equal temperament formula. REST and INVALID get a silent sample.
      *
      * @param semitone The semitone value relative to A4 (where A4=1)
      */
     Note(int semitone) {
         this.harmonicEqual = this;
         this.semitone = semitone;
-
-        if (semitone > 0) {
-            // Calculate the frequency!
-            final double halfStepUpFromA = semitone - 1;
-            final double exp = halfStepUpFromA / 12.0d;
-            final double freq = FREQUENCY_A_HZ * Math.pow(2.0d, exp);
-
-            // Create sinusoidal data sample for the desired frequency
-            final double sinStep = freq * step_alpha;
-            for (int i = 0; i < sinSample.length; i++) {
-                sinSample[i] = (byte) (Math.sin(i * sinStep) * MAX_VOLUME);
-            }
-        }
+        this.sinSample = semitone > 0 ? ToneCache.generate(semitone) : ToneCache.silence();
     }
 
     /**
@@ -110,6 +107,43 @@ public enum Note {
     Note(Note harmonicEqual) {
         this.harmonicEqual = harmonicEqual;
         this.semitone = harmonicEqual.semitone;
+        this.sinSample = null;
+    }
+
+    /**
+     * Returns the semitone value of the note relative to A4 (where A4=1). REST and INVALID return 0.
+     *
+     * @return The note's semitone.
+     */
+    public int getSemitone() {
+        return semitone;
+    }
+
+    /**
+     * Returns the note constant with the given semitone. Sharps are returned rather than their equal flats.
+     *
+     * @param semitone The semitone value relative to A4 (where A4=1).
+     * @return The matching {@code Note}, or {@link #INVALID} if no constant has the semitone.
+     */
+    public static Note fromSemitone(int semitone) {
+        if (semitone < 1 || semitone >= BY_SEMITONE.length) {
+            return INVALID;
+        }
+        return BY_SEMITONE[semitone];
+    }
+
+    /**
+     * Returns the name of the pitch with the given semitone, following the enum's naming: octaves start at A, and
+     * sharps end in S. Semitone 13 is "A5", semitone 14 is "A5S", and semitone 0 is "G3S".
+     *
+     * @param semitone The semitone value relative to A4 (where A4=1).
+     * @return The name of the pitch.
+     */
+    public static String nameOf(int semitone) {
+        final int halfStepUpFromA = semitone - 1;
+        final String name = OCTAVE_NAMES[Math.floorMod(halfStepUpFromA, 12)];
+        final int octave = 4 + Math.floorDiv(halfStepUpFromA, 12);
+        return name.charAt(0) + String.valueOf(octave) + name.substring(1);
     }
 
     /**
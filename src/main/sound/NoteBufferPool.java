@@ -0,0 +1,120 @@
+package main.sound;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * The {@code NoteBufferPool} class holds a fixed set of buffers, each big enough for one rendered note, so notes
+ * can be prepared ahead of time without allocating new arrays while a song plays. The pool is not thread safe, it
+ * is meant to be used by a single {@link main.Member}.
+ */
+public class NoteBufferPool {
+    /**
+     * A buffer holding one rendered note.
+     */
+    public static class NoteBuffer {
+        /** The rendered bytes of the note. */
+        private final byte[] data;
+
+        /** Number of bytes of {@link #data} in use. */
+        private int length = 0;
+
+        /** The note rendered into the buffer. */
+        private BellNote note;
+
+        /**
+         * Constructs a new {@code NoteBuffer}.
+         *
+         * @param bytes Size of the buffer, the most bytes a rendered note can take up.
+         */
+        private NoteBuffer(int bytes) {
+            this.data = new byte[bytes];
+        }
+
+        /**
+         * Renders the given note into the buffer.
+         *
+         * @param bellNote The note to render.
+         * @throws IllegalArgumentException If the note is too long for the buffer.
+         */
+        public void render(BellNote bellNote) {
+            if (NoteRenderer.noteBytes(bellNote.getLength()) > data.length) {
+                throw new IllegalArgumentException("Note " + bellNote + " is too long for a buffer of " + data.length +
+                        " bytes");
+            }
+            this.note = bellNote;
+            this.length = NoteRenderer.render(bellNote, data, 0);
+        }
+
+        /**
+         * Returns the rendered bytes of the note, only the first {@link #getLength()} bytes are used.
+         *
+         * @return The buffer's bytes.
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Returns the number of rendered bytes in the buffer.
+         *
+         * @return The number of bytes in use.
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Returns the note rendered into the buffer.
+         *
+         * @return The rendered {@link BellNote}.
+         */
+        public BellNote getNote() {
+            return note;
+        }
+    }
+
+    /** Buffers that aren't holding a note. */
+    private final Queue<NoteBuffer> free;
+
+    /**
+     * Constructs a new {@code NoteBufferPool} with buffers big enough for any note.
+     *
+     * @param size Number of buffers in the pool.
+     */
+    public NoteBufferPool(int size) {
+        this(size, NoteRenderer.MAX_NOTE_BYTES);
+    }
+
+    /**
+     * Constructs a new {@code NoteBufferPool} with buffers of the given size, such as the
+     * {@link SongMetadata#getMaxNoteBytes() longest note} of the song being played.
+     *
+     * @param size  Number of buffers in the pool.
+     * @param bytes Size of each buffer, the most bytes a rendered note can take up.
+     */
+    public NoteBufferPool(int size, int bytes) {
+        free = new ArrayDeque<>(size);
+        for (int i = 0; i < size; i++) {
+            free.add(new NoteBuffer(bytes));
+        }
+    }
+
+    /**
+     * Takes a free buffer out of the pool.
+     *
+     * @return A free buffer, or {@code null} if every buffer is in use.
+     */
+    public NoteBuffer acquire() {
+        return free.poll();
+    }
+
+    /**
+     * Gives a buffer back to the pool once its note has been written.
+     *
+     * @param buffer The buffer to give back.
+     */
+    public void release(NoteBuffer buffer) {
+        free.add(buffer);
+    }
+}
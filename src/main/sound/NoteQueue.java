@@ -0,0 +1,115 @@
+package main.sound;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code NoteQueue} class is a bounded queue of {@link BellNote BellNotes} for one thread adding notes and one
+ * thread taking them, such as the {@link main.Conductor} feeding a {@link main.Member}. Its slots are allocated up
+ * front, so unlike a linked queue, adding and taking notes while a song plays allocates nothing.
+ *
+ * <p>Only the adding thread moves the tail. The head is moved by the taking thread, and by {@link #clear()}, which
+ * the adding thread calls when the conductor jumps, so the head is moved with a compare-and-set. A taker reads the
+ * note at the head before moving it, and if a clear moved the head first, the note is dropped and it tries again.
+ * A slot is only reused once the head has moved past it, so a note is never overwritten while it can still be
+ * taken.</p>
+ */
+public class NoteQueue {
+    /** Notes in the queue, a slot for each position modulo the number of slots. */
+    private final BellNote[] slots;
+
+    /** Mask that turns a position into a slot index, the number of slots is a power of two. */
+    private final int mask;
+
+    /** Position of the next note to take. */
+    private final AtomicLong head = new AtomicLong();
+
+    /** Position of the next note to add, only the adding thread moves it. */
+    private volatile long tail = 0;
+
+    /**
+     * Constructs a new {@code NoteQueue}.
+     *
+     * @param capacity Most notes the queue can hold, rounded up to a power of two.
+     * @throws IllegalArgumentException If the queue can't hold any notes.
+     */
+    public NoteQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue needs room for at least one note");
+        }
+        final int count = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.slots = new BellNote[count];
+        this.mask = count - 1;
+    }
+
+    /**
+     * Adds a note to the end of the queue. Only one thread may add notes.
+     *
+     * @param note The note to add.
+     * @throws IllegalStateException If the queue is full.
+     */
+    public void add(BellNote note) {
+        final long t = tail;
+        if (t - head.get() >= slots.length) {
+            throw new IllegalStateException("Note queue is full, it can only hold " + slots.length + " notes");
+        }
+        slots[(int) t & mask] = note;
+        tail = t + 1;
+    }
+
+    /**
+     * Takes the note at the front of the queue. Only one thread may take notes.
+     *
+     * @return The note, or {@code null} if the queue is empty.
+     */
+    public BellNote poll() {
+        while (true) {
+            final long h = head.get();
+            if (h >= tail) {
+                return null;
+            }
+            final BellNote note = slots[(int) h & mask];
+            if (head.compareAndSet(h, h + 1)) {
+                return note;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the queue has no notes to take.
+     *
+     * @return {@code true} if the queue is empty.
+     */
+    public boolean isEmpty() {
+        return head.get() >= tail;
+    }
+
+    /**
+     * Returns the number of notes in the queue.
+     *
+     * @return The number of notes.
+     */
+    public int size() {
+        return (int) Math.max(0, tail - head.get());
+    }
+
+    /**
+     * Returns the most notes the queue can hold.
+     *
+     * @return The capacity of the queue.
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Forgets every note in the queue. Only the thread adding notes may clear the queue.
+     */
+    public void clear() {
+        final long t = tail;
+        long h = head.get();
+        while (h < t && !head.compareAndSet(h, t)) {
+            // The taker moved the head, try again from where it is now
+            h = head.get();
+        }
+    }
+}
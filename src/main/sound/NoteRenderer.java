@@ -0,0 +1,120 @@
+package main.sound;
+
+import java.util.Arrays;
+
+/**
+ * The {@code NoteRenderer} class turns a {@link BellNote} into the bytes that are written to a {@link SampleSink}.
+ * A rendered note is the note's sample, cut to the note's length, followed by a short rest so back to back notes
+ * of the same bell can be told apart. The start and end of the sample are faded in and out so the bell doesn't
+ * click when it starts or stops.
+ *
+ * <p>Notes are rendered in the {@link Note#ENCODING encoding} their samples were generated in, so lengths are
+ * counted both in samples, which set the timing, and in bytes, which size the buffers notes are rendered into.</p>
+ */
+public final class NoteRenderer {
+    /** Number of silent samples written after each note. */
+    public static final int REST_GAP_SAMPLES = 50;
+
+    /** Number of samples faded in at the start of a note and out at the end of it (about 2 milliseconds). */
+    public static final int ENVELOPE_SAMPLES = Note.SAMPLE_RATE / 500;
+
+    /** Most samples a single rendered note can take up, a full measure plus the rest after it. */
+    public static final int MAX_NOTE_SAMPLES = Note.MEASURE_LENGTH_SEC * Note.SAMPLE_RATE + REST_GAP_SAMPLES;
+
+    /** Most bytes a single rendered note can take up. */
+    public static final int MAX_NOTE_BYTES = MAX_NOTE_SAMPLES * Note.ENCODING.getBytes();
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private NoteRenderer() {
+        //empty
+    }
+
+    /**
+     * Returns the number of samples of the bell's sample played for the given {@link NoteLength}, not counting
+     * the rest after it.
+     *
+     * @param length The length of the note.
+     * @return The number of tone samples.
+     */
+    public static int toneSamples(NoteLength length) {
+        final int ms = Math.min(length.getTimeMs(), Note.MEASURE_LENGTH_SEC * 1000);
+        return Note.SAMPLE_RATE * ms / 1000;
+    }
+
+    /**
+     * Returns the number of samples the given {@link NoteLength} takes up once rendered, including the rest after
+     * it.
+     *
+     * @param length The length of the note.
+     * @return The number of rendered samples.
+     */
+    public static int noteSamples(NoteLength length) {
+        return toneSamples(length) + REST_GAP_SAMPLES;
+    }
+
+    /**
+     * Returns the number of bytes of the bell's sample played for the given {@link NoteLength}, not counting
+     * the rest after it.
+     *
+     * @param length The length of the note.
+     * @return The number of tone bytes.
+     */
+    public static int toneBytes(NoteLength length) {
+        return toneSamples(length) * Note.ENCODING.getBytes();
+    }
+
+    /**
+     * Returns the number of bytes the given {@link NoteLength} takes up once rendered, including the rest after it.
+     *
+     * @param length The length of the note.
+     * @return The number of rendered bytes.
+     */
+    public static int noteBytes(NoteLength length) {
+        return noteSamples(length) * Note.ENCODING.getBytes();
+    }
+
+    /**
+     * Renders the given {@link BellNote} into {@code dst}, starting at {@code off}. There must be room for
+     * {@link #noteBytes(NoteLength)} bytes.
+     *
+     * @param bellNote The note to render.
+     * @param dst      The array to render the note into.
+     * @param off      The offset into {@code dst} to start at.
+     * @return The number of bytes rendered.
+     */
+    public static int render(BellNote bellNote, byte[] dst, int off) {
+        return render(bellNote.sample(), toneSamples(bellNote.getLength()), Note.ENCODING, dst, off);
+    }
+
+    /**
+     * Renders the start of the given tone into {@code dst}, starting at {@code off}, faded in and out and followed
+     * by the rest. There must be room for {@code samples} plus {@link #REST_GAP_SAMPLES} samples.
+     *
+     * @param tone     The bell's sample.
+     * @param samples  Number of samples of the tone to play.
+     * @param encoding How the samples of the tone are stored.
+     * @param dst      The array to render the note into.
+     * @param off      The offset into {@code dst} to start at.
+     * @return The number of bytes rendered.
+     */
+    public static int render(byte[] tone, int samples, SampleEncoding encoding, byte[] dst, int off) {
+        final int size = encoding.getBytes();
+        final int length = samples * size;
+        System.arraycopy(tone, 0, dst, off, length);
+
+        // Fade the start and end of the sample, never fading more than half the note
+        final int fade = Math.min(ENVELOPE_SAMPLES, samples / 2);
+        for (int i = 0; i < fade; i++) {
+            final int start = off + i * size;
+            final int end = off + length - (i + 1) * size;
+            encoding.set(dst, start, encoding.get(dst, start) * i / fade);
+            encoding.set(dst, end, encoding.get(dst, end) * i / fade);
+        }
+
+        final int rest = REST_GAP_SAMPLES * size;
+        Arrays.fill(dst, off + length, off + length + rest, (byte) 0);
+        return length + rest;
+    }
+}
@@ -0,0 +1,53 @@
+package main.sound;
+
+/**
+ * A {@link SampleSink} that throws away every byte written to it, used to run the choir without an audio device.
+ * Writes never block, so a song plays as fast as it can be rendered. To play against something that takes as long
+ * as a device would, use a {@link VirtualSink} instead.
+ */
+public class NullSink implements SampleSink {
+    /** Number of bytes written since the sink was created. */
+    private long written = 0;
+
+    /**
+     * Constructs a new {@code NullSink}.
+     */
+    public NullSink() {
+        //empty
+    }
+
+    /**
+     * Nothing to open.
+     */
+    @Override
+    public void open() {
+        //empty
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        written += len;
+    }
+
+    /**
+     * Nothing is ever waiting to be played.
+     */
+    @Override
+    public void drain() {
+        //empty
+    }
+
+    @Override
+    public void close() {
+        //empty
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return The number of bytes written.
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+}
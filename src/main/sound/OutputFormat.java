@@ -0,0 +1,217 @@
+package main.sound;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.Line;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code OutputFormat} class picks the format audio is played in. Devices rarely play the old fixed rate of
+ * {@link #LEGACY_SAMPLE_RATE} natively, so the sound system would convert every write in software. Instead, the
+ * formats each device's lines accept are asked for with {@link DataLine.Info}, and the best one is chosen:
+ * <ol>
+ *     <li>16 bit samples, the width nearly every device plays natively.</li>
+ *     <li>Little-endian samples, the order nearly every device plays natively.</li>
+ *     <li>A rate the device lists itself, over one it merely accepts.</li>
+ *     <li>A common rate, 48000Hz first, then 44100Hz.</li>
+ * </ol>
+ * Only signed samples are chosen, so silence is zero bytes in every {@link SampleEncoding}.
+ *
+ * <p>The choir plays in mono unless more channels are asked for, in which case only formats with that many
+ * channels are chosen, see {@link ChannelLayout}.</p>
+ *
+ * <p>The chosen rate becomes {@link Note#SAMPLE_RATE} and the chosen sample size and byte order become
+ * {@link Note#ENCODING}, so tone tables are generated in the format the device plays and are never converted on
+ * the way to it. That means a format has to be {@link #select(AudioFormat) selected} before {@link Note} is first
+ * used, after which the rate and encoding are fixed. If no format is selected, the legacy format is used.</p>
+ */
+public final class OutputFormat {
+    /** The sample rate used before formats were negotiated, and when no device is found. */
+    public static final int LEGACY_SAMPLE_RATE = 48 * 1024;
+
+    /** Rates to pick when a device accepts any rate, best first. */
+    private static final int[] PREFERRED_RATES = {48000, 44100, 96000, 88200, 32000, 22050};
+
+    /** The selected format, or {@code null} for the legacy format. */
+    private static AudioFormat selected = null;
+
+    /** Whether the sample rate or encoding has been read, after which the format can't change. */
+    private static boolean fixed = false;
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private OutputFormat() {
+        //empty
+    }
+
+    /**
+     * Returns the legacy format, 8 bit signed mono at {@link #LEGACY_SAMPLE_RATE}.
+     *
+     * @return The legacy format.
+     */
+    public static AudioFormat legacy() {
+        return legacy(1);
+    }
+
+    /**
+     * Returns the legacy format with the given number of channels, 8 bit signed at {@link #LEGACY_SAMPLE_RATE}.
+     *
+     * @param channels Number of channels.
+     * @return The legacy format.
+     */
+    public static AudioFormat legacy(int channels) {
+        return new AudioFormat(LEGACY_SAMPLE_RATE, 8, channels, true, false);
+    }
+
+    /**
+     * Asks every mixer which formats its {@link SourceDataLine SourceDataLines} accept and {@link #choose chooses}
+     * the best mono format.
+     *
+     * @return The best format, or the {@link #legacy()} format if no device accepts any format the choir can play.
+     */
+    public static AudioFormat negotiate() {
+        return negotiate(1);
+    }
+
+    /**
+     * Asks every mixer which formats its {@link SourceDataLine SourceDataLines} accept and {@link #choose chooses}
+     * the best with the given number of channels.
+     *
+     * @param channels Number of channels.
+     * @return The best format, or the {@link #legacy(int)} format if no device accepts any format the choir can play.
+     */
+    public static AudioFormat negotiate(int channels) {
+        final List<AudioFormat> supported = new ArrayList<>();
+        final Line.Info wanted = new Line.Info(SourceDataLine.class);
+        for (Mixer.Info mixerInfo : AudioSystem.getMixerInfo()) {
+            final Mixer mixer;
+            try {
+                mixer = AudioSystem.getMixer(mixerInfo);
+            } catch (IllegalArgumentException | SecurityException e) {
+                continue;
+            }
+            for (Line.Info info : mixer.getSourceLineInfo(wanted)) {
+                if (info instanceof DataLine.Info) {
+                    supported.addAll(List.of(((DataLine.Info) info).getFormats()));
+                }
+            }
+        }
+        return choose(supported, channels);
+    }
+
+    /**
+     * Chooses the best mono format the choir can play out of the given formats. Formats of any rate are given a
+     * rate from the preferred rates.
+     *
+     * @param supported The formats a device accepts.
+     * @return The best format, or the {@link #legacy()} format if none of them can be played.
+     */
+    public static AudioFormat choose(List<AudioFormat> supported) {
+        return choose(supported, 1);
+    }
+
+    /**
+     * Chooses the best format with the given number of channels the choir can play out of the given formats.
+     * Formats of any rate are given a rate from the preferred rates.
+     *
+     * @param supported The formats a device accepts.
+     * @param channels  Number of channels.
+     * @return The best format, or the {@link #legacy(int)} format if none of them can be played.
+     */
+    public static AudioFormat choose(List<AudioFormat> supported, int channels) {
+        AudioFormat best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (AudioFormat f : supported) {
+            final boolean signed = AudioFormat.Encoding.PCM_SIGNED.equals(f.getEncoding());
+            final int bits = f.getSampleSizeInBits();
+            final int offered = f.getChannels();
+            if (!signed || (bits != 8 && bits != 16) || (offered != channels && offered != AudioSystem.NOT_SPECIFIED)) {
+                continue;
+            }
+
+            final boolean anyRate = f.getSampleRate() == AudioSystem.NOT_SPECIFIED;
+            final int[] rates = anyRate ? PREFERRED_RATES : new int[]{Math.round(f.getSampleRate())};
+            for (int rate : rates) {
+                // Each rule outweighs every rule after it
+                long score = 0;
+                score = score * 2 + (bits == 16 ? 1 : 0);
+                score = score * 2 + (bits == 8 || !f.isBigEndian() ? 1 : 0);
+                score = score * 2 + (anyRate ? 0 : 1);
+                score = score * 16 + (PREFERRED_RATES.length - rateRank(rate));
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = new AudioFormat(rate, bits, channels, true, bits == 16 && f.isBigEndian());
+                }
+            }
+        }
+        return best != null ? best : legacy(channels);
+    }
+
+    /**
+     * Returns where the given rate is in the preferred rates, rates that aren't preferred come last.
+     *
+     * @param rate The sample rate.
+     * @return The rank, lower is better.
+     */
+    private static int rateRank(int rate) {
+        for (int i = 0; i < PREFERRED_RATES.length; i++) {
+            if (PREFERRED_RATES[i] == rate) {
+                return i;
+            }
+        }
+        return PREFERRED_RATES.length;
+    }
+
+    /**
+     * Selects the format audio is played in. Must be called before {@link Note} is first used.
+     *
+     * @param format The format to play in, with signed 8 or 16 bit samples.
+     * @throws IllegalStateException    If a different sample rate or encoding is already in use.
+     * @throws IllegalArgumentException If the format's samples aren't signed 8 or 16 bit.
+     */
+    public static synchronized void select(AudioFormat format) {
+        final SampleEncoding encoding = SampleEncoding.of(format);
+        if (fixed && Math.round(format.getSampleRate()) != sampleRate()) {
+            throw new IllegalStateException("Sample rate is already fixed at " + sampleRate() + "Hz");
+        }
+        if (fixed && encoding != encoding()) {
+            throw new IllegalStateException("Sample encoding is already fixed at " + encoding());
+        }
+        selected = format;
+    }
+
+    /**
+     * Returns the format audio is played in.
+     *
+     * @return The selected format, or the {@link #legacy()} format if none was selected.
+     */
+    public static synchronized AudioFormat get() {
+        return selected != null ? selected : legacy();
+    }
+
+    /**
+     * Returns the sample rate of the format, fixing it so it can't change after samples have been generated.
+     *
+     * @return The sample rate in Hz.
+     */
+    public static synchronized int sampleRate() {
+        fixed = true;
+        return Math.round(get().getSampleRate());
+    }
+
+    /**
+     * Returns how the samples of the format are stored, fixing it so it can't change after samples have been
+     * generated.
+     *
+     * @return The sample encoding.
+     */
+    public static synchronized SampleEncoding encoding() {
+        fixed = true;
+        return SampleEncoding.of(get());
+    }
+}
@@ -0,0 +1,257 @@
+package main.sound;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * The {@code Panner} class places a mono voice, such as one {@link main.Member}, among the channels of a
+ * {@link ChannelLayout}. It turns the choir's mono samples into interleaved frames, one sample for each
+ * channel, with each channel's sample scaled by that channel's gain. Samples stay in the {@link SampleEncoding}
+ * they were generated in.
+ *
+ * <p>An 8 bit sample only has 256 values, so every scaled value is worked out once, when the panner is made, into a
+ * table holding each sample value's whole frame. Interleaving a sample is then a lookup and a copy of one byte per
+ * channel, with no arithmetic, so playing in several channels costs next to nothing over playing in mono. 16 bit
+ * samples have too many values for a table, so each channel's gain is turned into a
+ * {@link SampleKernels#fixedGain(float) fixed point} number instead, and each sample is scaled with an integer
+ * multiply and shift as it's interleaved.</p>
+ */
+public final class Panner {
+    /** Number of frames interleaved at a time by {@link #write(SampleSink, byte[], int, int, byte[])}. */
+    public static final int CHUNK_FRAMES = 1024;
+
+    /** Gain of each channel, 1.0 leaves the samples unchanged. */
+    private final float[] gains;
+
+    /** How the samples are stored. */
+    private final SampleEncoding encoding;
+
+    /** The frame each 8 bit sample value becomes, at {@code (sample & 0xFF) * channels}, unused for 16 bit samples. */
+    private final byte[] frames;
+
+    /** Reads and writes little-endian 16 bit samples in a byte array. */
+    private static final VarHandle SHORTS_LE =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /** Reads and writes big-endian 16 bit samples in a byte array. */
+    private static final VarHandle SHORTS_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+
+    /** Each channel's {@link SampleKernels#fixedGain(float) fixed point} gain, used for 16 bit samples. */
+    private final int[] fixedGains;
+
+    /**
+     * Constructs a new {@code Panner} for samples in the {@link Note#ENCODING encoding} notes are generated in.
+     *
+     * @param gains Gain of each channel, from 0.0 for silent to 1.0 for the samples unchanged.
+     * @throws IllegalArgumentException If there are no channels, or a gain is outside 0.0 to 1.0.
+     */
+    public Panner(float... gains) {
+        this(Note.ENCODING, gains);
+    }
+
+    /**
+     * Constructs a new {@code Panner} for samples in the given encoding.
+     *
+     * @param encoding How the samples are stored.
+     * @param gains    Gain of each channel, from 0.0 for silent to 1.0 for the samples unchanged.
+     * @throws IllegalArgumentException If there are no channels, or a gain is outside 0.0 to 1.0.
+     */
+    public Panner(SampleEncoding encoding, float... gains) {
+        if (gains.length == 0) {
+            throw new IllegalArgumentException("A panner needs at least one channel");
+        }
+        this.gains = gains.clone();
+        this.encoding = encoding;
+        for (int c = 0; c < gains.length; c++) {
+            if (!(gains[c] >= 0.0f && gains[c] <= 1.0f)) {
+                throw new IllegalArgumentException("Gain " + gains[c] + " of channel " + c + " is outside 0 to 1");
+            }
+        }
+
+        this.fixedGains = new int[gains.length];
+        for (int c = 0; c < gains.length; c++) {
+            fixedGains[c] = SampleKernels.fixedGain(gains[c]);
+        }
+
+        if (encoding != SampleEncoding.SIGNED_8) {
+            this.frames = null;
+            return;
+        }
+        this.frames = new byte[256 * gains.length];
+        for (int value = 0; value < 256; value++) {
+            for (int c = 0; c < gains.length; c++) {
+                frames[value * gains.length + c] = (byte) Math.round((byte) value * gains[c]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of channels.
+     *
+     * @return The number of channels.
+     */
+    public int getChannels() {
+        return gains.length;
+    }
+
+    /**
+     * Returns the number of bytes in each frame, a sample for each channel.
+     *
+     * @return The frame size in bytes.
+     */
+    public int getFrameBytes() {
+        return gains.length * encoding.getBytes();
+    }
+
+    /**
+     * Returns the gain of the given channel.
+     *
+     * @param channel The channel, from 0.
+     * @return The gain, 1.0 leaves the samples unchanged.
+     */
+    public float getGain(int channel) {
+        return gains[channel];
+    }
+
+    /**
+     * Interleaves mono samples into frames. There must be room for {@code len} times {@link #getChannels()} bytes
+     * in {@code dst}.
+     *
+     * @param src    The mono samples.
+     * @param off    Offset of the first sample's first byte.
+     * @param len    Number of bytes of samples, a whole number of samples.
+     * @param dst    The array to write the frames to.
+     * @param dstOff Offset into {@code dst} to start at.
+     * @return The number of bytes written.
+     */
+    public int interleave(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        final int channels = gains.length;
+        int o = dstOff;
+        if (frames == null) {
+            return encoding.isBigEndian() ? interleaveBigEndian(src, off, len, dst, dstOff)
+                    : interleaveLittleEndian(src, off, len, dst, dstOff);
+        }
+
+        if (channels == 2) {
+            // The common case, without the inner loop
+            for (int i = off; i < off + len; i++) {
+                final int frame = (src[i] & 0xFF) << 1;
+                dst[o++] = frames[frame];
+                dst[o++] = frames[frame + 1];
+            }
+            return len * 2;
+        }
+
+        for (int i = off; i < off + len; i++) {
+            final int frame = (src[i] & 0xFF) * channels;
+            for (int c = 0; c < channels; c++) {
+                dst[o++] = frames[frame + c];
+            }
+        }
+        return len * channels;
+    }
+
+    /**
+     * Interleaves little-endian 16 bit samples, see {@link #interleave(byte[], int, int, byte[], int)}. Kept apart
+     * from {@link #interleaveBigEndian} so each reads its samples through a constant {@link VarHandle}, which the
+     * JIT compiler turns into plain loads and stores.
+     *
+     * @param src    The mono samples.
+     * @param off    Offset of the first sample's first byte.
+     * @param len    Number of bytes of samples, a whole number of samples.
+     * @param dst    The array to write the frames to.
+     * @param dstOff Offset into {@code dst} to start at.
+     * @return The number of bytes written.
+     */
+    private int interleaveLittleEndian(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        // Gains are at most 1, so a scaled sample always fits back in 16 bits
+        final int channels = fixedGains.length;
+        int o = dstOff;
+        if (channels == 2) {
+            final int left = fixedGains[0];
+            final int right = fixedGains[1];
+            for (int i = off; i < off + len; i += 2) {
+                final int sample = (short) SHORTS_LE.get(src, i);
+                SHORTS_LE.set(dst, o, (short) ((sample * left) >> SampleKernels.GAIN_FRACTION_BITS));
+                SHORTS_LE.set(dst, o + 2, (short) ((sample * right) >> SampleKernels.GAIN_FRACTION_BITS));
+                o += 4;
+            }
+            return len * 2;
+        }
+
+        for (int i = off; i < off + len; i += 2) {
+            final int sample = (short) SHORTS_LE.get(src, i);
+            for (int c = 0; c < channels; c++) {
+                SHORTS_LE.set(dst, o, (short) ((sample * fixedGains[c]) >> SampleKernels.GAIN_FRACTION_BITS));
+                o += 2;
+            }
+        }
+        return len * channels;
+    }
+
+    /**
+     * Interleaves big-endian 16 bit samples, the same as {@link #interleaveLittleEndian}.
+     *
+     * @param src    The mono samples.
+     * @param off    Offset of the first sample's first byte.
+     * @param len    Number of bytes of samples, a whole number of samples.
+     * @param dst    The array to write the frames to.
+     * @param dstOff Offset into {@code dst} to start at.
+     * @return The number of bytes written.
+     */
+    private int interleaveBigEndian(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        final int channels = fixedGains.length;
+        int o = dstOff;
+        if (channels == 2) {
+            final int left = fixedGains[0];
+            final int right = fixedGains[1];
+            for (int i = off; i < off + len; i += 2) {
+                final int sample = (short) SHORTS_BE.get(src, i);
+                SHORTS_BE.set(dst, o, (short) ((sample * left) >> SampleKernels.GAIN_FRACTION_BITS));
+                SHORTS_BE.set(dst, o + 2, (short) ((sample * right) >> SampleKernels.GAIN_FRACTION_BITS));
+                o += 4;
+            }
+            return len * 2;
+        }
+
+        for (int i = off; i < off + len; i += 2) {
+            final int sample = (short) SHORTS_BE.get(src, i);
+            for (int c = 0; c < channels; c++) {
+                SHORTS_BE.set(dst, o, (short) ((sample * fixedGains[c]) >> SampleKernels.GAIN_FRACTION_BITS));
+                o += 2;
+            }
+        }
+        return len * channels;
+    }
+
+    /**
+     * Interleaves mono samples into frames and writes them to the given sink, {@link #CHUNK_FRAMES} frames at a
+     * time, through a scratch array made by {@link #scratch()}.
+     *
+     * @param sink    The sink to write the frames to.
+     * @param b       The mono samples.
+     * @param off     Offset of the first sample's first byte.
+     * @param len     Number of bytes of samples, a whole number of samples.
+     * @param scratch Array to interleave into, big enough for {@link #CHUNK_FRAMES} frames.
+     */
+    public void write(SampleSink sink, byte[] b, int off, int len, byte[] scratch) {
+        final int chunkBytes = CHUNK_FRAMES * encoding.getBytes();
+        while (len > 0) {
+            final int chunk = Math.min(len, chunkBytes);
+            sink.write(scratch, 0, interleave(b, off, chunk, scratch, 0));
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    /**
+     * Makes a scratch array for {@link #write(SampleSink, byte[], int, int, byte[])}, big enough for
+     * {@link #CHUNK_FRAMES} frames of this many channels.
+     *
+     * @return The scratch array.
+     */
+    public byte[] scratch() {
+        return new byte[CHUNK_FRAMES * getFrameBytes()];
+    }
+}
@@ -0,0 +1,178 @@
+package main.sound;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * The {@code RenderCache} class keeps rendered songs in a directory so a song only has to be rendered once. Songs
+ * are stored compressed with the {@link LosslessCodec}, in a file named after a hash of the song's notes, so any
+ * change to the song, or to how songs are rendered, gives a different file. Each song's {@link SongMetadata} is kept
+ * beside it under the same name, so its length and the rest can be known without going over the song.
+ */
+public class RenderCache {
+    /**
+     * Bumped whenever {@link NoteRenderer} changes how notes sound, so songs rendered the old way are never
+     * used.
+     */
+    private static final int RENDER_VERSION = 1;
+
+    /** The directory rendered songs are kept in. */
+    private final Path directory;
+
+    /**
+     * Constructs a new {@code RenderCache}.
+     *
+     * @param directory The directory rendered songs are kept in, created when the first song is stored.
+     */
+    public RenderCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the hash the given song is stored under.
+     *
+     * @param song The notes of the song.
+     * @return The hash, as hex.
+     */
+    public static String key(List<BellNote> song) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        digest.update((RENDER_VERSION + " " + Note.SAMPLE_RATE + "\n").getBytes(StandardCharsets.UTF_8));
+        for (BellNote b : song) {
+            digest.update((b.getBell() + " " + b.getLength().name() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        final StringBuilder hex = new StringBuilder();
+        for (byte x : digest.digest()) {
+            hex.append(String.format("%02x", x));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Returns the file the given song is stored in, whether or not it exists yet.
+     *
+     * @param song The notes of the song.
+     * @return The file.
+     */
+    public Path path(List<BellNote> song) {
+        return directory.resolve(key(song) + LosslessCodec.EXTENSION);
+    }
+
+    /**
+     * Returns the file the given song's {@link SongMetadata} is stored in, whether or not it exists yet.
+     *
+     * @param song The notes of the song.
+     * @return The file.
+     */
+    public Path metadataPath(List<BellNote> song) {
+        return directory.resolve(key(song) + SongMetadata.EXTENSION);
+    }
+
+    /**
+     * Returns the given song's {@link SongMetadata}, analysing the song and storing the result first if it isn't in
+     * the cache, or can't be read.
+     *
+     * @param song The notes of the song.
+     * @return The song's metadata.
+     * @throws IOException If the metadata can't be stored.
+     */
+    public SongMetadata metadata(List<BellNote> song) throws IOException {
+        final Path file = metadataPath(song);
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                return SongMetadata.read(in);
+            } catch (IOException e) {
+                // Stored by another version or cut short, analyse the song again
+            }
+        }
+        return storeMetadata(song);
+    }
+
+    /**
+     * Analyses the given song and stores its {@link SongMetadata}, through a temporary file like the song itself.
+     *
+     * @param song The notes of the song.
+     * @return The song's metadata.
+     * @throws IOException If the metadata can't be stored.
+     */
+    private SongMetadata storeMetadata(List<BellNote> song) throws IOException {
+        final SongMetadata metadata = SongMetadata.of(song);
+        Files.createDirectories(directory);
+        final Path temp = Files.createTempFile(directory, "metadata", ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                metadata.write(out);
+            }
+            Files.move(temp, metadataPath(song), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return metadata;
+    }
+
+    /**
+     * Returns whether the given song has already been rendered.
+     *
+     * @param song The notes of the song.
+     * @return {@code true} if the song is in the cache.
+     */
+    public boolean contains(List<BellNote> song) {
+        return Files.isRegularFile(path(song));
+    }
+
+    /**
+     * Renders the given song and stores it, along with its {@link SongMetadata}. The song is written to a temporary
+     * file first and moved into place once complete, so a render that fails part way never leaves a broken song in
+     * the cache.
+     *
+     * @param song The notes of the song.
+     * @return The file the song was stored in.
+     * @throws IOException If the song can't be stored.
+     */
+    public Path store(List<BellNote> song) throws IOException {
+        Files.createDirectories(directory);
+        final Path target = path(song);
+        final Path temp = Files.createTempFile(directory, "render", ".tmp");
+        try {
+            try (OutputStream out = new LosslessCodec.Encoder(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                new SongRenderer(song).renderTo(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        storeMetadata(song);
+        return target;
+    }
+
+    /**
+     * Opens the given song's rendered samples, rendering and storing it first if it isn't in the cache.
+     *
+     * @param song The notes of the song.
+     * @return A stream of the song's signed 8 bit samples.
+     * @throws IOException If the song can't be stored or read.
+     */
+    public InputStream open(List<BellNote> song) throws IOException {
+        if (!contains(song)) {
+            store(song);
+        }
+        return new LosslessCodec.Decoder(new BufferedInputStream(Files.newInputStream(path(song))));
+    }
+}
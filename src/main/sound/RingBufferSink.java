@@ -0,0 +1,278 @@
+package main.sound;
+
+import javax.sound.sampled.LineUnavailableException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link SampleSink} that hands audio to a single writer thread, which is the only thread that writes to the
+ * output. {@link main.Member Members} copy their samples into a ring of slots allocated up front and go back to
+ * waiting for their turn, while the writer thread, running at the highest priority, takes the slots in order and
+ * does the blocking writes to the device.
+ *
+ * <p>The ring is a bounded queue without locks. Each slot has a sequence number that says whose turn it is to use
+ * it. A writer claims the next slot by moving the tail forward with a compare-and-set, fills it, then publishes it by
+ * setting its sequence number. The writer thread waits for the slot at the head to be published, writes it out,
+ * and hands it back to writers by moving its sequence number a lap ahead. Several threads can write at once, each
+ * block of a write is kept in order, but blocks of writes made at the same time may be mixed together, the same as
+ * writing to a line from several threads.</p>
+ *
+ * <p>When the ring is full, writes wait for a slot, so the ring keeps the choir in time the way the line's buffer
+ * does. Audio in the ring is counted as queued, so the ring adds to the latency by at most its size.</p>
+ */
+public class RingBufferSink implements SampleSink {
+    /** Number of slots used when none is given. */
+    public static final int DEFAULT_SLOTS = 8;
+
+    /** Size of each slot, in bytes, used when none is given. */
+    public static final int DEFAULT_SLOT_BYTES = 512;
+
+    /** Number of times a waiting thread spins before it starts parking. */
+    private static final int SPINS = 100;
+
+    /** Time, in nanoseconds, a waiting thread parks for at a time. */
+    private static final long PARK_NANOS = 100_000;
+
+    /** Sink the writer thread writes to. */
+    private final SampleSink output;
+
+    /** Audio bytes of each slot. */
+    private final byte[][] slots;
+
+    /** Number of bytes filled in each slot. */
+    private final int[] lengths;
+
+    /** Sequence number of each slot. A slot can be filled at lap position {@code n} when its number is {@code n},
+     * and written out once its number is {@code n + 1}. */
+    private final AtomicLongArray sequences;
+
+    /** Mask that turns a position into a slot index, the number of slots is a power of two. */
+    private final int mask;
+
+    /** Position of the next slot to fill. */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** Position of the next slot to write out, only the writer thread moves it. */
+    private volatile long head = 0;
+
+    /** Number of bytes published to the ring. */
+    private final AtomicLong published = new AtomicLong();
+
+    /** Number of bytes the writer thread has written to the output. */
+    private volatile long consumed = 0;
+
+    /** The writer thread. */
+    private Thread writer;
+
+    /** Whether the writer thread should keep running. */
+    private volatile boolean running = false;
+
+    /** Whether the writer thread is parked waiting for a slot, so writers know to wake it. */
+    private volatile boolean idle = false;
+
+    /**
+     * Constructs a new {@code RingBufferSink} with {@link #DEFAULT_SLOTS} slots of {@link #DEFAULT_SLOT_BYTES}
+     * bytes.
+     *
+     * @param output The {@link SampleSink} the writer thread writes to.
+     */
+    public RingBufferSink(SampleSink output) {
+        this(output, DEFAULT_SLOTS, DEFAULT_SLOT_BYTES);
+    }
+
+    /**
+     * Constructs a new {@code RingBufferSink}.
+     *
+     * @param output    The {@link SampleSink} the writer thread writes to.
+     * @param slots     Number of slots in the ring, rounded up to a power of two.
+     * @param slotBytes Size of each slot in bytes.
+     * @throws IllegalArgumentException If there are no slots or they can't hold any bytes.
+     */
+    public RingBufferSink(SampleSink output, int slots, int slotBytes) {
+        if (slots < 1 || slotBytes < 1) {
+            throw new IllegalArgumentException("Ring needs at least one slot of at least one byte");
+        }
+        final int count = Integer.highestOneBit(slots) == slots ? slots : Integer.highestOneBit(slots) << 1;
+
+        this.output = output;
+        this.slots = new byte[count][slotBytes];
+        this.lengths = new int[count];
+        this.sequences = new AtomicLongArray(count);
+        this.mask = count - 1;
+        for (int i = 0; i < count; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Opens the output and starts the writer thread.
+     *
+     * @throws LineUnavailableException If the output can't be opened.
+     */
+    @Override
+    public void open() throws LineUnavailableException {
+        output.open();
+        if (writer == null) {
+            running = true;
+            writer = new Thread(this::drainRing, "Audio Writer");
+            writer.setPriority(Thread.MAX_PRIORITY);
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Copies the bytes into the ring, a slot at a time, waiting for a free slot whenever the ring is full.
+     *
+     * @param b   The audio bytes to write.
+     * @param off The offset into {@code b} to start at.
+     * @param len The number of bytes to write.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        final int slotBytes = slots[0].length;
+        while (len > 0) {
+            final int chunk = Math.min(len, slotBytes);
+            final long pos = claim();
+            final int slot = (int) pos & mask;
+
+            System.arraycopy(b, off, slots[slot], 0, chunk);
+            lengths[slot] = chunk;
+            published.addAndGet(chunk);
+            sequences.set(slot, pos + 1);
+            if (idle) {
+                LockSupport.unpark(writer);
+            }
+
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    /**
+     * Waits until every byte written so far has been written to the output, then drains the output.
+     */
+    @Override
+    public void drain() {
+        final long target = published.get();
+        int spins = 0;
+        while (consumed < target && running) {
+            spins = backOff(spins);
+        }
+        output.drain();
+    }
+
+    /**
+     * Writes out what's left in the ring, stops the writer thread and closes the output.
+     */
+    @Override
+    public void close() {
+        if (writer != null) {
+            drain();
+            running = false;
+            LockSupport.unpark(writer);
+            try {
+                writer.join();
+            } catch (InterruptedException ignored) {
+            }
+        }
+        output.close();
+    }
+
+    /**
+     * Returns the number of bytes waiting in the ring plus the number queued in the output.
+     *
+     * @return The number of queued bytes.
+     */
+    @Override
+    public int getQueuedBytes() {
+        return (int) (published.get() - consumed) + output.getQueuedBytes();
+    }
+
+    /**
+     * Returns the writer thread, so it can be tuned, or {@code null} if the sink hasn't been opened.
+     *
+     * @return The writer thread.
+     */
+    public Thread getWriterThread() {
+        return writer;
+    }
+
+    /**
+     * Returns the number of slots in the ring.
+     *
+     * @return The number of slots.
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * Claims the next free slot, waiting until the writer thread hands one back if the ring is full.
+     *
+     * @return Position of the claimed slot.
+     */
+    private long claim() {
+        int spins = 0;
+        while (true) {
+            final long pos = tail.get();
+            final long seq = sequences.get((int) pos & mask);
+            if (seq == pos) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+            } else if (seq < pos) {
+                // The slot still holds bytes from a lap ago, the ring is full
+                spins = backOff(spins);
+            }
+        }
+    }
+
+    /**
+     * Body of the writer thread. Writes each published slot to the output in order, and parks while the ring is
+     * empty.
+     */
+    private void drainRing() {
+        int spins = 0;
+        while (running) {
+            final long pos = head;
+            final int slot = (int) pos & mask;
+            if (sequences.get(slot) != pos + 1) {
+                if (spins < SPINS) {
+                    spins++;
+                    Thread.onSpinWait();
+                } else {
+                    // Check again after saying we're idle, so a write made in between isn't missed
+                    idle = true;
+                    if (sequences.get(slot) != pos + 1 && running) {
+                        LockSupport.parkNanos(this, PARK_NANOS * 10);
+                    }
+                    idle = false;
+                }
+                continue;
+            }
+            spins = 0;
+
+            output.write(slots[slot], 0, lengths[slot]);
+            consumed += lengths[slot];
+            head = pos + 1;
+            sequences.set(slot, pos + slots.length);
+        }
+    }
+
+    /**
+     * Waits a little while, spinning at first and then parking.
+     *
+     * @param spins Number of times the caller has waited so far.
+     * @return The new number of times waited.
+     */
+    private static int backOff(int spins) {
+        if (spins < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return spins + 1;
+    }
+}
@@ -0,0 +1,185 @@
+package main.sound;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * The {@code SampleEncoding} enum is how the choir's samples are stored in bytes. Tone tables are generated in the
+ * encoding of the {@link OutputFormat} selected for the device, and every step after that, from rendering a note
+ * to mixing and panning it, works on samples in that encoding, so they reach the device as they are.
+ *
+ * <p>Samples are always signed, so silence is zero bytes in every encoding. Sample values are given in the
+ * encoding's own range, from {@link #getMin()} to {@link #getMax()}, and {@link #getScale()} is how much louder
+ * a value is than the same value of an 8 bit sample.</p>
+ */
+public enum SampleEncoding {
+    /** 8 bit signed samples, the legacy format. */
+    SIGNED_8(1, false),
+    /** 16 bit signed little-endian samples, what most devices play natively. */
+    SIGNED_16_LE(2, false),
+    /** 16 bit signed big-endian samples. */
+    SIGNED_16_BE(2, true);
+
+    /** Number of bytes in each sample. */
+    private final int bytes;
+
+    /** Whether the high byte of a 16 bit sample comes first. */
+    private final boolean bigEndian;
+
+    /**
+     * Constructs a new {@code SampleEncoding}.
+     *
+     * @param bytes     Number of bytes in each sample.
+     * @param bigEndian Whether the high byte of a 16 bit sample comes first.
+     */
+    SampleEncoding(int bytes, boolean bigEndian) {
+        this.bytes = bytes;
+        this.bigEndian = bigEndian;
+    }
+
+    /**
+     * Returns the encoding of the samples of the given format.
+     *
+     * @param format The format.
+     * @return The encoding.
+     * @throws IllegalArgumentException If the format's samples aren't 8 or 16 bit signed PCM.
+     */
+    public static SampleEncoding of(AudioFormat format) {
+        if (!AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding())) {
+            throw new IllegalArgumentException("Samples must be signed PCM, not " + format.getEncoding());
+        }
+        switch (format.getSampleSizeInBits()) {
+            case 8:
+                return SIGNED_8;
+            case 16:
+                return format.isBigEndian() ? SIGNED_16_BE : SIGNED_16_LE;
+            default:
+                throw new IllegalArgumentException("Samples must be 8 or 16 bit, not " + format.getSampleSizeInBits());
+        }
+    }
+
+    /**
+     * Returns the number of bytes in each sample.
+     *
+     * @return The sample size in bytes.
+     */
+    public int getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns whether the high byte of a 16 bit sample comes first.
+     *
+     * @return {@code true} for big-endian samples.
+     */
+    public boolean isBigEndian() {
+        return bigEndian;
+    }
+
+    /**
+     * Returns how much larger a sample value is than the same loudness of an 8 bit sample.
+     *
+     * @return 1 for 8 bit samples, 256 for 16 bit samples.
+     */
+    public int getScale() {
+        return bytes == 1 ? 1 : 256;
+    }
+
+    /**
+     * Returns the lowest value a sample can have.
+     *
+     * @return The lowest sample value.
+     */
+    public int getMin() {
+        return bytes == 1 ? Byte.MIN_VALUE : Short.MIN_VALUE;
+    }
+
+    /**
+     * Returns the highest value a sample can have.
+     *
+     * @return The highest sample value.
+     */
+    public int getMax() {
+        return bytes == 1 ? Byte.MAX_VALUE : Short.MAX_VALUE;
+    }
+
+    /**
+     * Reads the sample starting at the given byte.
+     *
+     * @param b   The samples.
+     * @param off Offset of the sample's first byte.
+     * @return The sample's value.
+     */
+    public int get(byte[] b, int off) {
+        return bytes == 1 ? b[off] : ScalarKernels.getShort(b, off, bigEndian);
+    }
+
+    /**
+     * Writes a sample starting at the given byte, clipping the value into the encoding's range.
+     *
+     * @param b     The samples.
+     * @param off   Offset of the sample's first byte.
+     * @param value The sample's value.
+     */
+    public void set(byte[] b, int off, int value) {
+        final int clipped = Math.max(getMin(), Math.min(getMax(), value));
+        if (bytes == 1) {
+            b[off] = (byte) clipped;
+        } else {
+            ScalarKernels.setShort(b, off, clipped, bigEndian);
+        }
+    }
+
+    /**
+     * Fills samples with a sine wave, where sample {@code i} is {@code Math.sin(i * step) * amplitude} times the
+     * encoding's {@link #getScale() scale}, filled by the {@link SampleKernels} of the sample's width.
+     *
+     * @param dst       The array to fill.
+     * @param off       Offset of the first sample's first byte.
+     * @param samples   Number of samples to fill.
+     * @param step      The angle, in radians, the wave moves per sample.
+     * @param amplitude Peak value of the wave as an 8 bit sample, at most 127.
+     */
+    public void sine(byte[] dst, int off, int samples, double step, double amplitude) {
+        if (bytes == 1) {
+            SampleKernels.get().sine(dst, off, samples, step, amplitude);
+            return;
+        }
+        SampleKernels.get().sine16(dst, off, samples, step, amplitude * getScale(), bigEndian);
+    }
+
+    /**
+     * Adds samples, scaled by {@code gain}, onto sums, one sum per sample. Each scaled sample is
+     * {@code (sample * fixedGain(gain)) >> GAIN_FRACTION_BITS}, added by {@link SampleKernels#mix} or
+     * {@link SampleKernels#mix16}.
+     *
+     * @param src     The samples to add.
+     * @param srcOff  Offset of the first sample's first byte.
+     * @param samples Number of samples to add.
+     * @param gain    Volume of the samples, 1 leaves them unchanged.
+     * @param acc     The sums to add onto.
+     * @param accOff  Offset of the first sum to add onto.
+     */
+    public void mix(byte[] src, int srcOff, int samples, float gain, int[] acc, int accOff) {
+        if (bytes == 1) {
+            SampleKernels.get().mix(src, srcOff, samples, gain, acc, accOff);
+            return;
+        }
+        SampleKernels.get().mix16(src, srcOff, samples, gain, acc, accOff, bigEndian);
+    }
+
+    /**
+     * Clips the first {@code samples} sums into samples in {@code out}, then resets those sums to 0, with
+     * {@link SampleKernels#clip} or {@link SampleKernels#clip16}.
+     *
+     * @param acc     The sums to clip.
+     * @param out     Where to write the clipped samples.
+     * @param samples Number of samples to clip.
+     */
+    public void clip(int[] acc, byte[] out, int samples) {
+        if (bytes == 1) {
+            SampleKernels.get().clip(acc, out, samples);
+            return;
+        }
+        SampleKernels.get().clip16(acc, out, samples, bigEndian);
+    }
+}
@@ -0,0 +1,174 @@
+package main.sound;
+
+/**
+ * The {@code SampleKernels} interface holds the loops that touch every sample: creating sine wave tables, and
+ * adding sources together at a gain and clipping the sums when mixing. There is a scalar implementation that
+ * works everywhere, and one using the {@code jdk.incubator.vector} module that handles many samples per
+ * instruction. {@link #get()} picks the vector kernels when the module is available, unless the
+ * {@code bellchoir.kernels} system property is set to {@code scalar}.
+ *
+ * <p>Each loop comes in two widths: 8 bit samples, one byte each, and 16 bit samples, two bytes each in the byte
+ * order asked for, for devices that play {@link SampleEncoding#SIGNED_16_LE 16 bit samples} natively.</p>
+ */
+public interface SampleKernels {
+    /** System property used to force a set of kernels, {@code scalar} or {@code vector}. */
+    String PROPERTY = "bellchoir.kernels";
+
+    /**
+     * Fills {@code dst[off .. off + len)} with a sine wave, where sample {@code i} of the range is
+     * {@code (byte) (Math.sin(i * step) * amplitude)}.
+     *
+     * @param dst       The array to fill.
+     * @param off       Offset of the first sample to fill.
+     * @param len       Number of samples to fill.
+     * @param step      The angle, in radians, the wave moves per sample.
+     * @param amplitude Peak value of the wave, at most 127.
+     */
+    void sine(byte[] dst, int off, int len, double step, double amplitude);
+
+    /** Number of fraction bits in a {@link #fixedGain(float) fixed point gain}. */
+    int GAIN_FRACTION_BITS = 16;
+
+    /**
+     * Adds {@code src[srcOff .. srcOff + len)}, scaled by {@code gain}, onto {@code acc[accOff .. accOff + len)}.
+     * The gain is applied in fixed point, so each scaled sample is
+     * {@code (sample * fixedGain(gain)) >> GAIN_FRACTION_BITS}, which every implementation gives exactly.
+     *
+     * @param src    The samples to add.
+     * @param srcOff Offset of the first sample to add.
+     * @param len    Number of samples to add.
+     * @param gain   Volume of the samples, 1 leaves them unchanged.
+     * @param acc    The sums to add onto.
+     * @param accOff Offset of the first sum to add onto.
+     */
+    void mix(byte[] src, int srcOff, int len, float gain, int[] acc, int accOff);
+
+    /**
+     * Clips the first {@code len} sums in {@code acc} into bytes in {@code out}, then resets those sums to 0 so
+     * {@code acc} is ready for the next chunk.
+     *
+     * @param acc The sums to clip.
+     * @param out Where to write the clipped samples.
+     * @param len Number of samples to clip.
+     */
+    void clip(int[] acc, byte[] out, int len);
+
+    /**
+     * Fills {@code len} 16 bit samples of {@code dst}, starting at byte {@code off}, with a sine wave, where sample
+     * {@code i} of the range is {@code (short) (Math.sin(i * step) * amplitude)}.
+     *
+     * @param dst       The array to fill.
+     * @param off       Offset of the first sample's first byte.
+     * @param len       Number of samples to fill.
+     * @param step      The angle, in radians, the wave moves per sample.
+     * @param amplitude Peak value of the wave, at most 32767.
+     * @param bigEndian Whether the high byte of each sample comes first.
+     */
+    void sine16(byte[] dst, int off, int len, double step, double amplitude, boolean bigEndian);
+
+    /**
+     * Adds {@code len} 16 bit samples of {@code src}, starting at byte {@code srcOff}, scaled by {@code gain}, onto
+     * {@code acc[accOff .. accOff + len)}, the same as {@link #mix} does for 8 bit samples.
+     *
+     * @param src       The samples to add.
+     * @param srcOff    Offset of the first sample's first byte.
+     * @param len       Number of samples to add.
+     * @param gain      Volume of the samples, 1 leaves them unchanged.
+     * @param acc       The sums to add onto.
+     * @param accOff    Offset of the first sum to add onto.
+     * @param bigEndian Whether the high byte of each sample comes first.
+     */
+    void mix16(byte[] src, int srcOff, int len, float gain, int[] acc, int accOff, boolean bigEndian);
+
+    /**
+     * Clips the first {@code len} sums in {@code acc} into 16 bit samples in {@code out}, then resets those sums
+     * to 0, the same as {@link #clip} does for 8 bit samples.
+     *
+     * @param acc       The sums to clip.
+     * @param out       Where to write the clipped samples.
+     * @param len       Number of samples to clip.
+     * @param bigEndian Whether the high byte of each sample comes first.
+     */
+    void clip16(int[] acc, byte[] out, int len, boolean bigEndian);
+
+    /**
+     * Converts a gain to the fixed point number {@link #mix} scales samples by.
+     *
+     * @param gain Volume of the samples, 1 leaves them unchanged.
+     * @return The gain, with {@link #GAIN_FRACTION_BITS} fraction bits.
+     */
+    static int fixedGain(float gain) {
+        return Math.round(gain * (1 << GAIN_FRACTION_BITS));
+    }
+
+    /**
+     * Returns the name of the kernels, for benchmarks and logging.
+     *
+     * @return The name.
+     */
+    String name();
+
+    /**
+     * Returns the kernels every sound class uses, chosen once when first asked for.
+     *
+     * @return The selected kernels.
+     */
+    static SampleKernels get() {
+        return Selected.KERNELS;
+    }
+
+    /**
+     * Returns the scalar kernels.
+     *
+     * @return The scalar kernels.
+     */
+    static SampleKernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * Returns the vector kernels, if the {@code jdk.incubator.vector} module was added when the JVM started.
+     *
+     * @return The vector kernels, or {@code null} if they're unavailable.
+     */
+    static SampleKernels vector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            // Loaded by name so this class never links against the module when it's missing
+            return (SampleKernels) Class.forName("main.sound.VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("SampleKernels: Unable to load vector kernels, using scalar: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Holds the selected kernels, so they're only chosen once, the first time {@link #get()} is called.
+     */
+    final class Selected {
+        /** The selected kernels. */
+        private static final SampleKernels KERNELS = select();
+
+        /**
+         * Private constructor, the class only holds the selected kernels.
+         */
+        private Selected() {
+            //empty
+        }
+
+        /**
+         * Picks the vector kernels if they're available and not turned off by {@link #PROPERTY}.
+         *
+         * @return The kernels to use.
+         */
+        private static SampleKernels select() {
+            if ("scalar".equalsIgnoreCase(System.getProperty(PROPERTY))) {
+                return scalar();
+            }
+            final SampleKernels vector = vector();
+            return vector != null ? vector : scalar();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package main.sound;
+
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * A {@code SampleSink} is anything the choir can write audio bytes to, such as a
+ * {@link javax.sound.sampled.SourceDataLine}, a file, or a source of a {@link SharedMixer}.
+ *
+ * <p>Writes follow the same rules as {@link javax.sound.sampled.SourceDataLine#write(byte[], int, int)}: they may
+ * block until there is room for the bytes, which is what keeps the choir in time.</p>
+ */
+public interface SampleSink {
+    /**
+     * Prepares the sink so bytes can be written to it.
+     *
+     * @throws LineUnavailableException If the underlying audio device can't be opened.
+     */
+    void open() throws LineUnavailableException;
+
+    /**
+     * Writes {@code len} bytes from the given array, starting at {@code off}.
+     *
+     * @param b   The audio bytes to write.
+     * @param off The offset into {@code b} to start at.
+     * @param len The number of bytes to write.
+     */
+    void write(byte[] b, int off, int len);
+
+    /**
+     * Blocks until all bytes written so far have been played or stored.
+     */
+    void drain();
+
+    /**
+     * Closes the sink and releases any resources it holds.
+     */
+    void close();
+
+    /**
+     * Returns the number of bytes written to the sink that haven't been played yet. Sinks that don't play audio
+     * return 0.
+     *
+     * @return The number of queued bytes.
+     */
+    default int getQueuedBytes() {
+        return 0;
+    }
+}
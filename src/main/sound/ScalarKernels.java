@@ -0,0 +1,99 @@
+package main.sound;
+
+/**
+ * {@link SampleKernels} written as plain loops, one sample at a time. Always available, and the reference the
+ * vector kernels are checked against.
+ */
+final class ScalarKernels implements SampleKernels {
+    /** The only instance, the kernels hold no state. */
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    /**
+     * Private constructor, use {@link #INSTANCE}.
+     */
+    private ScalarKernels() {
+        //empty
+    }
+
+    @Override
+    public void sine(byte[] dst, int off, int len, double step, double amplitude) {
+        for (int i = 0; i < len; i++) {
+            dst[off + i] = (byte) (Math.sin(i * step) * amplitude);
+        }
+    }
+
+    @Override
+    public void mix(byte[] src, int srcOff, int len, float gain, int[] acc, int accOff) {
+        final int g = SampleKernels.fixedGain(gain);
+        for (int i = 0; i < len; i++) {
+            acc[accOff + i] += (src[srcOff + i] * g) >> GAIN_FRACTION_BITS;
+        }
+    }
+
+    @Override
+    public void clip(int[] acc, byte[] out, int len) {
+        for (int i = 0; i < len; i++) {
+            out[i] = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, acc[i]));
+            acc[i] = 0;
+        }
+    }
+
+    @Override
+    public void sine16(byte[] dst, int off, int len, double step, double amplitude, boolean bigEndian) {
+        for (int i = 0; i < len; i++) {
+            setShort(dst, off + 2 * i, (int) (Math.sin(i * step) * amplitude), bigEndian);
+        }
+    }
+
+    @Override
+    public void mix16(byte[] src, int srcOff, int len, float gain, int[] acc, int accOff, boolean bigEndian) {
+        // A 16 bit sample times a gain above 1 doesn't fit in an int
+        final long g = SampleKernels.fixedGain(gain);
+        for (int i = 0; i < len; i++) {
+            acc[accOff + i] += (int) ((getShort(src, srcOff + 2 * i, bigEndian) * g) >> GAIN_FRACTION_BITS);
+        }
+    }
+
+    @Override
+    public void clip16(int[] acc, byte[] out, int len, boolean bigEndian) {
+        for (int i = 0; i < len; i++) {
+            setShort(out, 2 * i, Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, acc[i])), bigEndian);
+            acc[i] = 0;
+        }
+    }
+
+    /**
+     * Reads a 16 bit sample.
+     *
+     * @param b         The samples.
+     * @param off       Offset of the sample's first byte.
+     * @param bigEndian Whether the high byte comes first.
+     * @return The sample's value.
+     */
+    static int getShort(byte[] b, int off, boolean bigEndian) {
+        return bigEndian ? (b[off] << 8) | (b[off + 1] & 0xFF) : (b[off + 1] << 8) | (b[off] & 0xFF);
+    }
+
+    /**
+     * Writes the low 16 bits of a value as a sample.
+     *
+     * @param b         The samples.
+     * @param off       Offset of the sample's first byte.
+     * @param value     The sample's value, already in the range of a 16 bit sample.
+     * @param bigEndian Whether the high byte comes first.
+     */
+    static void setShort(byte[] b, int off, int value, boolean bigEndian) {
+        if (bigEndian) {
+            b[off] = (byte) (value >> 8);
+            b[off + 1] = (byte) value;
+        } else {
+            b[off] = (byte) value;
+            b[off + 1] = (byte) (value >> 8);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
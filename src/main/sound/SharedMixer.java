@@ -0,0 +1,189 @@
+package main.sound;
+
+import javax.sound.sampled.LineUnavailableException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@code SharedMixer} lets several {@link main.Conductor Conductors} play at the same time through one
+ * {@link SampleSink}. Each conductor writes to its own {@link MixerSource}, and a single mixing thread sums the
+ * sources, applying each source's gain, and writes the result to the output.
+ *
+ * <p>The mixer waits until every active source has a full chunk of bytes before mixing, so sources stay in step
+ * with each other. If a source falls behind for longer than {@link #MAX_WAIT_MS}, the chunk is mixed without it
+ * so the other sources aren't held up.</p>
+ *
+ * <p>All sources must use the same {@link Note#ENCODING encoding} the choir plays in, with the same number of
+ * channels as the mixer. Sources are only mixed a whole frame at a time, so a source that's part way through
+ * writing a frame never has its channels or the bytes of a sample swapped.</p>
+ */
+public class SharedMixer implements Runnable {
+    /** Number of bytes mixed at a time. */
+    private static final int CHUNK_SIZE = 1024;
+
+    /** Number of chunks each source can hold before writes to it block. */
+    private static final int SOURCE_CHUNKS = 8;
+
+    /** Longest time, in milliseconds, the mixer waits for a slow source before mixing without it. */
+    private static final int MAX_WAIT_MS = 20;
+
+    /** Sink the mixed audio is written to. */
+    private final SampleSink output;
+
+    /** Sources that have been added and have not finished yet. */
+    private final List<MixerSource> sources = new CopyOnWriteArrayList<>();
+
+    /** The thread that mixes the sources. */
+    private final Thread thread;
+
+    /** A flag indicating whether the mixer should keep running. It is volatile to ensure visibility across threads. */
+    private volatile boolean running;
+
+    /** Number of bytes in each frame of the sources and the output. */
+    private final int frameBytes;
+
+    /** Number of bytes mixed at a time, {@link #CHUNK_SIZE} rounded down to whole frames. */
+    private final int chunkBytes;
+
+    /** Running sum of each sample in the chunk being mixed. */
+    private final int[] acc = new int[CHUNK_SIZE];
+
+    /** Mixed chunk to write to the output. */
+    private final byte[] out = new byte[CHUNK_SIZE];
+
+    /**
+     * Constructs a new {@code SharedMixer} for mono sources.
+     *
+     * @param output The {@link SampleSink} to write the mixed audio to.
+     */
+    public SharedMixer(SampleSink output) {
+        this(output, 1);
+    }
+
+    /**
+     * Constructs a new {@code SharedMixer} for sources with the given number of channels.
+     *
+     * @param output   The {@link SampleSink} to write the mixed audio to.
+     * @param channels Number of channels in each frame of the sources and the output.
+     */
+    public SharedMixer(SampleSink output, int channels) {
+        this.output = output;
+        this.frameBytes = channels * Note.ENCODING.getBytes();
+        this.chunkBytes = CHUNK_SIZE - CHUNK_SIZE % frameBytes;
+        this.thread = new Thread(this, "Mixer");
+    }
+
+    /**
+     * Adds a new source to the mixer.
+     *
+     * @param name Name of the source.
+     * @param gain Gain applied to the source when mixing, 1.0 leaves the samples unchanged.
+     * @return The {@link MixerSource} to write the source's audio to.
+     */
+    public MixerSource addSource(String name, float gain) {
+        final MixerSource source = new MixerSource(name, this, gain, CHUNK_SIZE * SOURCE_CHUNKS);
+        sources.add(source);
+        return source;
+    }
+
+    /**
+     * Opens the output and starts the mixing thread.
+     *
+     * @throws LineUnavailableException If the output can't be opened.
+     */
+    public void start() throws LineUnavailableException {
+        output.open();
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Closes every source, waits for the bytes already written to them to be mixed, then stops the mixing thread
+     * and drains and closes the output.
+     */
+    public void stop() {
+        for (MixerSource source : sources) {
+            source.close();
+        }
+        running = false;
+        signal();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            System.err.println("Thread was interrupted while waiting for mixer thread to finish.");
+        }
+        output.drain();
+        output.close();
+    }
+
+    /**
+     * Wakes up the mixing thread, called by sources when they receive bytes or are opened or closed.
+     */
+    void signal() {
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Mixes chunks until {@link #stop()} is called and every source has finished.
+     */
+    @Override
+    public void run() {
+        while (running || !sources.isEmpty()) {
+            waitForChunk();
+
+            // Sum a chunk from each source
+            int mixed = 0;
+            for (MixerSource source : sources) {
+                // Only the mixer reads from a source, so what's available now is still there to mix. A closed source
+                // won't finish its frame, so whatever it has left is mixed.
+                final int available = source.available();
+                final int frames = source.isActive() ? available - available % frameBytes : available;
+                mixed = Math.max(mixed, source.mixInto(acc, Math.min(chunkBytes, frames)));
+                if (source.isFinished()) {
+                    sources.remove(source);
+                }
+            }
+
+            if (mixed == 0) {
+                continue;
+            }
+
+            // Clip the sums back into samples and reset the accumulator for the next chunk
+            Note.ENCODING.clip(acc, out, mixed / Note.ENCODING.getBytes());
+            output.write(out, 0, mixed);
+        }
+    }
+
+    /**
+     * Waits until every active source has a full chunk to mix, or until {@link #MAX_WAIT_MS} has passed and at
+     * least one source has something to mix.
+     */
+    private void waitForChunk() {
+        final long deadline = System.currentTimeMillis() + MAX_WAIT_MS;
+        synchronized (this) {
+            while (true) {
+                boolean allReady = true;
+                boolean anyData = false;
+                for (MixerSource source : sources) {
+                    final int available = source.available();
+                    anyData |= available > 0 || source.isFinished();
+                    if (available < chunkBytes && source.isActive()) {
+                        allReady = false;
+                    }
+                }
+
+                final long remaining = deadline - System.currentTimeMillis();
+                if ((allReady && anyData) || (anyData && remaining <= 0) || (!running && !anyData && sources.isEmpty())) {
+                    return;
+                }
+
+                try {
+                    wait(remaining > 0 ? remaining : MAX_WAIT_MS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+    }
+}
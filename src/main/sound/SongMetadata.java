@@ -0,0 +1,284 @@
+package main.sound;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * The {@code SongMetadata} class holds what can be known about a song before it's played: how long it lasts, which
+ * pitches it uses, how many members play it, how many bells ring at once, and how long its longest note is. It's
+ * found in one pass over the song, so whatever plays or renders the song can size its members, queues and buffers
+ * exactly before it starts, instead of growing them as it goes or passing over the song again.
+ *
+ * <p>Notes of a song are played one after another, but a bell keeps ringing for {@link #RING_OUT_MS} after its note
+ * ends, so the bells of quick notes ring together. The max polyphony is the most bells ringing at any one time,
+ * which is also the fewest members that can play the song without rushing a change of bells.</p>
+ *
+ * <p>Metadata can be {@link #write(OutputStream) written} to and {@link #read(InputStream) read} from a small
+ * properties file, which the {@link RenderCache} keeps beside each rendered song.</p>
+ */
+public class SongMetadata {
+    /** Time, in milliseconds, a bell keeps ringing after its note ends. */
+    public static final int RING_OUT_MS = 250;
+
+    /** File extension of stored metadata. */
+    public static final String EXTENSION = ".meta";
+
+    /** Bumped whenever what's stored changes, so metadata stored the old way is never used. */
+    private static final int FORMAT_VERSION = 2;
+
+    /** Number of notes in the song, including rests. */
+    private final int noteCount;
+
+    /** Number of rests in the song. */
+    private final int restCount;
+
+    /** Length of the rendered song in samples. */
+    private final long lengthSamples;
+
+    /** Number of bytes the longest note takes up once rendered, 0 for an empty song. */
+    private final int maxNoteBytes;
+
+    /** Semitones of the pitches the song rings, lowest first. */
+    private final List<Integer> pitches;
+
+    /** Most bells ringing at once. */
+    private final int maxPolyphony;
+
+    /**
+     * Constructs a new {@code SongMetadata}.
+     *
+     * @param noteCount     Number of notes in the song, including rests.
+     * @param restCount     Number of rests in the song.
+     * @param lengthSamples Length of the rendered song in samples.
+     * @param maxNoteBytes  Number of bytes the longest note takes up once rendered.
+     * @param pitches       Semitones of the pitches the song rings, lowest first.
+     * @param maxPolyphony  Most bells ringing at once.
+     */
+    private SongMetadata(int noteCount, int restCount, long lengthSamples, int maxNoteBytes, List<Integer> pitches,
+                         int maxPolyphony) {
+        this.noteCount = noteCount;
+        this.restCount = restCount;
+        this.lengthSamples = lengthSamples;
+        this.maxNoteBytes = maxNoteBytes;
+        this.pitches = Collections.unmodifiableList(pitches);
+        this.maxPolyphony = maxPolyphony;
+    }
+
+    /**
+     * Analyses the given song.
+     *
+     * @param song The notes of the song.
+     * @return The song's metadata.
+     */
+    public static SongMetadata of(List<BellNote> song) {
+        final long ringOutSamples = (long) Note.SAMPLE_RATE * RING_OUT_MS / 1000;
+        final TreeSet<Integer> pitches = new TreeSet<>();
+        int rests = 0;
+        int maxNoteBytes = 0;
+        long sample = 0;
+
+        // Notes still ringing, oldest first, as {index, sample it stops ringing at}, with how many of each bell
+        final ArrayDeque<long[]> ringing = new ArrayDeque<>();
+        final Map<String, Integer> ringingBells = new HashMap<>();
+        int maxPolyphony = 0;
+
+        for (int i = 0; i < song.size(); i++) {
+            final BellNote b = song.get(i);
+            maxNoteBytes = Math.max(maxNoteBytes, NoteRenderer.noteBytes(b.getLength()));
+
+            if (b.getNote() == Note.REST) {
+                rests++;
+            } else {
+                // Bells whose ring has died away by the time this note starts stop counting
+                while (!ringing.isEmpty() && ringing.peek()[1] <= sample) {
+                    ringingBells.computeIfPresent(song.get((int) ringing.poll()[0]).getBell(),
+                            (bell, count) -> count > 1 ? count - 1 : null);
+                }
+                ringing.add(new long[]{i, sample + NoteRenderer.toneSamples(b.getLength()) + ringOutSamples});
+                ringingBells.merge(b.getBell(), 1, Integer::sum);
+                maxPolyphony = Math.max(maxPolyphony, ringingBells.size());
+                pitches.add(b.getSemitone());
+            }
+            sample += NoteRenderer.noteSamples(b.getLength());
+        }
+
+        return new SongMetadata(song.size(), rests, sample, maxNoteBytes, new ArrayList<>(pitches), maxPolyphony);
+    }
+
+    /**
+     * Reads metadata {@link #write(OutputStream) written} before.
+     *
+     * @param in Where to read the metadata from.
+     * @return The metadata.
+     * @throws IOException If the metadata can't be read, was written the old way, or for another sample rate or
+     *                     encoding.
+     */
+    public static SongMetadata read(InputStream in) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(in);
+        try {
+            if (Integer.parseInt(properties.getProperty("version")) != FORMAT_VERSION) {
+                throw new IOException("Metadata was stored in an older format");
+            }
+            if (Integer.parseInt(properties.getProperty("sampleRate")) != Note.SAMPLE_RATE) {
+                throw new IOException("Metadata was stored for another sample rate");
+            }
+            if (!Note.ENCODING.name().equals(properties.getProperty("encoding"))) {
+                throw new IOException("Metadata was stored for another sample encoding");
+            }
+
+            final List<Integer> pitches = new ArrayList<>();
+            final String pitchList = properties.getProperty("pitches");
+            if (!pitchList.isEmpty()) {
+                for (String pitch : pitchList.split(",")) {
+                    pitches.add(Integer.parseInt(pitch));
+                }
+            }
+            return new SongMetadata(Integer.parseInt(properties.getProperty("notes")),
+                    Integer.parseInt(properties.getProperty("rests")),
+                    Long.parseLong(properties.getProperty("lengthSamples")),
+                    Integer.parseInt(properties.getProperty("maxNoteBytes")),
+                    pitches,
+                    Integer.parseInt(properties.getProperty("maxPolyphony")));
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IOException("Metadata is missing a value or has an invalid one", e);
+        }
+    }
+
+    /**
+     * Writes the metadata as a properties file, see {@link #read(InputStream)}.
+     *
+     * @param out Where to write the metadata.
+     * @throws IOException If the metadata can't be written.
+     */
+    public void write(OutputStream out) throws IOException {
+        final StringBuilder pitchList = new StringBuilder();
+        for (int pitch : pitches) {
+            if (pitchList.length() > 0) {
+                pitchList.append(',');
+            }
+            pitchList.append(pitch);
+        }
+
+        final Properties properties = new Properties();
+        properties.setProperty("version", String.valueOf(FORMAT_VERSION));
+        properties.setProperty("sampleRate", String.valueOf(Note.SAMPLE_RATE));
+        properties.setProperty("encoding", Note.ENCODING.name());
+        properties.setProperty("notes", String.valueOf(noteCount));
+        properties.setProperty("rests", String.valueOf(restCount));
+        properties.setProperty("lengthSamples", String.valueOf(lengthSamples));
+        properties.setProperty("maxNoteBytes", String.valueOf(maxNoteBytes));
+        properties.setProperty("pitches", pitchList.toString());
+        properties.setProperty("maxPolyphony", String.valueOf(maxPolyphony));
+        properties.store(out, "Bell Choir song metadata");
+    }
+
+    /**
+     * Returns the number of notes in the song, including rests.
+     *
+     * @return The number of notes.
+     */
+    public int getNoteCount() {
+        return noteCount;
+    }
+
+    /**
+     * Returns the number of rests in the song.
+     *
+     * @return The number of rests.
+     */
+    public int getRestCount() {
+        return restCount;
+    }
+
+    /**
+     * Returns the length of the rendered song in samples, the same as {@link TimingIndex#getLengthSamples()}.
+     *
+     * @return The number of samples.
+     */
+    public long getLengthSamples() {
+        return lengthSamples;
+    }
+
+    /**
+     * Returns how long the song takes to play, in milliseconds.
+     *
+     * @return The length of the song.
+     */
+    public long getDurationMs() {
+        return lengthSamples * 1000 / Note.SAMPLE_RATE;
+    }
+
+    /**
+     * Returns the number of bytes the longest note of the song takes up once rendered, the most a buffer holding one
+     * note of the song needs.
+     *
+     * @return The number of bytes, 0 for an empty song.
+     */
+    public int getMaxNoteBytes() {
+        return maxNoteBytes;
+    }
+
+    /**
+     * Returns the pitches the song rings, as semitones relative to A4 (where A4=1), lowest first.
+     *
+     * @return The semitones.
+     */
+    public List<Integer> getPitches() {
+        return pitches;
+    }
+
+    /**
+     * Returns the names of the bells the song rings, lowest first, see {@link BellNote#getBell()}.
+     *
+     * @return The bell names.
+     */
+    public List<String> getBells() {
+        final List<String> bells = new ArrayList<>(pitches.size());
+        for (int pitch : pitches) {
+            bells.add(Note.nameOf(pitch));
+        }
+        return bells;
+    }
+
+    /**
+     * Returns the number of members that play the song when each bell gets its own member. Rests get a member of
+     * their own too.
+     *
+     * @return The number of members.
+     */
+    public int getMemberCount() {
+        return pitches.size() + (restCount > 0 ? 1 : 0);
+    }
+
+    /**
+     * Returns the most bells ringing at once, counting each bell as ringing for {@link #RING_OUT_MS} after its note
+     * ends.
+     *
+     * @return The max polyphony, 0 for a song of only rests.
+     */
+    public int getMaxPolyphony() {
+        return maxPolyphony;
+    }
+
+    /**
+     * Returns a summary of the metadata.
+     *
+     * @return The summary.
+     */
+    @Override
+    public String toString() {
+        return noteCount + " notes (" + restCount + " rests) lasting " + getDurationMs() / 1000.0 + "s, " +
+                pitches.size() + " bells " + getBells() + ", " + getMemberCount() + " members, max polyphony " +
+                maxPolyphony + ", longest note " + maxNoteBytes + " bytes";
+    }
+}
@@ -0,0 +1,279 @@
+package main.sound;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code SongRenderer} class renders a whole song ahead of time, instead of playing it. Members only take
+ * turns so their notes reach one line in order, but once the {@link TimingIndex} knows where each note starts,
+ * every note can be rendered on its own. The song is split into segments of notes which are rendered in parallel
+ * on a {@link ForkJoinPool}, each into its own region of one output, so render time goes down as cores go up.
+ *
+ * <p>The rendered bytes are exactly what the choir would write to its {@link SampleSink}, one
+ * {@link NoteRenderer#render rendered note} after another.</p>
+ *
+ * <p>Rendered songs are files rather than audio for a device, so they're always in the legacy format, 8 bit
+ * signed samples, one byte per sample.</p>
+ */
+public class SongRenderer {
+    /** Most notes rendered by a single task before the segment is split further. */
+    public static final int SEGMENT_NOTES = 256;
+
+    /** Most bytes rendered in one window by {@link #renderTo(OutputStream)}, unless a single note is longer. */
+    public static final int WINDOW_BYTES = 16 * 1024 * 1024;
+
+    /** Number of bytes in the header of a WAV file. */
+    public static final int WAV_HEADER_BYTES = 44;
+
+    /** The notes of the song. */
+    private final List<BellNote> song;
+
+    /** Where every note starts in the rendered song. */
+    private final TimingIndex index;
+
+    /** The pool segments are rendered on. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new {@code SongRenderer} that renders on the common {@link ForkJoinPool}.
+     *
+     * @param song The notes of the song.
+     */
+    public SongRenderer(List<BellNote> song) {
+        this(song, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code SongRenderer}.
+     *
+     * @param song The notes of the song.
+     * @param pool The pool segments are rendered on.
+     * @throws IllegalStateException If notes aren't generated in the legacy format's 8 bit samples.
+     */
+    public SongRenderer(List<BellNote> song, ForkJoinPool pool) {
+        if (Note.ENCODING != SampleEncoding.SIGNED_8) {
+            throw new IllegalStateException("Songs are rendered in 8 bit samples, not " + Note.ENCODING);
+        }
+        this.song = song;
+        this.pool = pool;
+
+        this.index = new TimingIndex(song);
+    }
+
+    /**
+     * Returns the number of bytes the rendered song takes up.
+     *
+     * @return The length of the rendered song.
+     */
+    public long getLength() {
+        return index.getLengthSamples();
+    }
+
+    /**
+     * Renders the song into one array of signed 8 bit samples.
+     *
+     * @return The rendered song.
+     * @throws IllegalStateException If the song is too long to fit in an array.
+     */
+    public byte[] render() {
+        if (getLength() > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Song is too long to render into memory, render it to a file instead");
+        }
+
+        final byte[] out = new byte[(int) getLength()];
+        pool.invoke(new Segment(0, song.size(), null, out, 0));
+        return out;
+    }
+
+    /**
+     * Renders the song into a stream of signed 8 bit samples, such as a {@link LosslessCodec.Encoder}. The song is
+     * rendered a window of about {@link #WINDOW_BYTES} at a time, each window in parallel, so only one window is
+     * ever held in memory.
+     *
+     * @param out Where to write the samples.
+     * @throws IOException If the samples can't be written.
+     */
+    public void renderTo(OutputStream out) throws IOException {
+        // A window never holds more than the song, or more than WINDOW_BYTES unless one note is longer
+        final byte[] window =
+                new byte[(int) Math.min(getLength(), Math.max(WINDOW_BYTES, NoteRenderer.MAX_NOTE_BYTES))];
+        int from = 0;
+        while (from < song.size()) {
+            // Take notes until the window is full, always taking at least one
+            int to = from + 1;
+            while (to < song.size() && index.sampleOf(to + 1) - index.sampleOf(from) <= WINDOW_BYTES) {
+                to++;
+            }
+
+            final int bytes = (int) (index.sampleOf(to) - index.sampleOf(from));
+            pool.invoke(new Segment(from, to, null, window, index.sampleOf(from)));
+            out.write(window, 0, bytes);
+            from = to;
+        }
+    }
+
+    /**
+     * Writes signed 8 bit samples from a stream, such as a {@link LosslessCodec.Decoder}, as a WAV file.
+     *
+     * @param samples The samples.
+     * @param length  Number of samples in the stream.
+     * @param out     Where to write the WAV file.
+     * @throws IOException If the samples can't be read or the file can't be written.
+     */
+    public static void writeWav(InputStream samples, long length, OutputStream out) throws IOException {
+        if (length > 0xFFFFFFFFL - WAV_HEADER_BYTES) {
+            throw new IllegalArgumentException("Song is too long for a WAV file");
+        }
+
+        out.write(wavHeader(length).array());
+        final byte[] chunk = new byte[64 * 1024];
+        int n;
+        while ((n = samples.read(chunk)) > 0) {
+            for (int i = 0; i < n; i++) {
+                chunk[i] ^= (byte) 0x80;
+            }
+            out.write(chunk, 0, n);
+        }
+    }
+
+    /**
+     * Renders the song into a WAV file. The file is memory-mapped and each segment is rendered straight into its
+     * own region of it.
+     *
+     * @param file The file to write.
+     * @throws IOException              If the file can't be written.
+     * @throws IllegalArgumentException If the song is too long for a WAV file.
+     */
+    public void renderWav(Path file) throws IOException {
+        if (getLength() > 0xFFFFFFFFL - WAV_HEADER_BYTES) {
+            throw new IllegalArgumentException("Song is too long for a WAV file");
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(wavHeader(getLength()), 0);
+            pool.invoke(new Segment(0, song.size(), channel, null, 0));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Creates the header of an 8 bit mono PCM WAV file at {@link Note#SAMPLE_RATE}.
+     *
+     * @param dataBytes Number of bytes of audio in the file.
+     * @return The header, ready to be written.
+     */
+    private static ByteBuffer wavHeader(long dataBytes) {
+        final ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[]{'R', 'I', 'F', 'F'});
+        header.putInt((int) (dataBytes + WAV_HEADER_BYTES - 8));
+        header.put(new byte[]{'W', 'A', 'V', 'E', 'f', 'm', 't', ' '});
+        header.putInt(16);
+        header.putShort((short) 1);
+        header.putShort((short) 1);
+        header.putInt(Note.SAMPLE_RATE);
+        header.putInt(Note.SAMPLE_RATE);
+        header.putShort((short) 1);
+        header.putShort((short) 8);
+        header.put(new byte[]{'d', 'a', 't', 'a'});
+        header.putInt((int) dataBytes);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Renders a range of notes, splitting the range in half until it's small enough to render in one task.
+     */
+    private class Segment extends RecursiveAction {
+        /** Segments are never serialized, but {@link RecursiveAction} is {@code Serializable}. */
+        private static final long serialVersionUID = 1L;
+
+        /** Index of the first note in the segment. */
+        private final int from;
+
+        /** Index after the last note in the segment. */
+        private final int to;
+
+        /** The WAV file to render into, or {@code null} to render into {@link #array}. */
+        private final FileChannel channel;
+
+        /** The array to render into, when not rendering into a file. */
+        private final byte[] array;
+
+        /** Byte offset in the song of the start of {@link #array}. */
+        private final long base;
+
+        /**
+         * Constructs a new {@code Segment}.
+         *
+         * @param from    Index of the first note in the segment.
+         * @param to      Index after the last note in the segment.
+         * @param channel The WAV file to render into, or {@code null} to render into {@code array}.
+         * @param array   The array to render into, when not rendering into a file.
+         * @param base    Byte offset in the song of the start of {@code array}.
+         */
+        Segment(int from, int to, FileChannel channel, byte[] array, long base) {
+            this.from = from;
+            this.to = to;
+            this.channel = channel;
+            this.array = array;
+            this.base = base;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEGMENT_NOTES) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new Segment(from, mid, channel, array, base), new Segment(mid, to, channel, array, base));
+                return;
+            }
+
+            if (channel == null) {
+                for (int i = from; i < to; i++) {
+                    NoteRenderer.render(song.get(i), array, (int) (index.sampleOf(i) - base));
+                }
+                return;
+            }
+
+            renderToFile();
+        }
+
+        /**
+         * Maps this segment's region of the file and renders each note into it. WAV stores 8 bit samples unsigned,
+         * so the sign bit of every sample is flipped on the way.
+         */
+        private void renderToFile() {
+            final long bytes = index.sampleOf(to) - index.sampleOf(from);
+            if (bytes == 0) {
+                return;
+            }
+
+            try {
+                final MappedByteBuffer region =
+                        channel.map(FileChannel.MapMode.READ_WRITE, WAV_HEADER_BYTES + index.sampleOf(from), bytes);
+                final byte[] scratch = new byte[NoteRenderer.MAX_NOTE_BYTES];
+                for (int i = from; i < to; i++) {
+                    final int length = NoteRenderer.render(song.get(i), scratch, 0);
+                    for (int j = 0; j < length; j++) {
+                        scratch[j] ^= (byte) 0x80;
+                    }
+                    region.put(scratch, 0, length);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package main.sound;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@link SampleSink} that writes raw audio bytes to an {@link OutputStream}, such as a file.
+ * Writes never block on playback, so a song written to a stream finishes as fast as it can be rendered.
+ */
+public class StreamSink implements SampleSink {
+    /** The stream to write audio bytes to. */
+    private final OutputStream out;
+
+    /**
+     * Constructs a new {@code StreamSink}.
+     *
+     * @param out The {@link OutputStream} to write audio bytes to.
+     */
+    public StreamSink(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Nothing to open, the stream is ready as soon as it's given.
+     */
+    @Override
+    public void open() {
+        //empty
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        try {
+            out.write(b, off, len);
+        } catch (IOException e) {
+            System.err.println("StreamSink: Unable to write audio bytes: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void drain() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("StreamSink: Unable to flush audio bytes: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("StreamSink: Unable to close stream: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package main.sound;
+
+import java.util.List;
+
+/**
+ * The {@code TimingIndex} class knows where every note of a song starts, so playback can jump to any point of it.
+ * It's built once when the song is loaded, from two prefix sums over the notes:
+ * <ul>
+ *     <li>Where each note starts in the rendered audio, in samples, counting the rest after each note.</li>
+ *     <li>Where each note starts in the music, in milliseconds of note length, which decides the measures.</li>
+ * </ul>
+ * The sums are taken over the notes as written in the song's {@link Arrangement}, along with where each segment
+ * starts, so a song with repeats only takes as much memory as it takes to write down. Finding the note at a time or
+ * in a measure is a binary search over the segments and then over the notes of one segment, so it takes
+ * O(log n) however long the song is.
+ *
+ * <p>Measures are counted from 1. A measure starts at the first note that starts on or after its bar line, so a
+ * note held over a bar line belongs to the measure it started in.</p>
+ */
+public class TimingIndex {
+    /** Length of a measure in milliseconds of note length. */
+    private static final int MEASURE_MS = Note.MEASURE_LENGTH_SEC * 1000;
+
+    /** The song, as segments of written notes. */
+    private final Arrangement song;
+
+    /** Sample each written note starts at if the written notes were played straight through, with the total at the end. */
+    private final long[] samples;
+
+    /** Millisecond of note length each written note starts at if played straight through, with the total at the end. */
+    private final long[] beats;
+
+    /** Sample each segment starts at, with the song's total length at the end. */
+    private final long[] segmentSamples;
+
+    /** Millisecond of note length each segment starts at, with the song's total at the end. */
+    private final long[] segmentBeats;
+
+    /**
+     * Constructs a new {@code TimingIndex} for the given song.
+     *
+     * @param song The notes of the song.
+     */
+    public TimingIndex(List<BellNote> song) {
+        this.song = Arrangement.of(song);
+
+        final List<BellNote> written = this.song.getWritten();
+        final int n = written.size();
+        this.samples = new long[n + 1];
+        this.beats = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            final NoteLength length = written.get(i).getLength();
+            samples[i + 1] = samples[i] + NoteRenderer.noteSamples(length);
+            beats[i + 1] = beats[i] + length.getTimeMs();
+        }
+
+        final int segments = this.song.getSegmentCount();
+        this.segmentSamples = new long[segments + 1];
+        this.segmentBeats = new long[segments + 1];
+        for (int s = 0; s < segments; s++) {
+            final int first = this.song.getSegmentStart(s);
+            final int end = first + this.song.getSegmentOffset(s + 1) - this.song.getSegmentOffset(s);
+            segmentSamples[s + 1] = segmentSamples[s] + samples[end] - samples[first];
+            segmentBeats[s + 1] = segmentBeats[s] + beats[end] - beats[first];
+        }
+    }
+
+    /**
+     * Returns the number of notes in the song.
+     *
+     * @return The number of notes.
+     */
+    public int size() {
+        return song.size();
+    }
+
+    /**
+     * Returns the length of the rendered song in samples.
+     *
+     * @return The number of samples.
+     */
+    public long getLengthSamples() {
+        return segmentSamples[song.getSegmentCount()];
+    }
+
+    /**
+     * Returns the number of measures in the song.
+     *
+     * @return The number of measures.
+     */
+    public int getMeasureCount() {
+        return (int) ((segmentBeats[song.getSegmentCount()] + MEASURE_MS - 1) / MEASURE_MS);
+    }
+
+    /**
+     * Returns the sample the given note starts at.
+     *
+     * @param note Index of the note, or the number of notes for the end of the song.
+     * @return The sample the note starts at.
+     */
+    public long sampleOf(int note) {
+        return positionOf(note, samples, segmentSamples);
+    }
+
+    /**
+     * Returns the time, in milliseconds of playback, the given note starts at.
+     *
+     * @param note Index of the note, or the number of notes for the end of the song.
+     * @return The time the note starts at.
+     */
+    public long msOf(int note) {
+        return sampleOf(note) * 1000 / Note.SAMPLE_RATE;
+    }
+
+    /**
+     * Returns the note playing at the given sample. Samples past the end of the song give the number of notes.
+     *
+     * @param sample The sample.
+     * @return Index of the note.
+     */
+    public int noteAtSample(long sample) {
+        if (sample <= 0) {
+            return 0;
+        }
+        if (sample >= getLengthSamples()) {
+            return size();
+        }
+
+        // Find the segment, then the last note in it starting at or before the sample
+        final int segment = lastAtOrBefore(segmentSamples, 0, song.getSegmentCount() - 1, sample);
+        final int first = song.getSegmentStart(segment);
+        final int last = first + song.getSegmentOffset(segment + 1) - song.getSegmentOffset(segment) - 1;
+        final int note = lastAtOrBefore(samples, first, last, sample - segmentSamples[segment] + samples[first]);
+        return song.getSegmentOffset(segment) + note - first;
+    }
+
+    /**
+     * Returns the note playing at the given time. Times past the end of the song give the number of notes.
+     *
+     * @param ms The time in milliseconds of playback.
+     * @return Index of the note.
+     */
+    public int noteAtMs(long ms) {
+        return noteAtSample(ms * Note.SAMPLE_RATE / 1000);
+    }
+
+    /**
+     * Returns the note the given measure starts at.
+     *
+     * @param measure The measure, counted from 1.
+     * @return Index of the note.
+     * @throws IllegalArgumentException If the song has no such measure.
+     */
+    public int noteAtMeasure(int measure) {
+        final int count = getMeasureCount();
+        if (measure < 1 || measure > count) {
+            throw new IllegalArgumentException("Measure " + measure + " is outside the song's " + count +
+                    " measures");
+        }
+        final long bar = (long) (measure - 1) * MEASURE_MS;
+
+        // Find the segment the bar line falls in, then the first note in it starting on or after the bar line
+        final int segment = lastAtOrBefore(segmentBeats, 0, song.getSegmentCount() - 1, bar);
+        final int first = song.getSegmentStart(segment);
+        final int last = first + song.getSegmentOffset(segment + 1) - song.getSegmentOffset(segment) - 1;
+        final long target = bar - segmentBeats[segment] + beats[first];
+        if (beats[last] < target) {
+            // The last note of the segment is held over the bar line, so the measure starts with the next segment
+            return song.getSegmentOffset(segment + 1);
+        }
+        final int before = lastAtOrBefore(beats, first, last, target);
+        final int note = beats[before] == target ? before : before + 1;
+        return song.getSegmentOffset(segment) + note - first;
+    }
+
+    /**
+     * Returns the measure the given note is in.
+     *
+     * @param note Index of the note.
+     * @return The measure, counted from 1, or 0 if the song is empty.
+     */
+    public int measureOf(int note) {
+        if (size() == 0) {
+            return 0;
+        }
+        final int clamped = Math.min(Math.max(note, 0), size() - 1);
+        return (int) (positionOf(clamped, beats, segmentBeats) / MEASURE_MS) + 1;
+    }
+
+    /**
+     * Returns where the given note starts, from the prefix sums over the written notes and over the segments.
+     *
+     * @param note     Index of the note, or the number of notes for the end of the song.
+     * @param written  Prefix sums over the written notes.
+     * @param segments Prefix sums over the segments.
+     * @return Where the note starts.
+     */
+    private long positionOf(int note, long[] written, long[] segments) {
+        if (note == size()) {
+            return segments[song.getSegmentCount()];
+        }
+        final int segment = song.segmentOf(note);
+        final int first = song.getSegmentStart(segment);
+        return segments[segment] + written[first + note - song.getSegmentOffset(segment)] - written[first];
+    }
+
+    /**
+     * Returns the index of the last value at or before the given one, searching between two indexes. The values
+     * between them must be increasing and the first one must be at or before the value searched for.
+     *
+     * @param values The values to search.
+     * @param lo     First index to search.
+     * @param hi     Last index to search.
+     * @param value  The value searched for.
+     * @return The index found.
+     */
+    private static int lastAtOrBefore(long[] values, int lo, int hi, long value) {
+        while (lo < hi) {
+            final int mid = (lo + hi + 1) >>> 1;
+            if (values[mid] <= value) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+}
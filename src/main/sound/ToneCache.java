@@ -0,0 +1,136 @@
+package main.sound;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code ToneCache} class creates the sine wave samples bells are played with. The samples of the
+ * {@link Note} constants are created once when the enum is loaded, and samples for any other pitch, such as a
+ * note transposed outside the enum's range, are created the first time they are needed and kept for reuse.
+ *
+ * <p>Pitches are given as a semitone relative to A4, where A4 is 1, the same numbering {@link Note} uses.</p>
+ *
+ * <p>Samples are generated in the {@link SampleEncoding} of the {@link OutputFormat} selected for the device, so
+ * they're written to it as they are.</p>
+ */
+public final class ToneCache {
+    /** The standard pitch frequency for musical note A4. */
+    private static final double FREQUENCY_A_HZ = 440.0d;
+
+    /** Max volume a note can be, as an 8 bit sample. */
+    private static final double MAX_VOLUME = 127.0d;
+
+    /**
+     * The sample rate tones are generated at. Read from the {@link OutputFormat} rather than
+     * {@link Note#SAMPLE_RATE}, since the {@code Note} constants are generated before that field is set.
+     */
+    private static final int SAMPLE_RATE = OutputFormat.sampleRate();
+
+    /** How the samples are stored, read from the {@link OutputFormat} for the same reason as the rate. */
+    private static final SampleEncoding ENCODING = OutputFormat.encoding();
+
+    // Circumference of a circle divided by # of samples
+    /** The angular step size per sample, used for waveform generation. */
+    private static final double STEP_ALPHA = (2.0d * Math.PI) / SAMPLE_RATE;
+
+    /** Lowest frequency, in Hz, a bell can be tuned to. */
+    private static final double MIN_FREQUENCY_HZ = 20.0d;
+
+    /** Samples created for pitches that aren't {@link Note} constants, keyed by semitone. */
+    private static final Map<Integer, byte[]> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private ToneCache() {
+        //empty
+    }
+
+    /**
+     * Returns the frequency, in Hz, of the given semitone, using the twelve-tone equal temperament formula.
+     *
+     * @param semitone The semitone value relative to A4 (where A4=1).
+     * @return The frequency of the semitone.
+     */
+    public static double frequency(int semitone) {
+        final double halfStepUpFromA = semitone - 1;
+        final double exp = halfStepUpFromA / 12.0d;
+        return FREQUENCY_A_HZ * Math.pow(2.0d, exp);
+    }
+
+    /**
+     * Returns whether the given semitone can be played. It must be audible and below half the
+     * {@link Note#SAMPLE_RATE sample rate}, otherwise its sample can't be represented.
+     *
+     * @param semitone The semitone value relative to A4 (where A4=1).
+     * @return {@code true} if the semitone can be played.
+     */
+    public static boolean isPlayable(int semitone) {
+        final double freq = frequency(semitone);
+        return freq >= MIN_FREQUENCY_HZ && freq < SAMPLE_RATE / 2.0d;
+    }
+
+    /**
+     * Creates a single measure of a sine wave sample for the given semitone, in the device's encoding.
+     *
+     * @param semitone The semitone value relative to A4 (where A4=1).
+     * @return A new array of bytes holding the sample.
+     */
+    public static byte[] generate(int semitone) {
+        return generate(semitone, ENCODING);
+    }
+
+    /**
+     * Creates a single measure of a sine wave sample for the given semitone, in the given encoding.
+     *
+     * @param semitone The semitone value relative to A4 (where A4=1).
+     * @param encoding How the samples are stored.
+     * @return A new array of bytes holding the sample.
+     */
+    public static byte[] generate(int semitone, SampleEncoding encoding) {
+        final byte[] sample = silence(encoding);
+
+        // Create sinusoidal data sample for the desired frequency
+        final double sinStep = frequency(semitone) * STEP_ALPHA;
+        encoding.sine(sample, 0, sample.length / encoding.getBytes(), sinStep, MAX_VOLUME);
+        return sample;
+    }
+
+    /**
+     * Creates a single measure of silence, the sample of rests, in the device's encoding.
+     *
+     * @return A new array of zero bytes.
+     */
+    public static byte[] silence() {
+        return silence(ENCODING);
+    }
+
+    /**
+     * Creates a single measure of silence in the given encoding.
+     *
+     * @param encoding How the samples are stored.
+     * @return A new array of zero bytes.
+     */
+    public static byte[] silence(SampleEncoding encoding) {
+        return new byte[Note.MEASURE_LENGTH_SEC * SAMPLE_RATE * encoding.getBytes()];
+    }
+
+    /**
+     * Returns the sample for the given semitone. If the semitone is one of the {@link Note} constants, the
+     * constant's sample is used, otherwise the sample is created the first time it's asked for and cached.
+     *
+     * @param semitone The semitone value relative to A4 (where A4=1).
+     * @return An array of bytes representing a single measure of the semitone's sine wave.
+     * @throws IllegalArgumentException If the semitone {@link #isPlayable(int) can't be played}.
+     */
+    public static byte[] sample(int semitone) {
+        final Note note = Note.fromSemitone(semitone);
+        if (note != Note.INVALID) {
+            return note.sample();
+        }
+        if (!isPlayable(semitone)) {
+            throw new IllegalArgumentException("Semitone " + semitone + " is outside the range bells can be played in");
+        }
+        return cache.computeIfAbsent(semitone, ToneCache::generate);
+    }
+}
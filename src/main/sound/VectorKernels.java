@@ -0,0 +1,220 @@
+package main.sound;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteOrder;
+
+/**
+ * {@link SampleKernels} written with the {@code jdk.incubator.vector} module, handling as many samples per
+ * instruction as the CPU allows. Samples are loaded as bytes, or as shorts in the byte order asked for, widened
+ * to doubles or ints to do the math, then narrowed back. The tail of each range that doesn't fill a whole vector is finished with the
+ * {@link ScalarKernels}, so both always give the same results, except that the vector sine can be off by one
+ * in the odd sample where rounding lands differently.
+ *
+ * <p>Only loaded by {@link SampleKernels#vector()}, when the module is available.</p>
+ */
+final class VectorKernels implements SampleKernels {
+    /** Doubles handled per vector, used for the sine wave. */
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /** Ints handled per vector, used for gain and clipping. */
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * Bytes handled per vector. At least as many as {@link #DOUBLES} and {@link #INTS}, and never smaller than
+     * the smallest vector, 64 bits.
+     */
+    private static final VectorSpecies<Byte> BYTES =
+            VectorSpecies.of(byte.class, VectorShape.forBitSize(Math.max(64, INTS.length() * 8)));
+
+    /** Shorts handled per vector, one for each lane of {@link #INTS}, and never smaller than 64 bits. */
+    private static final VectorSpecies<Short> SHORTS =
+            VectorSpecies.of(short.class, VectorShape.forBitSize(Math.max(64, INTS.length() * 16)));
+
+    /** Lane numbers 0, 1, 2 ... of a double vector, used to find the angle of each sample. */
+    private static final DoubleVector LANES = DoubleVector.fromArray(DOUBLES, iota(DOUBLES.length()), 0);
+
+    /**
+     * Constructs a new {@code VectorKernels}, only called by {@link SampleKernels#vector()}.
+     */
+    VectorKernels() {
+        //empty
+    }
+
+    /**
+     * Returns the numbers 0 to {@code n - 1}.
+     *
+     * @param n How many numbers to return.
+     * @return The numbers.
+     */
+    private static double[] iota(int n) {
+        final double[] iota = new double[n];
+        for (int i = 0; i < n; i++) {
+            iota[i] = i;
+        }
+        return iota;
+    }
+
+    @Override
+    public void sine(byte[] dst, int off, int len, double step, double amplitude) {
+        final int parts = BYTES.length() / DOUBLES.length();
+        final int bound = len - len % BYTES.length();
+        final DoubleVector steps = LANES.mul(step);
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            // Each double vector fills its own block of lanes in the byte vector
+            ByteVector bytes = ByteVector.zero(BYTES);
+            for (int p = 0; p < parts; p++) {
+                final DoubleVector wave = steps.add((i + p * DOUBLES.length()) * step)
+                        .lanewise(VectorOperators.SIN)
+                        .mul(amplitude);
+                bytes = bytes.or((ByteVector) wave.convertShape(VectorOperators.D2B, BYTES, -p));
+            }
+            bytes.intoArray(dst, off + i);
+        }
+
+        // Finish the tail a sample at a time, keeping the angle counted from the start of the range
+        for (; i < len; i++) {
+            dst[off + i] = (byte) (Math.sin(i * step) * amplitude);
+        }
+    }
+
+    @Override
+    public void mix(byte[] src, int srcOff, int len, float gain, int[] acc, int accOff) {
+        final int g = SampleKernels.fixedGain(gain);
+        final int parts = BYTES.length() / INTS.length();
+        final int bound = len - len % BYTES.length();
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            final ByteVector bytes = ByteVector.fromArray(BYTES, src, srcOff + i);
+            for (int p = 0; p < parts; p++) {
+                final int at = accOff + i + p * INTS.length();
+                final IntVector scaled = ((IntVector) bytes.convertShape(VectorOperators.B2I, INTS, p))
+                        .mul(g)
+                        .lanewise(VectorOperators.ASHR, GAIN_FRACTION_BITS);
+                IntVector.fromArray(INTS, acc, at).add(scaled).intoArray(acc, at);
+            }
+        }
+        ScalarKernels.INSTANCE.mix(src, srcOff + i, len - i, gain, acc, accOff + i);
+    }
+
+    @Override
+    public void clip(int[] acc, byte[] out, int len) {
+        final int parts = BYTES.length() / INTS.length();
+        final int bound = len - len % BYTES.length();
+        final IntVector zero = IntVector.zero(INTS);
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            ByteVector bytes = ByteVector.zero(BYTES);
+            for (int p = 0; p < parts; p++) {
+                final int at = i + p * INTS.length();
+                final IntVector clipped = IntVector.fromArray(INTS, acc, at)
+                        .max(Byte.MIN_VALUE)
+                        .min(Byte.MAX_VALUE);
+                bytes = bytes.or((ByteVector) clipped.convertShape(VectorOperators.I2B, BYTES, -p));
+                zero.intoArray(acc, at);
+            }
+            bytes.intoArray(out, i);
+        }
+
+        // The scalar kernel starts at index 0, so clip the tail here
+        for (; i < len; i++) {
+            out[i] = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, acc[i]));
+            acc[i] = 0;
+        }
+    }
+
+    @Override
+    public void sine16(byte[] dst, int off, int len, double step, double amplitude, boolean bigEndian) {
+        final ByteOrder order = order(bigEndian);
+        final int parts = SHORTS.length() / DOUBLES.length();
+        final int bound = len - len % SHORTS.length();
+        final DoubleVector steps = LANES.mul(step);
+        int i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector shorts = ShortVector.zero(SHORTS);
+            for (int p = 0; p < parts; p++) {
+                final DoubleVector wave = steps.add((i + p * DOUBLES.length()) * step)
+                        .lanewise(VectorOperators.SIN)
+                        .mul(amplitude);
+                shorts = shorts.or((ShortVector) wave.convertShape(VectorOperators.D2S, SHORTS, -p));
+            }
+            shorts.intoByteArray(dst, off + 2 * i, order);
+        }
+
+        for (; i < len; i++) {
+            ScalarKernels.setShort(dst, off + 2 * i, (int) (Math.sin(i * step) * amplitude), bigEndian);
+        }
+    }
+
+    @Override
+    public void mix16(byte[] src, int srcOff, int len, float gain, int[] acc, int accOff, boolean bigEndian) {
+        // A 16 bit sample times a gain above 1 doesn't fit in an int, so the whole and fraction parts of the gain
+        // are applied separately, which gives exactly (sample * g) >> GAIN_FRACTION_BITS
+        final int g = SampleKernels.fixedGain(gain);
+        final int whole = g >> GAIN_FRACTION_BITS;
+        final int fraction = g & ((1 << GAIN_FRACTION_BITS) - 1);
+        final ByteOrder order = order(bigEndian);
+        final int parts = SHORTS.length() / INTS.length();
+        final int bound = len - len % SHORTS.length();
+        int i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            final ShortVector shorts = ShortVector.fromByteArray(SHORTS, src, srcOff + 2 * i, order);
+            for (int p = 0; p < parts; p++) {
+                final int at = accOff + i + p * INTS.length();
+                final IntVector samples = (IntVector) shorts.convertShape(VectorOperators.S2I, INTS, p);
+                final IntVector scaled = samples.mul(whole)
+                        .add(samples.mul(fraction).lanewise(VectorOperators.ASHR, GAIN_FRACTION_BITS));
+                IntVector.fromArray(INTS, acc, at).add(scaled).intoArray(acc, at);
+            }
+        }
+        ScalarKernels.INSTANCE.mix16(src, srcOff + 2 * i, len - i, gain, acc, accOff + i, bigEndian);
+    }
+
+    @Override
+    public void clip16(int[] acc, byte[] out, int len, boolean bigEndian) {
+        final ByteOrder order = order(bigEndian);
+        final int parts = SHORTS.length() / INTS.length();
+        final int bound = len - len % SHORTS.length();
+        final IntVector zero = IntVector.zero(INTS);
+        int i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector shorts = ShortVector.zero(SHORTS);
+            for (int p = 0; p < parts; p++) {
+                final int at = i + p * INTS.length();
+                final IntVector clipped = IntVector.fromArray(INTS, acc, at)
+                        .max(Short.MIN_VALUE)
+                        .min(Short.MAX_VALUE);
+                shorts = shorts.or((ShortVector) clipped.convertShape(VectorOperators.I2S, SHORTS, -p));
+                zero.intoArray(acc, at);
+            }
+            shorts.intoByteArray(out, 2 * i, order);
+        }
+
+        for (; i < len; i++) {
+            ScalarKernels.setShort(out, 2 * i, Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, acc[i])), bigEndian);
+            acc[i] = 0;
+        }
+    }
+
+    /**
+     * Returns the byte order of 16 bit samples.
+     *
+     * @param bigEndian Whether the high byte of each sample comes first.
+     * @return The byte order.
+     */
+    private static ByteOrder order(boolean bigEndian) {
+        return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + DOUBLES.vectorBitSize() + " bit)";
+    }
+}
@@ -0,0 +1,43 @@
+package main.sound;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Clock} that only moves when it's told to, usually by a {@link VirtualSink} waiting for the device it
+ * simulates to play its audio. Work done between those moves takes no time at all, so a song played against a
+ * virtual clock lasts exactly as long as its audio, however long the computer took to play it.
+ */
+public class VirtualClock implements Clock {
+    /** The current time, in nanoseconds. */
+    private final AtomicLong nanos = new AtomicLong();
+
+    /**
+     * Constructs a new {@code VirtualClock} starting at 0.
+     */
+    public VirtualClock() {
+        //empty
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos.get();
+    }
+
+    /**
+     * Moves the clock forward to the given time. The clock never moves back, so a time already passed is ignored.
+     *
+     * @param time The time, in nanoseconds.
+     */
+    public void advanceTo(long time) {
+        nanos.accumulateAndGet(time, Math::max);
+    }
+
+    /**
+     * Moves the clock forward by the given time, as if a thread had slept for it.
+     *
+     * @param duration The time, in nanoseconds.
+     */
+    public void advance(long duration) {
+        nanos.addAndGet(Math.max(0, duration));
+    }
+}
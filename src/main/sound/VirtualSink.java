@@ -0,0 +1,230 @@
+package main.sound;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link SampleSink} that simulates a device playing at {@link Note#SAMPLE_RATE} against a {@link VirtualClock},
+ * so the choir can play a song, with all its threads, much faster than the song lasts.
+ *
+ * <p>Like a real line, the sink holds a buffer of audio waiting to be played, and a write that doesn't fit has to
+ * wait for the device to play some of it. Instead of sleeping, the sink moves the virtual clock forward to the time
+ * the device would have made room. If the clock has moved past the end of the audio before the next write, the
+ * device ran dry, which is counted as an underrun, and the next write starts playing straight away.</p>
+ *
+ * <p>The device plays one byte as one sample, the legacy 8 bit mono format the choir plays in when no device
+ * format has been {@link OutputFormat#select selected}.</p>
+ *
+ * <p>Every write is kept as an {@link Onset}: the sample it starts playing at, on the device's timeline, and the
+ * thread that wrote it. Members write each note in one go, so the onsets are the song's note onsets, and the same
+ * song always gives the same onsets, which makes them easy to assert on. A sink that plays for a long time, such as
+ * in the {@link main.SoakHarness}, can leave the onsets out, so writing to it never allocates.</p>
+ */
+public class VirtualSink implements SampleSink {
+    /**
+     * A write to the sink, and when it plays.
+     */
+    public static class Onset {
+        /** Sample, from the time the sink was opened, the write starts playing at. */
+        private final long sample;
+
+        /** Number of bytes written. */
+        private final int length;
+
+        /** Name of the thread that wrote it. */
+        private final String writer;
+
+        /**
+         * Constructs a new {@code Onset}.
+         *
+         * @param sample Sample the write starts playing at.
+         * @param length Number of bytes written.
+         * @param writer Name of the thread that wrote it.
+         */
+        private Onset(long sample, int length, String writer) {
+            this.sample = sample;
+            this.length = length;
+            this.writer = writer;
+        }
+
+        /**
+         * Returns the sample, from the time the sink was opened, the write starts playing at.
+         *
+         * @return The sample.
+         */
+        public long getSample() {
+            return sample;
+        }
+
+        /**
+         * Returns the time, in milliseconds from the time the sink was opened, the write starts playing at.
+         *
+         * @return The time in milliseconds.
+         */
+        public double getMs() {
+            return sample * 1000.0 / Note.SAMPLE_RATE;
+        }
+
+        /**
+         * Returns the number of bytes written.
+         *
+         * @return The number of bytes.
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Returns the name of the thread that wrote it.
+         *
+         * @return The thread's name.
+         */
+        public String getWriter() {
+            return writer;
+        }
+    }
+
+    /** The clock moved forward while waiting for the device. */
+    private final VirtualClock clock;
+
+    /** Number of bytes that can be waiting to be played before writes wait. */
+    private final long bufferBytes;
+
+    /** Every write, in the order it was made. */
+    private final List<Onset> onsets = new ArrayList<>();
+
+    /** Whether writes are kept in {@link #onsets}. */
+    private final boolean keepOnsets;
+
+    /** Sample of the clock, counted from when the sink was opened, the device will have played everything at. */
+    private long freeAt = 0;
+
+    /** Time, on the clock, the sink was opened. */
+    private long openNanos = 0;
+
+    /** Number of bytes written. */
+    private long written = 0;
+
+    /** Number of times the device ran dry between writes. */
+    private int underruns = 0;
+
+    /**
+     * Constructs a new {@code VirtualSink} that keeps every write as an {@link Onset}.
+     *
+     * @param clock    The clock to move forward while waiting for the device.
+     * @param bufferMs Length of audio, in milliseconds, that can be waiting to be played before writes wait.
+     */
+    public VirtualSink(VirtualClock clock, int bufferMs) {
+        this(clock, bufferMs, true);
+    }
+
+    /**
+     * Constructs a new {@code VirtualSink}.
+     *
+     * @param clock      The clock to move forward while waiting for the device.
+     * @param bufferMs   Length of audio, in milliseconds, that can be waiting to be played before writes wait.
+     * @param keepOnsets Whether to keep every write as an {@link Onset}, see {@link #getOnsets()}.
+     */
+    public VirtualSink(VirtualClock clock, int bufferMs, boolean keepOnsets) {
+        this.clock = clock;
+        this.bufferBytes = (long) Note.SAMPLE_RATE * bufferMs / 1000;
+        this.keepOnsets = keepOnsets;
+    }
+
+    /**
+     * Starts the device's timeline at the clock's current time.
+     */
+    @Override
+    public synchronized void open() {
+        openNanos = clock.nanoTime();
+        freeAt = 0;
+    }
+
+    /**
+     * Queues the bytes on the device's timeline, then moves the clock forward until no more than a buffer's worth
+     * is left to play.
+     */
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        final long now = now();
+        if (written > 0 && now > freeAt) {
+            underruns++;
+        }
+        final long start = Math.max(now, freeAt);
+        if (keepOnsets) {
+            onsets.add(new Onset(start, len, Thread.currentThread().getName()));
+        }
+        freeAt = start + len;
+        written += len;
+
+        clock.advanceTo(nanosOf(freeAt - bufferBytes));
+    }
+
+    /**
+     * Moves the clock forward until everything written has been played.
+     */
+    @Override
+    public synchronized void drain() {
+        clock.advanceTo(nanosOf(freeAt));
+    }
+
+    /**
+     * Nothing to release.
+     */
+    @Override
+    public void close() {
+        //empty
+    }
+
+    @Override
+    public synchronized int getQueuedBytes() {
+        return (int) Math.max(0, freeAt - now());
+    }
+
+    /**
+     * Returns every write made to the sink, in order.
+     *
+     * @return The writes, empty if the sink doesn't keep them.
+     */
+    public synchronized List<Onset> getOnsets() {
+        return Collections.unmodifiableList(new ArrayList<>(onsets));
+    }
+
+    /**
+     * Returns the number of times the device ran dry between writes.
+     *
+     * @return The number of underruns.
+     */
+    public synchronized int getUnderruns() {
+        return underruns;
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return The number of bytes.
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    /**
+     * Returns the sample of the device's timeline the clock is at now.
+     *
+     * @return The sample.
+     */
+    private long now() {
+        return (clock.nanoTime() - openNanos) * Note.SAMPLE_RATE / 1_000_000_000L;
+    }
+
+    /**
+     * Returns the time on the clock a sample of the device's timeline plays at, rounded up.
+     *
+     * @param sample The sample.
+     * @return The time in nanoseconds.
+     */
+    private long nanosOf(long sample) {
+        return openNanos + Math.floorDiv(sample * 1_000_000_000L + Note.SAMPLE_RATE - 1, Note.SAMPLE_RATE);
+    }
+}
@@ -0,0 +1,106 @@
+package test;
+
+import main.sound.AdaptiveTarget;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code AdaptiveTargetTests} class tests the methods in the {@link main.sound.AdaptiveTarget} class.
+ * <br>
+ * - AdaptiveTarget.beforeChunk
+ * - 3 tests <br>
+ * - AdaptiveTarget.afterChunk
+ * - 2 tests <br>
+ * - AdaptiveTarget.overBytes
+ * - 1 test <br>
+ */
+public class AdaptiveTargetTests {
+    /** Least number of bytes the target can be in every test. */
+    private static final int MIN = 100;
+
+    /** Size of the line's buffer in every test. */
+    private static final int MAX = 1000;
+
+    /**
+     * Writes the given number of chunks without the line running dry.
+     *
+     * @param target The target.
+     * @param chunks Number of chunks.
+     */
+    private void quiet(AdaptiveTarget target, int chunks) {
+        for (int i = 0; i < chunks; i++) {
+            target.beforeChunk(false);
+        }
+    }
+
+    // AdaptiveTarget.beforeChunk tests
+
+    @Test
+    public void testBeforeChunkGrowsOnUnderrun() {
+        final AdaptiveTarget target = new AdaptiveTarget(MIN, MAX, 200);
+        target.beforeChunk(true);
+        assertEquals(400, target.getTargetBytes(), "beforeChunk function should double the target when the line ran dry!");
+        target.beforeChunk(true);
+        target.beforeChunk(true);
+        assertEquals(MAX, target.getTargetBytes(), "beforeChunk function should not grow the target past the buffer!");
+        assertEquals(3, target.getUnderruns(), "beforeChunk function should count every time the line ran dry!");
+    }
+
+    @Test
+    public void testBeforeChunkShrinksWhenQuiet() {
+        final AdaptiveTarget target = new AdaptiveTarget(MIN, MAX, 400);
+        quiet(target, AdaptiveTarget.SHRINK_AFTER_CHUNKS - 1);
+        assertEquals(400, target.getTargetBytes(), "beforeChunk function should not shrink the target too soon!");
+        quiet(target, 1);
+        assertEquals(300, target.getTargetBytes(), "beforeChunk function should shrink the target by a quarter!");
+
+        quiet(target, 10 * AdaptiveTarget.SHRINK_AFTER_CHUNKS);
+        assertEquals(MIN, target.getTargetBytes(), "beforeChunk function should not shrink the target past the least!");
+        assertEquals(0, target.getUnderruns(), "beforeChunk function should not count quiet chunks as running dry!");
+    }
+
+    @Test
+    public void testBeforeChunkUnderrunRestartsQuietCount() {
+        final AdaptiveTarget target = new AdaptiveTarget(MIN, MAX, 400);
+        quiet(target, AdaptiveTarget.SHRINK_AFTER_CHUNKS - 1);
+        target.beforeChunk(true);
+        quiet(target, AdaptiveTarget.SHRINK_AFTER_CHUNKS - 1);
+        assertEquals(800, target.getTargetBytes(), "beforeChunk function should count quiet chunks from the last underrun!");
+        assertEquals(MAX, new AdaptiveTarget(MIN, MAX, 5000).getTargetBytes(),
+                "AdaptiveTarget should not start past the buffer!");
+    }
+
+    // AdaptiveTarget.afterChunk tests
+
+    @Test
+    public void testAfterChunkBlocked() {
+        final AdaptiveTarget target = new AdaptiveTarget(MIN, MAX, 800);
+        target.afterChunk(false, 300);
+        assertEquals(800, target.getTargetBytes(), "afterChunk function should keep the target when the write didn't block!");
+        target.afterChunk(true, 300);
+        assertEquals(300, target.getTargetBytes(), "afterChunk function should drop the target to what's queued!");
+        target.afterChunk(true, 20);
+        assertEquals(MIN, target.getTargetBytes(), "afterChunk function should not drop the target past the least!");
+    }
+
+    @Test
+    public void testAfterChunkBlockedRestartsQuietCount() {
+        final AdaptiveTarget target = new AdaptiveTarget(MIN, MAX, 800);
+        quiet(target, AdaptiveTarget.SHRINK_AFTER_CHUNKS - 1);
+        target.afterChunk(true, 400);
+        quiet(target, AdaptiveTarget.SHRINK_AFTER_CHUNKS - 1);
+        assertEquals(400, target.getTargetBytes(), "afterChunk function should count quiet chunks from the blocked write!");
+        quiet(target, 1);
+        assertEquals(300, target.getTargetBytes(), "afterChunk function should let the target shrink again later!");
+    }
+
+    // AdaptiveTarget.overBytes tests
+
+    @Test
+    public void testOverBytes() {
+        final AdaptiveTarget target = new AdaptiveTarget(MIN, MAX, 400);
+        assertEquals(-200, target.overBytes(100, 100), "overBytes function should leave room for a chunk that fits!");
+        assertEquals(50, target.overBytes(350, 100), "overBytes function should count the bytes past the target!");
+    }
+}
@@ -0,0 +1,182 @@
+package test;
+
+import main.Conductor;
+import main.Member;
+import main.SongGenerator;
+import main.sound.BellNote;
+import main.sound.ChannelLayout;
+import main.sound.Note;
+import main.sound.NoteLength;
+import main.sound.NoteQueue;
+import main.sound.NullSink;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code AllocationTests} class tests the methods in the {@link main.sound.NoteQueue} class, and that the
+ * {@link main.Conductor} and {@link main.Member} play songs without allocating.
+ * <br>
+ * - NoteQueue.add
+ * - 2 tests <br>
+ * - NoteQueue.clear
+ * - 1 test <br>
+ * - Member.playNote
+ * - 1 test <br>
+ * - Conductor.getAllocatedBytes
+ * - 3 tests <br>
+ */
+public class AllocationTests {
+    /**
+     * Most bytes playing a song of {@link #NOTES} notes can allocate. Playing allocates nothing, this only leaves
+     * room for the measurement itself and the odd deoptimized method, which don't grow with the song. A linked queue
+     * allocating a node for each note would allocate about 100KB.
+     */
+    private static final long MAX_ALLOCATED_BYTES = 16 * 1024;
+
+    /** Number of notes in the songs played. */
+    private static final int NOTES = 4000;
+
+    /** Used to measure what the test's thread allocates. */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Plays a generated song into a {@link NullSink}, so it plays as fast as it can.
+     *
+     * @param seed       Seed used to generate the song.
+     * @param maxMembers Max number of members in the choir, or 0 for one member per bell.
+     * @return The conductor, once the song is over.
+     */
+    private Conductor play(long seed, int maxMembers) {
+        return play(seed, maxMembers, 1);
+    }
+
+    /**
+     * Plays a generated song into a {@link NullSink}, with the members spread among the given number of
+     * channels.
+     *
+     * @param seed       Seed used to generate the song.
+     * @param maxMembers Max number of members in the choir, or 0 for one member per bell.
+     * @param channels   Number of channels.
+     * @return The conductor, once the song is over.
+     */
+    private Conductor play(long seed, int maxMembers, int channels) {
+        final List<BellNote> song = new SongGenerator(seed).generate(SongGenerator.Pattern.RANDOM, NOTES);
+        final Conductor conductor = new Conductor(new NullSink(), song, maxMembers);
+        conductor.placeMembers(ChannelLayout.of(channels), ChannelLayout.Placement.BELLS);
+        conductor.playSong();
+        conductor.stop();
+        return conductor;
+    }
+
+    // NoteQueue.add tests
+
+    @Test
+    public void testAddAndPollInOrder() {
+        final NoteQueue queue = new NoteQueue(3);
+        assertEquals(4, queue.capacity(), "NoteQueue should round its capacity up to a power of two!");
+        assertNull(queue.poll(), "poll function should give nothing from an empty queue!");
+
+        // Go around the ring a few times
+        for (int i = 0; i < 10; i++) {
+            final BellNote first = BellNote.ofSemitone(i, NoteLength.QUARTER);
+            final BellNote second = BellNote.ofSemitone(i + 1, NoteLength.HALF);
+            queue.add(first);
+            queue.add(second);
+            assertEquals(2, queue.size(), "add function should count every note added!");
+            assertSame(first, queue.poll(), "poll function should give notes in the order they were added!");
+            assertSame(second, queue.poll(), "poll function should give notes in the order they were added!");
+            assertTrue(queue.isEmpty(), "poll function should take every note out of the queue!");
+        }
+    }
+
+    @Test
+    public void testAddWhenFull() {
+        final NoteQueue queue = new NoteQueue(2);
+        final BellNote note = new BellNote(Note.A4, NoteLength.QUARTER);
+        queue.add(note);
+        queue.add(note);
+        assertThrows(IllegalStateException.class, () -> queue.add(note),
+                "add function should not overwrite notes that haven't been taken!");
+        queue.poll();
+        assertDoesNotThrow(() -> queue.add(note), "add function should reuse the slot of a note that was taken!");
+    }
+
+    // NoteQueue.clear tests
+
+    @Test
+    public void testClear() {
+        final NoteQueue queue = new NoteQueue(4);
+        for (int i = 0; i < 4; i++) {
+            queue.add(new BellNote(Note.A4, NoteLength.QUARTER));
+        }
+        queue.clear();
+        assertTrue(queue.isEmpty(), "clear function should forget every note!");
+        assertNull(queue.poll(), "clear function should forget every note!");
+
+        final BellNote after = new BellNote(Note.C4, NoteLength.EIGHTH);
+        for (int i = 0; i < 4; i++) {
+            queue.add(after);
+        }
+        assertSame(after, queue.poll(), "clear function should make room for a full queue of new notes!");
+    }
+
+    // Member.playNote tests
+
+    @Test
+    public void testPlayNoteAllocatesNothing() {
+        final List<BellNote> song = new SongGenerator(3).generate(SongGenerator.Pattern.RANDOM, NOTES);
+        final Member member = new Member(1, new NullSink());
+
+        // The first pass warms everything up, the second is measured
+        long allocated = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            final long before = THREADS.getCurrentThreadAllocatedBytes();
+            for (BellNote b : song) {
+                member.addNote(b);
+                member.playNote(b);
+            }
+            allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        }
+        assertTrue(allocated < MAX_ALLOCATED_BYTES,
+                "playNote function should not allocate, allocated " + allocated + " bytes for " + song.size() +
+                        " notes!");
+    }
+
+    // Conductor.getAllocatedBytes tests
+
+    @Test
+    public void testPlaySongAllocatesNothing() {
+        // The first song warms everything up, the second is measured
+        play(5, 0);
+        final long allocated = play(6, 0).getAllocatedBytes();
+        assertTrue(allocated >= 0, "getAllocatedBytes function should measure what was allocated!");
+        assertTrue(allocated < MAX_ALLOCATED_BYTES,
+                "playSong function should not allocate, allocated " + allocated + " bytes for " + NOTES + " notes!");
+    }
+
+    @Test
+    public void testPlaySongChangingBellsAllocatesNothing() {
+        // Few ringers, so members change bells all through the song
+        play(8, 2);
+        final long allocated = play(9, 2).getAllocatedBytes();
+        assertTrue(allocated >= 0, "getAllocatedBytes function should measure what was allocated!");
+        assertTrue(allocated < MAX_ALLOCATED_BYTES,
+                "playSong function should not allocate while members change bells, allocated " + allocated +
+                        " bytes for " + NOTES + " notes!");
+    }
+
+    @Test
+    public void testPlaySongPannedAllocatesNothing() {
+        // Members are panned around a ring of speakers, each bell from its own spot
+        play(10, 2, 4);
+        final long allocated = play(11, 2, 4).getAllocatedBytes();
+        assertTrue(allocated < MAX_ALLOCATED_BYTES,
+                "playSong function should not allocate while panning members, allocated " + allocated +
+                        " bytes for " + NOTES + " notes!");
+    }
+}
@@ -0,0 +1,220 @@
+package test;
+
+import main.Conductor;
+import main.sound.BellNote;
+import main.sound.ChannelLayout;
+import main.sound.Note;
+import main.sound.NoteLength;
+import main.sound.Panner;
+import main.sound.SampleEncoding;
+import main.sound.StreamSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code ChannelLayoutTests} class tests the methods in the {@link main.sound.ChannelLayout} and
+ * {@link main.sound.Panner} classes, and the {@link main.Conductor} method that uses them.
+ * <br>
+ * - Panner.interleave
+ * - 3 tests <br>
+ * - ChannelLayout.at
+ * - 2 tests <br>
+ * - ChannelLayout.of
+ * - 1 test <br>
+ * - Conductor.placeMembers
+ * - 2 tests <br>
+ */
+public class ChannelLayoutTests {
+    /** Most a gain can be off by from what's expected. */
+    private static final float DELTA = 1e-6f;
+
+    /**
+     * Returns the gains of every channel of the given panner.
+     *
+     * @param panner The panner.
+     * @return The gains.
+     */
+    private float[] gains(Panner panner) {
+        final float[] gains = new float[panner.getChannels()];
+        for (int c = 0; c < gains.length; c++) {
+            gains[c] = panner.getGain(c);
+        }
+        return gains;
+    }
+
+    /**
+     * Returns the total power of the given panner's gains, 1.0 for a member as loud as in mono.
+     *
+     * @param panner The panner.
+     * @return The sum of the squares of the gains.
+     */
+    private double power(Panner panner) {
+        double power = 0;
+        for (float gain : gains(panner)) {
+            power += gain * gain;
+        }
+        return power;
+    }
+
+    /**
+     * Plays a song with the members placed among the given layout's channels, written to a stream.
+     *
+     * @param song      The song.
+     * @param layout    The layout, the song is played in mono if it has one channel.
+     * @param placement What members are placed by.
+     * @return The samples written.
+     */
+    private byte[] play(List<BellNote> song, ChannelLayout layout, ChannelLayout.Placement placement) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Conductor conductor = new Conductor(new StreamSink(out), song);
+        conductor.placeMembers(layout, placement);
+        conductor.playSong();
+        conductor.stop();
+        return out.toByteArray();
+    }
+
+    // Panner.interleave tests
+
+    @Test
+    public void testInterleaveStereo() {
+        final Panner panner = new Panner(1.0f, 0.5f);
+        final byte[] frames = new byte[10];
+        final int written = panner.interleave(new byte[]{9, 100, -100, 0, 127}, 1, 4, frames, 2);
+
+        assertEquals(8, written, "interleave function should write a sample for each channel of each frame!");
+        assertArrayEquals(new byte[]{0, 0, 100, 50, -100, -50, 0, 0, 127, 64}, frames,
+                "interleave function should scale each channel's sample by its gain!");
+    }
+
+    @Test
+    public void testInterleaveManyChannels() {
+        final Panner panner = new Panner(0.0f, 1.0f, 0.25f);
+        final byte[] frames = new byte[6];
+        panner.interleave(new byte[]{-128, 40}, 0, 2, frames, 0);
+
+        assertArrayEquals(new byte[]{0, -128, -32, 0, 40, 10}, frames,
+                "interleave function should scale each channel's sample by its gain!");
+        assertThrows(IllegalArgumentException.class, () -> new Panner(1.5f),
+                "Panner should not take a gain above 1!");
+        assertThrows(IllegalArgumentException.class, Panner::new, "Panner should need at least one channel!");
+    }
+
+    @Test
+    public void testInterleaveSixteenBit() {
+        final Panner panner = new Panner(SampleEncoding.SIGNED_16_LE, 1.0f, 0.5f);
+        final byte[] mono = new byte[4];
+        SampleEncoding.SIGNED_16_LE.set(mono, 0, 1000);
+        SampleEncoding.SIGNED_16_LE.set(mono, 2, -32768);
+        final byte[] frames = new byte[8];
+
+        assertEquals(8, panner.interleave(mono, 0, mono.length, frames, 0),
+                "interleave function should write two bytes for each channel of each frame!");
+        assertEquals(4, panner.getFrameBytes(), "getFrameBytes function should count both bytes of each sample!");
+        assertArrayEquals(new int[]{1000, 500, -32768, -16384},
+                new int[]{SampleEncoding.SIGNED_16_LE.get(frames, 0), SampleEncoding.SIGNED_16_LE.get(frames, 2),
+                        SampleEncoding.SIGNED_16_LE.get(frames, 4), SampleEncoding.SIGNED_16_LE.get(frames, 6)},
+                "interleave function should scale each channel's 16 bit sample by its gain!");
+
+        final Panner bigEndian = new Panner(SampleEncoding.SIGNED_16_BE, 0.25f, 1.0f, 0.5f);
+        final byte[] surround = new byte[6];
+        bigEndian.interleave(new byte[]{0x10, 0x00}, 0, 2, surround, 0);
+        assertArrayEquals(new byte[]{0x04, 0x00, 0x10, 0x00, 0x08, 0x00}, surround,
+                "interleave function should keep big-endian samples high byte first!");
+    }
+
+    // ChannelLayout.at tests
+
+    @Test
+    public void testAtStereo() {
+        final ChannelLayout stereo = ChannelLayout.of(2);
+        assertArrayEquals(new float[]{1.0f, 0.0f}, gains(stereo.at(0.0)), DELTA,
+                "at function should play a member at 0 through the left channel!");
+        assertArrayEquals(new float[]{0.0f, 1.0f}, gains(stereo.at(1.0)), DELTA,
+                "at function should play a member at 1 through the right channel!");
+
+        final Panner centre = stereo.at(0.5);
+        assertEquals(centre.getGain(0), centre.getGain(1), DELTA,
+                "at function should play a member in the centre equally through both channels!");
+        for (double position = 0; position <= 1.0; position += 0.1) {
+            assertEquals(1.0, power(stereo.at(position)), DELTA,
+                    "at function should keep a member as loud wherever it's placed!");
+        }
+        assertArrayEquals(new float[]{0.0f, 1.0f}, gains(stereo.spread(2, 3)), DELTA,
+                "spread function should place the last member hard right!");
+    }
+
+    @Test
+    public void testAtRing() {
+        final ChannelLayout ring = ChannelLayout.of(4);
+        assertArrayEquals(new float[]{0.0f, 1.0f, 0.0f, 0.0f}, gains(ring.at(0.25)), DELTA,
+                "at function should play a member at a speaker only through that speaker!");
+
+        final float[] between = gains(ring.at(0.125));
+        assertEquals(between[0], between[1], DELTA,
+                "at function should play a member between two speakers equally through both!");
+        assertEquals(0.0f, between[2] + between[3], DELTA,
+                "at function should play a member between two speakers through those speakers only!");
+
+        final float[] wrapped = gains(ring.at(0.875));
+        assertEquals(wrapped[3], wrapped[0], DELTA,
+                "at function should wrap a member past the last speaker around to the first!");
+        for (double position = 0; position < 1.0; position += 0.05) {
+            assertEquals(1.0, power(ring.at(position)), DELTA,
+                    "at function should keep a member as loud wherever it's placed!");
+        }
+        assertArrayEquals(new float[]{0.0f, 1.0f, 0.0f, 0.0f}, gains(ring.onChannel(5)), DELTA,
+                "onChannel function should wrap channels around the ring!");
+    }
+
+    // ChannelLayout.of tests
+
+    @Test
+    public void testOfOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> ChannelLayout.of(0),
+                "of function should need at least one channel!");
+        assertThrows(IllegalArgumentException.class, () -> ChannelLayout.of(ChannelLayout.MAX_CHANNELS + 1),
+                "of function should not take more than the max channels!");
+        assertEquals(ChannelLayout.MAX_CHANNELS, ChannelLayout.of(ChannelLayout.MAX_CHANNELS).getChannels(),
+                "of function should take the max channels!");
+    }
+
+    // Conductor.placeMembers tests
+
+    @Test
+    public void testPlaceMembersOnChannels() {
+        final List<BellNote> song = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            song.add(new BellNote(Note.A4, NoteLength.EIGHTH));
+            song.add(new BellNote(Note.C4, NoteLength.EIGHTH));
+        }
+        final byte[] mono = play(song, ChannelLayout.of(1), ChannelLayout.Placement.CHANNELS);
+        final byte[] stereo = play(song, ChannelLayout.of(2), ChannelLayout.Placement.CHANNELS);
+        assertEquals(mono.length * 2, stereo.length, "placeMembers function should write a frame for each sample!");
+
+        // A4 is played by the first member through the left channel, C4 by the second through the right
+        final int noteBytes = mono.length / song.size();
+        for (int i = 0; i < mono.length; i++) {
+            final byte left = stereo[2 * i];
+            final byte right = stereo[2 * i + 1];
+            assertEquals(mono[i], left + right, "placeMembers function should play every sample once!");
+            assertEquals(0, (i / noteBytes) % 2 == 0 ? right : left,
+                    "placeMembers function should play each member through its own channel only!");
+        }
+    }
+
+    @Test
+    public void testPlaceMembersAfterStart() {
+        final List<BellNote> song = List.of(new BellNote(Note.A4, NoteLength.EIGHTH));
+        final Conductor conductor = new Conductor(new StreamSink(new ByteArrayOutputStream()), song);
+        conductor.playSong();
+        assertThrows(IllegalStateException.class,
+                () -> conductor.placeMembers(ChannelLayout.of(2), ChannelLayout.Placement.MEMBERS),
+                "placeMembers function should not place members once the song is playing!");
+        conductor.stop();
+    }
+}
@@ -0,0 +1,205 @@
+package test;
+
+import main.ChoirNode;
+import main.ClockSync;
+import main.DistributedChoir;
+import main.SongReader;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteRenderer;
+import main.sound.StreamSink;
+import main.sound.TimingIndex;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code DistributedChoirTests} class tests the methods in the {@link main.ClockSync},
+ * {@link main.DistributedChoir} and {@link main.ChoirNode} classes.
+ * <br>
+ * - ClockSync.add
+ * - 2 tests <br>
+ * - ClockSync.toRemote
+ * - 1 test <br>
+ * - DistributedChoir.play
+ * - 2 tests <br>
+ */
+public class DistributedChoirTests {
+    /** Song played by the choir in every test. */
+    private static final String SONG = "MaryLamb.txt";
+
+    /**
+     * Returns what the nodes should write between them: each note's tone at the sample it starts at.
+     *
+     * @param song The song.
+     * @return The samples of the whole song.
+     */
+    private byte[] timelineOf(List<BellNote> song) {
+        final TimingIndex index = new TimingIndex(song);
+        final byte[] timeline = new byte[(int) index.getLengthSamples()];
+        final byte[] tone = new byte[NoteRenderer.MAX_NOTE_BYTES];
+        int end = 0;
+        for (int i = 0; i < song.size(); i++) {
+            if (song.get(i).getNote() == Note.REST) {
+                continue;
+            }
+            final int at = (int) index.sampleOf(i);
+            NoteRenderer.render(song.get(i), tone, 0);
+            final int len = NoteRenderer.toneBytes(song.get(i).getLength());
+            System.arraycopy(tone, 0, timeline, at, len);
+            end = at + len;
+        }
+        return Arrays.copyOf(timeline, end);
+    }
+
+    /**
+     * Adds up what each node wrote, each starting at the start of the song.
+     *
+     * @param outputs What each node wrote.
+     * @return The samples of every node together.
+     */
+    private byte[] mix(List<byte[]> outputs) {
+        int length = 0;
+        for (byte[] output : outputs) {
+            length = Math.max(length, output.length);
+        }
+        final byte[] mixed = new byte[length];
+        for (byte[] output : outputs) {
+            for (int i = 0; i < output.length; i++) {
+                mixed[i] += output[i];
+            }
+        }
+        return mixed;
+    }
+
+    // ClockSync.add tests
+
+    @Test
+    public void testAddEstimatesOffset() {
+        final ClockSync clock = new ClockSync();
+        // 50ns there and 60ns back, with the remote clock 1000ns ahead and 10ns spent answering
+        clock.add(100, 1150, 1160, 220);
+        assertEquals(110, clock.getRoundTripNanos(), "add function should not count the time spent answering!");
+        assertEquals(995, clock.getOffsetNanos(), "add function should be off by at most half the round trip!");
+    }
+
+    @Test
+    public void testAddKeepsShortestRoundTrip() {
+        final ClockSync clock = new ClockSync();
+        clock.add(0, 1500, 1500, 1000);
+        clock.add(2000, 3010, 3010, 2020);
+        clock.add(4000, 5400, 5400, 4900);
+        assertEquals(3, clock.getSamples(), "add function should count every exchange!");
+        assertEquals(20, clock.getRoundTripNanos(), "add function should keep the shortest round trip!");
+        assertEquals(1000, clock.getOffsetNanos(), "add function should keep the offset of the shortest round trip!");
+    }
+
+    // ClockSync.toRemote tests
+
+    @Test
+    public void testToRemote() {
+        final ClockSync clock = new ClockSync();
+        assertThrows(IllegalStateException.class, () -> clock.toRemote(0),
+                "toRemote function should not guess before any exchange!");
+        clock.add(100, 1150, 1160, 220);
+        assertEquals(1995, clock.toRemote(1000), "toRemote function should add the offset!");
+    }
+
+    // DistributedChoir.play tests
+
+    @Test
+    public void testPlayWithNodeThreads() throws Exception {
+        final List<BellNote> song = new SongReader().readFile(SONG);
+        final List<ByteArrayOutputStream> outputs = List.of(new ByteArrayOutputStream(), new ByteArrayOutputStream());
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> failures = new ArrayList<>();
+
+        try (ServerSocket server = new ServerSocket(0, 2, InetAddress.getLoopbackAddress())) {
+            for (ByteArrayOutputStream output : outputs) {
+                final Thread thread = new Thread(() -> {
+                    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+                        new ChoirNode(socket, new StreamSink(output)).run();
+                    } catch (Exception e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+
+            final DistributedChoir choir = new DistributedChoir(server);
+            choir.accept(outputs.size());
+            choir.play(song);
+            assertEquals(DistributedChoir.SYNC_ROUNDS, choir.getClock(1).getSamples(),
+                    "play function should synchronize with every node!");
+            choir.close();
+            for (Thread thread : threads) {
+                thread.join(10_000);
+            }
+            assertTrue(failures.isEmpty(), "play function should not fail any node! " + failures);
+        }
+
+        final List<byte[]> written = new ArrayList<>();
+        for (ByteArrayOutputStream output : outputs) {
+            assertTrue(output.size() > 0, "play function should give every node some bells!");
+            written.add(output.toByteArray());
+        }
+        assertArrayEquals(timelineOf(song), mix(written),
+                "play function should put every note on the shared timeline exactly once!");
+    }
+
+    @Test
+    public void testPlayWithNodeProcesses() throws Exception {
+        final List<BellNote> song = new SongReader().readFile(SONG);
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        final List<Path> files = List.of(Files.createTempFile("bellchoir", ".raw"),
+                Files.createTempFile("bellchoir", ".raw"));
+        final List<Process> processes = new ArrayList<>();
+
+        try (ServerSocket server = new ServerSocket(0, 2, InetAddress.getLoopbackAddress())) {
+            for (Path file : files) {
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        ChoirNode.class.getName(), "127.0.0.1:" + server.getLocalPort(), "--out=" + file)
+                        .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start());
+            }
+
+            final DistributedChoir choir = new DistributedChoir(server);
+            choir.accept(files.size());
+            choir.play(song);
+            choir.close();
+
+            for (Process process : processes) {
+                assertTrue(process.waitFor(30, TimeUnit.SECONDS), "play function should let every node finish!");
+                assertEquals(0, process.exitValue(), "play function should end every node cleanly!");
+            }
+
+            final List<byte[]> written = new ArrayList<>();
+            for (Path file : files) {
+                written.add(Files.readAllBytes(file));
+            }
+            assertArrayEquals(timelineOf(song), mix(written),
+                    "play function should keep nodes in separate processes on the shared timeline!");
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package test;
+
+import main.LiveInput;
+import main.ParseResult;
+import main.SongReader;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+import main.sound.VirtualClock;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code LiveInputTests} class tests the methods in the {@link main.LiveInput} class, and the
+ * {@link main.SongReader.LineReader} it reads each line with.
+ * <br>
+ * - LiveInput.iterator
+ * - 3 tests <br>
+ * - LiveInput.notePlayed
+ * - 1 test <br>
+ * - SongReader.LineReader.read
+ * - 2 tests <br>
+ */
+public class LiveInputTests {
+    /** Latency budget, in milliseconds, used by every test. */
+    private static final int BUDGET_MS = 50;
+
+    /** Number of lines written when filling up the input, far more than the reader and queue can hold. */
+    private static final int FLOOD_LINES = 10_000;
+
+    /** Time, in milliseconds, to give a blocked sender before checking it's still blocked. */
+    private static final long BLOCKED_WAIT_MS = 200;
+
+    /**
+     * Starts a live input reading the given text.
+     *
+     * @param text The lines sent to the input.
+     * @return The started input.
+     */
+    private LiveInput start(String text) {
+        final LiveInput live = new LiveInput(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), BUDGET_MS);
+        live.start();
+        return live;
+    }
+
+    /**
+     * Writes a line to the given pipe.
+     *
+     * @param out  The pipe.
+     * @param line The line, without its line break.
+     */
+    private void send(PipedOutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    // LiveInput.iterator tests
+
+    @Test
+    public void testIteratorSkipsInvalidLines() {
+        final LiveInput live = start("A4 4\nX9 4\n\nC4 8\nA4 3\nREPEAT\nTRANSPOSE 2\nC4 2\n");
+        final List<BellNote> notes = new ArrayList<>();
+        for (BellNote note : live) {
+            notes.add(note);
+        }
+        assertEquals(List.of(new BellNote(Note.A4, NoteLength.QUARTER), new BellNote(Note.C4, NoteLength.EIGHTH),
+                        new BellNote(Note.C4, NoteLength.HALF, 2)), notes,
+                "iterator function should skip invalid lines and keep playing the lines after them!");
+    }
+
+    @Test
+    public void testIteratorEndsWithInput() {
+        final Iterator<BellNote> notes = start("A4 4").iterator();
+        assertTrue(notes.hasNext(), "iterator function should give a last line without a line break!");
+        assertEquals(new BellNote(Note.A4, NoteLength.QUARTER), notes.next(),
+                "iterator function should give the note on the last line!");
+        assertFalse(notes.hasNext(), "iterator function should end when the input ends!");
+        assertFalse(notes.hasNext(), "iterator function should stay ended!");
+        assertThrows(NoSuchElementException.class, notes::next, "next function should not give a note after the end!");
+    }
+
+    @Test
+    public void testIteratorBackPressure() throws Exception {
+        final PipedInputStream in = new PipedInputStream(64);
+        final PipedOutputStream out = new PipedOutputStream(in);
+        final LiveInput live = new LiveInput(in, BUDGET_MS);
+        live.start();
+
+        final Thread sender = new Thread(() -> {
+            try {
+                for (int i = 0; i < FLOOD_LINES; i++) {
+                    send(out, "A4 8");
+                }
+                out.close();
+            } catch (IOException e) {
+                fail("Sender should be able to write every line!");
+            }
+        });
+        sender.setDaemon(true);
+        sender.start();
+
+        // Nothing is played, so the queue fills up, the reader stops reading and the sender is held back
+        sender.join(BLOCKED_WAIT_MS);
+        assertTrue(sender.isAlive(), "iterator function should stop reading while the queue is full!");
+
+        int played = 0;
+        for (BellNote ignored : live) {
+            played++;
+        }
+        sender.join();
+        assertEquals(FLOOD_LINES, played, "iterator function should give every note once the choir catches up!");
+    }
+
+    // LiveInput.notePlayed tests
+
+    @Test
+    public void testNotePlayedLatency() throws Exception {
+        final VirtualClock clock = new VirtualClock();
+        final PipedInputStream in = new PipedInputStream();
+        final PipedOutputStream out = new PipedOutputStream(in);
+        final LiveInput live = new LiveInput(in, BUDGET_MS, clock);
+        live.start();
+        final Iterator<BellNote> notes = live.iterator();
+
+        // Received at 0, written 30ms later behind 10ms of queued audio
+        send(out, "A4 4");
+        notes.next();
+        live.notePlayed(30_000_000L, 10_000_000L);
+
+        // Received at 1s, written 45ms later behind 10ms of queued audio, over the budget
+        clock.advanceTo(1_000_000_000L);
+        send(out, "C4 4");
+        notes.next();
+        live.notePlayed(1_045_000_000L, 10_000_000L);
+        out.close();
+
+        assertFalse(notes.hasNext(), "iterator function should end when the input ends!");
+        assertEquals(2, live.getNotesPlayed(), "notePlayed function should count every note played!");
+        assertEquals(55.0d, live.getMaxLatencyMs(), 1e-9, "notePlayed function should count the queued audio!");
+        assertEquals(1, live.getOverBudget(), "notePlayed function should count notes over the budget!");
+        assertEquals("Live input: 2 notes, mean latency 47.5ms, max 55.0ms, 1 over the 50ms budget",
+                live.latencySummary(), "latencySummary function should sum up the latency of every note!");
+    }
+
+    // SongReader.LineReader.read tests
+
+    @Test
+    public void testLineReaderDiagnostics() {
+        final SongReader.LineReader reader = new SongReader.LineReader(LiveInput.SOURCE_NAME);
+        assertEquals(List.of(new BellNote(Note.A4, NoteLength.QUARTER)), reader.read("A4 4").getWrittenNotes(),
+                "read function should read a note line!");
+        assertTrue(reader.read("  ").getDiagnostics().isEmpty(), "read function should skip blank lines!");
+
+        final ParseResult invalid = reader.read("  X9 3");
+        assertTrue(invalid.getWrittenNotes().isEmpty(), "read function should not give a note for an invalid line!");
+        assertEquals(List.of("3:3: Unknown note 'X9'", "3:6: Invalid note length '3', expected 1, 2, 4 or 8"),
+                invalid.getDiagnostics().stream().map(ParseResult.Diagnostic::toString).toList(),
+                "read function should report problems by line and column, counting blank lines!");
+    }
+
+    @Test
+    public void testLineReaderDirectives() {
+        final SongReader.LineReader reader = new SongReader.LineReader(LiveInput.SOURCE_NAME);
+        assertTrue(reader.read("TRANSPOSE -2").getWrittenNotes().isEmpty(), "read function should read TRANSPOSE!");
+        assertEquals(List.of(new BellNote(Note.A4, NoteLength.QUARTER, -2)), reader.read("A4 4").getWrittenNotes(),
+                "read function should shift the notes after TRANSPOSE!");
+
+        final ParseResult repeat = reader.read("REPEAT 2");
+        assertEquals("3:1: Only TRANSPOSE can be used while playing live, found 'REPEAT'",
+                repeat.getDiagnostics().get(0).toString(),
+                "read function should not play notes again that have already been played!");
+        assertTrue(repeat.getNotes().isEmpty(), "read function should not play anything for a REPEAT!");
+    }
+}
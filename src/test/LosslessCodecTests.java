@@ -0,0 +1,142 @@
+package test;
+
+import main.SongGenerator;
+import main.sound.BellNote;
+import main.sound.LosslessCodec;
+import main.sound.RenderCache;
+import main.sound.SongRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code LosslessCodecTests} class tests the {@link main.sound.LosslessCodec} encoder and decoder, and the
+ * {@link main.sound.RenderCache} built on them. <br>
+ * - Encoder / Decoder
+ * - 5 tests <br>
+ * - RenderCache
+ * - 2 tests <br>
+ */
+public class LosslessCodecTests {
+
+    /**
+     * Compresses the given samples, writing them in uneven pieces to exercise the streaming encoder.
+     *
+     * @param samples The samples.
+     * @return The compressed stream.
+     * @throws IOException Never, the stream is in memory.
+     */
+    private byte[] encode(byte[] samples) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new LosslessCodec.Encoder(bytes)) {
+            int off = 0;
+            int piece = 1;
+            while (off < samples.length) {
+                final int n = Math.min(piece, samples.length - off);
+                out.write(samples, off, n);
+                off += n;
+                piece = piece * 3 + 1;
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses the given stream.
+     *
+     * @param compressed The compressed stream.
+     * @return The samples.
+     * @throws IOException If the stream is corrupt.
+     */
+    private byte[] decode(byte[] compressed) throws IOException {
+        try (InputStream in = new LosslessCodec.Decoder(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    // Encoder / Decoder tests
+
+    @Test
+    public void testRoundTripSong() throws IOException {
+        final List<BellNote> song = new SongGenerator(2).generate(SongGenerator.Pattern.ADVERSARIAL, 300);
+        final byte[] samples = new SongRenderer(song).render();
+        final byte[] compressed = encode(samples);
+        assertArrayEquals(samples, decode(compressed), "Decoder should give back exactly the samples encoded!");
+        assertTrue(compressed.length * 3 < samples.length, "Encoder should compress a rendered song at least 3 times!");
+    }
+
+    @Test
+    public void testRoundTripSilence() throws IOException {
+        final byte[] samples = new byte[LosslessCodec.BLOCK_SAMPLES * 10 + 17];
+        final byte[] compressed = encode(samples);
+        assertArrayEquals(samples, decode(compressed), "Decoder should give back silence!");
+        assertTrue(compressed.length < 100, "Encoder should store silence in a few bytes per block!");
+    }
+
+    @Test
+    public void testRoundTripNoise() throws IOException {
+        final byte[] samples = new byte[LosslessCodec.BLOCK_SAMPLES * 3 + 5];
+        new Random(9).nextBytes(samples);
+        assertArrayEquals(samples, decode(encode(samples)), "Decoder should give back noise that can't be predicted!");
+    }
+
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        assertEquals(0, decode(encode(new byte[0])).length, "Decoder should give back no samples for an empty stream!");
+    }
+
+    @Test
+    public void testDecodeRejectsOtherData() {
+        assertThrows(IOException.class, () -> decode("RIFF....WAVE".getBytes()),
+                "Decoder should reject a stream that isn't compressed!");
+
+        final byte[] truncated = new byte[100];
+        assertThrows(IOException.class, () -> {
+            final byte[] compressed = encode(truncated);
+            decode(Arrays.copyOf(compressed, compressed.length - 1));
+        }, "Decoder should reject a stream that was cut short!");
+    }
+
+    // RenderCache tests
+
+    @Test
+    public void testCacheKey() {
+        final List<BellNote> song = new SongGenerator(4).generate(SongGenerator.Pattern.RANDOM, 50);
+        final List<BellNote> other = new SongGenerator(5).generate(SongGenerator.Pattern.RANDOM, 50);
+        assertEquals(RenderCache.key(song), RenderCache.key(List.copyOf(song)), "key function should be the same for the same song!");
+        assertNotEquals(RenderCache.key(song), RenderCache.key(other), "key function should differ for different songs!");
+    }
+
+    @Test
+    public void testCacheStoresAndOpens() throws IOException {
+        final Path dir = Files.createTempDirectory("RenderCacheTests");
+        try {
+            final List<BellNote> song = new SongGenerator(6).generate(SongGenerator.Pattern.RANDOM, 40);
+            final RenderCache cache = new RenderCache(dir.resolve("cache"));
+            assertFalse(cache.contains(song), "contains function should not find a song never rendered!");
+
+            try (InputStream in = cache.open(song)) {
+                assertArrayEquals(new SongRenderer(song).render(), in.readAllBytes(),
+                        "open function should give back the rendered song!");
+            }
+            assertTrue(cache.contains(song), "contains function should find a song once it's been rendered!");
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
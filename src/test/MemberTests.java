@@ -0,0 +1,149 @@
+package test;
+
+import main.Member;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+import main.sound.NoteRenderer;
+import main.sound.StreamSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code MemberTests} class tests how the {@link main.Member} class renders notes ahead of its turn.
+ * <br>
+ * - Member.run
+ * - 1 test <br>
+ * - Member.playNote
+ * - 3 tests <br>
+ */
+public class MemberTests {
+    /** Longest time, in milliseconds, to wait for a member to render its next notes. */
+    private static final long READY_TIMEOUT_MS = 5000;
+
+    /**
+     * Returns the bytes the given note is rendered to.
+     *
+     * @param note The note.
+     * @return The rendered bytes.
+     */
+    private byte[] rendered(BellNote note) {
+        final byte[] bytes = new byte[NoteRenderer.noteBytes(note.getLength())];
+        NoteRenderer.render(note, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Waits for the member to have the given number of notes ready, failing if it takes too long.
+     *
+     * @param member The member, started.
+     * @param notes  Number of ready notes to wait for.
+     */
+    private void awaitReady(Member member, int notes) throws InterruptedException {
+        final long end = System.currentTimeMillis() + READY_TIMEOUT_MS;
+        while (member.getReadyNotes() != notes && System.currentTimeMillis() < end) {
+            Thread.sleep(1);
+        }
+        assertEquals(notes, member.getReadyNotes(), "Member should render its next notes while waiting for its turn!");
+    }
+
+    // Member.run tests
+
+    @Test
+    public void testRunRendersAhead() throws InterruptedException {
+        final BellNote first = new BellNote(Note.A4, NoteLength.QUARTER);
+        final BellNote second = new BellNote(Note.C4, NoteLength.EIGHTH);
+        final BellNote third = new BellNote(Note.G4, NoteLength.HALF);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Member member = new Member(1, new StreamSink(out));
+        member.addNote(first);
+        member.addNote(second);
+        member.addNote(third);
+        member.start();
+        try {
+            awaitReady(member, Member.LOOKAHEAD_NOTES);
+            assertEquals(0, out.size(), "run function should not write a note before its turn!");
+
+            member.giveTurn(first);
+            assertArrayEquals(rendered(first), out.toByteArray(), "run function should write the note of the turn!");
+            awaitReady(member, 2);
+
+            member.giveTurn(second);
+            member.giveTurn(third);
+            awaitReady(member, 0);
+            assertEquals(rendered(first).length + rendered(second).length + rendered(third).length, out.size(),
+                    "run function should write every note once!");
+        } finally {
+            member.stop();
+        }
+    }
+
+    // Member.playNote tests
+
+    @Test
+    public void testPlayNoteWithoutRenderingAhead() {
+        final BellNote note = new BellNote(Note.A4, NoteLength.QUARTER);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Member member = new Member(1, new StreamSink(out));
+        member.addNote(note);
+        member.playNote(note);
+        assertArrayEquals(rendered(note), out.toByteArray(), "playNote function should render a note not yet ready!");
+        assertEquals(0, member.getReadyNotes(), "playNote function should give the note's buffer back!");
+    }
+
+    @Test
+    public void testPlayNoteDiscardsStale() throws InterruptedException {
+        final BellNote stale = new BellNote(Note.A4, NoteLength.QUARTER);
+        final BellNote jumped = new BellNote(Note.C4, NoteLength.HALF);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Member member = new Member(1, new StreamSink(out));
+        member.addNote(stale);
+        member.addNote(stale);
+        member.addNote(stale);
+        member.start();
+        try {
+            awaitReady(member, Member.LOOKAHEAD_NOTES);
+
+            // The conductor jumps to another point of the song, where the member plays another note
+            member.clear();
+            member.addNote(jumped);
+            member.giveTurn(jumped);
+            assertArrayEquals(rendered(jumped), out.toByteArray(),
+                    "playNote function should throw away notes rendered before a jump!");
+            awaitReady(member, 0);
+        } finally {
+            member.stop();
+        }
+    }
+
+    @Test
+    public void testPlayNoteNotQueued() throws InterruptedException {
+        final BellNote queued = new BellNote(Note.A4, NoteLength.QUARTER);
+        final BellNote asked = new BellNote(Note.G4, NoteLength.EIGHTH);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Member member = new Member(1, new StreamSink(out));
+        member.addNote(queued);
+        member.start();
+        try {
+            awaitReady(member, 1);
+            member.clear();
+            member.giveTurn(asked);
+            assertArrayEquals(rendered(asked), out.toByteArray(),
+                    "playNote function should render the note asked for when it wasn't queued!");
+
+            // Every buffer went back to the pool, so the member can keep playing from it
+            out.reset();
+            for (int i = 0; i <= Member.LOOKAHEAD_NOTES; i++) {
+                member.addNote(queued);
+                member.giveTurn(queued);
+            }
+            assertEquals(rendered(queued).length * (Member.LOOKAHEAD_NOTES + 1), out.size(),
+                    "playNote function should give every buffer back to the pool!");
+        } finally {
+            member.stop();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package test;
+
+import main.MidiReader;
+import main.MidiWriter;
+import main.ParseMode;
+import main.ParseResult;
+import main.SongReader;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.MidiSystem;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code MidiTests} class tests the methods in the {@link main.MidiReader} and {@link main.MidiWriter} classes.
+ * <br>
+ * - MidiReader.read
+ * - 4 tests <br>
+ * - MidiReader.isMidi
+ * - 1 test <br>
+ * - MidiWriter.write
+ * - 2 tests <br>
+ */
+public class MidiTests {
+    /** Reader used by every test. */
+    private final MidiReader reader = new MidiReader();
+
+    /**
+     * Returns the bell and length of each note, which is what a MIDI file keeps of it.
+     *
+     * @param notes The notes.
+     * @return The bell and length of each note.
+     */
+    private List<String> bellsOf(List<BellNote> notes) {
+        final List<String> bells = new ArrayList<>();
+        for (BellNote note : notes) {
+            bells.add(note.getBell() + " " + note.getLength());
+        }
+        return bells;
+    }
+
+    // MidiReader.read tests
+
+    @Test
+    public void testReadTakesHighestNote() {
+        final ParseResult result = new SongReader().readSong("Chords.mid", 0, ParseMode.COLLECT_ALL);
+        assertTrue(result.isValid(), "read function should accept a MIDI file with chords!");
+
+        final List<BellNote> expected = List.of(
+                new BellNote(Note.A4, NoteLength.QUARTER),
+                new BellNote(Note.B4, NoteLength.QUARTER),
+                new BellNote(Note.REST, NoteLength.QUARTER),
+                new BellNote(Note.C4, NoteLength.HALF),
+                new BellNote(Note.A4, NoteLength.EIGHTH),
+                new BellNote(Note.A4, NoteLength.EIGHTH));
+        assertEquals(expected, result.getNotes(), "read function should play the highest note sounding at each moment!");
+    }
+
+    @Test
+    public void testReadWarnsAboutLeftOutNotes() {
+        final ParseResult result = reader.read(Paths.get(SongReader.FILE_DIRECTORY, "Chords.mid"), 0, ParseMode.COLLECT_ALL);
+        final List<String> warnings = new ArrayList<>();
+        for (ParseResult.Diagnostic warning : result.getWarnings()) {
+            warnings.add(warning.getReason());
+        }
+        assertEquals(List.of("Left out 2 notes played under a higher note", "Left out 1 notes shorter than an eighth note",
+                "Left out 2 drum notes on channel 10"), warnings, "read function should warn about every note left out!");
+        assertTrue(result.format().endsWith("3 warnings"), "format function should count the warnings!");
+    }
+
+    @Test
+    public void testReadNotMidi() {
+        final ParseResult result = reader.read(Paths.get(SongReader.FILE_DIRECTORY, "Text.txt"), 0, ParseMode.COLLECT_ALL);
+        assertFalse(result.isValid(), "read function should not accept a file that isn't MIDI!");
+        assertEquals("Not a MIDI file, it doesn't start with MThd", result.getDiagnostics().get(0).getReason(),
+                "read function should report a file that isn't MIDI!");
+    }
+
+    @Test
+    public void testReadDataByteOutOfRange() throws Exception {
+        // One track holding a note on event whose key has its top bit set
+        final byte[] events = {0x00, (byte) 0x90, (byte) 0xC5, 0x40, 0x00, (byte) 0xFF, 0x2F, 0x00};
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(0x4D546864);
+        data.writeInt(6);
+        data.writeShort(0);
+        data.writeShort(1);
+        data.writeShort(MidiWriter.DIVISION);
+        data.writeInt(0x4D54726B);
+        data.writeInt(events.length);
+        data.write(events);
+
+        final Path file = Files.createTempFile("bellchoir", ".mid");
+        try {
+            Files.write(file, out.toByteArray());
+            final ParseResult result = reader.read(file, 0, ParseMode.COLLECT_ALL);
+            assertFalse(result.isValid(), "read function should not accept a key out of range!");
+            assertEquals("Unable to read file: Data byte out of range: 0xc5",
+                    result.getDiagnostics().get(0).getReason(), "read function should report a key out of range!");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // MidiReader.isMidi tests
+
+    @Test
+    public void testIsMidi() {
+        assertTrue(MidiReader.isMidi("Song.mid"), "isMidi function should accept the .mid extension!");
+        assertTrue(MidiReader.isMidi("Song.MIDI"), "isMidi function should accept the .midi extension in any case!");
+        assertFalse(MidiReader.isMidi("MaryLamb.txt"), "isMidi function should not accept text songs!");
+    }
+
+    // MidiWriter.write tests
+
+    @Test
+    public void testWriteReadsBack() throws Exception {
+        final List<BellNote> song = new SongReader().readFile("KeyChange.txt");
+        final List<BellNote> withRests = new ArrayList<>(song);
+        withRests.add(1, new BellNote(Note.REST, NoteLength.HALF));
+        withRests.add(new BellNote(Note.A4, NoteLength.WHOLE));
+
+        final Path file = Files.createTempFile("bellchoir", ".mid");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                new MidiWriter().write(withRests, out);
+            }
+            final ParseResult result = reader.read(file, 0, ParseMode.COLLECT_ALL);
+            assertTrue(result.isValid(), "write function should write a MIDI file that can be read back!");
+            assertEquals(bellsOf(withRests), bellsOf(result.getNotes()), "write function should keep every note and rest!");
+            assertTrue(result.getWarnings().isEmpty(), "write function should not write anything that is left out when read!");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWriteStandardFile() throws Exception {
+        final List<BellNote> song = new SongReader().readFile("MaryLamb.txt");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MidiWriter().write(song, out);
+
+        final Sequence sequence = MidiSystem.getSequence(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(MidiWriter.DIVISION, sequence.getResolution(), "write function should write ticks per quarter note!");
+        assertEquals(1, sequence.getTracks().length, "write function should write a single track!");
+
+        int notes = 0;
+        for (int i = 0; i < sequence.getTracks()[0].size(); i++) {
+            final MidiEvent event = sequence.getTracks()[0].get(i);
+            if (event.getMessage() instanceof ShortMessage &&
+                    ((ShortMessage) event.getMessage()).getCommand() == ShortMessage.NOTE_ON) {
+                notes++;
+            }
+        }
+        assertEquals(song.size(), notes, "write function should write a note on event for every note!");
+        assertEquals(song.stream().mapToLong(n -> n.getLength().getTimeMs()).sum() * 1000,
+                sequence.getMicrosecondLength(), "write function should keep the song's length!");
+    }
+}
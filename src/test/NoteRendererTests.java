@@ -0,0 +1,120 @@
+package test;
+
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteBufferPool;
+import main.sound.NoteBufferPool.NoteBuffer;
+import main.sound.NoteLength;
+import main.sound.NoteRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code NoteRendererTests} class tests the methods in the {@link main.sound.NoteRenderer} and
+ * {@link main.sound.NoteBufferPool} classes.
+ * <br>
+ * - NoteRenderer.render
+ * - 3 tests <br>
+ * - NoteBufferPool.acquire
+ * - 2 tests <br>
+ * - NoteBuffer.render
+ * - 1 test <br>
+ */
+public class NoteRendererTests {
+    // NoteRenderer.render tests
+
+    @Test
+    public void testRenderEnvelope() {
+        final BellNote note = new BellNote(Note.A4, NoteLength.QUARTER);
+        final byte[] sample = note.sample();
+        final byte[] dst = new byte[NoteRenderer.MAX_NOTE_BYTES];
+        Arrays.fill(dst, (byte) 1);
+
+        final int length = NoteRenderer.toneBytes(NoteLength.QUARTER);
+        final int fade = NoteRenderer.ENVELOPE_SAMPLES;
+        assertEquals(length + NoteRenderer.REST_GAP_SAMPLES, NoteRenderer.render(note, dst, 0),
+                "render function should render the tone and the rest after it!");
+
+        for (int i = 0; i < fade; i++) {
+            assertEquals((byte) (sample[i] * i / fade), dst[i], "render function should fade the start of the note in!");
+            assertEquals((byte) (sample[length - 1 - i] * i / fade), dst[length - 1 - i],
+                    "render function should fade the end of the note out!");
+        }
+        assertArrayEquals(Arrays.copyOfRange(sample, fade, length - fade), Arrays.copyOfRange(dst, fade, length - fade),
+                "render function should leave the middle of the note as it is!");
+        assertArrayEquals(new byte[NoteRenderer.REST_GAP_SAMPLES],
+                Arrays.copyOfRange(dst, length, length + NoteRenderer.REST_GAP_SAMPLES),
+                "render function should write silence after the note!");
+        assertEquals(1, dst[length + NoteRenderer.REST_GAP_SAMPLES], "render function should not write past the rest!");
+    }
+
+    @Test
+    public void testRenderAtOffset() {
+        final BellNote note = new BellNote(Note.C4, NoteLength.EIGHTH);
+        final byte[] expected = new byte[NoteRenderer.noteBytes(NoteLength.EIGHTH)];
+        NoteRenderer.render(note, expected, 0);
+
+        final byte[] dst = new byte[expected.length + 20];
+        Arrays.fill(dst, (byte) 7);
+        NoteRenderer.render(note, dst, 10);
+        assertArrayEquals(expected, Arrays.copyOfRange(dst, 10, 10 + expected.length),
+                "render function should render the same note at any offset!");
+        assertEquals(7, dst[9], "render function should not write before the offset!");
+        assertEquals(7, dst[10 + expected.length], "render function should not write past the note!");
+    }
+
+    @Test
+    public void testRenderRest() {
+        final byte[] dst = new byte[NoteRenderer.MAX_NOTE_BYTES];
+        Arrays.fill(dst, (byte) 5);
+        final int length = NoteRenderer.render(new BellNote(Note.REST, NoteLength.HALF), dst, 0);
+        assertArrayEquals(new byte[length], Arrays.copyOf(dst, length), "render function should render a rest as silence!");
+    }
+
+    // NoteBufferPool.acquire tests
+
+    @Test
+    public void testAcquireRecycles() {
+        final NoteBufferPool pool = new NoteBufferPool(2);
+        final NoteBuffer first = pool.acquire();
+        final NoteBuffer second = pool.acquire();
+        assertNotNull(first, "acquire function should hand out every buffer in the pool!");
+        assertNotNull(second, "acquire function should hand out every buffer in the pool!");
+        assertNotSame(first, second, "acquire function should not hand out a buffer twice!");
+
+        pool.release(first);
+        assertSame(first, pool.acquire(), "acquire function should hand out a released buffer again!");
+        pool.release(second);
+        assertSame(second, pool.acquire(), "acquire function should hand out a released buffer again!");
+    }
+
+    @Test
+    public void testAcquireExhausted() {
+        final NoteBufferPool pool = new NoteBufferPool(1);
+        assertNotNull(pool.acquire(), "acquire function should hand out a free buffer!");
+        assertNull(pool.acquire(), "acquire function should not make a new buffer when every buffer is in use!");
+    }
+
+    // NoteBuffer.render tests
+
+    @Test
+    public void testBufferRender() {
+        final BellNote note = new BellNote(Note.G4, NoteLength.QUARTER);
+        final NoteBuffer buffer = new NoteBufferPool(1, NoteRenderer.noteBytes(NoteLength.QUARTER)).acquire();
+        final byte[] data = buffer.getData();
+        buffer.render(note);
+
+        final byte[] expected = new byte[NoteRenderer.noteBytes(NoteLength.QUARTER)];
+        NoteRenderer.render(note, expected, 0);
+        assertSame(note, buffer.getNote(), "render function should keep the note it rendered!");
+        assertEquals(expected.length, buffer.getLength(), "render function should count the rendered bytes!");
+        assertArrayEquals(expected, Arrays.copyOf(buffer.getData(), buffer.getLength()),
+                "render function should render the note into the buffer!");
+        assertSame(data, buffer.getData(), "render function should reuse the buffer's array!");
+        assertThrows(IllegalArgumentException.class, () -> buffer.render(new BellNote(Note.G4, NoteLength.HALF)),
+                "render function should not render a note too long for the buffer!");
+    }
+}
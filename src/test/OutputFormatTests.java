@@ -0,0 +1,103 @@
+package test;
+
+import main.sound.OutputFormat;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code OutputFormatTests} class tests the methods in the {@link main.sound.OutputFormat} class. <br>
+ * - choose
+ * - 6 tests <br>
+ */
+public class OutputFormatTests {
+    /** Stands for any value in a format a device accepts. */
+    private static final int ANY = AudioSystem.NOT_SPECIFIED;
+
+    /**
+     * Creates a format a device might list.
+     *
+     * @param encoding  The encoding.
+     * @param rate      The sample rate, or {@link #ANY}.
+     * @param bits      The sample size in bits.
+     * @param bigEndian Whether the samples are big-endian.
+     * @return The format.
+     */
+    private AudioFormat listed(AudioFormat.Encoding encoding, float rate, int bits, boolean bigEndian) {
+        return new AudioFormat(encoding, rate, bits, ANY, ANY, ANY, bigEndian);
+    }
+
+    // choose tests
+
+    @Test
+    public void testChooseNothingPlayable() {
+        assertEquals(OutputFormat.LEGACY_SAMPLE_RATE, Math.round(OutputFormat.choose(List.of()).getSampleRate()),
+                "choose function should fall back to the legacy format when no formats are given!");
+
+        final AudioFormat ulaw = listed(AudioFormat.Encoding.ULAW, 8000, 8, false);
+        assertEquals(OutputFormat.LEGACY_SAMPLE_RATE, Math.round(OutputFormat.choose(List.of(ulaw)).getSampleRate()),
+                "choose function should fall back to the legacy format when nothing given can be played!");
+    }
+
+    @Test
+    public void testChooseAnyRatePrefers48k() {
+        final AudioFormat chosen = OutputFormat.choose(List.of(listed(AudioFormat.Encoding.PCM_SIGNED, ANY, 8, false)));
+        assertEquals(48000, Math.round(chosen.getSampleRate()), "choose function should pick 48000Hz when any rate is accepted!");
+        assertEquals(8, chosen.getSampleSizeInBits(), "choose function should keep 8 bit samples!");
+        assertEquals(1, chosen.getChannels(), "choose function should pick mono!");
+    }
+
+    @Test
+    public void testChooseListedRateOverAnyRate() {
+        final AudioFormat chosen = OutputFormat.choose(List.of(
+                listed(AudioFormat.Encoding.PCM_SIGNED, ANY, 8, false),
+                listed(AudioFormat.Encoding.PCM_SIGNED, 44100, 8, false)));
+        assertEquals(44100, Math.round(chosen.getSampleRate()), "choose function should prefer a rate the device lists itself!");
+    }
+
+    @Test
+    public void testChooseSixteenBitFirst() {
+        final AudioFormat chosen = OutputFormat.choose(List.of(
+                listed(AudioFormat.Encoding.PCM_SIGNED, 48000, 8, false),
+                listed(AudioFormat.Encoding.PCM_UNSIGNED, 48000, 8, false),
+                listed(AudioFormat.Encoding.PCM_SIGNED, 22050, 16, false)));
+        assertEquals(16, chosen.getSampleSizeInBits(), "choose function should prefer the device's native 16 bit samples!");
+        assertEquals(AudioFormat.Encoding.PCM_SIGNED, chosen.getEncoding(), "choose function should pick signed samples!");
+        assertEquals(22050, Math.round(chosen.getSampleRate()), "choose function should prefer the sample format over the rate!");
+        assertEquals(2, chosen.getFrameSize(), "choose function should give a frame a whole 16 bit sample!");
+
+        assertEquals(AudioFormat.Encoding.PCM_SIGNED, OutputFormat.choose(List.of(
+                        listed(AudioFormat.Encoding.PCM_UNSIGNED, 48000, 8, false))).getEncoding(),
+                "choose function should never pick unsigned samples!");
+    }
+
+    @Test
+    public void testChooseSixteenBitLittleEndian() {
+        final AudioFormat chosen = OutputFormat.choose(List.of(
+                listed(AudioFormat.Encoding.PCM_SIGNED, 44100, 16, true),
+                listed(AudioFormat.Encoding.PCM_SIGNED, 44100, 16, false),
+                listed(AudioFormat.Encoding.PCM_UNSIGNED, 48000, 16, false)));
+        assertEquals(16, chosen.getSampleSizeInBits(), "choose function should pick 16 bit samples!");
+        assertFalse(chosen.isBigEndian(), "choose function should prefer little-endian samples!");
+        assertEquals(AudioFormat.Encoding.PCM_SIGNED, chosen.getEncoding(), "choose function should never pick unsigned 16 bit samples!");
+    }
+
+    @Test
+    public void testChooseChannels() {
+        final AudioFormat stereo = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, 48000, 8, 2, 2, ANY, false);
+        final AudioFormat mono = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, 44100, 8, 1, 1, ANY, false);
+        assertEquals(44100, Math.round(OutputFormat.choose(List.of(stereo, mono)).getSampleRate()),
+                "choose function should only pick a mono format when no channels are asked for!");
+
+        final AudioFormat chosen = OutputFormat.choose(List.of(stereo, mono), 2);
+        assertEquals(2, chosen.getChannels(), "choose function should pick a format with the channels asked for!");
+        assertEquals(48000, Math.round(chosen.getSampleRate()),
+                "choose function should pick a format with the channels asked for!");
+        assertEquals(4, OutputFormat.choose(List.of(stereo, mono), 4).getChannels(),
+                "choose function should fall back to the legacy format with the channels asked for!");
+    }
+}
@@ -0,0 +1,174 @@
+package test;
+
+import main.sound.RingBufferSink;
+import main.sound.SampleSink;
+import main.sound.StreamSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code RingBufferSinkTests} class tests the methods in the {@link main.sound.RingBufferSink} class. <br>
+ * - write
+ * - 3 tests <br>
+ * - drain / getQueuedBytes
+ * - 1 test <br>
+ * - open
+ * - 1 test <br>
+ */
+public class RingBufferSinkTests {
+    /** Size of the slots used by the tests. */
+    private static final int SLOT_BYTES = 64;
+
+    // write tests
+
+    @Test
+    public void testWriteKeepsOrder() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RingBufferSink sink = new RingBufferSink(new StreamSink(out), 4, SLOT_BYTES);
+        sink.open();
+
+        // Writes bigger than the whole ring, smaller than a slot, and of odd sizes
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        int value = 0;
+        for (int len : new int[]{1000, 3, SLOT_BYTES, 65, 0, 257}) {
+            final byte[] b = new byte[len];
+            for (int i = 0; i < len; i++) {
+                b[i] = (byte) value++;
+            }
+            sink.write(b, 0, len);
+            expected.write(b, 0, len);
+        }
+        sink.close();
+
+        assertArrayEquals(expected.toByteArray(), out.toByteArray(), "write function should pass every byte on in order!");
+    }
+
+    @Test
+    public void testWriteOffset() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RingBufferSink sink = new RingBufferSink(new StreamSink(out), 2, SLOT_BYTES);
+        sink.open();
+        sink.write(new byte[]{1, 2, 3, 4, 5}, 1, 3);
+        sink.close();
+
+        assertArrayEquals(new byte[]{2, 3, 4}, out.toByteArray(), "write function should only pass on the given range!");
+    }
+
+    @Test
+    public void testWriteFromSeveralThreads() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RingBufferSink sink = new RingBufferSink(new StreamSink(out), 4, SLOT_BYTES);
+        sink.open();
+
+        // Each thread writes whole slots filled with its number and a count, so slots can be told apart
+        final int threads = 4;
+        final int blocks = 500;
+        final List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            writers.add(new Thread(() -> {
+                final byte[] block = new byte[SLOT_BYTES];
+                for (int n = 0; n < blocks; n++) {
+                    block[0] = (byte) id;
+                    for (int i = 1; i < SLOT_BYTES; i++) {
+                        block[i] = (byte) n;
+                    }
+                    sink.write(block, 0, SLOT_BYTES);
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        sink.close();
+
+        final byte[] bytes = out.toByteArray();
+        assertEquals(threads * blocks * SLOT_BYTES, bytes.length, "write function should not lose bytes written from several threads!");
+
+        final int[] next = new int[threads];
+        for (int at = 0; at < bytes.length; at += SLOT_BYTES) {
+            final int id = bytes[at];
+            for (int i = 1; i < SLOT_BYTES; i++) {
+                assertEquals((byte) next[id], bytes[at + i], "write function should not mix bytes of different slots!");
+            }
+            next[id]++;
+        }
+        for (int t = 0; t < threads; t++) {
+            assertEquals(blocks, next[t], "write function should pass on every block of every thread in order!");
+        }
+    }
+
+    // drain / getQueuedBytes tests
+
+    @Test
+    public void testDrainEmptiesRing() throws Exception {
+        final SlowSink slow = new SlowSink();
+        final RingBufferSink sink = new RingBufferSink(slow, 4, SLOT_BYTES);
+        sink.open();
+
+        sink.write(new byte[SLOT_BYTES * 4], 0, SLOT_BYTES * 4);
+        assertTrue(sink.getQueuedBytes() > 0, "getQueuedBytes function should count bytes still in the ring!");
+
+        sink.drain();
+        assertEquals(SLOT_BYTES * 4, slow.written, "drain function should wait until every byte is written out!");
+        assertEquals(0, sink.getQueuedBytes(), "getQueuedBytes function should be 0 once the ring is drained!");
+        sink.close();
+    }
+
+    // open tests
+
+    @Test
+    public void testOpenStartsWriterThread() throws Exception {
+        final RingBufferSink sink = new RingBufferSink(new StreamSink(new ByteArrayOutputStream()), 3, SLOT_BYTES);
+        assertNull(sink.getWriterThread(), "open function should not have started a writer thread yet!");
+        assertEquals(4, sink.getSlotCount(), "RingBufferSink should round the number of slots up to a power of two!");
+
+        sink.open();
+        final Thread writer = sink.getWriterThread();
+        assertTrue(writer.isAlive(), "open function should start the writer thread!");
+        assertEquals(Thread.MAX_PRIORITY, writer.getPriority(), "open function should give the writer thread the highest priority!");
+
+        sink.close();
+        assertFalse(writer.isAlive(), "close function should stop the writer thread!");
+    }
+
+    /**
+     * A sink that takes a millisecond for every write, so bytes stay in the ring for a while.
+     */
+    private static class SlowSink implements SampleSink {
+        /** Number of bytes written. */
+        private volatile int written = 0;
+
+        @Override
+        public void open() {
+            //empty
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ignored) {
+            }
+            written += len;
+        }
+
+        @Override
+        public void drain() {
+            //empty
+        }
+
+        @Override
+        public void close() {
+            //empty
+        }
+    }
+}
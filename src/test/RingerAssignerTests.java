@@ -0,0 +1,111 @@
+package test;
+
+import main.RingerAssigner;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code RingerAssignerTests} class tests the methods in the {@link main.RingerAssigner} class. <br>
+ * - constructor
+ * - 1 test <br>
+ * - assign
+ * - 6 tests <br>
+ */
+public class RingerAssignerTests {
+
+    /**
+     * Builds a song out of the given notes, each played for the given length.
+     *
+     * @param length Length of every note.
+     * @param notes  Notes of the song.
+     * @return The list of {@link BellNote BellNotes}.
+     */
+    private List<BellNote> song(NoteLength length, Note... notes) {
+        final List<BellNote> song = new ArrayList<>();
+        for (Note note : notes) {
+            song.add(new BellNote(note, length));
+        }
+        return song;
+    }
+
+    // constructor tests
+
+    @Test
+    public void testConstructorWithNoMembers() {
+        assertThrows(IllegalArgumentException.class, () -> new RingerAssigner(0, RingerAssigner.DEFAULT_CHANGE_TIME_MS),
+                "RingerAssigner should not allow a choir with no members!");
+    }
+
+    // assign tests
+
+    @Test
+    public void testAssignNotesNotInSong() {
+        final RingerAssigner assigner = new RingerAssigner(2, RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        final Map<String, Integer> memberOf = assigner.assign(song(NoteLength.QUARTER, Note.A4, Note.C4));
+
+        assertNull(memberOf.get("D4"), "assign function should not give a member to notes not in the song!");
+        assertNotNull(memberOf.get("A4"), "assign function should give a member to every note in the song!");
+        assertNotNull(memberOf.get("C4"), "assign function should give a member to every note in the song!");
+    }
+
+    @Test
+    public void testAssignAlternatingNotesToDifferentMembers() {
+        final RingerAssigner assigner = new RingerAssigner(2, RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        final Map<String, Integer> memberOf = assigner.assign(song(NoteLength.QUARTER, Note.A4, Note.C4, Note.A4, Note.C4));
+
+        assertNotEquals(memberOf.get("A4"), memberOf.get("C4"),
+                "assign function should not give back to back notes to the same member!");
+        assertEquals(0, assigner.getConflicts(), "assign function should not leave conflicts when there are enough members!");
+    }
+
+    @Test
+    public void testAssignSharesBellsWithDistantNotes() {
+        final RingerAssigner assigner = new RingerAssigner(2, RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        final Map<String, Integer> memberOf = assigner.assign(song(NoteLength.HALF, Note.A4, Note.C4, Note.D4, Note.E4));
+
+        for (int m : memberOf.values()) {
+            assertTrue(m < 2, "assign function should not use more members than allowed!");
+        }
+        assertEquals(0, assigner.getConflicts(), "assign function should find an assignment without conflicts!");
+    }
+
+    @Test
+    public void testAssignFastNotesNeedMoreMembers() {
+        // Eighth notes are shorter than the change time, so three notes in a row all ring together
+        final List<BellNote> fast = song(NoteLength.EIGHTH, Note.A4, Note.C4, Note.D4, Note.A4, Note.C4, Note.D4);
+
+        final RingerAssigner twoMembers = new RingerAssigner(2, RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        twoMembers.assign(fast);
+        assertTrue(twoMembers.getConflicts() > 0, "assign function should report conflicts when there aren't enough members!");
+
+        final RingerAssigner threeMembers = new RingerAssigner(3, RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        threeMembers.assign(fast);
+        assertEquals(0, threeMembers.getConflicts(), "assign function should not leave conflicts when there are enough members!");
+    }
+
+    @Test
+    public void testAssignRestsDontConflict() {
+        final RingerAssigner assigner = new RingerAssigner(1, RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        final Map<String, Integer> memberOf = assigner.assign(song(NoteLength.QUARTER, Note.A4, Note.REST, Note.A4, Note.REST));
+
+        assertEquals(0, memberOf.get("REST"), "assign function should give rests to a member!");
+        assertEquals(0, assigner.getConflicts(), "assign function should not count rests as conflicts!");
+    }
+
+    @Test
+    public void testAssignFlatsAndSharpsShareABell() {
+        final RingerAssigner assigner = new RingerAssigner(2, RingerAssigner.DEFAULT_CHANGE_TIME_MS);
+        final Map<String, Integer> memberOf = assigner.assign(song(NoteLength.QUARTER, Note.A4S, Note.B4F, Note.A4S));
+
+        assertEquals(1, memberOf.size(), "assign function should treat a flat and its equal sharp as the same bell!");
+        assertEquals(0, assigner.getConflicts(), "assign function should not count the same bell as a conflict!");
+    }
+}
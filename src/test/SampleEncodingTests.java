@@ -0,0 +1,138 @@
+package test;
+
+import main.sound.Note;
+import main.sound.NoteLength;
+import main.sound.NoteRenderer;
+import main.sound.SampleEncoding;
+import main.sound.ToneCache;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code SampleEncodingTests} class tests the methods in the {@link main.sound.SampleEncoding} enum, and the
+ * {@link main.sound.ToneCache} and {@link main.sound.NoteRenderer} methods that generate and render samples in a
+ * 16 bit format a device negotiated. <br>
+ * - of
+ * - 1 test <br>
+ * - set
+ * - 1 test <br>
+ * - mix
+ * - 1 test <br>
+ * - ToneCache.generate
+ * - 1 test <br>
+ * - NoteRenderer.render
+ * - 1 test <br>
+ */
+public class SampleEncodingTests {
+    /** The encoding most devices negotiate. */
+    private static final SampleEncoding LE = SampleEncoding.SIGNED_16_LE;
+
+    // of tests
+
+    @Test
+    public void testOf() {
+        assertEquals(SampleEncoding.SIGNED_8, SampleEncoding.of(new AudioFormat(48000, 8, 1, true, false)),
+                "of function should read 8 bit signed samples!");
+        assertEquals(LE, SampleEncoding.of(new AudioFormat(48000, 16, 2, true, false)),
+                "of function should read 16 bit little-endian samples!");
+        assertEquals(SampleEncoding.SIGNED_16_BE, SampleEncoding.of(new AudioFormat(48000, 16, 1, true, true)),
+                "of function should read 16 bit big-endian samples!");
+        assertThrows(IllegalArgumentException.class, () -> SampleEncoding.of(new AudioFormat(48000, 8, 1, false, false)),
+                "of function should not take unsigned samples!");
+        assertThrows(IllegalArgumentException.class, () -> SampleEncoding.of(new AudioFormat(48000, 24, 1, true, false)),
+                "of function should not take 24 bit samples!");
+    }
+
+    // set tests
+
+    @Test
+    public void testSetByteOrder() {
+        final byte[] b = new byte[2];
+        LE.set(b, 0, 0x1234);
+        assertArrayEquals(new byte[]{0x34, 0x12}, b, "set function should write the low byte first when little-endian!");
+        assertEquals(0x1234, LE.get(b, 0), "get function should read back what was set!");
+
+        SampleEncoding.SIGNED_16_BE.set(b, 0, -2);
+        assertArrayEquals(new byte[]{-1, -2}, b, "set function should write the high byte first when big-endian!");
+        assertEquals(-2, SampleEncoding.SIGNED_16_BE.get(b, 0), "get function should keep the sign!");
+
+        LE.set(b, 0, 40000);
+        assertEquals(Short.MAX_VALUE, LE.get(b, 0), "set function should clip values that don't fit!");
+        SampleEncoding.SIGNED_8.set(b, 1, -200);
+        assertEquals(Byte.MIN_VALUE, b[1], "set function should clip 8 bit values that don't fit!");
+    }
+
+    // mix tests
+
+    @Test
+    public void testMixAndClip() {
+        final byte[] src = new byte[6];
+        LE.set(src, 0, 30000);
+        LE.set(src, 2, -1000);
+        LE.set(src, 4, -30000);
+        final int[] acc = new int[3];
+        LE.mix(src, 0, 3, 1.0f, acc, 0);
+        LE.mix(src, 0, 3, 0.5f, acc, 0);
+        assertArrayEquals(new int[]{45000, -1500, -45000}, acc, "mix function should add each scaled sample!");
+
+        final byte[] out = new byte[6];
+        LE.clip(acc, out, 3);
+        assertArrayEquals(new int[]{Short.MAX_VALUE, -1500, Short.MIN_VALUE},
+                new int[]{LE.get(out, 0), LE.get(out, 2), LE.get(out, 4)},
+                "clip function should clip the sums into 16 bit samples!");
+        assertArrayEquals(new int[3], acc, "clip function should reset the sums!");
+    }
+
+    // ToneCache.generate tests
+
+    @Test
+    public void testGenerateSixteenBit() {
+        final int semitone = Note.A4.getSemitone();
+        final byte[] tone = ToneCache.generate(semitone, LE);
+        assertEquals(2 * ToneCache.generate(semitone, SampleEncoding.SIGNED_8).length, tone.length,
+                "generate function should give each sample two bytes!");
+
+        // The vector kernels can be off by one where rounding lands differently
+        final double step = ToneCache.frequency(semitone) * ((2.0d * Math.PI) / Note.SAMPLE_RATE);
+        for (int i = 0; i < tone.length / 2; i++) {
+            final int expected = (int) (Math.sin(i * step) * 127.0d * 256);
+            final int actual = (tone[2 * i + 1] << 8) | (tone[2 * i] & 0xFF);
+            assertTrue(Math.abs(expected - actual) <= 1,
+                    "generate function should write the wave scaled to 16 bits, low byte first!");
+        }
+    }
+
+    // NoteRenderer.render tests
+
+    @Test
+    public void testRenderSixteenBit() {
+        final byte[] tone = ToneCache.generate(Note.A4.getSemitone(), LE);
+        final int samples = NoteRenderer.toneSamples(NoteLength.QUARTER);
+        final int length = samples * 2;
+        final int rest = NoteRenderer.REST_GAP_SAMPLES * 2;
+        final byte[] dst = new byte[length + rest + 2];
+        Arrays.fill(dst, (byte) 1);
+
+        assertEquals(length + rest, NoteRenderer.render(tone, samples, LE, dst, 0),
+                "render function should render two bytes for each sample of the tone and the rest!");
+
+        final int fade = NoteRenderer.ENVELOPE_SAMPLES;
+        for (int i = 0; i < fade; i++) {
+            assertEquals(LE.get(tone, 2 * i) * i / fade, LE.get(dst, 2 * i),
+                    "render function should fade the start of the note in!");
+            final int end = length - 2 * (i + 1);
+            assertEquals(LE.get(tone, end) * i / fade, LE.get(dst, end),
+                    "render function should fade the end of the note out!");
+        }
+        assertArrayEquals(Arrays.copyOfRange(tone, 2 * fade, length - 2 * fade),
+                Arrays.copyOfRange(dst, 2 * fade, length - 2 * fade),
+                "render function should leave the middle of the note as it is!");
+        assertArrayEquals(new byte[rest], Arrays.copyOfRange(dst, length, length + rest),
+                "render function should write silence after the note!");
+        assertEquals(1, dst[length + rest], "render function should not write past the rest!");
+    }
+}
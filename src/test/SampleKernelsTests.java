@@ -0,0 +1,197 @@
+package test;
+
+import main.sound.SampleKernels;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The {@code SampleKernelsTests} class tests the methods in the {@link main.sound.SampleKernels} interface, and
+ * checks the vector kernels against the scalar ones when the {@code jdk.incubator.vector} module is available. <br>
+ * - sine
+ * - 4 tests <br>
+ * - mix
+ * - 4 tests <br>
+ * - clip
+ * - 4 tests <br>
+ */
+public class SampleKernelsTests {
+    /** The scalar kernels, the reference for every test. */
+    private final SampleKernels scalar = SampleKernels.scalar();
+
+    /** The vector kernels, or {@code null} if the module wasn't added. */
+    private final SampleKernels vector = SampleKernels.vector();
+
+    /**
+     * Returns random samples.
+     *
+     * @param len Number of samples.
+     * @return The samples.
+     */
+    private byte[] randomSamples(int len) {
+        final byte[] samples = new byte[len];
+        new Random(len).nextBytes(samples);
+        return samples;
+    }
+
+    // sine tests
+
+    @Test
+    public void testSineScalar() {
+        final byte[] wave = new byte[100];
+        scalar.sine(wave, 0, wave.length, Math.PI / 50, 127.0d);
+        assertEquals(0, wave[0], "sine function should start the wave at 0!");
+        assertEquals(127, wave[25], "sine function should peak a quarter of the way through the wave!");
+        assertEquals(-127, wave[75], "sine function should dip three quarters of the way through the wave!");
+    }
+
+    @Test
+    public void testSineVectorMatchesScalar() {
+        assumeTrue(vector != null, "Vector kernels unavailable");
+        final byte[] expected = new byte[1003];
+        final byte[] actual = new byte[1003];
+        scalar.sine(expected, 3, 1000, 0.0573d, 127.0d);
+        vector.sine(actual, 3, 1000, 0.0573d, 127.0d);
+        for (int i = 0; i < expected.length; i++) {
+            assertTrue(Math.abs(expected[i] - actual[i]) <= 1, "sine function should match the scalar wave within one step!");
+        }
+    }
+
+    @Test
+    public void testSine16Scalar() {
+        final byte[] wave = new byte[202];
+        scalar.sine16(wave, 2, 100, Math.PI / 50, 32767.0d, false);
+        assertArrayEquals(new byte[]{0, 0}, new byte[]{wave[2], wave[3]}, "sine16 function should start the wave at 0!");
+        assertArrayEquals(new byte[]{-1, 127}, new byte[]{wave[52], wave[53]},
+                "sine16 function should peak a quarter of the way through the wave, low byte first!");
+
+        scalar.sine16(wave, 2, 100, Math.PI / 50, 32767.0d, true);
+        assertArrayEquals(new byte[]{-128, 1}, new byte[]{wave[152], wave[153]},
+                "sine16 function should dip three quarters of the way through the wave, high byte first!");
+    }
+
+    @Test
+    public void testSine16VectorMatchesScalar() {
+        assumeTrue(vector != null, "Vector kernels unavailable");
+        for (boolean bigEndian : new boolean[]{false, true}) {
+            final byte[] expected = new byte[2006];
+            final byte[] actual = new byte[2006];
+            scalar.sine16(expected, 6, 1000, 0.0573d, 127.0d * 256, bigEndian);
+            vector.sine16(actual, 6, 1000, 0.0573d, 127.0d * 256, bigEndian);
+            for (int i = 6; i < expected.length; i += 2) {
+                final int high = bigEndian ? i : i + 1;
+                final int low = bigEndian ? i + 1 : i;
+                final int e = (expected[high] << 8) | (expected[low] & 0xFF);
+                final int a = (actual[high] << 8) | (actual[low] & 0xFF);
+                assertTrue(Math.abs(e - a) <= 1, "sine16 function should match the scalar wave within one step!");
+            }
+        }
+    }
+
+    // mix tests
+
+    @Test
+    public void testMixScalar() {
+        final int[] acc = {10, 10, 10};
+        scalar.mix(new byte[]{100, -100, 7}, 0, 3, 0.5f, acc, 0);
+        assertArrayEquals(new int[]{60, -40, 13}, acc, "mix function should add the samples at half volume!");
+    }
+
+    @Test
+    public void testMixVectorMatchesScalar() {
+        assumeTrue(vector != null, "Vector kernels unavailable");
+        final byte[] src = randomSamples(1031);
+        final int[] expected = new int[1040];
+        final int[] actual = new int[1040];
+        for (float gain : new float[]{1.0f, 0.5f, 0.33f, 1.7f}) {
+            scalar.mix(src, 5, 1020, gain, expected, 9);
+            vector.mix(src, 5, 1020, gain, actual, 9);
+        }
+        assertArrayEquals(expected, actual, "mix function should give the same sums as the scalar kernel!");
+    }
+
+    @Test
+    public void testMix16Scalar() {
+        final int[] acc = {10, 10, 10};
+        scalar.mix16(new byte[]{0, 0x10, 0, -0x10, 7, 0}, 0, 3, 0.5f, acc, 0, false);
+        assertArrayEquals(new int[]{2058, -2038, 13}, acc, "mix16 function should add the samples at half volume!");
+
+        scalar.mix16(new byte[]{0x7F, -1}, 0, 1, 2.0f, acc, 2, true);
+        assertEquals(13 + 2 * Short.MAX_VALUE, acc[2], "mix16 function should not overflow with gains above 1!");
+    }
+
+    @Test
+    public void testMix16VectorMatchesScalar() {
+        assumeTrue(vector != null, "Vector kernels unavailable");
+        final byte[] src = randomSamples(2062);
+        for (boolean bigEndian : new boolean[]{false, true}) {
+            final int[] expected = new int[1040];
+            final int[] actual = new int[1040];
+            for (float gain : new float[]{1.0f, 0.5f, 0.33f, 1.7f}) {
+                scalar.mix16(src, 10, 1020, gain, expected, 9, bigEndian);
+                vector.mix16(src, 10, 1020, gain, actual, 9, bigEndian);
+            }
+            assertArrayEquals(expected, actual, "mix16 function should give the same sums as the scalar kernel!");
+        }
+    }
+
+    // clip tests
+
+    @Test
+    public void testClipScalar() {
+        final int[] acc = {300, -300, 5, 99};
+        final byte[] out = new byte[4];
+        scalar.clip(acc, out, 3);
+        assertArrayEquals(new byte[]{127, -128, 5, 0}, out, "clip function should clip sums into bytes!");
+        assertArrayEquals(new int[]{0, 0, 0, 99}, acc, "clip function should reset only the clipped sums!");
+    }
+
+    @Test
+    public void testClipVectorMatchesScalar() {
+        assumeTrue(vector != null, "Vector kernels unavailable");
+        final Random random = new Random(1);
+        final int[] expectedAcc = new int[1029];
+        for (int i = 0; i < expectedAcc.length; i++) {
+            expectedAcc[i] = random.nextInt(1000) - 500;
+        }
+        final int[] actualAcc = expectedAcc.clone();
+        final byte[] expected = new byte[1029];
+        final byte[] actual = new byte[1029];
+        scalar.clip(expectedAcc, expected, 1021);
+        vector.clip(actualAcc, actual, 1021);
+        assertArrayEquals(expected, actual, "clip function should clip the same as the scalar kernel!");
+        assertArrayEquals(expectedAcc, actualAcc, "clip function should reset the same sums as the scalar kernel!");
+    }
+
+    @Test
+    public void testClip16Scalar() {
+        final int[] acc = {40000, -40000, 0x1234, 99};
+        final byte[] out = new byte[8];
+        scalar.clip16(acc, out, 3, false);
+        assertArrayEquals(new byte[]{-1, 127, 0, -128, 0x34, 0x12, 0, 0}, out,
+                "clip16 function should clip sums into 16 bit samples, low byte first!");
+        assertArrayEquals(new int[]{0, 0, 0, 99}, acc, "clip16 function should reset only the clipped sums!");
+    }
+
+    @Test
+    public void testClip16VectorMatchesScalar() {
+        assumeTrue(vector != null, "Vector kernels unavailable");
+        final Random random = new Random(2);
+        for (boolean bigEndian : new boolean[]{false, true}) {
+            final int[] expectedAcc = new int[1029];
+            for (int i = 0; i < expectedAcc.length; i++) {
+                expectedAcc[i] = random.nextInt(100_000) - 50_000;
+            }
+            final int[] actualAcc = expectedAcc.clone();
+            final byte[] expected = new byte[2058];
+            final byte[] actual = new byte[2058];
+            scalar.clip16(expectedAcc, expected, 1021, bigEndian);
+            vector.clip16(actualAcc, actual, 1021, bigEndian);
+            assertArrayEquals(expected, actual, "clip16 function should clip the same as the scalar kernel!");
+            assertArrayEquals(expectedAcc, actualAcc, "clip16 function should reset the same sums as the scalar kernel!");
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package test;
+
+import main.AbcReader;
+import main.MusicXmlReader;
+import main.ParseMode;
+import main.ParseResult;
+import main.SongReader;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code ScoreImportTests} class tests the methods in the {@link main.MusicXmlReader} and {@link main.AbcReader}
+ * classes.
+ * <br>
+ * - MusicXmlReader.read
+ * - 5 tests <br>
+ * - MusicXmlReader.isMusicXml
+ * - 1 test <br>
+ * - AbcReader.read
+ * - 5 tests <br>
+ * - AbcReader.isAbc
+ * - 1 test <br>
+ */
+public class ScoreImportTests {
+    /** The notes of Bells.musicxml and Bells.abc, with the repeat played. */
+    private static final List<BellNote> BELLS;
+
+    static {
+        final List<BellNote> repeated = List.of(
+                new BellNote(Note.E4, NoteLength.QUARTER),
+                new BellNote(Note.E4, NoteLength.QUARTER),
+                new BellNote(Note.F4, NoteLength.QUARTER),
+                new BellNote(Note.G4, NoteLength.QUARTER),
+                new BellNote(Note.A5, NoteLength.HALF),
+                new BellNote(Note.D4, NoteLength.HALF));
+        final List<BellNote> bells = new ArrayList<>(repeated);
+        bells.addAll(repeated);
+        bells.add(new BellNote(Note.REST, NoteLength.QUARTER));
+        bells.add(new BellNote(Note.A4S, NoteLength.QUARTER));
+        bells.add(new BellNote(Note.A4, NoteLength.HALF));
+        BELLS = List.copyOf(bells);
+    }
+
+    /**
+     * Returns the reasons of the warnings in a result.
+     *
+     * @param result The result.
+     * @return The reason of each warning.
+     */
+    private List<String> warningsOf(ParseResult result) {
+        final List<String> warnings = new ArrayList<>();
+        for (ParseResult.Diagnostic warning : result.getWarnings()) {
+            warnings.add(warning.getReason());
+        }
+        return warnings;
+    }
+
+    /**
+     * Writes an ABC tune to a temporary file and reads it.
+     *
+     * @param tune The lines of the tune.
+     * @return The result of reading it.
+     * @throws Exception If the file can't be written.
+     */
+    private ParseResult readAbc(String... tune) throws Exception {
+        final Path file = Files.createTempFile("bellchoir", AbcReader.EXTENSION);
+        try {
+            Files.write(file, List.of(tune));
+            return new AbcReader().read(file, 0, ParseMode.COLLECT_ALL);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // MusicXmlReader.read tests
+
+    @Test
+    public void testReadMusicXml() {
+        final ParseResult result = new SongReader().readSong("Bells.musicxml", 0, ParseMode.COLLECT_ALL);
+        assertTrue(result.isValid(), "read function should accept a MusicXML score!");
+        assertEquals(BELLS, result.getNotes(), "read function should play the melody, its chords, ties and repeat!");
+    }
+
+    @Test
+    public void testReadMusicXmlWarnings() {
+        final ParseResult result = new SongReader().readSong("Bells.musicxml", 0, ParseMode.COLLECT_ALL);
+        assertEquals(List.of("Left out 1 parts after the first", "Left out 1 notes in other voices than the melody's",
+                        "Left out 1 notes played under a higher note", "Left out 1 grace and cue notes"),
+                warningsOf(result), "read function should warn about everything left out!");
+    }
+
+    @Test
+    public void testReadCompressedMusicXml() throws Exception {
+        final Path file = Files.createTempFile("bellchoir", ".mxl");
+        try {
+            try (OutputStream out = Files.newOutputStream(file); ZipOutputStream zip = new ZipOutputStream(out)) {
+                zip.putNextEntry(new ZipEntry("META-INF/container.xml"));
+                zip.write("<container/>".getBytes());
+                zip.putNextEntry(new ZipEntry("Bells.xml"));
+                zip.write(Files.readAllBytes(Paths.get(SongReader.FILE_DIRECTORY, "Bells.musicxml")));
+            }
+            final ParseResult result = new MusicXmlReader().read(file, 0, ParseMode.COLLECT_ALL);
+            assertEquals(BELLS, result.getNotes(), "read function should read the score inside a compressed file!");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadTimewiseMusicXml() throws Exception {
+        final Path file = Files.createTempFile("bellchoir", ".musicxml");
+        try {
+            Files.writeString(file, "<?xml version=\"1.0\"?>\n<score-timewise version=\"4.0\"/>\n");
+            final ParseResult result = new MusicXmlReader().read(file, 0, ParseMode.COLLECT_ALL);
+            assertFalse(result.isValid(), "read function should not accept a timewise score!");
+            assertEquals("Timewise scores aren't supported, only partwise", result.getDiagnostics().get(0).getReason(),
+                    "read function should report a timewise score!");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReadMusicXmlUnknownStep() throws Exception {
+        final Path file = Files.createTempFile("bellchoir", ".musicxml");
+        try {
+            Files.writeString(file, "<?xml version=\"1.0\"?>\n<score-partwise version=\"4.0\"><part id=\"P1\">" +
+                    "<measure number=\"1\"><attributes><divisions>1</divisions></attributes>\n" +
+                    "<note><pitch><step>H</step><octave>4</octave></pitch><duration>1</duration></note>\n" +
+                    "<note><pitch><step>A</step><octave>4</octave></pitch><duration>1</duration></note>\n" +
+                    "</measure></part></score-partwise>\n");
+            final ParseResult result = new MusicXmlReader().read(file, 0, ParseMode.COLLECT_ALL);
+            assertFalse(result.isValid(), "read function should not guess a step it doesn't know!");
+            assertEquals("Unknown step 'H', expected A to G", result.getDiagnostics().get(0).getReason(),
+                    "read function should report an unknown step!");
+            assertEquals(3, result.getDiagnostics().get(0).getLine(), "read function should report the line of the note!");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    // MusicXmlReader.isMusicXml tests
+
+    @Test
+    public void testIsMusicXml() {
+        assertTrue(MusicXmlReader.isMusicXml("Song.musicxml"), "isMusicXml function should accept .musicxml!");
+        assertTrue(MusicXmlReader.isMusicXml("Song.XML"), "isMusicXml function should accept .xml in any case!");
+        assertTrue(MusicXmlReader.isMusicXml("Song.mxl"), "isMusicXml function should accept compressed scores!");
+        assertFalse(MusicXmlReader.isMusicXml("Song.mid"), "isMusicXml function should not accept MIDI files!");
+    }
+
+    // AbcReader.read tests
+
+    @Test
+    public void testReadAbcMatchesMusicXml() {
+        final ParseResult abc = new SongReader().readSong("Bells.abc", 0, ParseMode.COLLECT_ALL);
+        final ParseResult xml = new SongReader().readSong("Bells.musicxml", 0, ParseMode.COLLECT_ALL);
+        assertTrue(abc.isValid(), "read function should accept an ABC tune!");
+        assertEquals(xml.getNotes(), abc.getNotes(), "read function should read the same tune as the MusicXML score!");
+        assertEquals(List.of("Left out the tunes after the first", "Left out 1 notes played under a higher note",
+                        "Left out 1 groups of grace notes", "Left out 1 decorations"),
+                warningsOf(abc), "read function should warn about everything left out!");
+    }
+
+    @Test
+    public void testReadAbcAccidentals() throws Exception {
+        // G major sharpens F, a written natural lasts until the bar line
+        final ParseResult result = readAbc("X:1", "L:1/4", "K:G", "f =f f ^c | f c2 z |]");
+        final List<BellNote> expected = List.of(
+                new BellNote(Note.F4S, NoteLength.QUARTER),
+                new BellNote(Note.F4, NoteLength.QUARTER),
+                new BellNote(Note.F4, NoteLength.QUARTER),
+                new BellNote(Note.C4S, NoteLength.QUARTER),
+                new BellNote(Note.F4S, NoteLength.QUARTER),
+                new BellNote(Note.C4, NoteLength.HALF));
+        assertEquals(expected, result.getNotes(), "read function should apply the key and accidentals to each bar!");
+    }
+
+    @Test
+    public void testReadAbcLengths() throws Exception {
+        final ParseResult result = readAbc("X:1", "K:C", "A2 B/2c/2 A>B c3/2B/ d8 |]");
+        final List<BellNote> expected = List.of(
+                new BellNote(Note.A4, NoteLength.QUARTER),
+                new BellNote(Note.B4, NoteLength.EIGHTH),
+                new BellNote(Note.A4, NoteLength.QUARTER),
+                new BellNote(Note.C4, NoteLength.QUARTER),
+                new BellNote(Note.D4, NoteLength.WHOLE));
+        assertEquals(expected, result.getNotes(), "read function should read lengths and broken rhythm!");
+        assertEquals(List.of("Left out 3 notes shorter than an eighth note"), warningsOf(result),
+                "read function should warn about notes too short to play!");
+    }
+
+    @Test
+    public void testReadAbcUnitFromMeter() throws Exception {
+        // Meters below 3/4 make the unit a sixteenth note, unless L: gives one
+        assertEquals(List.of(new BellNote(Note.A4, NoteLength.EIGHTH), new BellNote(Note.B4, NoteLength.QUARTER)),
+                readAbc("X:1", "M:2/4", "K:C", "A2 B4 |]").getNotes(),
+                "read function should take a sixteenth note unit from a 2/4 meter!");
+        assertEquals(List.of(new BellNote(Note.A4, NoteLength.QUARTER), new BellNote(Note.B4, NoteLength.HALF)),
+                readAbc("X:1", "M:3/4", "K:C", "A2 B4 |]").getNotes(),
+                "read function should take an eighth note unit from a 3/4 meter!");
+        assertEquals(List.of(new BellNote(Note.A4, NoteLength.QUARTER), new BellNote(Note.B4, NoteLength.HALF)),
+                readAbc("X:1", "L:1/8", "M:2/4", "K:C", "A2 B4 |]").getNotes(),
+                "read function should keep the unit L: gives!");
+    }
+
+    @Test
+    public void testReadAbcOutOfRange() throws Exception {
+        final ParseResult result = readAbc("X:1", "K:C", "A C,,,, A |]");
+        assertFalse(result.isValid(), "read function should not accept notes bells can't play!");
+        assertEquals(3, result.getDiagnostics().get(0).getLine(), "read function should report the line of the note!");
+        assertEquals(3, result.getDiagnostics().get(0).getColumn(), "read function should report the column of the note!");
+    }
+
+    // AbcReader.isAbc tests
+
+    @Test
+    public void testIsAbc() {
+        assertTrue(AbcReader.isAbc("Tune.ABC"), "isAbc function should accept .abc in any case!");
+        assertFalse(AbcReader.isAbc("MaryLamb.txt"), "isAbc function should not accept text songs!");
+    }
+}
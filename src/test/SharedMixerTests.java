@@ -0,0 +1,245 @@
+package test;
+
+import main.sound.MixerSource;
+import main.sound.SharedMixer;
+import main.sound.StreamSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code SharedMixerTests} class tests the methods in the {@link main.sound.SharedMixer} and
+ * {@link main.sound.MixerSource} classes.
+ * <br>
+ * - SharedMixer.run
+ * - 5 tests <br>
+ * - MixerSource.close
+ * - 2 tests <br>
+ */
+public class SharedMixerTests {
+    /** Number of bytes in a chunk the mixer mixes at a time, in mono. */
+    private static final int CHUNK = 1024;
+
+    /** Longer than the mixer waits for a slow source before mixing without it. */
+    private static final long SLOW_MS = 100;
+
+    /** Longest time, in milliseconds, to wait for the mixer to write something. */
+    private static final long OUTPUT_TIMEOUT_MS = 5000;
+
+    /**
+     * Returns samples that climb from the given value, wrapping around at the limits of a byte.
+     *
+     * @param length Number of samples.
+     * @param first  The first sample.
+     * @param step   Amount each sample is above the one before it.
+     * @return The samples.
+     */
+    private byte[] ramp(int length, int first, int step) {
+        final byte[] samples = new byte[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (byte) (first + i * step);
+        }
+        return samples;
+    }
+
+    /**
+     * Returns the given samples mixed the way the mixer mixes them, each scaled by its gain, summed and clipped.
+     *
+     * @param a     The first source's samples.
+     * @param gainA Gain of the first source.
+     * @param b     The second source's samples, at least as many as the first.
+     * @param gainB Gain of the second source.
+     * @return The mixed samples, as many as the second source has.
+     */
+    private byte[] mix(byte[] a, float gainA, byte[] b, float gainB) {
+        final byte[] mixed = new byte[b.length];
+        for (int i = 0; i < b.length; i++) {
+            final int sum = (i < a.length ? scale(a[i], gainA) : 0) + scale(b[i], gainB);
+            mixed[i] = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, sum));
+        }
+        return mixed;
+    }
+
+    /**
+     * Scales a sample by a gain the way the mixer does, with 16 fraction bits.
+     *
+     * @param sample The sample.
+     * @param gain   The gain.
+     * @return The scaled sample.
+     */
+    private int scale(byte sample, float gain) {
+        return (sample * Math.round(gain * (1 << 16))) >> 16;
+    }
+
+    /**
+     * Waits until the mixer has written the given number of bytes, failing if it takes too long.
+     *
+     * @param out   Where the mixer writes to.
+     * @param bytes Number of bytes to wait for.
+     */
+    private void awaitOutput(ByteArrayOutputStream out, int bytes) throws InterruptedException {
+        final long end = System.currentTimeMillis() + OUTPUT_TIMEOUT_MS;
+        while (out.size() < bytes && System.currentTimeMillis() < end) {
+            Thread.sleep(1);
+        }
+        assertEquals(bytes, out.size(), "run function should mix what the sources have written!");
+    }
+
+    // SharedMixer.run tests
+
+    @Test
+    public void testRunSumsSources() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SharedMixer mixer = new SharedMixer(new StreamSink(out));
+        final MixerSource first = mixer.addSource("first", 1.0f);
+        final MixerSource second = mixer.addSource("second", 1.0f);
+        final byte[] a = ramp(2 * CHUNK, 0, 1);
+        final byte[] b = ramp(2 * CHUNK, 40, -3);
+
+        // Written before the mixer starts, so both sources have every chunk ready when it first mixes
+        first.open();
+        second.open();
+        first.write(a, 0, a.length);
+        second.write(b, 0, b.length);
+        mixer.start();
+        mixer.stop();
+
+        assertArrayEquals(mix(a, 1.0f, b, 1.0f), out.toByteArray(), "run function should sum the sources!");
+    }
+
+    @Test
+    public void testRunAppliesGain() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SharedMixer mixer = new SharedMixer(new StreamSink(out));
+        final MixerSource quiet = mixer.addSource("quiet", 0.5f);
+        final MixerSource loud = mixer.addSource("loud", 1.0f);
+        final byte[] a = ramp(CHUNK, -100, 7);
+        final byte[] b = ramp(CHUNK, 3, 5);
+
+        quiet.open();
+        loud.open();
+        quiet.write(a, 0, a.length);
+        loud.write(b, 0, b.length);
+        quiet.setGain(0.25f);
+        mixer.start();
+        mixer.stop();
+
+        assertArrayEquals(mix(a, 0.25f, b, 1.0f), out.toByteArray(),
+                "run function should scale each source by its gain when it's mixed!");
+    }
+
+    @Test
+    public void testRunClips() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SharedMixer mixer = new SharedMixer(new StreamSink(out));
+        final MixerSource first = mixer.addSource("first", 1.0f);
+        final MixerSource second = mixer.addSource("second", 1.0f);
+        final byte[] a = new byte[CHUNK];
+        Arrays.fill(a, 0, CHUNK / 2, (byte) 100);
+        Arrays.fill(a, CHUNK / 2, CHUNK, (byte) -100);
+
+        first.open();
+        second.open();
+        first.write(a, 0, a.length);
+        second.write(a, 0, a.length);
+        mixer.start();
+        mixer.stop();
+
+        final byte[] expected = new byte[CHUNK];
+        Arrays.fill(expected, 0, CHUNK / 2, Byte.MAX_VALUE);
+        Arrays.fill(expected, CHUNK / 2, CHUNK, Byte.MIN_VALUE);
+        assertArrayEquals(expected, out.toByteArray(), "run function should clip sums that don't fit in a byte!");
+    }
+
+    @Test
+    public void testRunPastSlowSource() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SharedMixer mixer = new SharedMixer(new StreamSink(out));
+        final MixerSource fast = mixer.addSource("fast", 1.0f);
+        final MixerSource slow = mixer.addSource("slow", 1.0f);
+        final byte[] a = ramp(CHUNK, 0, 1);
+        final byte[] b = ramp(CHUNK, 9, 2);
+
+        fast.open();
+        slow.open();
+        fast.write(a, 0, a.length);
+        final long start = System.currentTimeMillis();
+        mixer.start();
+
+        // The slow source has nothing, so the fast one is mixed alone once the mixer stops waiting for it
+        awaitOutput(out, CHUNK);
+        assertTrue(System.currentTimeMillis() - start >= 10, "run function should wait a while for a slow source!");
+        slow.write(b, 0, b.length);
+        awaitOutput(out, 2 * CHUNK);
+        mixer.stop();
+
+        final byte[] expected = Arrays.copyOf(a, 2 * CHUNK);
+        System.arraycopy(b, 0, expected, CHUNK, CHUNK);
+        assertArrayEquals(expected, out.toByteArray(), "run function should not hold every source up for a slow one!");
+    }
+
+    @Test
+    public void testRunWholeFrames() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SharedMixer mixer = new SharedMixer(new StreamSink(out), 3);
+        final MixerSource source = mixer.addSource("surround", 1.0f);
+        final byte[] frames = ramp(6, 1, 1);
+
+        // One frame and part of the next
+        source.open();
+        source.write(frames, 0, 5);
+        mixer.start();
+        awaitOutput(out, 3);
+        Thread.sleep(SLOW_MS);
+        assertEquals(3, out.size(), "run function should not mix part of a frame while the source is open!");
+
+        source.write(frames, 5, 1);
+        awaitOutput(out, 6);
+        mixer.stop();
+        assertArrayEquals(frames, out.toByteArray(), "run function should mix each frame whole, in order!");
+    }
+
+    // MixerSource.close tests
+
+    @Test
+    public void testCloseMidSong() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SharedMixer mixer = new SharedMixer(new StreamSink(out));
+        final MixerSource leaving = mixer.addSource("leaving", 1.0f);
+        final MixerSource staying = mixer.addSource("staying", 1.0f);
+        final byte[] a = ramp(300, -20, 1);
+        final byte[] b = ramp(3 * CHUNK, 5, 3);
+
+        leaving.open();
+        staying.open();
+        leaving.write(a, 0, a.length);
+        leaving.close();
+        staying.write(b, 0, b.length);
+        mixer.start();
+        mixer.stop();
+
+        assertArrayEquals(mix(a, 1.0f, b, 1.0f), out.toByteArray(),
+                "close function should let what was written be mixed, then leave the rest to the other sources!");
+    }
+
+    @Test
+    public void testCloseIgnoresWrites() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SharedMixer mixer = new SharedMixer(new StreamSink(out));
+        final MixerSource source = mixer.addSource("closed", 1.0f);
+        source.open();
+        source.close();
+
+        // More than the source can hold, which would block if the source were still open
+        final byte[] late = ramp(16 * CHUNK, 1, 1);
+        source.write(late, 0, late.length);
+        assertEquals(0, source.getQueuedBytes(), "close function should make the source ignore later writes!");
+
+        mixer.start();
+        mixer.stop();
+        assertEquals(0, out.size(), "close function should leave nothing to mix!");
+    }
+}
@@ -0,0 +1,97 @@
+package test;
+
+import main.ParseMode;
+import main.ParseResult;
+import main.SoakHarness;
+import main.SongGenerator;
+import main.SongReader;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code SongGeneratorTests} class tests the methods in the {@link main.SongGenerator} and
+ * {@link main.SoakHarness} classes. <br>
+ * - generate
+ * - 4 tests <br>
+ * - write
+ * - 1 test <br>
+ * - SoakHarness.run
+ * - 1 test <br>
+ */
+public class SongGeneratorTests {
+
+    // generate tests
+
+    @Test
+    public void testGenerateSameSeedSameSong() {
+        final List<BellNote> first = new SongGenerator(42).generate(SongGenerator.Pattern.ADVERSARIAL, 500);
+        final List<BellNote> second = new SongGenerator(42).generate(SongGenerator.Pattern.ADVERSARIAL, 500);
+        assertEquals(first, second, "generate function should create the same song from the same seed!");
+    }
+
+    @Test
+    public void testGenerateNoteCount() {
+        final List<BellNote> song = new SongGenerator(1).generate(SongGenerator.Pattern.RANDOM, 1234);
+        assertEquals(1234, song.size(), "generate function should create the number of notes asked for!");
+        for (BellNote b : song) {
+            assertNotEquals(Note.INVALID, b.getNote(), "generate function should never create invalid notes!");
+        }
+    }
+
+    @Test
+    public void testGenerateEveryPitch() {
+        final List<BellNote> song = new SongGenerator(1).generate(SongGenerator.Pattern.EVERY_PITCH, Note.values().length);
+        final Set<Note> notes = new HashSet<>();
+        for (BellNote b : song) {
+            notes.add(b.getNote());
+        }
+        assertEquals(Note.values().length - 1, notes.size(), "generate function should cover every valid note!");
+    }
+
+    @Test
+    public void testGenerateEighthBurst() {
+        final List<BellNote> song = new SongGenerator(7).generate(SongGenerator.Pattern.EIGHTH_BURST, 200);
+        for (BellNote b : song) {
+            assertEquals(NoteLength.EIGHTH, b.getLength(), "generate function should only create eighths in a burst!");
+        }
+    }
+
+    // write tests
+
+    @Test
+    public void testWriteReadsBack() throws IOException {
+        final String fileName = "GeneratedTest.txt";
+        final File file = new File(SongReader.FILE_DIRECTORY + fileName);
+        try {
+            try (Writer out = new FileWriter(file)) {
+                new SongGenerator(3).write(SongGenerator.Pattern.RANDOM, 300, out);
+            }
+            final ParseResult result = new SongReader().readSong(fileName, 0, ParseMode.COLLECT_ALL);
+            assertTrue(result.isValid(), "write function should write a song SongReader accepts!");
+            assertEquals(new SongGenerator(3).generate(SongGenerator.Pattern.RANDOM, 300), result.getNotes(),
+                    "write function should write the same song generate creates!");
+        } finally {
+            file.delete();
+        }
+    }
+
+    // SoakHarness.run tests
+
+    @Test
+    public void testSoakShortRun() {
+        final SoakHarness harness = new SoakHarness(SongGenerator.Pattern.ADVERSARIAL, 2000, 4, false, 5);
+        assertTrue(harness.run(5, 30_000), "run function should not find leaks in a short soak!");
+    }
+}
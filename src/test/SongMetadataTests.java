@@ -0,0 +1,190 @@
+package test;
+
+import main.SongReader;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteBufferPool;
+import main.sound.NoteLength;
+import main.sound.NoteRenderer;
+import main.sound.RenderCache;
+import main.sound.SongMetadata;
+import main.sound.TimingIndex;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code SongMetadataTests} class tests the methods in the {@link main.sound.SongMetadata} class, and the
+ * {@link main.sound.RenderCache} and {@link main.sound.NoteBufferPool} methods that use it.
+ * <br>
+ * - SongMetadata.of
+ * - 3 tests <br>
+ * - SongMetadata.read
+ * - 2 tests <br>
+ * - RenderCache.metadata
+ * - 1 test <br>
+ * - NoteBufferPool.NoteBuffer.render
+ * - 1 test <br>
+ */
+public class SongMetadataTests {
+    /**
+     * Returns a song that plays the given notes over and over, each for the given length.
+     *
+     * @param length The length of every note.
+     * @param times  Number of times to play the notes.
+     * @param notes  The notes.
+     * @return The song.
+     */
+    private List<BellNote> song(NoteLength length, int times, Note... notes) {
+        final List<BellNote> song = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            for (Note note : notes) {
+                song.add(new BellNote(note, length));
+            }
+        }
+        return song;
+    }
+
+    // SongMetadata.of tests
+
+    @Test
+    public void testOfSong() {
+        final List<BellNote> song = new SongReader().readFile("MaryLamb.txt");
+        final SongMetadata metadata = SongMetadata.of(song);
+
+        final TreeSet<Integer> pitches = new TreeSet<>();
+        int longest = 0;
+        int rests = 0;
+        for (BellNote b : song) {
+            if (b.getNote() == Note.REST) {
+                rests++;
+            } else {
+                pitches.add(b.getSemitone());
+            }
+            longest = Math.max(longest, NoteRenderer.noteBytes(b.getLength()));
+        }
+
+        assertEquals(song.size(), metadata.getNoteCount(), "of function should count every note!");
+        assertEquals(rests, metadata.getRestCount(), "of function should count every rest!");
+        assertEquals(new TimingIndex(song).getLengthSamples(), metadata.getLengthSamples(),
+                "of function should give the length of the rendered song!");
+        assertEquals(new ArrayList<>(pitches), metadata.getPitches(),
+                "of function should give each pitch once, lowest first!");
+        assertEquals(Note.nameOf(pitches.first()), metadata.getBells().get(0),
+                "getBells function should name the pitches!");
+        assertEquals(pitches.size() + (rests > 0 ? 1 : 0), metadata.getMemberCount(),
+                "getMemberCount function should count a member for each bell and one for the rests!");
+        assertEquals(longest, metadata.getMaxNoteBytes(), "of function should find the longest note!");
+    }
+
+    @Test
+    public void testOfPolyphony() {
+        // Eighth notes ring on for two more notes after they end, so three bells ring at once
+        assertEquals(3, SongMetadata.of(song(NoteLength.EIGHTH, 4, Note.A4, Note.C4, Note.E4, Note.G4))
+                        .getMaxPolyphony(), "of function should count bells still ringing out!");
+        assertEquals(2, SongMetadata.of(song(NoteLength.QUARTER, 4, Note.A4, Note.C4, Note.E4)).getMaxPolyphony(),
+                "of function should stop counting bells once they've rung out!");
+        assertEquals(1, SongMetadata.of(song(NoteLength.EIGHTH, 8, Note.A4)).getMaxPolyphony(),
+                "of function should count a bell struck again once!");
+        assertEquals(1, SongMetadata.of(song(NoteLength.WHOLE, 2, Note.A4, Note.REST, Note.C4, Note.REST))
+                        .getMaxPolyphony(), "of function should not count rests as ringing!");
+    }
+
+    @Test
+    public void testOfEmpty() {
+        final SongMetadata metadata = SongMetadata.of(new ArrayList<>());
+        assertEquals(0, metadata.getNoteCount(), "of function should count no notes in an empty song!");
+        assertEquals(0, metadata.getDurationMs(), "of function should give an empty song no length!");
+        assertEquals(0, metadata.getMaxPolyphony(), "of function should ring no bells in an empty song!");
+        assertEquals(0, metadata.getMemberCount(), "of function should need no members for an empty song!");
+    }
+
+    // SongMetadata.read tests
+
+    @Test
+    public void testReadWritten() throws IOException {
+        final SongMetadata metadata = SongMetadata.of(new SongReader().readFile("RickRolled.txt"));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        metadata.write(out);
+        final SongMetadata read = SongMetadata.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(metadata.toString(), read.toString(), "read function should give back what was written!");
+        assertEquals(metadata.getPitches(), read.getPitches(), "read function should give back the pitches!");
+        assertEquals(metadata.getLengthSamples(), read.getLengthSamples(),
+                "read function should give back the length!");
+    }
+
+    @Test
+    public void testReadInvalid() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SongMetadata.of(song(NoteLength.HALF, 1, Note.A4)).write(out);
+        final String written = out.toString(StandardCharsets.ISO_8859_1);
+
+        assertThrows(IOException.class, () -> SongMetadata.read(new ByteArrayInputStream(
+                written.replaceAll("sampleRate=\\d+", "sampleRate=1").getBytes(StandardCharsets.ISO_8859_1))),
+                "read function should not use metadata for another sample rate!");
+        assertThrows(IOException.class, () -> SongMetadata.read(new ByteArrayInputStream(
+                written.replaceAll("encoding=\\w+", "encoding=SIGNED_16_LE").getBytes(StandardCharsets.ISO_8859_1))),
+                "read function should not use metadata for another sample encoding!");
+        assertThrows(IOException.class, () -> SongMetadata.read(new ByteArrayInputStream(
+                written.replaceAll("version=\\d+", "version=0").getBytes(StandardCharsets.ISO_8859_1))),
+                "read function should not use metadata stored the old way!");
+        assertThrows(IOException.class, () -> SongMetadata.read(new ByteArrayInputStream(
+                written.replaceAll("maxPolyphony=\\d+", "").getBytes(StandardCharsets.ISO_8859_1))),
+                "read function should not use metadata missing a value!");
+    }
+
+    // RenderCache.metadata tests
+
+    @Test
+    public void testMetadataStored() throws IOException {
+        final Path dir = Files.createTempDirectory("SongMetadataTests");
+        try {
+            final List<BellNote> song = new SongReader().readFile("MaryLamb.txt");
+            final RenderCache cache = new RenderCache(dir.resolve("cache"));
+
+            final SongMetadata metadata = cache.metadata(song);
+            assertTrue(Files.isRegularFile(cache.metadataPath(song)), "metadata function should store the metadata!");
+            assertEquals(metadata.toString(), cache.metadata(song).toString(),
+                    "metadata function should give back the stored metadata!");
+
+            Files.writeString(cache.metadataPath(song), "broken");
+            assertEquals(metadata.toString(), cache.metadata(song).toString(),
+                    "metadata function should analyse the song again when the stored metadata is broken!");
+            try (InputStream in = Files.newInputStream(cache.metadataPath(song))) {
+                assertEquals(metadata.toString(), SongMetadata.read(in).toString(),
+                        "metadata function should replace broken metadata!");
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    // NoteBufferPool.NoteBuffer.render tests
+
+    @Test
+    public void testRenderTooLong() {
+        final NoteBufferPool pool = new NoteBufferPool(1, NoteRenderer.noteBytes(NoteLength.QUARTER));
+        final NoteBufferPool.NoteBuffer buffer = pool.acquire();
+        buffer.render(new BellNote(Note.A4, NoteLength.QUARTER));
+        assertEquals(NoteRenderer.noteBytes(NoteLength.QUARTER), buffer.getLength(),
+                "render function should fill a buffer sized for the note!");
+        assertThrows(IllegalArgumentException.class, () -> buffer.render(new BellNote(Note.A4, NoteLength.HALF)),
+                "render function should not render a note longer than the buffer!");
+    }
+}
@@ -1,6 +1,9 @@
 package test;
 
+import main.ParseMode;
+import main.ParseResult;
 import main.SongReader;
+import main.sound.Arrangement;
 import main.sound.BellNote;
 import main.sound.Note;
 import main.sound.NoteLength;
@@ -16,7 +19,9 @@ import static org.junit.jupiter.api.Assertions.*;
 /**
  * The {@code SongReaderTests} class tests the methods in the {@link main.SongReader} class. <br>
  * - readFile
- * - 8 tests <br>
+ * - 11 tests <br>
+ * - readSong
+ * - 7 tests <br>
  * - validateNotes
  * - 5 tests <br>
  * - parseNote
@@ -95,6 +100,134 @@ public class SongReaderTests {
         assertTrue(validNotes, "readFile function should not return any invalid notes!");
     }
 
+    @Test
+    public void testReadFileTransposesWholeSong() {
+        assertNotNull(songReader);
+        final List<BellNote> notes = songReader.readFile("MaryLamb.txt");
+        final List<BellNote> shifted = songReader.readFile("MaryLamb.txt", 12);
+        assertEquals(notes.size(), shifted.size(), "readFile function should return every note when transposing!");
+
+        for (int i = 0; i < notes.size(); i++) {
+            assertEquals(notes.get(i).getSemitone() + 12, shifted.get(i).getSemitone(), "readFile function should shift every note by the given semitones!");
+        }
+        assertEquals("A6", shifted.get(0).getBell(), "readFile function should shift notes past the Note enum's range!");
+    }
+
+    @Test
+    public void testReadFileTransposeDirective() {
+        assertNotNull(songReader);
+        final List<BellNote> notes = songReader.readFile("KeyChange.txt");
+        assertEquals(7, notes.size(), "readFile function should not count directives as notes!");
+
+        assertEquals(notes.get(0).getSemitone() + 2, notes.get(3).getSemitone(), "readFile function should shift notes after a TRANSPOSE directive!");
+        assertEquals(Note.C4.getSemitone(), notes.get(6).getSemitone(), "readFile function should stop shifting notes after TRANSPOSE 0!");
+    }
+
+    @Test
+    public void testReadFileTransposedOutOfRange() {
+        assertNotNull(songReader);
+        final List<BellNote> notes = songReader.readFile("MaryLamb.txt", 200);
+        assertTrue(notes.isEmpty(), "readFile function should not return any notes when notes are shifted outside the range bells can play!");
+    }
+
+    // readSong tests
+
+    @Test
+    public void testReadSongValidFile() {
+        assertNotNull(songReader);
+        final ParseResult result = songReader.readSong("MaryLamb.txt", 0, ParseMode.COLLECT_ALL);
+        assertTrue(result.isValid(), "readSong function should accept a file with only valid notes!");
+        assertEquals(26, result.getLines(), "readSong function should count every line read!");
+        assertEquals(26, result.getNotes().size(), "readSong function should return every note in the file!");
+        assertTrue(result.getDiagnostics().isEmpty(), "readSong function should not report problems in a valid file!");
+    }
+
+    @Test
+    public void testReadSongCollectsEveryProblem() {
+        assertNotNull(songReader);
+        final ParseResult result = songReader.readSong("InvalidMusic.txt", 0, ParseMode.COLLECT_ALL);
+        assertFalse(result.isValid(), "readSong function should not accept a file with invalid notes!");
+        assertEquals(10, result.getLines(), "readSong function should read every line when collecting all problems!");
+        assertEquals(9, result.getDiagnostics().size(), "readSong function should report a problem for every invalid line!");
+
+        final ParseResult.Diagnostic unknownNote = result.getDiagnostics().get(0);
+        assertEquals(1, unknownNote.getLine(), "readSong function should report the line of a problem!");
+        assertEquals(1, unknownNote.getColumn(), "readSong function should report the column of an unknown note!");
+
+        final ParseResult.Diagnostic badLength = result.getDiagnostics().get(1);
+        assertEquals(2, badLength.getLine(), "readSong function should report the line of a problem!");
+        assertEquals(4, badLength.getColumn(), "readSong function should report the column of an invalid length!");
+    }
+
+    @Test
+    public void testReadSongFailFast() {
+        assertNotNull(songReader);
+        final ParseResult result = songReader.readSong("InvalidMusic.txt", 0, ParseMode.FAIL_FAST);
+        assertEquals(1, result.getLines(), "readSong function should stop reading at the first problem when failing fast!");
+        assertEquals(1, result.getDiagnostics().size(), "readSong function should only report the first problem when failing fast!");
+    }
+
+    @Test
+    public void testReadSongMissingFile() {
+        assertNotNull(songReader);
+        final ParseResult result = songReader.readSong("NeverGonnaGiveYouUp.txt", 0, ParseMode.COLLECT_ALL);
+        assertFalse(result.isValid(), "readSong function should not accept a missing file!");
+        assertEquals(0, result.getDiagnostics().get(0).getLine(), "readSong function should report file problems on line 0!");
+    }
+
+    @Test
+    public void testReadSongRepeats() {
+        assertNotNull(songReader);
+        final ParseResult result = songReader.readSong("Repeats.txt", 0, ParseMode.COLLECT_ALL);
+        assertTrue(result.isValid(), "readSong function should accept sections, repeats and da capo!");
+        assertEquals(8, result.getDirectives(), "readSong function should count every repeat and section directive!");
+        assertEquals(7, result.getWrittenNotes().size(), "readSong function should keep each written note once!");
+
+        // intro, chorus with its repeat, the two notes after FINE, the chorus twice, then da capo up to FINE
+        final List<Note> expected = new ArrayList<>();
+        final List<Note> intro = List.of(Note.C4, Note.D4);
+        final List<Note> chorus = List.of(Note.E4, Note.F4, Note.G4, Note.E4, Note.F4, Note.G4);
+        expected.addAll(intro);
+        expected.addAll(chorus);
+        expected.addAll(List.of(Note.A4, Note.B4));
+        expected.addAll(chorus);
+        expected.addAll(chorus);
+        expected.addAll(intro);
+        expected.addAll(chorus);
+
+        final List<Note> played = new ArrayList<>();
+        for (BellNote note : result.getNotes()) {
+            played.add(note.getNote());
+        }
+        assertEquals(expected, played, "readSong function should play sections and repeats in order!");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), result.getNotes().get(i).getNote(), "readSong function should look up every repeated note by index!");
+        }
+    }
+
+    @Test
+    public void testReadSongRepeatsShareNotes() {
+        assertNotNull(songReader);
+        final ParseResult result = songReader.readSong("Repeats.txt", 0, ParseMode.COLLECT_ALL);
+        final List<BellNote> notes = result.getNotes();
+        assertTrue(notes instanceof Arrangement, "readSong function should return the notes as an Arrangement!");
+        assertSame(notes.get(2), notes.get(5), "readSong function should not copy notes that are repeated!");
+        assertSame(notes.get(0), notes.get(22), "readSong function should not copy notes played again by DC!");
+    }
+
+    @Test
+    public void testReadSongBadRepeats() {
+        assertNotNull(songReader);
+        final ParseResult result = songReader.readSong("BadRepeats.txt", 0, ParseMode.COLLECT_ALL);
+        assertFalse(result.isValid(), "readSong function should not accept invalid repeat directives!");
+        assertEquals(4, result.getDiagnostics().size(), "readSong function should report every invalid repeat directive!");
+        assertEquals("Unknown section 'verse'", result.getDiagnostics().get(0).getReason(), "readSong function should report playing an unknown section!");
+        assertEquals(6, result.getDiagnostics().get(0).getColumn(), "readSong function should report the column of the section name!");
+        assertEquals(8, result.getDiagnostics().get(1).getColumn(), "readSong function should report the column of an invalid number of times!");
+        assertEquals(4, result.getDiagnostics().get(2).getLine(), "readSong function should report END without a SECTION!");
+        assertEquals(5, result.getDiagnostics().get(3).getLine(), "readSong function should report SECTION without a name!");
+    }
+
     // validateNote tests
 
     @Test
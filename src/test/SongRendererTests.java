@@ -0,0 +1,95 @@
+package test;
+
+import main.SongGenerator;
+import main.sound.BellNote;
+import main.sound.NoteRenderer;
+import main.sound.SongRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code SongRendererTests} class tests the methods in the {@link main.sound.SongRenderer} class. <br>
+ * - getLength
+ * - 1 test <br>
+ * - render
+ * - 2 tests <br>
+ * - renderWav
+ * - 1 test <br>
+ */
+public class SongRendererTests {
+    /** A song long enough to be split into many segments. */
+    private final List<BellNote> song = new SongGenerator(11).generate(SongGenerator.Pattern.RANDOM, 2000);
+
+    /**
+     * Renders the song one note after another, the way the choir writes it.
+     *
+     * @return The rendered song.
+     */
+    private byte[] renderSerially() {
+        final byte[] out = new byte[(int) new SongRenderer(song).getLength()];
+        int off = 0;
+        for (BellNote b : song) {
+            off += NoteRenderer.render(b, out, off);
+        }
+        return out;
+    }
+
+    // getLength tests
+
+    @Test
+    public void testGetLength() {
+        long length = 0;
+        for (BellNote b : song) {
+            length += NoteRenderer.noteBytes(b.getLength());
+        }
+        assertEquals(length, new SongRenderer(song).getLength(), "getLength function should add up the length of every note!");
+    }
+
+    // render tests
+
+    @Test
+    public void testRenderMatchesSerial() {
+        assertArrayEquals(renderSerially(), new SongRenderer(song).render(),
+                "render function should render the same bytes as rendering one note after another!");
+    }
+
+    @Test
+    public void testRenderOnManyThreads() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertArrayEquals(renderSerially(), new SongRenderer(song, pool).render(),
+                    "render function should render the same bytes no matter how many threads render it!");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // renderWav tests
+
+    @Test
+    public void testRenderWav() throws IOException {
+        final File file = File.createTempFile("SongRendererTests", ".wav");
+        try {
+            new SongRenderer(song).renderWav(file.toPath());
+            final byte[] wav = Files.readAllBytes(file.toPath());
+            assertEquals("RIFF", new String(wav, 0, 4), "renderWav function should write a WAV header!");
+
+            final byte[] expected = renderSerially();
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] ^= (byte) 0x80;
+            }
+            assertArrayEquals(expected, Arrays.copyOfRange(wav, SongRenderer.WAV_HEADER_BYTES, wav.length),
+                    "renderWav function should write the song as unsigned samples after the header!");
+        } finally {
+            file.delete();
+        }
+    }
+}
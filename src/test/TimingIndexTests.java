@@ -0,0 +1,138 @@
+package test;
+
+import main.Conductor;
+import main.SongGenerator;
+import main.sound.Arrangement;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteLength;
+import main.sound.NoteRenderer;
+import main.sound.SongRenderer;
+import main.sound.StreamSink;
+import main.sound.TimingIndex;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code TimingIndexTests} class tests the methods in the {@link main.sound.TimingIndex} class, and seeking
+ * with it in the {@link main.Conductor}. <br>
+ * - sampleOf
+ * - 1 test <br>
+ * - noteAtSample / noteAtMs
+ * - 2 tests <br>
+ * - noteAtMeasure / measureOf
+ * - 2 tests <br>
+ * - Conductor.seekToMeasure
+ * - 1 test <br>
+ * - Arrangement
+ * - 1 test <br>
+ */
+public class TimingIndexTests {
+    /** Three measures: a half, a quarter, a half held over the bar line, a quarter, a half, then a whole. */
+    private final List<BellNote> song = List.of(
+            new BellNote(Note.A4, NoteLength.HALF),
+            new BellNote(Note.B4, NoteLength.QUARTER),
+            new BellNote(Note.C4, NoteLength.HALF),
+            new BellNote(Note.D4, NoteLength.QUARTER),
+            new BellNote(Note.E4, NoteLength.HALF),
+            new BellNote(Note.G4, NoteLength.WHOLE));
+
+    /** The index of {@link #song}. */
+    private final TimingIndex index = new TimingIndex(song);
+
+    // sampleOf tests
+
+    @Test
+    public void testSampleOf() {
+        assertEquals(0, index.sampleOf(0), "sampleOf function should start the first note at 0!");
+        assertEquals(NoteRenderer.noteSamples(NoteLength.HALF), index.sampleOf(1),
+                "sampleOf function should start a note where the one before it ends!");
+        assertEquals(new SongRenderer(song).getLength(), index.getLengthSamples(),
+                "getLengthSamples function should match the rendered length of the song!");
+    }
+
+    // noteAtSample / noteAtMs tests
+
+    @Test
+    public void testNoteAtSample() {
+        for (int i = 0; i < song.size(); i++) {
+            assertEquals(i, index.noteAtSample(index.sampleOf(i)), "noteAtSample function should find the note starting at a sample!");
+            assertEquals(i, index.noteAtSample(index.sampleOf(i + 1) - 1), "noteAtSample function should find the note still playing at a sample!");
+        }
+        assertEquals(song.size(), index.noteAtSample(index.getLengthSamples()), "noteAtSample function should give the end of the song past its last note!");
+    }
+
+    @Test
+    public void testNoteAtMs() {
+        assertEquals(0, index.noteAtMs(0), "noteAtMs function should start at the first note!");
+        assertEquals(1, index.noteAtMs(index.msOf(1) + 1), "noteAtMs function should find the note playing at a time!");
+        assertEquals(song.size(), index.noteAtMs(1_000_000), "noteAtMs function should give the end of the song past its last note!");
+    }
+
+    // noteAtMeasure / measureOf tests
+
+    @Test
+    public void testNoteAtMeasure() {
+        assertEquals(3, index.getMeasureCount(), "getMeasureCount function should count every measure!");
+        assertEquals(0, index.noteAtMeasure(1), "noteAtMeasure function should start the first measure at the first note!");
+        assertEquals(3, index.noteAtMeasure(2), "noteAtMeasure function should start a measure at the first note after a held over bar line!");
+        assertEquals(5, index.noteAtMeasure(3), "noteAtMeasure function should start a measure on its bar line!");
+        assertThrows(IllegalArgumentException.class, () -> index.noteAtMeasure(4), "noteAtMeasure function should reject a measure past the end!");
+    }
+
+    @Test
+    public void testMeasureOf() {
+        assertEquals(1, index.measureOf(2), "measureOf function should keep a held over note in the measure it started in!");
+        assertEquals(2, index.measureOf(4), "measureOf function should find the measure of a note!");
+        assertEquals(3, index.measureOf(5), "measureOf function should find the last measure!");
+    }
+
+    // Conductor.seekToMeasure tests
+
+    @Test
+    public void testConductorStartsAtMeasure() {
+        final List<BellNote> longSong = new SongGenerator(8).generate(SongGenerator.Pattern.RANDOM, 200);
+        final TimingIndex longIndex = new TimingIndex(longSong);
+        final int from = longIndex.noteAtMeasure(10);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Conductor conductor = new Conductor(new StreamSink(out), longSong, 3);
+        conductor.seekToMeasure(10);
+        conductor.playSong();
+        conductor.stop();
+
+        assertArrayEquals(new SongRenderer(longSong.subList(from, longSong.size())).render(), out.toByteArray(),
+                "seekToMeasure function should play the song from the start of the measure!");
+    }
+
+    // Arrangement tests
+
+    @Test
+    public void testArrangementMatchesCopy() {
+        // The song, then its last four notes twice, then its first three, as segments over the same notes
+        final Arrangement arranged = new Arrangement(song, new int[]{0, 2, 2, 0}, new int[]{6, 4, 4, 3});
+        final List<BellNote> copy = new ArrayList<>(arranged);
+        assertEquals(17, copy.size(), "Arrangement should play every segment!");
+
+        final TimingIndex fromArranged = new TimingIndex(arranged);
+        final TimingIndex fromCopy = new TimingIndex(copy);
+        assertEquals(fromCopy.getLengthSamples(), fromArranged.getLengthSamples(), "TimingIndex should be as long over segments as over a copy!");
+        assertEquals(fromCopy.getMeasureCount(), fromArranged.getMeasureCount(), "TimingIndex should count the same measures over segments!");
+        for (int i = 0; i <= copy.size(); i++) {
+            assertEquals(fromCopy.sampleOf(i), fromArranged.sampleOf(i), "sampleOf function should be the same over segments!");
+            assertEquals(i, fromArranged.noteAtSample(fromArranged.sampleOf(i)), "noteAtSample function should find every note over segments!");
+            assertEquals(i, fromArranged.noteAtSample(fromArranged.sampleOf(i) + 1), "noteAtSample function should find a note partway through it!");
+        }
+        for (int i = 0; i < copy.size(); i++) {
+            assertEquals(fromCopy.measureOf(i), fromArranged.measureOf(i), "measureOf function should be the same over segments!");
+        }
+        for (int m = 1; m <= fromCopy.getMeasureCount(); m++) {
+            assertEquals(fromCopy.noteAtMeasure(m), fromArranged.noteAtMeasure(m), "noteAtMeasure function should be the same over segments!");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package test;
+
+import main.Conductor;
+import main.SongGenerator;
+import main.SongReader;
+import main.sound.BellNote;
+import main.sound.Note;
+import main.sound.NoteRenderer;
+import main.sound.TimingIndex;
+import main.sound.VirtualClock;
+import main.sound.VirtualSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code VirtualTimeTests} class tests the methods in the {@link main.sound.VirtualSink} and
+ * {@link main.sound.VirtualClock} classes, and the {@link main.Conductor} playing against them.
+ * <br>
+ * - VirtualSink.write
+ * - 2 tests <br>
+ * - VirtualClock.advanceTo
+ * - 1 test <br>
+ * - Conductor.playSong
+ * - 3 tests <br>
+ */
+public class VirtualTimeTests {
+    /** Length of audio, in milliseconds, the virtual device buffers in every test. */
+    private static final int BUFFER_MS = 100;
+
+    /** Number of bytes of audio in {@link #BUFFER_MS}. */
+    private static final int BUFFER_BYTES = Note.SAMPLE_RATE * BUFFER_MS / 1000;
+
+    /**
+     * Plays a song through a conductor in virtual time.
+     *
+     * @param song       The song.
+     * @param maxMembers Max number of members in the choir, or 0 for one member per bell.
+     * @param clock      The virtual clock.
+     * @return The sink the song was played to.
+     */
+    private VirtualSink play(List<BellNote> song, int maxMembers, VirtualClock clock) {
+        final VirtualSink sink = new VirtualSink(clock, BUFFER_MS);
+        final Conductor conductor = new Conductor(sink, song, maxMembers, clock);
+        conductor.playSong();
+        conductor.stop();
+        return sink;
+    }
+
+    // VirtualSink.write tests
+
+    @Test
+    public void testWriteWaitsForRoom() {
+        final VirtualClock clock = new VirtualClock();
+        final VirtualSink sink = new VirtualSink(clock, BUFFER_MS);
+        sink.open();
+
+        sink.write(new byte[BUFFER_BYTES / 2], 0, BUFFER_BYTES / 2);
+        assertEquals(0, clock.nanoTime(), "write function should not wait while the buffer has room!");
+
+        sink.write(new byte[BUFFER_BYTES], 0, BUFFER_BYTES);
+        assertEquals(BUFFER_BYTES, sink.getQueuedBytes(), "write function should wait until a buffer's worth is left!");
+        assertEquals(50.0, clock.nanoTime() / 1e6, 0.1, "write function should move the clock to when the device made room!");
+        assertEquals(BUFFER_BYTES / 2, sink.getOnsets().get(1).getSample(),
+                "write function should play each write after the one before it!");
+
+        sink.drain();
+        assertEquals(150.0, clock.nanoTime() / 1e6, 0.1, "drain function should move the clock to the end of the audio!");
+        assertEquals(0, sink.getUnderruns(), "write function should not count an underrun while audio is queued!");
+    }
+
+    @Test
+    public void testWriteCountsUnderruns() {
+        final VirtualClock clock = new VirtualClock();
+        final VirtualSink sink = new VirtualSink(clock, BUFFER_MS);
+        sink.open();
+
+        sink.write(new byte[BUFFER_BYTES / 2], 0, BUFFER_BYTES / 2);
+        clock.advance(200_000_000L);
+        sink.write(new byte[10], 0, 10);
+        assertEquals(1, sink.getUnderruns(), "write function should count the device running dry!");
+        assertEquals(200.0, sink.getOnsets().get(1).getMs(), 0.1,
+                "write function should play a late write as soon as it's made!");
+    }
+
+    // VirtualClock.advanceTo tests
+
+    @Test
+    public void testAdvanceToNeverGoesBack() {
+        final VirtualClock clock = new VirtualClock();
+        clock.advanceTo(500);
+        clock.advanceTo(200);
+        assertEquals(500, clock.nanoTime(), "advanceTo function should not move the clock back!");
+        clock.advance(-100);
+        assertEquals(500, clock.nanoTime(), "advance function should not move the clock back!");
+    }
+
+    // Conductor.playSong tests
+
+    @Test
+    public void testPlaySongTimeline() {
+        final List<BellNote> song = new SongReader().readFile("MaryLamb.txt");
+        final VirtualClock clock = new VirtualClock();
+        final VirtualSink sink = play(song, 0, clock);
+        final List<VirtualSink.Onset> onsets = sink.getOnsets();
+
+        assertEquals(song.size(), onsets.size(), "playSong function should write every note once!");
+        long sample = 0;
+        final Map<String, String> writerOf = new HashMap<>();
+        for (int i = 0; i < song.size(); i++) {
+            assertEquals(sample, onsets.get(i).getSample(), "playSong function should start each note on time!");
+            sample += NoteRenderer.noteSamples(song.get(i).getLength());
+
+            final String writer = writerOf.putIfAbsent(song.get(i).getBell(), onsets.get(i).getWriter());
+            assertTrue(writer == null || writer.equals(onsets.get(i).getWriter()),
+                    "playSong function should have each bell rung by one member!");
+        }
+        assertEquals(0, sink.getUnderruns(), "playSong function should keep the device fed!");
+        assertEquals(sample * 1000.0 / Note.SAMPLE_RATE, clock.nanoTime() / 1e6, 0.001,
+                "playSong function should last exactly as long as its audio!");
+    }
+
+    @Test
+    public void testPlaySongDeterministic() {
+        final List<BellNote> song = new SongReader().readFile("RickRolled.txt");
+        final List<String> first = new ArrayList<>();
+        final List<String> second = new ArrayList<>();
+        for (VirtualSink.Onset onset : play(song, 2, new VirtualClock()).getOnsets()) {
+            first.add(onset.getSample() + " " + onset.getLength() + " " + onset.getWriter());
+        }
+        for (VirtualSink.Onset onset : play(song, 2, new VirtualClock()).getOnsets()) {
+            second.add(onset.getSample() + " " + onset.getLength() + " " + onset.getWriter());
+        }
+        assertEquals(first, second, "playSong function should give the same timeline every time!");
+    }
+
+    @Test
+    public void testPlaySongFasterThanRealTime() {
+        // About three minutes of music
+        final List<BellNote> song = new SongGenerator(7).generate(SongGenerator.Pattern.RANDOM, 720);
+        final long songMs = new TimingIndex(song).msOf(song.size());
+        assertTrue(songMs > 60_000, "generate function should give a song of a few minutes!");
+
+        final VirtualClock clock = new VirtualClock();
+        final long start = System.nanoTime();
+        final VirtualSink sink = play(song, 4, clock);
+        final long tookMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        assertEquals(song.size(), sink.getOnsets().size(), "playSong function should write every note once!");
+        assertTrue(clock.millis() >= songMs, "playSong function should last as long as the song!");
+        assertTrue(songMs / tookMs >= 100, "playSong function should play in virtual time far faster than the song "
+                + "lasts, took " + tookMs + "ms for " + songMs + "ms!");
+    }
+}